@@ -4,6 +4,20 @@ const axiosClient = axios.create({
   baseURL: "http://localhost:8080", // Spring Boot backend
 });
 
-// (optional) you can add interceptors later for JWT tokens
+// session token from /api/auth/login, stored by AuthContext
+axiosClient.interceptors.request.use((config) => {
+  const stored = localStorage.getItem("hotel_user");
+  if (stored) {
+    try {
+      const { token } = JSON.parse(stored);
+      if (token) {
+        config.headers.Authorization = `Bearer ${token}`;
+      }
+    } catch {
+      localStorage.removeItem("hotel_user");
+    }
+  }
+  return config;
+});
 
 export default axiosClient;
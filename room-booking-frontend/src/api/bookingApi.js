@@ -11,9 +11,18 @@ export const bookingApi = {
     return response.data;
   },
 
+  // Admin listing is paginated with a cursor; follow it until the last page
   async getAllBookings() {
-    const response = await axiosClient.get("/api/bookings/admin");
-    return response.data;
+    const bookings = [];
+    let cursor = null;
+    do {
+      const response = await axiosClient.get("/api/bookings/admin", {
+        params: { limit: 200, ...(cursor && { cursor }) },
+      });
+      bookings.push(...response.data.items);
+      cursor = response.data.nextCursor;
+    } while (cursor);
+    return bookings;
   },
 
   async cancelBooking(id) {
@@ -1,22 +1,5 @@
 import { createContext, useContext, useEffect, useState } from "react";
-
-// Hardcoded demo users 
-const USERS = [
-  {
-    id: 1,
-    role: "ADMIN",
-    email: "admin@hotel.com",
-    password: "admin123",
-    name: "Hotel Admin",
-  },
-  {
-    id: 2,
-    role: "USER",
-    email: "john@doe.com",
-    password: "user123",
-    name: "John Doe",
-  },
-];
+import axiosClient from "../api/axiosClient";
 
 const AuthContext = createContext(null);
 
@@ -35,20 +18,26 @@ export function AuthProvider({ children }) {
     }
   }, []);
 
-  function login(email, password) {
-    const found = USERS.find(
-      (u) => u.email === email && u.password === password
-    );
-
-    if (!found) {
+  // the backend returns a signed session token; axiosClient sends it with every request
+  async function login(email, password) {
+    let data;
+    try {
+      ({ data } = await axiosClient.post("/api/auth/login", { email, password }));
+    } catch {
       throw new Error("Invalid email or password.");
     }
 
-
-    const { password: _pw, ...safeUser } = found;
-    setUser(safeUser);
-    localStorage.setItem("hotel_user", JSON.stringify(safeUser));
-    return safeUser; 
+    const loggedUser = {
+      id: data.user.id,
+      role: data.user.role,
+      email: data.user.email,
+      name: data.user.fullName,
+      token: data.token,
+      expiresAt: data.expiresAt,
+    };
+    setUser(loggedUser);
+    localStorage.setItem("hotel_user", JSON.stringify(loggedUser));
+    return loggedUser;
   }
 
   function logout() {
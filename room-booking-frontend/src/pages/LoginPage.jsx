@@ -15,7 +15,7 @@ function LoginPage() {
     setError("");
 
     try {
-      const loggedUser = login(email.trim(), password.trim());
+      const loggedUser = await login(email.trim(), password.trim());
 
       // Redirect based on role
       if (loggedUser.role === "ADMIN") {
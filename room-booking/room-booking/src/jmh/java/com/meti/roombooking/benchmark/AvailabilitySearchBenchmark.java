@@ -0,0 +1,72 @@
+package com.meti.roombooking.benchmark;
+
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.Room;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.service.RoomService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Availability search for stays of different lengths inside the seeded spread:
+ * the service path (answered by the in-memory index) against the SQL query it falls back to.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class AvailabilitySearchBenchmark {
+
+    public static class Search extends BookingDataSet {
+
+        @Param({"1", "7", "30"})
+        public int nights;
+
+        //pre-drawn check-in dates, cycled so the measured loop does no random work
+        private LocalDate[] checkIns;
+        private int next;
+        private RoomService roomService;
+        private RoomRepository roomRepository;
+
+        @Override
+        protected void prepare() {
+            roomService = bean(RoomService.class);
+            roomRepository = bean(RoomRepository.class);
+            Random random = new Random(7);
+            checkIns = new LocalDate[1024];
+            for (int i = 0; i < checkIns.length; i++) {
+                checkIns[i] = firstNight.plusDays(random.nextInt(Math.max(1, spreadDays - nights)));
+            }
+        }
+
+        LocalDate nextCheckIn() {
+            LocalDate checkIn = checkIns[next];
+            next = (next + 1) & (checkIns.length - 1);
+            return checkIn;
+        }
+    }
+
+    @Benchmark
+    public List<RoomResponse> roomService(Search state) {
+        LocalDate checkIn = state.nextCheckIn();
+        return state.roomService.findAvailableRooms(checkIn, checkIn.plusDays(state.nights), null, null);
+    }
+
+    @Benchmark
+    public List<Room> sqlQuery(Search state) {
+        LocalDate checkIn = state.nextCheckIn();
+        return state.roomRepository.findAvailableRooms(checkIn, checkIn.plusDays(state.nights), null, null);
+    }
+}
@@ -0,0 +1,64 @@
+package com.meti.roombooking.benchmark;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * BookingService.createBooking end to end (room lock, overlap check, insert, night claims).
+ *
+ * Every invocation books a fresh two-night stay after the seeded spread, rotating over
+ * the rooms, so nothing is rejected and the data set grows only by the measured bookings.
+ * The concurrent variant contends on the same rooms from 8 threads.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingAdmissionBenchmark {
+
+    public static class Admission extends BookingDataSet {
+
+        private final AtomicLong sequence = new AtomicLong();
+        private BookingService bookingService;
+        private LocalDate start;
+
+        @Override
+        protected void prepare() {
+            bookingService = bean(BookingService.class);
+            start = firstNight.plusDays(spreadDays + 7);
+        }
+
+        BookingResponse bookNext() {
+            long n = sequence.getAndIncrement();
+            int room = (int) (n % roomIds.size());
+            LocalDate checkIn = start.plusDays(2 * (n / roomIds.size()));
+            return bookingService.createBooking(BookingDataSet.request(
+                    roomIds.get(room), userIds.get(room % userIds.size()), checkIn, checkIn.plusDays(2)));
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public BookingResponse createBooking(Admission state) {
+        return state.bookNext();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public BookingResponse createBookingConcurrent(Admission state) {
+        return state.bookNext();
+    }
+}
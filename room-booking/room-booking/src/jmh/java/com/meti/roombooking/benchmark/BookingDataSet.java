@@ -0,0 +1,139 @@
+package com.meti.roombooking.benchmark;
+
+import com.meti.roombooking.RoomBookingApplication;
+import com.meti.roombooking.dto.booking.BatchMode;
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.entity.Role;
+import com.meti.roombooking.entity.Room;
+import com.meti.roombooking.entity.RoomStatus;
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.entity.User;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Application context on a private in-memory H2, seeded with rooms x bookingsPerRoom
+ * stays spread over spreadDays nights starting tomorrow. Stays go through the regular
+ * batch booking path, so night claims and the availability index match production.
+ *
+ * One context per trial: JMH forks per parameter combination, so every data set
+ * starts from an empty database.
+ */
+@State(Scope.Benchmark)
+public class BookingDataSet {
+
+    private static final int USERS = 32;
+    private static final int SEED_BATCH = 200;
+
+    @Param({"100", "1000"})
+    public int rooms;
+
+    @Param({"20"})
+    public int bookingsPerRoom;
+
+    @Param({"365"})
+    public int spreadDays;
+
+    protected ConfigurableApplicationContext context;
+    protected LocalDate firstNight;
+    protected List<Long> roomIds;
+    protected List<Long> userIds;
+
+    @Setup(Level.Trial)
+    public void seed() {
+        //passed as arguments so they win over a local application.properties
+        context = new SpringApplicationBuilder(RoomBookingApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.profiles.active=test",
+                        "--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.properties.hibernate.generate_statistics=false",
+                        "--spring.main.banner-mode=off",
+                        "--logging.level.root=WARN");
+        firstNight = LocalDate.now().plusDays(1);
+
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        userIds = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            userIds.add(userRepository.save(User.builder()
+                    .fullName("Guest " + i)
+                    .email("guest" + i + "@bench.local")
+                    .password("x")
+                    .role(Role.CLIENT)
+                    .build()).getId());
+        }
+
+        RoomRepository roomRepository = context.getBean(RoomRepository.class);
+        RoomType[] types = RoomType.values();
+        List<Room> newRooms = new ArrayList<>();
+        for (int i = 0; i < rooms; i++) {
+            newRooms.add(Room.builder()
+                    .roomNumber("B" + i)
+                    .type(types[i % types.length])
+                    .capacity(1 + i % 4)
+                    .pricePerNight(BigDecimal.valueOf(50 + i % 200))
+                    .status(RoomStatus.AVAILABLE)
+                    .build());
+        }
+        roomIds = roomRepository.saveAll(newRooms).stream().map(Room::getId).toList();
+
+        //each room's spread is cut into bookingsPerRoom slots holding one stay of 1-7 nights
+        BookingService bookingService = context.getBean(BookingService.class);
+        Random random = new Random(42);
+        int slot = Math.max(1, spreadDays / bookingsPerRoom);
+        List<BookingRequest> batch = new ArrayList<>();
+        for (Long roomId : roomIds) {
+            for (int b = 0; b < bookingsPerRoom; b++) {
+                int nights = 1 + random.nextInt(Math.min(slot, 7));
+                int offset = b * slot + random.nextInt(slot - nights + 1);
+                batch.add(request(roomId, userIds.get(random.nextInt(USERS)),
+                        firstNight.plusDays(offset), firstNight.plusDays(offset + nights)));
+                if (batch.size() == SEED_BATCH) {
+                    bookingService.createBookings(batch, BatchMode.BEST_EFFORT);
+                    batch.clear();
+                }
+            }
+        }
+        if (!batch.isEmpty()) {
+            bookingService.createBookings(batch, BatchMode.BEST_EFFORT);
+        }
+        prepare();
+    }
+
+    //runs once the data set is seeded; JMH gives no ordering between inherited @Setup methods
+    protected void prepare() {
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        context.close();
+    }
+
+    public <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+
+    static BookingRequest request(Long roomId, Long userId, LocalDate checkIn, LocalDate checkOut) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(roomId);
+        request.setUserId(userId);
+        request.setCheckIn(checkIn);
+        request.setCheckOut(checkOut);
+        return request;
+    }
+}
@@ -0,0 +1,62 @@
+package com.meti.roombooking.benchmark;
+
+import com.meti.roombooking.dto.booking.BookingPage;
+import com.meti.roombooking.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sorted admin listing (keyset pages): the first page and a page reached
+ * through a cursor ten pages deep, plus a user's own sorted bookings.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingListingBenchmark {
+
+    private static final int PAGE = 50;
+
+    public static class Listing extends BookingDataSet {
+
+        @Param({"checkIn", "price", "status"})
+        public String sortBy;
+
+        private BookingService bookingService;
+        private String deepCursor;
+
+        @Override
+        protected void prepare() {
+            bookingService = bean(BookingService.class);
+            String cursor = null;
+            for (int i = 0; i < 10; i++) {
+                cursor = bookingService.getBookingsSorted(sortBy, "asc", cursor, PAGE).getNextCursor();
+            }
+            deepCursor = cursor;
+        }
+    }
+
+    @Benchmark
+    public BookingPage firstPage(Listing state) {
+        return state.bookingService.getBookingsSorted(state.sortBy, "asc", null, PAGE);
+    }
+
+    @Benchmark
+    public BookingPage deepPage(Listing state) {
+        return state.bookingService.getBookingsSorted(state.sortBy, "asc", state.deepCursor, PAGE);
+    }
+
+    @Benchmark
+    public BookingPage userPage(Listing state) {
+        return state.bookingService.getUserBookingsSorted(state.userIds.get(0), state.sortBy, "desc", null, PAGE);
+    }
+}
@@ -0,0 +1,59 @@
+package com.meti.roombooking.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.service.BookingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking to DTO to JSON: the projection read of one booking and of one user's bookings,
+ * and serializing a page of responses with the application's ObjectMapper.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 3)
+@Measurement(iterations = 5, time = 3)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BookingMappingBenchmark {
+
+    public static class Mapping extends BookingDataSet {
+
+        private BookingService bookingService;
+        private ObjectMapper objectMapper;
+        private Long bookingId;
+        private List<BookingResponse> page;
+
+        @Override
+        protected void prepare() {
+            bookingService = bean(BookingService.class);
+            objectMapper = bean(ObjectMapper.class);
+            page = bookingService.getAllBookings(null, 50).getItems();
+            bookingId = page.get(0).getId();
+        }
+    }
+
+    @Benchmark
+    public BookingResponse bookingById(Mapping state) {
+        return state.bookingService.getBookingById(state.bookingId);
+    }
+
+    @Benchmark
+    public List<BookingResponse> userBookings(Mapping state) {
+        return state.bookingService.getBookingsForUser(state.userIds.get(0));
+    }
+
+    @Benchmark
+    public byte[] serializePage(Mapping state) throws JsonProcessingException {
+        return state.objectMapper.writeValueAsBytes(state.page);
+    }
+}
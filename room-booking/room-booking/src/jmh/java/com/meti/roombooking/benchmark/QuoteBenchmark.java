@@ -0,0 +1,92 @@
+package com.meti.roombooking.benchmark;
+
+import com.meti.roombooking.dto.pricing.PriceRuleRequest;
+import com.meti.roombooking.dto.pricing.QuoteResponse;
+import com.meti.roombooking.dto.pricing.StayQuery;
+import com.meti.roombooking.entity.PriceAdjustment;
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.pricing.RatePlanIndex;
+import com.meti.roombooking.service.PricingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One POST /api/quotes worth of pricing: 500 random (room, checkIn, checkOut) stays under a
+ * handful of seasonal, weekday and length-of-stay rules. offsetDays 0 keeps the stays inside
+ * the compiled horizon (prefix-sum lookups), 400 pushes them past it (priced night by night).
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QuoteBenchmark {
+
+    private static final int STAYS = 500;
+
+    public static class Quotes extends BookingDataSet {
+
+        @Param({"7", "30"})
+        public int nights;
+
+        @Param({"0", "400"})
+        public int offsetDays;
+
+        private PricingService pricingService;
+        private List<StayQuery> stays;
+
+        @Override
+        protected void prepare() {
+            pricingService = bean(PricingService.class);
+            pricingService.createRule(rule("Weekend", null, PriceAdjustment.PERCENT, "25", null,
+                    Set.of(DayOfWeek.FRIDAY, DayOfWeek.SATURDAY)));
+            PriceRuleRequest summer = rule("Summer", null, PriceAdjustment.AMOUNT, "30.00", null, null);
+            summer.setValidFrom(firstNight.plusDays(150));
+            summer.setValidTo(firstNight.plusDays(240));
+            pricingService.createRule(summer);
+            pricingService.createRule(rule("Suite floor", RoomType.SUITE, PriceAdjustment.PERCENT, "10", null, null));
+            pricingService.createRule(rule("Weekly", null, PriceAdjustment.PERCENT, "-12.5", 7, null));
+            //rooms were seeded straight through the repository, compile them in
+            bean(RatePlanIndex.class).rebuild();
+
+            Random random = new Random(11);
+            stays = new ArrayList<>(STAYS);
+            for (int i = 0; i < STAYS; i++) {
+                LocalDate checkIn = firstNight.plusDays(offsetDays + random.nextInt(spreadDays - nights));
+                stays.add(new StayQuery(roomIds.get(random.nextInt(roomIds.size())), checkIn, checkIn.plusDays(nights)));
+            }
+        }
+
+        private static PriceRuleRequest rule(String name, RoomType type, PriceAdjustment adjustment, String amount,
+                                             Integer minNights, Set<DayOfWeek> days) {
+            PriceRuleRequest request = new PriceRuleRequest();
+            request.setName(name);
+            request.setRoomType(type);
+            request.setAdjustment(adjustment);
+            request.setAmount(new BigDecimal(amount));
+            request.setMinNights(minNights);
+            request.setDaysOfWeek(days);
+            return request;
+        }
+    }
+
+    @Benchmark
+    public QuoteResponse quote500(Quotes state) {
+        return state.pricingService.quote(state.stays);
+    }
+}
@@ -0,0 +1,69 @@
+package com.meti.roombooking.benchmark;
+
+import com.meti.roombooking.ratelimit.RateLimiter;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the rate limit check a request pays before reaching a controller: route match plus
+ * bucket lookup and CAS, over 10k distinct clients, from one thread and from 16 contending on
+ * the same table. Limits are high enough that nothing is refused, as in normal traffic.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class RateLimiterBenchmark {
+
+    private static final String ROUTES = "GET /api/rooms/available=1000000:1000000,"
+            + "POST /api/bookings=1000000:1000000,* /api/**=1000000:1000000";
+    private static final int CLIENTS = 10_000;
+
+    @State(Scope.Benchmark)
+    public static class Limiter {
+
+        private RateLimiter limiter;
+        private String[] clients;
+
+        @Setup
+        public void setUp() {
+            limiter = new RateLimiter(ROUTES, 100_000, Duration.ofMinutes(10), new SimpleMeterRegistry());
+            clients = new String[CLIENTS];
+            for (int i = 0; i < CLIENTS; i++) {
+                clients[i] = "addr:10.0." + (i / 256) + "." + (i % 256);
+            }
+        }
+
+        long check() {
+            String client = clients[ThreadLocalRandom.current().nextInt(CLIENTS)];
+            return limiter.tryAcquire(limiter.route("GET", "/api/rooms/available"), client);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public long check(Limiter state) {
+        return state.check();
+    }
+
+    @Benchmark
+    @Threads(16)
+    public long checkContended(Limiter state) {
+        return state.check();
+    }
+}
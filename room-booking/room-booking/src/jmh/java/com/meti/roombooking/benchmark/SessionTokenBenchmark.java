@@ -0,0 +1,93 @@
+package com.meti.roombooking.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.auth.AuthenticatedUser;
+import com.meti.roombooking.auth.PasswordHasher;
+import com.meti.roombooking.auth.SessionTokens;
+import com.meti.roombooking.entity.Role;
+import com.meti.roombooking.entity.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request authentication cost: verifying a session token from the principal cache and
+ * from its signature alone (cache size 0), and issuing one. The password benchmarks compare
+ * a full PBKDF2 check, which a wrong password or first sign-in pays, with a cached repeat
+ * sign-in. No Spring context or database; iterations defaults to the production setting.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SessionTokenBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Tokens {
+
+        @Param("210000")
+        public int iterations;
+
+        private SessionTokens cached;
+        private SessionTokens uncached;
+        private PasswordHasher hasher;
+        private User user;
+        private String token;
+        private String storedPassword;
+
+        @Setup
+        public void setUp() {
+            ObjectMapper objectMapper = new ObjectMapper();
+            String secret = Base64.getEncoder().encodeToString(new byte[32]);
+            cached = new SessionTokens(objectMapper, new SimpleMeterRegistry(), secret, Duration.ofHours(12), 50_000);
+            uncached = new SessionTokens(objectMapper, new SimpleMeterRegistry(), secret, Duration.ofHours(12), 0);
+            user = User.builder().id(42L).fullName("Benchmark Guest").role(Role.CLIENT).build();
+            token = cached.issue(user);
+            hasher = new PasswordHasher(iterations, 10_000, Duration.ofMinutes(30), new SimpleMeterRegistry());
+            storedPassword = hasher.hash("correct horse battery staple");
+            hasher.matches("correct horse battery staple", storedPassword);
+        }
+    }
+
+    @Benchmark
+    public Optional<AuthenticatedUser> verifyCached(Tokens state) {
+        return state.cached.verify(state.token);
+    }
+
+    @Benchmark
+    public Optional<AuthenticatedUser> verifySignature(Tokens state) {
+        return state.uncached.verify(state.token);
+    }
+
+    @Benchmark
+    public String issue(Tokens state) {
+        return state.uncached.issue(state.user);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public boolean passwordCheckCached(Tokens state) {
+        return state.hasher.matches("correct horse battery staple", state.storedPassword);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public boolean passwordCheckFull(Tokens state) {
+        return state.hasher.matches("wrong password", state.storedPassword);
+    }
+}
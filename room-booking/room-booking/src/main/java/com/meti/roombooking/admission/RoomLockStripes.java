@@ -0,0 +1,84 @@
+package com.meti.roombooking.admission;
+
+import com.meti.roombooking.exception.BookingConflictException;
+import com.meti.roombooking.metrics.BookingMetrics;
+import com.meti.roombooking.metrics.BookingRejectReason;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-process lock stripes keyed by room id.
+ *
+ * A stripe is taken inside the booking transaction and released only when that
+ * transaction completes, so the overlap check, the insert and the commit of one room
+ * are serialized on this node while different rooms proceed in parallel.
+ */
+@Component
+public class RoomLockStripes {
+
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+    private final BookingMetrics bookingMetrics;
+
+    public RoomLockStripes(@Value("${booking.admission.lock-stripes:1024}") int stripeCount,
+                           @Value("${booking.admission.lock-timeout-ms:2000}") long timeoutMillis,
+                           BookingMetrics bookingMetrics) {
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+        this.bookingMetrics = bookingMetrics;
+    }
+
+    //locks the stripe of one room until the current transaction completes
+    public void lockForTransaction(Long roomId) {
+        acquire(stripeIndex(roomId));
+    }
+
+    //locks several rooms in a global order so concurrent batches cannot deadlock
+    public void lockForTransaction(Collection<Long> roomIds) {
+        roomIds.stream()
+                .mapToInt(this::stripeIndex)
+                .distinct()
+                .sorted()
+                .forEach(this::acquire);
+    }
+
+    private void acquire(int index) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Room locks must be taken inside a transaction");
+        }
+        ReentrantLock lock = stripes[index];
+        try {
+            if (!lock.tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                bookingMetrics.rejected(BookingRejectReason.ROOM_BUSY);
+                throw new BookingConflictException("Room is busy, please retry");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BookingConflictException("Interrupted while waiting for room lock", e);
+        }
+        //default (lowest) order: listeners ordered ahead of it, e.g. RoomIntervalIndex, run before the unlock
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+
+    private int stripeIndex(Long roomId) {
+        long h = roomId * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,90 @@
+package com.meti.roombooking.admission;
+
+import com.meti.roombooking.entity.Booking;
+import com.meti.roombooking.entity.RoomNightClaim;
+import com.meti.roombooking.exception.BookingConflictException;
+import com.meti.roombooking.metrics.BookingMetrics;
+import com.meti.roombooking.metrics.BookingRejectReason;
+import com.meti.roombooking.repository.RoomNightClaimRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Writes and releases the per-room-night claims of active bookings.
+ * A unique-key violation means another transaction already holds one of the nights.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomNightClaims {
+
+    private final RoomNightClaimRepository claimRepository;
+    private final BookingMetrics bookingMetrics;
+
+    public void claim(Long bookingId, Long roomId, LocalDate checkIn, LocalDate checkOut) {
+        List<RoomNightClaim> claims = new ArrayList<>();
+        addNights(claims, bookingId, roomId, checkIn, checkOut);
+        saveAll(claims);
+    }
+
+    /*
+     * Claims the nights of many bookings with one batched flush. The caller has already
+     * rejected the nights it could see claimed, so a violation here is a claim committed
+     * meanwhile by a transaction it could not see (another node's): reported as a conflict,
+     * the whole batch is re-run and the second attempt rejects just the items it hits.
+     */
+    public void claimAll(List<Booking> bookings) {
+        List<RoomNightClaim> claims = new ArrayList<>();
+        for (Booking booking : bookings) {
+            addNights(claims, booking.getId(), booking.getRoom().getId(), booking.getCheckIn(), booking.getCheckOut());
+        }
+        try {
+            claimRepository.saveAllAndFlush(claims);
+        } catch (DataIntegrityViolationException e) {
+            throw new OptimisticLockingFailureException("Room night claimed concurrently", e);
+        }
+    }
+
+    //room id -> nights in [from, to) already held by active bookings
+    public Map<Long, Set<LocalDate>> claimedNights(Collection<Long> roomIds, LocalDate from, LocalDate to) {
+        Map<Long, Set<LocalDate>> claimed = new HashMap<>();
+        for (RoomNightClaim claim : claimRepository.findClaimed(roomIds, from, to)) {
+            claimed.computeIfAbsent(claim.getRoomId(), id -> new HashSet<>()).add(claim.getNight());
+        }
+        return claimed;
+    }
+
+    public void release(Long bookingId) {
+        claimRepository.deleteByBookingId(bookingId);
+    }
+
+    private void addNights(List<RoomNightClaim> claims, Long bookingId, Long roomId,
+                           LocalDate checkIn, LocalDate checkOut) {
+        for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+            claims.add(RoomNightClaim.builder()
+                    .roomId(roomId)
+                    .night(night)
+                    .bookingId(bookingId)
+                    .build());
+        }
+    }
+
+    private void saveAll(List<RoomNightClaim> claims) {
+        try {
+            claimRepository.saveAllAndFlush(claims);
+        } catch (DataIntegrityViolationException e) {
+            bookingMetrics.rejected(BookingRejectReason.NIGHT_TAKEN);
+            throw new BookingConflictException("Room already booked for this date range", e);
+        }
+    }
+}
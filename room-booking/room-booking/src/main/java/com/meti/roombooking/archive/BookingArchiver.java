@@ -0,0 +1,117 @@
+package com.meti.roombooking.archive;
+
+import com.meti.roombooking.repository.ArchivedBookingRepository;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.RoomNightClaimRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Moves bookings whose check-out is older than the retention out of the bookings table
+ * into bookings_archive, so the hot table (and every query on it) only holds live stays.
+ *
+ * Each batch is one short transaction: lock the oldest batch-size rows, copy them, delete
+ * them and their night claims. Batches are separated by a pause and a run stops after
+ * max-run, leaving the rest for the next night, so archiving never competes with bookings
+ * for long. Nodes running it at the same time queue on the row locks and move disjoint batches.
+ */
+@Slf4j
+@Component
+public class BookingArchiver {
+
+    private final BookingRepository bookingRepository;
+    private final ArchivedBookingRepository archiveRepository;
+    private final RoomNightClaimRepository claimRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration retention;
+    private final int batchSize;
+    private final Duration pause;
+    private final Duration maxRun;
+    private final Counter moved;
+    private final Timer batchTimer;
+
+    public BookingArchiver(BookingRepository bookingRepository,
+                           ArchivedBookingRepository archiveRepository,
+                           RoomNightClaimRepository claimRepository,
+                           PlatformTransactionManager transactionManager,
+                           @Value("${booking.archive.retention:90d}") Duration retention,
+                           @Value("${booking.archive.batch-size:500}") int batchSize,
+                           @Value("${booking.archive.pause:200ms}") Duration pause,
+                           @Value("${booking.archive.max-run:10m}") Duration maxRun,
+                           MeterRegistry registry) {
+        if (retention.toDays() < 1) {
+            throw new IllegalArgumentException("booking.archive.retention must be at least one day");
+        }
+        this.bookingRepository = bookingRepository;
+        this.archiveRepository = archiveRepository;
+        this.claimRepository = claimRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.retention = retention;
+        this.batchSize = batchSize;
+        this.pause = pause;
+        this.maxRun = maxRun;
+        this.moved = Counter.builder("booking.archive.moved")
+                .description("Bookings moved to bookings_archive")
+                .register(registry);
+        this.batchTimer = Timer.builder("booking.archive.batch")
+                .description("Duration of one archiving transaction")
+                .register(registry);
+    }
+
+    @Scheduled(cron = "${booking.archive.cron:0 30 3 * * *}")
+    public void run() {
+        try {
+            long total = archiveCheckedOutBefore(LocalDate.now().minusDays(retention.toDays()));
+            if (total > 0) {
+                log.info("Archived {} bookings", total);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Booking archiving stopped: {}", e.getMessage());
+        }
+    }
+
+    //moves bookings checked out before cutoff, batch by batch until none are left or max-run is used up
+    public long archiveCheckedOutBefore(LocalDate cutoff) {
+        long deadline = System.nanoTime() + maxRun.toNanos();
+        long total = 0;
+        while (true) {
+            Integer count = batchTimer.record(() -> transactionTemplate.execute(status -> moveBatch(cutoff)));
+            if (count == null || count == 0) {
+                return total;
+            }
+            total += count;
+            moved.increment(count);
+            if (count < batchSize || System.nanoTime() - deadline > 0) {
+                return total;
+            }
+            try {
+                Thread.sleep(pause);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return total;
+            }
+        }
+    }
+
+    private int moveBatch(LocalDate cutoff) {
+        List<Long> ids = bookingRepository.lockIdsCheckedOutBefore(cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        archiveRepository.copyFromBookings(ids, LocalDateTime.now());
+        claimRepository.deleteByBookingIdIn(ids);
+        return bookingRepository.deleteByIds(ids);
+    }
+}
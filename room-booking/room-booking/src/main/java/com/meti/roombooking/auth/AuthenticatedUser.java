@@ -0,0 +1,20 @@
+package com.meti.roombooking.auth;
+
+import com.meti.roombooking.entity.Role;
+
+//the verified claims of a session token; expiresAt is in epoch seconds
+public record AuthenticatedUser(Long userId, Role role, String fullName, long expiresAt) {
+
+    public boolean isAdmin() {
+        return role == Role.ADMIN;
+    }
+
+    //admins act on behalf of anyone, clients only for themselves
+    public boolean canActFor(Long otherUserId) {
+        return isAdmin() || userId.equals(otherUserId);
+    }
+
+    boolean isExpired(long nowEpochSecond) {
+        return nowEpochSecond >= expiresAt;
+    }
+}
@@ -0,0 +1,55 @@
+package com.meti.roombooking.auth;
+
+import com.meti.roombooking.exception.AccessDeniedException;
+import com.meti.roombooking.exception.AuthenticationRequiredException;
+
+import java.util.Optional;
+
+/**
+ * The user whose session token authenticated the request on this thread.
+ * Set by SessionTokenFilter around the rest of the chain, empty for anonymous requests
+ * and for work that runs off the request thread.
+ */
+public final class CurrentUser {
+
+    private static final ThreadLocal<AuthenticatedUser> CURRENT = new ThreadLocal<>();
+
+    private CurrentUser() {
+    }
+
+    public static Optional<AuthenticatedUser> get() {
+        return Optional.ofNullable(CURRENT.get());
+    }
+
+    public static AuthenticatedUser require() {
+        AuthenticatedUser user = CURRENT.get();
+        if (user == null) {
+            throw new AuthenticationRequiredException("Sign in required");
+        }
+        return user;
+    }
+
+    public static AuthenticatedUser requireAdmin() {
+        AuthenticatedUser user = require();
+        if (!user.isAdmin()) {
+            throw new AccessDeniedException("Admin role required");
+        }
+        return user;
+    }
+
+    public static AuthenticatedUser requireActingFor(Long userId) {
+        AuthenticatedUser user = require();
+        if (!user.canActFor(userId)) {
+            throw new AccessDeniedException("Not allowed to act for user " + userId);
+        }
+        return user;
+    }
+
+    static void set(AuthenticatedUser user) {
+        CURRENT.set(user);
+    }
+
+    static void clear() {
+        CURRENT.remove();
+    }
+}
@@ -0,0 +1,143 @@
+package com.meti.roombooking.auth;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+
+/**
+ * PBKDF2-HMAC-SHA256 password hashes, stored as "pbkdf2$iterations$salt$hash".
+ *
+ * The iteration count is what makes a leaked table expensive to crack, and it makes every
+ * verification cost tens of milliseconds of CPU. Successful verifications are remembered for a
+ * while (keyed by a MAC of stored hash and password under a per-process key, never the password
+ * itself), so a user signing in again from another device or after token expiry is checked in
+ * microseconds. Failed attempts are never cached and always pay the full cost.
+ */
+@Component
+public class PasswordHasher {
+
+    private static final String PREFIX = "pbkdf2$";
+    private static final String ALGORITHM = "PBKDF2WithHmacSHA256";
+    private static final String CACHE_KEY_ALGORITHM = "HmacSHA256";
+    private static final int SALT_BYTES = 16;
+    private static final int HASH_BITS = 256;
+
+    private final int iterations;
+    private final SecureRandom random = new SecureRandom();
+    private final byte[] decoySalt = new byte[SALT_BYTES];
+    private final Mac cacheKeyPrototype;
+    private final Cache<String, Boolean> verified;
+    private final Counter derivations;
+
+    public PasswordHasher(@Value("${booking.auth.pbkdf2-iterations:210000}") int iterations,
+                          @Value("${booking.auth.login-cache-size:10000}") long cacheSize,
+                          @Value("${booking.auth.login-cache-ttl:30m}") Duration cacheTtl,
+                          MeterRegistry registry) {
+        this.iterations = iterations;
+        random.nextBytes(decoySalt);
+        byte[] processKey = new byte[32];
+        random.nextBytes(processKey);
+        try {
+            this.cacheKeyPrototype = Mac.getInstance(CACHE_KEY_ALGORITHM);
+            cacheKeyPrototype.init(new SecretKeySpec(processKey, CACHE_KEY_ALGORITHM));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(CACHE_KEY_ALGORITHM + " unavailable", e);
+        }
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(cacheTtl)
+                .build();
+        this.derivations = Counter.builder("booking.auth.password.derivations")
+                .description("Full PBKDF2 password derivations (hashing and uncached verification)")
+                .register(registry);
+    }
+
+    public String hash(String rawPassword) {
+        byte[] salt = new byte[SALT_BYTES];
+        random.nextBytes(salt);
+        Base64.Encoder encoder = Base64.getEncoder().withoutPadding();
+        return PREFIX + iterations + "$" + encoder.encodeToString(salt) + "$"
+                + encoder.encodeToString(derive(rawPassword, salt, iterations));
+    }
+
+    public boolean matches(String rawPassword, String stored) {
+        String cacheKey = cacheKey(rawPassword, stored);
+        if (verified.getIfPresent(cacheKey) != null) {
+            return true;
+        }
+        boolean matches = stored.startsWith(PREFIX)
+                ? matchesHash(rawPassword, stored)
+                //rows from before hashing hold the password itself; rehashed on their next sign-in
+                : MessageDigest.isEqual(rawPassword.getBytes(StandardCharsets.UTF_8), stored.getBytes(StandardCharsets.UTF_8));
+        if (matches) {
+            verified.put(cacheKey, Boolean.TRUE);
+        }
+        return matches;
+    }
+
+    //a failed check's cost without a stored hash, so unknown emails take as long as wrong passwords
+    public void matchesNone(String rawPassword) {
+        derive(rawPassword, decoySalt, iterations);
+    }
+
+    //plain-text rows and hashes made with fewer iterations than configured now
+    public boolean needsRehash(String stored) {
+        if (!stored.startsWith(PREFIX)) {
+            return true;
+        }
+        String[] parts = stored.split("\\$");
+        return parts.length != 4 || Integer.parseInt(parts[1]) < iterations;
+    }
+
+    private boolean matchesHash(String rawPassword, String stored) {
+        String[] parts = stored.split("\\$");
+        if (parts.length != 4) {
+            return false;
+        }
+        try {
+            Base64.Decoder decoder = Base64.getDecoder();
+            byte[] expected = decoder.decode(parts[3]);
+            return MessageDigest.isEqual(expected, derive(rawPassword, decoder.decode(parts[2]), Integer.parseInt(parts[1])));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private byte[] derive(String rawPassword, byte[] salt, int rounds) {
+        derivations.increment();
+        PBEKeySpec spec = new PBEKeySpec(rawPassword.toCharArray(), salt, rounds, HASH_BITS);
+        try {
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " unavailable", e);
+        } finally {
+            spec.clearPassword();
+        }
+    }
+
+    private String cacheKey(String rawPassword, String stored) {
+        Mac mac;
+        try {
+            mac = (Mac) cacheKeyPrototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
+        }
+        mac.update(stored.getBytes(StandardCharsets.UTF_8));
+        mac.update((byte) 0);
+        return Base64.getEncoder().encodeToString(mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,104 @@
+package com.meti.roombooking.auth;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Authenticates /api requests from their "Authorization: Bearer" session token and exposes
+ * the user through {@link CurrentUser} for the rest of the request. Writes forwarded between
+ * cluster nodes under /internal/ carry the original caller's token and are resolved the same way.
+ *
+ * Requests without the header continue anonymously; endpoints that need a user check for one.
+ * A header with a bad or expired token is rejected here with 401, and everything under
+ * /api/admin/ needs an admin token. Paths are checked decoded and without ";" parameters, the way
+ * MVC matches them; admin handlers still call {@link CurrentUser#requireAdmin()} themselves.
+ * Runs inside the metrics filter, so rejections are timed too.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 20)
+public class SessionTokenFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+    private static final String ADMIN_PATH = "/api/admin/";
+    private static final String INTERNAL_PATH = "/internal/";
+    //decodes %xx, drops ;params and collapses "//"
+    private static final UrlPathHelper PATHS = UrlPathHelper.defaultInstance;
+
+    private final SessionTokens tokens;
+    private final ObjectMapper objectMapper;
+
+    public SessionTokenFilter(SessionTokens tokens, ObjectMapper objectMapper) {
+        this.tokens = tokens;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = PATHS.getPathWithinApplication(request);
+        //CORS preflights carry no credentials, MVC's CORS handling answers them
+        return !(path.startsWith("/api/") || path.startsWith(INTERNAL_PATH)) || CorsUtils.isPreFlightRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        boolean adminPath = PATHS.getPathWithinApplication(request).startsWith(ADMIN_PATH);
+        if (header == null) {
+            if (adminPath) {
+                reject(response, HttpServletResponse.SC_UNAUTHORIZED, "Sign in required");
+                return;
+            }
+            chain.doFilter(request, response);
+            return;
+        }
+        Optional<AuthenticatedUser> user = header.regionMatches(true, 0, BEARER, 0, BEARER.length())
+                ? tokens.verify(header.substring(BEARER.length()).trim())
+                : Optional.empty();
+        if (user.isEmpty()) {
+            reject(response, HttpServletResponse.SC_UNAUTHORIZED, "Invalid or expired session token");
+            return;
+        }
+        if (adminPath && !user.get().isAdmin()) {
+            reject(response, HttpServletResponse.SC_FORBIDDEN, "Admin role required");
+            return;
+        }
+        CurrentUser.set(user.get());
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            CurrentUser.clear();
+        }
+    }
+
+    //same body shape as ApiExceptionHandler, which filters are not covered by
+    private void reject(HttpServletResponse response, int status, String error) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", error);
+        response.setStatus(status);
+        if (status == HttpServletResponse.SC_UNAUTHORIZED) {
+            response.setHeader(HttpHeaders.WWW_AUTHENTICATE, "Bearer");
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+}
@@ -0,0 +1,207 @@
+package com.meti.roombooking.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meti.roombooking.entity.Role;
+import com.meti.roombooking.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Issues and verifies stateless session tokens: compact JWTs signed with HMAC-SHA256,
+ * carrying the user id, role and name.
+ *
+ * Verification needs no database: the signature proves the claims. Verified tokens are kept
+ * in a bounded cache, so a client's repeated requests skip even the HMAC and JSON parse and
+ * cost one map lookup plus the expiry check. Only validly signed tokens are ever cached.
+ * A role change applies to tokens issued after it; existing ones keep their role until they expire.
+ */
+@Slf4j
+@Component
+public class SessionTokens {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_TOKEN_LENGTH = 4096;
+    private static final int MIN_SECRET_BYTES = 32;
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+    //the only header accepted, so a token cannot pick its own algorithm
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final ObjectMapper objectMapper;
+    private final Clock clock;
+    private final Duration ttl;
+    private final Mac prototype;
+    private final Cache<String, AuthenticatedUser> verified;
+    private final boolean caching;
+    private final Counter rejected;
+
+    @Autowired
+    public SessionTokens(ObjectMapper objectMapper,
+                         MeterRegistry registry,
+                         @Value("${booking.auth.token-secret:}") String secret,
+                         @Value("${booking.auth.token-ttl:12h}") Duration ttl,
+                         @Value("${booking.auth.principal-cache-size:50000}") long cacheSize) {
+        this(objectMapper, registry, secret, ttl, cacheSize, Clock.systemUTC());
+    }
+
+    SessionTokens(ObjectMapper objectMapper, MeterRegistry registry, String secret,
+                  Duration ttl, long cacheSize, Clock clock) {
+        this.objectMapper = objectMapper;
+        this.clock = clock;
+        this.ttl = ttl;
+        this.prototype = mac(secretKey(secret));
+        //size 0 turns the cache off: every request pays for the signature check
+        this.caching = cacheSize > 0;
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .expireAfterWrite(ttl)
+                .build();
+        this.rejected = Counter.builder("booking.auth.tokens.rejected")
+                .description("Session tokens rejected as malformed, forged or expired")
+                .register(registry);
+        Gauge.builder("booking.auth.principals.cached", verified, Cache::estimatedSize)
+                .description("Verified session tokens held in memory")
+                .register(registry);
+    }
+
+    public String issue(User user) {
+        long now = clock.instant().getEpochSecond();
+        return token(new AuthenticatedUser(user.getId(), user.getRole(), user.getFullName(), now + ttl.toSeconds()), now);
+    }
+
+    //a token for an already verified principal, expiring with the one it was verified from (cluster forwarding)
+    public String reissue(AuthenticatedUser principal) {
+        return token(principal, clock.instant().getEpochSecond());
+    }
+
+    private String token(AuthenticatedUser principal, long now) {
+        Map<String, Object> claims = new LinkedHashMap<>();
+        claims.put("sub", String.valueOf(principal.userId()));
+        claims.put("role", principal.role().name());
+        claims.put("name", principal.fullName());
+        claims.put("iat", now);
+        claims.put("exp", principal.expiresAt());
+        String unsigned;
+        try {
+            unsigned = HEADER + "." + ENCODER.encodeToString(objectMapper.writeValueAsBytes(claims));
+        } catch (IOException e) {
+            throw new IllegalStateException("Session token claims not serializable", e);
+        }
+        String token = unsigned + "." + ENCODER.encodeToString(sign(unsigned));
+        //the first request with a fresh token is a cache hit too
+        if (caching) {
+            verified.put(token, principal);
+        }
+        return token;
+    }
+
+    public Optional<AuthenticatedUser> verify(String token) {
+        if (token == null || token.isEmpty() || token.length() > MAX_TOKEN_LENGTH) {
+            rejected.increment();
+            return Optional.empty();
+        }
+        long now = clock.instant().getEpochSecond();
+        AuthenticatedUser cached = caching ? verified.getIfPresent(token) : null;
+        if (cached != null) {
+            if (!cached.isExpired(now)) {
+                return Optional.of(cached);
+            }
+            verified.invalidate(token);
+            rejected.increment();
+            return Optional.empty();
+        }
+        Optional<AuthenticatedUser> user = parse(token, now);
+        if (user.isEmpty()) {
+            rejected.increment();
+        } else if (caching) {
+            verified.put(token, user.get());
+        }
+        return user;
+    }
+
+    public Duration ttl() {
+        return ttl;
+    }
+
+    private Optional<AuthenticatedUser> parse(String token, long now) {
+        int firstDot = token.indexOf('.');
+        int lastDot = token.lastIndexOf('.');
+        if (firstDot != HEADER.length() || lastDot == firstDot || !token.startsWith(HEADER)) {
+            return Optional.empty();
+        }
+        try {
+            byte[] signature = DECODER.decode(token.substring(lastDot + 1));
+            if (!MessageDigest.isEqual(sign(token.substring(0, lastDot)), signature)) {
+                return Optional.empty();
+            }
+            JsonNode claims = objectMapper.readTree(DECODER.decode(token.substring(firstDot + 1, lastDot)));
+            AuthenticatedUser user = new AuthenticatedUser(
+                    Long.valueOf(claims.path("sub").asText()),
+                    Role.valueOf(claims.path("role").asText()),
+                    claims.path("name").asText(),
+                    claims.path("exp").asLong());
+            return user.isExpired(now) ? Optional.empty() : Optional.of(user);
+        } catch (IOException | IllegalArgumentException e) {
+            //bad base64, bad JSON, non-numeric sub or unknown role
+            return Optional.empty();
+        }
+    }
+
+    private byte[] sign(String unsigned) {
+        Mac mac;
+        try {
+            mac = (Mac) prototype.clone();
+        } catch (CloneNotSupportedException e) {
+            throw new IllegalStateException("HMAC provider does not support cloning", e);
+        }
+        return mac.doFinal(unsigned.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static Mac mac(byte[] key) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(key, ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(ALGORITHM + " unavailable", e);
+        }
+    }
+
+    private static byte[] secretKey(String secret) {
+        if (secret == null || secret.isBlank()) {
+            //fine for a single dev node; a cluster needs the same secret everywhere
+            log.warn("booking.auth.token-secret is not set, session tokens will not survive a restart");
+            byte[] key = new byte[MIN_SECRET_BYTES];
+            new SecureRandom().nextBytes(key);
+            return key;
+        }
+        byte[] key = Base64.getDecoder().decode(secret.trim());
+        if (key.length < MIN_SECRET_BYTES) {
+            throw new IllegalStateException("booking.auth.token-secret must be at least " + MIN_SECRET_BYTES + " bytes (base64)");
+        }
+        return key;
+    }
+}
@@ -0,0 +1,470 @@
+package com.meti.roombooking.availability;
+
+import com.meti.roombooking.datasource.ReadRouting;
+import com.meti.roombooking.dto.room.DateWindow;
+import com.meti.roombooking.dto.room.RoomAvailabilityCalendar;
+import com.meti.roombooking.dto.room.RoomFreeNights;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.entity.Room;
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.event.RoomChangedEvent;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * In-memory availability index: one occupancy bitset per room, one bit per night,
+ * over a rolling horizon starting today.
+ *
+ * Searches are answered with word-wise bit operations and never touch the database.
+ * Writers (booking/room events after commit, rebuilds) are serialized on the index
+ * monitor and publish copy-on-write snapshots, so readers never lock.
+ *
+ * Every applied change gets the next version and is kept in a bounded change log, so
+ * calendar clients can ask for the rooms changed since the version they last saw.
+ * Versions are only comparable within one epoch (one process lifetime); a rebuild
+ * invalidates the log.
+ */
+@Slf4j
+@Component
+public class RoomAvailabilityIndex {
+
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final int horizonDays;
+
+    //null until the first rebuild finished; searches fall back to SQL meanwhile
+    private volatile Snapshot snapshot;
+
+    //events seen while a rebuild is reading the database, replayed onto the new snapshot
+    private List<Runnable> pendingDuringRebuild;
+
+    //version of the last applied change; read before the snapshot, so data is never older than it
+    private volatile long version;
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final int changeLogSize;
+    //guarded by the index monitor: recent changes in version order, and the oldest version deltas can start from
+    private final ArrayDeque<Change> changes = new ArrayDeque<>();
+    private long deltaFloor;
+
+    public RoomAvailabilityIndex(RoomRepository roomRepository,
+                                 BookingRepository bookingRepository,
+                                 @Value("${booking.availability.horizon-days:400}") int horizonDays,
+                                 @Value("${booking.availability.change-log-size:10000}") int changeLogSize) {
+        this.roomRepository = roomRepository;
+        this.bookingRepository = bookingRepository;
+        this.horizonDays = horizonDays;
+        this.changeLogSize = changeLogSize;
+    }
+
+    /**
+     * Returns the rooms free for every night in [checkIn, checkOut), or empty when the
+     * index cannot answer (not built yet or range outside the horizon).
+     */
+    public Optional<List<RoomResponse>> findAvailableRooms(LocalDate checkIn,
+                                                           LocalDate checkOut,
+                                                           Integer guests,
+                                                           RoomType type) {
+        Snapshot current = snapshot;
+        if (current == null || !current.covers(checkIn, checkOut)) {
+            return Optional.empty();
+        }
+        int from = current.offset(checkIn);
+        int to = current.offset(checkOut);
+
+        List<RoomResponse> result = new ArrayList<>();
+        for (RoomSlot slot : current.slots) {
+            RoomResponse room = slot.room;
+            if (guests != null && room.getCapacity() < guests) {
+                continue;
+            }
+            if (type != null && room.getType() != type) {
+                continue;
+            }
+            if (isClear(slot.nights, from, to)) {
+                result.add(room);
+            }
+        }
+        return Optional.of(result);
+    }
+
+    public boolean isBuilt() {
+        return snapshot != null;
+    }
+
+    //opaque "<epoch>-<version>" token identifying the current state
+    public String versionToken() {
+        return epoch + "-" + version;
+    }
+
+    /**
+     * Returns the free windows inside [from, to) of the rooms accepted by the filter:
+     * all of them, or with a since token only those changed after it (plus removed ids).
+     * Falls back to all rooms when the token is from another epoch or older than the log.
+     * Empty when the index cannot answer (not built yet or range outside the horizon).
+     */
+    public Optional<RoomAvailabilityCalendar> calendar(LocalDate from, LocalDate to, String since, Predicate<Long> rooms) {
+        long current = version;
+        Snapshot snap = snapshot;
+        if (snap == null || !snap.covers(from, to)) {
+            return Optional.empty();
+        }
+        Set<Long> changed = changedSince(since, from.toEpochDay(), to.toEpochDay());
+        int first = snap.offset(from);
+        int last = snap.offset(to);
+
+        List<RoomFreeNights> result = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        if (changed == null) {
+            for (RoomSlot slot : snap.slots) {
+                if (rooms.test(slot.room.getId())) {
+                    result.add(freeNights(snap, slot, first, last));
+                }
+            }
+        } else {
+            for (Long roomId : changed.stream().sorted().toList()) {
+                RoomSlot slot = snap.byId.get(roomId);
+                if (slot == null) {
+                    removed.add(roomId);
+                } else if (rooms.test(roomId)) {
+                    result.add(freeNights(snap, slot, first, last));
+                }
+            }
+        }
+        return Optional.of(RoomAvailabilityCalendar.builder()
+                .version(epoch + "-" + current)
+                .full(changed == null)
+                .from(from)
+                .to(to)
+                .rooms(result)
+                .removedRoomIds(removed)
+                .build());
+    }
+
+    //rooms changed after the token's version with a change touching [fromDay, toDay); null when unknown
+    private synchronized Set<Long> changedSince(String since, long fromDay, long toDay) {
+        if (since == null || !since.startsWith(epoch + "-")) {
+            return null;
+        }
+        long sinceVersion;
+        try {
+            sinceVersion = Long.parseLong(since.substring(epoch.length() + 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        if (sinceVersion < deltaFloor || sinceVersion > version) {
+            return null;
+        }
+        Set<Long> changed = new HashSet<>();
+        Iterator<Change> newestFirst = changes.descendingIterator();
+        while (newestFirst.hasNext()) {
+            Change change = newestFirst.next();
+            if (change.version() <= sinceVersion) {
+                break;
+            }
+            if (change.fromDay() < toDay && change.toDay() > fromDay) {
+                changed.add(change.roomId());
+            }
+        }
+        return changed;
+    }
+
+    private RoomFreeNights freeNights(Snapshot snap, RoomSlot slot, int from, int to) {
+        long[] nights = slot.nights;
+        List<DateWindow> free = new ArrayList<>();
+        int start = nextClear(nights, from, to);
+        while (start < to) {
+            int end = nextSet(nights, start, to);
+            free.add(new DateWindow(snap.date(start), snap.date(end), end - start));
+            start = nextClear(nights, end, to);
+        }
+        return RoomFreeNights.builder()
+                .roomId(slot.room.getId())
+                .free(free)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    //rolls the horizon forward once per day
+    @Scheduled(cron = "${booking.availability.rebuild-cron:0 5 0 * * *}")
+    public void rebuild() {
+        synchronized (this) {
+            pendingDuringRebuild = new ArrayList<>();
+        }
+        try {
+            LocalDate start = LocalDate.now();
+            Snapshot fresh = new Snapshot(start.toEpochDay(), horizonDays);
+
+            Map<Long, RoomSlot> slots = new HashMap<>();
+            //from the primary: a lagging replica would miss changes whose events were already applied
+            List<Room> rooms = ReadRouting.onPrimary(() -> roomRepository.findAll());
+            List<RoomStay> stays = ReadRouting.onPrimary(() -> bookingRepository.findActiveStaysEndingAfter(BookingStatus.ACTIVE, start));
+            rooms.forEach(room -> slots.put(room.getId(),
+                    new RoomSlot(RoomResponse.builder()
+                            .id(room.getId())
+                            .roomNumber(room.getRoomNumber())
+                            .type(room.getType())
+                            .capacity(room.getCapacity())
+                            .pricePerNight(room.getPricePerNight())
+                            .status(room.getStatus())
+                            .description(room.getDescription())
+                            .build(),
+                            new long[fresh.words])));
+
+            for (RoomStay stay : stays) {
+                RoomSlot slot = slots.get(stay.roomId());
+                if (slot != null) {
+                    fresh.setRange(slot.nights, stay.checkIn(), stay.checkOut(), true);
+                }
+            }
+            fresh.slots = sorted(slots.values());
+            fresh.byId = slots;
+
+            synchronized (this) {
+                Snapshot previous = snapshot;
+                snapshot = fresh;
+                pendingDuringRebuild.forEach(Runnable::run);
+                pendingDuringRebuild = null;
+                //anything may differ from the previous snapshot: clients resynchronize in full
+                version++;
+                deltaFloor = version;
+                changes.clear();
+                log.info("Availability index built: {} rooms, {} nights from {}{}",
+                        slots.size(), horizonDays, start, previous == null ? "" : " (rolled)");
+            }
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingDuringRebuild = null;
+            }
+            log.error("Availability index rebuild failed, searches keep using the previous state", e);
+        }
+    }
+
+    //ordered ahead of the availability feed, so a pushed change is already visible to searches
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!event.changesOccupancy()) {
+            return;
+        }
+        apply(event.roomId(), event.checkIn().toEpochDay(), event.checkOut().toEpochDay(),
+                () -> markNights(event.roomId(), event.checkIn(), event.checkOut(), event.isActive()));
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        apply(event.roomId(), Long.MIN_VALUE, Long.MAX_VALUE, () -> {
+            if (event.after() == null) {
+                removeRoom(event.roomId());
+            } else {
+                putRoom(event.after());
+            }
+        });
+    }
+
+    private synchronized void apply(Long roomId, long fromDay, long toDay, Runnable change) {
+        if (pendingDuringRebuild != null) {
+            pendingDuringRebuild.add(change);
+        }
+        if (snapshot != null) {
+            change.run();
+            changes.addLast(new Change(version + 1, roomId, fromDay, toDay));
+            if (changes.size() > changeLogSize) {
+                deltaFloor = changes.removeFirst().version();
+            }
+            version++;
+        }
+    }
+
+    // --- mutations, always called while holding the index monitor ---
+
+    private void markNights(Long roomId, LocalDate checkIn, LocalDate checkOut, boolean occupied) {
+        Snapshot current = snapshot;
+        RoomSlot slot = current.byId.get(roomId);
+        if (slot == null) {
+            return;
+        }
+        long[] copy = slot.nights.clone();
+        current.setRange(copy, checkIn, checkOut, occupied);
+        slot.nights = copy;
+    }
+
+    private void putRoom(RoomResponse room) {
+        Snapshot current = snapshot;
+        Map<Long, RoomSlot> byId = new HashMap<>(current.byId);
+        RoomSlot existing = byId.get(room.getId());
+        long[] nights = existing != null ? existing.nights : new long[current.words];
+        byId.put(room.getId(), new RoomSlot(room, nights));
+        current.replaceSlots(byId);
+    }
+
+    private void removeRoom(Long roomId) {
+        Snapshot current = snapshot;
+        if (!current.byId.containsKey(roomId)) {
+            return;
+        }
+        Map<Long, RoomSlot> byId = new HashMap<>(current.byId);
+        byId.remove(roomId);
+        current.replaceSlots(byId);
+    }
+
+    // --- bit helpers ---
+
+    //true when no bit in [from, to) is set
+    static boolean isClear(long[] bits, int from, int to) {
+        if (from >= to) {
+            return true;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        if (firstWord == lastWord) {
+            return (bits[firstWord] & firstMask & lastMask) == 0;
+        }
+        if ((bits[firstWord] & firstMask) != 0) {
+            return false;
+        }
+        for (int w = firstWord + 1; w < lastWord; w++) {
+            if (bits[w] != 0) {
+                return false;
+            }
+        }
+        return (bits[lastWord] & lastMask) == 0;
+    }
+
+    static void setBits(long[] bits, int from, int to, boolean value) {
+        if (from >= to) {
+            return;
+        }
+        int firstWord = from >>> 6;
+        int lastWord = (to - 1) >>> 6;
+        long firstMask = -1L << from;
+        long lastMask = -1L >>> -to;
+        for (int w = firstWord; w <= lastWord; w++) {
+            long mask = -1L;
+            if (w == firstWord) {
+                mask &= firstMask;
+            }
+            if (w == lastWord) {
+                mask &= lastMask;
+            }
+            bits[w] = value ? bits[w] | mask : bits[w] & ~mask;
+        }
+    }
+
+    //index of the first set bit in [from, to), or to
+    static int nextSet(long[] bits, int from, int to) {
+        int i = from;
+        while (i < to) {
+            long word = bits[i >>> 6] & (-1L << i);
+            if (word != 0) {
+                return Math.min(to, ((i >>> 6) << 6) + Long.numberOfTrailingZeros(word));
+            }
+            i = ((i >>> 6) + 1) << 6;
+        }
+        return to;
+    }
+
+    //index of the first clear bit in [from, to), or to
+    static int nextClear(long[] bits, int from, int to) {
+        int i = from;
+        while (i < to) {
+            long word = ~bits[i >>> 6] & (-1L << i);
+            if (word != 0) {
+                return Math.min(to, ((i >>> 6) << 6) + Long.numberOfTrailingZeros(word));
+            }
+            i = ((i >>> 6) + 1) << 6;
+        }
+        return to;
+    }
+
+    private static RoomSlot[] sorted(Collection<RoomSlot> slots) {
+        RoomSlot[] array = slots.toArray(new RoomSlot[0]);
+        Arrays.sort(array, Comparator.comparing(slot -> slot.room.getId()));
+        return array;
+    }
+
+    private record Change(long version, Long roomId, long fromDay, long toDay) {
+    }
+
+    private static final class RoomSlot {
+        private final RoomResponse room;
+        private volatile long[] nights;
+
+        private RoomSlot(RoomResponse room, long[] nights) {
+            this.room = room;
+            this.nights = nights;
+        }
+    }
+
+    private static final class Snapshot {
+        private final long startDay;
+        private final int days;
+        private final int words;
+        private volatile RoomSlot[] slots = new RoomSlot[0];
+        private volatile Map<Long, RoomSlot> byId = Map.of();
+
+        private Snapshot(long startDay, int days) {
+            this.startDay = startDay;
+            this.days = days;
+            this.words = (days + 63) >>> 6;
+        }
+
+        //zero-night ranges are left to the database query
+        private boolean covers(LocalDate checkIn, LocalDate checkOut) {
+            long from = checkIn.toEpochDay() - startDay;
+            long to = checkOut.toEpochDay() - startDay;
+            return from >= 0 && to <= days && from < to;
+        }
+
+        private int offset(LocalDate date) {
+            return (int) (date.toEpochDay() - startDay);
+        }
+
+        private LocalDate date(int offset) {
+            return LocalDate.ofEpochDay(startDay + offset);
+        }
+
+        //clips the stay to the horizon, nights before today are irrelevant to searches
+        private void setRange(long[] bits, LocalDate checkIn, LocalDate checkOut, boolean value) {
+            int from = (int) Math.max(0, checkIn.toEpochDay() - startDay);
+            int to = (int) Math.min(days, checkOut.toEpochDay() - startDay);
+            setBits(bits, from, to, value);
+        }
+
+        private void replaceSlots(Map<Long, RoomSlot> newById) {
+            slots = sorted(newById.values());
+            byId = newById;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.meti.roombooking.availability;
+
+import com.meti.roombooking.datasource.ReadRouting;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.event.RoomChangedEvent;
+import com.meti.roombooking.repository.BookingRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-room interval index of active (PENDING/CONFIRMED) stays: overlap checks in
+ * O(log n) and gap / next-free-window queries without touching the database.
+ *
+ * Complete for nights from the day it was built onwards. Kept in sync by booking events
+ * after commit: creation, cancelBooking and updateStatus all publish one, and an event
+ * is applied before the room lock of its transaction is released. The room-night claims
+ * stay the final guard against double booking (e.g. bookings made by another node).
+ */
+@Slf4j
+@Component
+public class RoomIntervalIndex {
+
+    private final BookingRepository bookingRepository;
+    //in cluster mode only the rooms of this node's partition see all their booking events
+    private final RoomOwnership ownership;
+
+    private final Map<Long, RoomIntervals> rooms = new ConcurrentHashMap<>();
+    //rooms whose stored stays overlap (legacy data); answered from the database instead
+    private final Set<Long> degraded = ConcurrentHashMap.newKeySet();
+
+    //null until the first build finished
+    private volatile LocalDate completeFrom;
+
+    //events seen while the build is reading the database, replayed afterwards; the read
+    //may already include their changes, so applying one twice must leave the same state
+    private List<Runnable> pendingDuringBuild;
+
+    public RoomIntervalIndex(BookingRepository bookingRepository, ObjectProvider<RoomOwnership> ownership) {
+        this.bookingRepository = bookingRepository;
+        this.ownership = ownership.getIfAvailable(() -> RoomOwnership.ALL);
+    }
+
+    /**
+     * The stays of a room, when the index can answer for nights from the given day on.
+     * A room without active stays gets an empty set.
+     */
+    public Optional<RoomIntervals> intervals(Long roomId, LocalDate from) {
+        LocalDate complete = completeFrom;
+        if (complete == null || from.isBefore(complete) || degraded.contains(roomId) || !ownership.ownsRoom(roomId)) {
+            return Optional.empty();
+        }
+        return Optional.of(rooms.computeIfAbsent(roomId, id -> new RoomIntervals()));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (this) {
+            pendingDuringBuild = new ArrayList<>();
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            Set<Long> overlapping = new HashSet<>();
+            Map<Long, RoomIntervals> fresh = new ConcurrentHashMap<>();
+            //from the primary: a lagging replica would miss stays whose events were already applied
+            List<RoomStay> stays = ReadRouting.onPrimary(() -> bookingRepository.findActiveStaysEndingAfter(BookingStatus.ACTIVE, today));
+            for (RoomStay stay : stays) {
+                if (!fresh.computeIfAbsent(stay.roomId(), id -> new RoomIntervals()).add(stay.checkIn(), stay.checkOut())) {
+                    overlapping.add(stay.roomId());
+                }
+            }
+
+            synchronized (this) {
+                rooms.clear();
+                rooms.putAll(fresh);
+                degraded.clear();
+                degraded.addAll(overlapping);
+                completeFrom = today;
+                pendingDuringBuild.forEach(Runnable::run);
+                pendingDuringBuild = null;
+            }
+            if (!overlapping.isEmpty()) {
+                log.warn("Rooms {} have overlapping active bookings, their overlap checks use the database", overlapping);
+            }
+            log.info("Room interval index built: {} rooms with active stays from {}", fresh.size(), today);
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                pendingDuringBuild = null;
+            }
+            log.error("Room interval index build failed, overlap checks use the database", e);
+        }
+    }
+
+    //drops the current state first: used when room ownership moved, the old state may be stale
+    public void rebuild() {
+        synchronized (this) {
+            completeFrom = null;
+        }
+        build();
+    }
+
+    //stays that ended are never queried again
+    @Scheduled(cron = "${booking.intervals.prune-cron:0 10 0 * * *}")
+    public synchronized void prune() {
+        if (completeFrom == null) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        rooms.values().forEach(intervals -> intervals.pruneBefore(today));
+        rooms.values().removeIf(intervals -> intervals.size() == 0);
+    }
+
+    //ordered ahead of the room lock's release, so the next writer of the room sees this change
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!event.changesOccupancy()) {
+            return;
+        }
+        apply(() -> {
+            RoomIntervals intervals = rooms.computeIfAbsent(event.roomId(), id -> new RoomIntervals());
+            if (!event.isActive()) {
+                intervals.remove(event.checkIn(), event.checkOut());
+            } else if (!intervals.add(event.checkIn(), event.checkOut())
+                    //a replayed event whose stay the build already read: applied, not an overlap
+                    && !intervals.contains(event.checkIn(), event.checkOut())) {
+                //only possible when another node slipped past the checks; stop trusting this room
+                degraded.add(event.roomId());
+                log.warn("Active bookings of room {} overlap, its overlap checks now use the database", event.roomId());
+            }
+        });
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        if (event.after() == null) {
+            apply(() -> {
+                rooms.remove(event.roomId());
+                degraded.remove(event.roomId());
+            });
+        }
+    }
+
+    private synchronized void apply(Runnable change) {
+        if (pendingDuringBuild != null) {
+            pendingDuringBuild.add(change);
+        }
+        if (completeFrom != null) {
+            change.run();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.meti.roombooking.availability;
+
+import com.meti.roombooking.dto.room.DateWindow;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The active stays of one room as a sorted set of disjoint half-open night ranges
+ * [checkIn, checkOut), keyed by check-in epoch day.
+ *
+ * Because the ranges never overlap, the only stay that can intersect [from, to) is the
+ * one starting last before to, so overlap checks are a single floor lookup (O(log n)).
+ * Reads are lock-free; writes come from one thread at a time (the owning index).
+ */
+public final class RoomIntervals {
+
+    //check-in epoch day -> check-out epoch day
+    private final ConcurrentSkipListMap<Long, Long> stays = new ConcurrentSkipListMap<>();
+
+    //builds a read-only view from database rows, merging ranges that overlap (legacy data)
+    public static RoomIntervals of(List<RoomStay> roomStays) {
+        RoomIntervals intervals = new RoomIntervals();
+        List<RoomStay> sorted = new ArrayList<>(roomStays);
+        sorted.sort(Comparator.comparing(RoomStay::checkIn));
+        long start = Long.MIN_VALUE;
+        long end = Long.MIN_VALUE;
+        for (RoomStay stay : sorted) {
+            long s = stay.checkIn().toEpochDay();
+            long e = stay.checkOut().toEpochDay();
+            if (s < end) {
+                end = Math.max(end, e);
+                continue;
+            }
+            if (end != Long.MIN_VALUE) {
+                intervals.stays.put(start, end);
+            }
+            start = s;
+            end = e;
+        }
+        if (end != Long.MIN_VALUE) {
+            intervals.stays.put(start, end);
+        }
+        return intervals;
+    }
+
+    //false (and nothing stored) when the stay overlaps one already present
+    boolean add(LocalDate checkIn, LocalDate checkOut) {
+        long start = checkIn.toEpochDay();
+        long end = checkOut.toEpochDay();
+        if (start >= end || overlaps(start, end)) {
+            return false;
+        }
+        stays.put(start, end);
+        return true;
+    }
+
+    //true when exactly this stay is stored
+    boolean contains(LocalDate checkIn, LocalDate checkOut) {
+        return Long.valueOf(checkOut.toEpochDay()).equals(stays.get(checkIn.toEpochDay()));
+    }
+
+    void remove(LocalDate checkIn, LocalDate checkOut) {
+        stays.remove(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    //drops stays that ended on or before the given day
+    void pruneBefore(LocalDate day) {
+        long limit = day.toEpochDay();
+        stays.headMap(limit).entrySet().removeIf(stay -> stay.getValue() <= limit);
+    }
+
+    int size() {
+        return stays.size();
+    }
+
+    public boolean overlaps(LocalDate checkIn, LocalDate checkOut) {
+        return overlaps(checkIn.toEpochDay(), checkOut.toEpochDay());
+    }
+
+    private boolean overlaps(long start, long end) {
+        Map.Entry<Long, Long> before = stays.lowerEntry(end);
+        return before != null && before.getValue() > start;
+    }
+
+    //free windows inside [from, to), in date order
+    public List<DateWindow> gaps(LocalDate from, LocalDate to) {
+        long cursor = from.toEpochDay();
+        long end = to.toEpochDay();
+        List<DateWindow> gaps = new ArrayList<>();
+        Map.Entry<Long, Long> first = stays.lowerEntry(cursor);
+        if (first != null && first.getValue() > cursor) {
+            cursor = first.getValue();
+        }
+        for (Map.Entry<Long, Long> stay : stays.subMap(cursor, true, end, false).entrySet()) {
+            if (stay.getKey() > cursor) {
+                gaps.add(window(cursor, stay.getKey()));
+            }
+            cursor = Math.max(cursor, stay.getValue());
+        }
+        if (cursor < end) {
+            gaps.add(window(cursor, end));
+        }
+        return gaps;
+    }
+
+    //earliest run of free nights starting on or after from; rooms are free after their last stay
+    public DateWindow nextFreeWindow(LocalDate from, int nights) {
+        long cursor = from.toEpochDay();
+        Map.Entry<Long, Long> first = stays.lowerEntry(cursor);
+        if (first != null && first.getValue() > cursor) {
+            cursor = first.getValue();
+        }
+        for (Map.Entry<Long, Long> stay : stays.tailMap(cursor, true).entrySet()) {
+            if (stay.getKey() - cursor >= nights) {
+                break;
+            }
+            cursor = Math.max(cursor, stay.getValue());
+        }
+        return window(cursor, cursor + nights);
+    }
+
+    private static DateWindow window(long checkIn, long checkOut) {
+        return DateWindow.builder()
+                .checkIn(LocalDate.ofEpochDay(checkIn))
+                .checkOut(LocalDate.ofEpochDay(checkOut))
+                .nights((int) (checkOut - checkIn))
+                .build();
+    }
+}
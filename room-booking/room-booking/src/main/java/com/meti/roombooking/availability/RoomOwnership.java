@@ -0,0 +1,10 @@
+package com.meti.roombooking.availability;
+
+//Which rooms this node keeps authoritative in-memory state for (all of them unless clustered)
+@FunctionalInterface
+public interface RoomOwnership {
+
+    RoomOwnership ALL = roomId -> true;
+
+    boolean ownsRoom(Long roomId);
+}
@@ -0,0 +1,7 @@
+package com.meti.roombooking.availability;
+
+import java.time.LocalDate;
+
+//Lightweight view of an active booking, used to (re)build the in-memory indexes
+public record RoomStay(Long roomId, LocalDate checkIn, LocalDate checkOut) {
+}
@@ -0,0 +1,123 @@
+package com.meti.roombooking.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.meti.roombooking.datasource.ReadRouting;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.RoomStatus;
+import com.meti.roombooking.event.RoomChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of the room catalogue. Bounded and time-limited, so a change made
+ * by another node is picked up after the TTL at the latest; changes made through this
+ * node's RoomService are invalidated precisely when their transaction commits.
+ */
+@Component
+public class RoomCatalogueCache implements MeterBinder {
+
+    private static final String ALL = "all";
+
+    private final Cache<Long, RoomResponse> rooms;
+    private final Cache<String, List<RoomResponse>> lists;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public RoomCatalogueCache(@Value("${booking.cache.rooms.maximum-size:10000}") long maximumSize,
+                              @Value("${booking.cache.rooms.ttl:10m}") Duration ttl) {
+        this.rooms = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.lists = Caffeine.newBuilder()
+                .maximumSize(RoomStatus.values().length + 1)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+    }
+
+    //loader exceptions (e.g. room not found) propagate and nothing is cached
+    public RoomResponse getRoom(Long roomId, Function<Long, RoomResponse> loader) {
+        return load(rooms, roomId, loader);
+    }
+
+    public List<RoomResponse> getAllRooms(Supplier<List<RoomResponse>> loader) {
+        return load(lists, ALL, key -> List.copyOf(loader.get()));
+    }
+
+    public List<RoomResponse> getRoomsByStatus(RoomStatus status, Supplier<List<RoomResponse>> loader) {
+        return load(lists, statusKey(status), key -> List.copyOf(loader.get()));
+    }
+
+    /*
+     * Loads outside the cache's compute lock: a database read inside Cache.get(key, loader)
+     * would run under a synchronized map bin and pin a virtual thread's carrier.
+     * Concurrent misses may load twice. A value loaded across an invalidation is dropped,
+     * so a stale read can never outlive the commit that changed the room. Loads read the
+     * primary: a lagging replica could return the old row after the invalidation, and
+     * it would then be cached for the whole TTL.
+     */
+    private <K, V> V load(Cache<K, V> cache, K key, Function<K, V> loader) {
+        V cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long generation = invalidations.get();
+        V loaded = ReadRouting.onPrimary(() -> loader.apply(key));
+        cache.put(key, loaded);
+        if (invalidations.get() != generation) {
+            cache.invalidate(key);
+        }
+        return loaded;
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        invalidations.incrementAndGet();
+        rooms.invalidate(event.roomId());
+        lists.invalidate(ALL);
+        if (event.before() != null) {
+            lists.invalidate(statusKey(event.before().getStatus()));
+        }
+        if (event.after() != null) {
+            lists.invalidate(statusKey(event.after().getStatus()));
+        }
+    }
+
+    //hit/miss/eviction meters, exported next to the booking hot-path metrics
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, rooms, "rooms");
+        CaffeineCacheMetrics.monitor(registry, lists, "room-lists");
+    }
+
+    public CacheStats roomStats() {
+        return rooms.stats();
+    }
+
+    public CacheStats listStats() {
+        return lists.stats();
+    }
+
+    public long size() {
+        return rooms.estimatedSize();
+    }
+
+    private static String statusKey(RoomStatus status) {
+        return "status:" + status;
+    }
+}
@@ -0,0 +1,57 @@
+package com.meti.roombooking.cluster;
+
+import com.meti.roombooking.availability.RoomAvailabilityIndex;
+import com.meti.roombooking.availability.RoomIntervalIndex;
+import com.meti.roombooking.event.BookingChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Batches run in one transaction on the node that received them, so some of their bookings
+ * are committed away from their room's owner. The owner's interval index and availability
+ * bitmap only hear local booking events; this hands them those bookings directly. Its
+ * stream subscribers already get them through BookingFeedRelay.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BookingChangeRelay {
+
+    private final RoomPartitioner partitioner;
+    private final ClusterPeerClient peers;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomIntervalIndex intervalIndex;
+
+    //waits for the owners, so the caller's next request finds their indexes current
+    public void toOwners(List<BookingChangedEvent> events) {
+        Map<ClusterNode, List<BookingChangedEvent>> byOwner = events.stream()
+                .filter(event -> !partitioner.ownsRoom(event.roomId()))
+                .collect(Collectors.groupingBy(event -> partitioner.ownerOf(event.roomId())));
+        if (byOwner.isEmpty()) {
+            return;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            byOwner.forEach((owner, changes) -> executor.submit(() -> {
+                try {
+                    peers.bookingsChanged(owner, changes);
+                } catch (RuntimeException e) {
+                    //its claims still reject overlaps; the indexes catch up when membership changes
+                    log.warn("{} booking changes not delivered to owner {}: {}", changes.size(), owner.id(), e.getMessage());
+                }
+            }));
+        }
+    }
+
+    //bookings of this node's rooms committed on another node
+    public void applyRemote(List<BookingChangedEvent> events) {
+        for (BookingChangedEvent event : events) {
+            intervalIndex.onBookingChanged(event);
+            availabilityIndex.onBookingChanged(event);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.meti.roombooking.cluster;
+
+import com.meti.roombooking.dto.room.AvailabilityChange;
+import com.meti.roombooking.event.BookingChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Booking changes are committed on one node, the room's owner or the node that ran a batch,
+ * so they are forwarded to every peer's availability feed; subscribers then see all rooms
+ * whichever node they are on.
+ * Room changes need no forwarding, RoomChangeRelay republishes them on each node.
+ * Best effort like the room relay: a missed change is only visible after a calendar re-read.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class BookingFeedRelay {
+
+    private final RoomPartitioner partitioner;
+    private final ClusterPeerClient peers;
+    private final PeerDelivery delivery;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!event.changesOccupancy()) {
+            return;
+        }
+        AvailabilityChange change = new AvailabilityChange(event.roomId(), event.checkIn(), event.checkOut(), false);
+        for (ClusterNode node : partitioner.peers()) {
+            delivery.send(node, () -> {
+                try {
+                    peers.availabilityChanged(node, change);
+                } catch (RuntimeException e) {
+                    log.warn("Room {} availability change not delivered to node {}: {}", event.roomId(), node.id(), e.getMessage());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.meti.roombooking.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.auth.SessionTokens;
+import com.meti.roombooking.availability.RoomAvailabilityIndex;
+import com.meti.roombooking.availability.RoomIntervalIndex;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.service.impl.BookingServiceImpl;
+import com.meti.roombooking.service.impl.RoomServiceImpl;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Cluster mode (booking.cluster.enabled=true): rooms are partitioned over the live nodes
+ * and admission for a room runs on its owner. Several instances on one box, e.g.
+ *
+ *   --server.port=8081 --booking.cluster.enabled=true --booking.cluster.self=a
+ *   --booking.cluster.nodes=a=http://localhost:8081,b=http://localhost:8082
+ *
+ * Every node is started with the same booking.cluster.secret (32+ characters) and the same
+ * booking.auth.token-secret: the first admits node-to-node calls, the second lets the owner
+ * verify the caller identity forwarded with a write.
+ *
+ * booking.cluster.membership=in-process swaps the pinging membership for a stand-in
+ * whose nodes join and leave programmatically (tests).
+ */
+@Configuration
+@ConditionalOnProperty(name = "booking.cluster.enabled", havingValue = "true")
+public class ClusterConfig {
+
+    private static final int MIN_SECRET_LENGTH = 32;
+
+    @Bean
+    public RestClient clusterRestClient(RestClient.Builder builder,
+                                        @Value("${booking.cluster.secret:}") String secret,
+                                        @Value("${booking.cluster.connect-timeout:500ms}") Duration connectTimeout,
+                                        @Value("${booking.cluster.read-timeout:5s}") Duration readTimeout) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(connectTimeout);
+        requestFactory.setReadTimeout(readTimeout);
+        return builder.requestFactory(requestFactory)
+                .defaultHeader(ClusterSecretFilter.HEADER, checkedSecret(secret))
+                .build();
+    }
+
+    @Bean
+    public ClusterSecretFilter clusterSecretFilter(@Value("${booking.cluster.secret:}") String secret,
+                                                   ObjectMapper objectMapper) {
+        return new ClusterSecretFilter(checkedSecret(secret), objectMapper);
+    }
+
+    @Bean
+    public ClusterMembership clusterMembership(@Value("${booking.cluster.membership:static}") String mode,
+                                               @Value("${booking.cluster.self}") String selfId,
+                                               @Value("${booking.cluster.nodes:}") String nodes,
+                                               @Value("${booking.cluster.self-url:}") String selfUrl,
+                                               RestClient clusterRestClient,
+                                               ApplicationEventPublisher eventPublisher) {
+        List<ClusterNode> configured = parseNodes(nodes);
+        ClusterNode self = configured.stream()
+                .filter(node -> node.id().equals(selfId))
+                .findFirst()
+                .orElseGet(() -> new ClusterNode(selfId, selfUrl));
+        return switch (mode) {
+            case "static" -> {
+                if (!configured.contains(self)) {
+                    throw new IllegalArgumentException("booking.cluster.nodes must contain this node (" + selfId + ")");
+                }
+                yield new StaticClusterMembership(self, configured, clusterRestClient, eventPublisher);
+            }
+            case "in-process" -> new InProcessClusterMembership(self, eventPublisher);
+            default -> throw new IllegalArgumentException("Unknown booking.cluster.membership: " + mode);
+        };
+    }
+
+    @Bean
+    public RoomPartitioner roomPartitioner(ClusterMembership membership) {
+        return new RoomPartitioner(membership);
+    }
+
+    @Bean
+    public ClusterPeerClient clusterPeerClient(RestClient clusterRestClient, ObjectMapper objectMapper, SessionTokens sessionTokens) {
+        return new HttpClusterPeerClient(clusterRestClient, objectMapper, sessionTokens);
+    }
+
+    @Bean
+    @Primary
+    public ClusteredBookingService clusteredBookingService(BookingServiceImpl local,
+                                                           RoomPartitioner partitioner,
+                                                           ClusterPeerClient peers,
+                                                           BookingRepository bookingRepository,
+                                                           BookingChangeRelay bookingChangeRelay) {
+        return new ClusteredBookingService(local, partitioner, peers, bookingRepository, bookingChangeRelay);
+    }
+
+    @Bean
+    @Primary
+    public ClusteredRoomService clusteredRoomService(RoomServiceImpl local,
+                                                     RoomPartitioner partitioner,
+                                                     ClusterPeerClient peers) {
+        return new ClusteredRoomService(local, partitioner, peers);
+    }
+
+    @Bean
+    public PeerDelivery peerDelivery() {
+        return new PeerDelivery();
+    }
+
+    @Bean
+    public RoomChangeRelay roomChangeRelay(RoomPartitioner partitioner,
+                                           ClusterPeerClient peers,
+                                           PeerDelivery peerDelivery,
+                                           ApplicationEventPublisher eventPublisher) {
+        return new RoomChangeRelay(partitioner, peers, peerDelivery, eventPublisher);
+    }
+
+    @Bean
+    public BookingFeedRelay bookingFeedRelay(RoomPartitioner partitioner, ClusterPeerClient peers, PeerDelivery peerDelivery) {
+        return new BookingFeedRelay(partitioner, peers, peerDelivery);
+    }
+
+    @Bean
+    public BookingChangeRelay bookingChangeRelay(RoomPartitioner partitioner,
+                                                 ClusterPeerClient peers,
+                                                 RoomAvailabilityIndex availabilityIndex,
+                                                 RoomIntervalIndex intervalIndex) {
+        return new BookingChangeRelay(partitioner, peers, availabilityIndex, intervalIndex);
+    }
+
+    @Bean
+    public ClusterRebalancer clusterRebalancer(RoomAvailabilityIndex availabilityIndex, RoomIntervalIndex intervalIndex) {
+        return new ClusterRebalancer(availabilityIndex, intervalIndex);
+    }
+
+    private static String checkedSecret(String secret) {
+        if (secret == null || secret.length() < MIN_SECRET_LENGTH) {
+            throw new IllegalArgumentException("booking.cluster.secret must be at least " + MIN_SECRET_LENGTH + " characters");
+        }
+        return secret;
+    }
+
+    //"a=http://host:8081,b=http://host:8082"
+    private static List<ClusterNode> parseNodes(String nodes) {
+        List<ClusterNode> parsed = new ArrayList<>();
+        for (String entry : nodes.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int separator = entry.indexOf('=');
+            if (separator < 1) {
+                throw new IllegalArgumentException("Invalid booking.cluster.nodes entry: " + entry);
+            }
+            parsed.add(new ClusterNode(entry.substring(0, separator).trim(), entry.substring(separator + 1).trim()));
+        }
+        return parsed;
+    }
+}
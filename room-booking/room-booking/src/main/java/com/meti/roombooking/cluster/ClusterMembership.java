@@ -0,0 +1,14 @@
+package com.meti.roombooking.cluster;
+
+import java.util.List;
+
+/**
+ * The live members of the cluster as seen by this node, including itself.
+ * Implementations publish a MembershipChangedEvent whenever the list changes.
+ */
+public interface ClusterMembership {
+
+    ClusterNode self();
+
+    List<ClusterNode> members();
+}
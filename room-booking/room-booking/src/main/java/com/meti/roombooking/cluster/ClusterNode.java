@@ -0,0 +1,5 @@
+package com.meti.roombooking.cluster;
+
+//One application instance: a stable id (used for hashing) and the base URL peers call it on
+public record ClusterNode(String id, String baseUrl) {
+}
@@ -0,0 +1,50 @@
+package com.meti.roombooking.cluster;
+
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.AvailabilityChange;
+import com.meti.roombooking.dto.room.DateWindow;
+import com.meti.roombooking.dto.room.RoomAvailabilityCalendar;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.event.RoomChangedEvent;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Calls another node's internal cluster API. Rejections come back as the same exceptions
+ * the local services throw (IllegalArgumentException, BookingConflictException);
+ * an unreachable node raises NodeUnavailableException.
+ */
+public interface ClusterPeerClient {
+
+    //idempotencyKey is null for an unkeyed write; with one the owner records it in the write's transaction
+    BookingResponse createBooking(ClusterNode owner, BookingRequest request, String idempotencyKey);
+
+    BookingResponse cancelBooking(ClusterNode owner, Long bookingId, String idempotencyKey);
+
+    BookingResponse updateStatus(ClusterNode owner, Long bookingId, BookingStatus status, String idempotencyKey);
+
+    //the available rooms of the node's own partition
+    List<RoomResponse> findAvailableRooms(ClusterNode node, LocalDate checkIn, LocalDate checkOut,
+                                          Integer guests, RoomType type);
+
+    List<DateWindow> findGaps(ClusterNode owner, Long roomId, LocalDate from, LocalDate to);
+
+    DateWindow findNextFreeWindow(ClusterNode owner, Long roomId, LocalDate from, int nights);
+
+    String availabilityVersion(ClusterNode node);
+
+    //the calendar of the node's own partition
+    RoomAvailabilityCalendar availabilityCalendar(ClusterNode node, LocalDate from, LocalDate to, String since);
+
+    void roomChanged(ClusterNode node, RoomChangedEvent event);
+
+    void availabilityChanged(ClusterNode node, AvailabilityChange change);
+
+    //bookings of the owner's rooms committed elsewhere, for its indexes
+    void bookingsChanged(ClusterNode owner, List<BookingChangedEvent> events);
+}
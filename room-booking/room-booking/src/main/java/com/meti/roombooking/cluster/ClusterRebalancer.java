@@ -0,0 +1,29 @@
+package com.meti.roombooking.cluster;
+
+import com.meti.roombooking.availability.RoomAvailabilityIndex;
+import com.meti.roombooking.availability.RoomIntervalIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Rooms that moved to this node were booked elsewhere until now, so the in-memory
+ * indexes are rebuilt from the database whenever the membership changes. Overlap checks
+ * use the database while the interval index rebuilds.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class ClusterRebalancer {
+
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomIntervalIndex intervalIndex;
+
+    @Order(1)
+    @EventListener
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        log.info("Rebalancing room ownership over {} nodes", event.members().size());
+        intervalIndex.rebuild();
+        availabilityIndex.rebuild();
+    }
+}
@@ -0,0 +1,64 @@
+package com.meti.roombooking.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Lets only cluster nodes reach /internal/: they send the shared booking.cluster.secret in the
+ * X-Cluster-Secret header on every call. Forwarded writes additionally carry the original caller's
+ * session token, which SessionTokenFilter resolves like on /api. Runs ahead of it, inside the
+ * metrics filter.
+ */
+@Order(Ordered.HIGHEST_PRECEDENCE + 15)
+public class ClusterSecretFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Cluster-Secret";
+    private static final String INTERNAL_PATH = "/internal/";
+    private static final UrlPathHelper PATHS = UrlPathHelper.defaultInstance;
+
+    private final byte[] secret;
+    private final ObjectMapper objectMapper;
+
+    public ClusterSecretFilter(String secret, ObjectMapper objectMapper) {
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !PATHS.getPathWithinApplication(request).startsWith(INTERNAL_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        String presented = request.getHeader(HEADER);
+        //constant time, so the secret cannot be guessed byte by byte
+        if (presented == null || !MessageDigest.isEqual(secret, presented.getBytes(StandardCharsets.UTF_8))) {
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("timestamp", LocalDateTime.now());
+            body.put("error", "Cluster nodes only");
+            response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            objectMapper.writeValue(response.getOutputStream(), body);
+            return;
+        }
+        chain.doFilter(request, response);
+    }
+}
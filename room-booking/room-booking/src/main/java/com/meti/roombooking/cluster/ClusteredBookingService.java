@@ -0,0 +1,149 @@
+package com.meti.roombooking.cluster;
+
+import com.meti.roombooking.datasource.ReadRouting;
+import com.meti.roombooking.dto.booking.BatchMode;
+import com.meti.roombooking.dto.booking.BookingBatchItemResult;
+import com.meti.roombooking.dto.booking.BookingBatchResponse;
+import com.meti.roombooking.dto.booking.BookingPage;
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.export.ExportFormat;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.impl.BookingServiceImpl;
+import lombok.RequiredArgsConstructor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * BookingService in cluster mode. Admission (create, cancel, status change) runs on the
+ * node owning the room, so its room lock, interval index and availability bitmap see
+ * every change of that room; batches are the exception and are relayed to the owners
+ * after commit. Reads are served locally from the shared database.
+ *
+ * Writes made with an Idempotency-Key are routed through the forward methods before any
+ * local transaction opens: the key travels with the write and the owner records it.
+ */
+@RequiredArgsConstructor
+public class ClusteredBookingService implements BookingService {
+
+    private final BookingServiceImpl local;
+    private final RoomPartitioner partitioner;
+    private final ClusterPeerClient peers;
+    private final BookingRepository bookingRepository;
+    private final BookingChangeRelay bookingChangeRelay;
+
+    @Override
+    public BookingResponse createBooking(BookingRequest request) {
+        ClusterNode owner = partitioner.ownerOf(request.getRoomId());
+        return owner.equals(partitioner.self()) ? local.createBooking(request) : peers.createBooking(owner, request, null);
+    }
+
+    @Override
+    public Optional<BookingResponse> forwardCreateBooking(BookingRequest request, String idempotencyKey) {
+        ClusterNode owner = partitioner.ownerOf(request.getRoomId());
+        return owner.equals(partitioner.self())
+                ? Optional.empty()
+                : Optional.of(peers.createBooking(owner, request, idempotencyKey));
+    }
+
+    //a batch may span partitions and must stay one transaction, so it runs here; the room-night
+    //claims keep it consistent with admissions on the owners until they have applied it
+    @Override
+    public BookingBatchResponse createBookings(List<BookingRequest> requests, BatchMode mode) {
+        BookingBatchResponse response = local.createBookings(requests, mode);
+        bookingChangeRelay.toOwners(response.getResults().stream()
+                .map(BookingBatchItemResult::getBooking)
+                .filter(Objects::nonNull)
+                .map(booking -> new BookingChangedEvent(booking.getId(), booking.getRoomId(),
+                        booking.getCheckIn(), booking.getCheckOut(), null, booking.getStatus()))
+                .toList());
+        return response;
+    }
+
+    @Override
+    public BookingResponse cancelBooking(Long bookingId) {
+        ClusterNode owner = ownerOfBooking(bookingId);
+        return owner.equals(partitioner.self()) ? local.cancelBooking(bookingId) : peers.cancelBooking(owner, bookingId, null);
+    }
+
+    @Override
+    public Optional<BookingResponse> forwardCancelBooking(Long bookingId, String idempotencyKey) {
+        ClusterNode owner = ownerOfBooking(bookingId);
+        return owner.equals(partitioner.self())
+                ? Optional.empty()
+                : Optional.of(peers.cancelBooking(owner, bookingId, idempotencyKey));
+    }
+
+    @Override
+    public BookingResponse updateStatus(Long bookingId, BookingStatus status) {
+        ClusterNode owner = ownerOfBooking(bookingId);
+        return owner.equals(partitioner.self())
+                ? local.updateStatus(bookingId, status)
+                : peers.updateStatus(owner, bookingId, status, null);
+    }
+
+    @Override
+    public Optional<BookingResponse> forwardUpdateStatus(Long bookingId, BookingStatus status, String idempotencyKey) {
+        ClusterNode owner = ownerOfBooking(bookingId);
+        return owner.equals(partitioner.self())
+                ? Optional.empty()
+                : Optional.of(peers.updateStatus(owner, bookingId, status, idempotencyKey));
+    }
+
+    @Override
+    public BookingResponse getBookingById(Long id) {
+        return local.getBookingById(id);
+    }
+
+    @Override
+    public List<BookingResponse> getBookingsForUser(Long userId) {
+        return local.getBookingsForUser(userId);
+    }
+
+    @Override
+    public BookingPage getAllBookings(String cursor, int limit) {
+        return local.getAllBookings(cursor, limit);
+    }
+
+    @Override
+    public List<BookingResponse> getBookingByStatus(BookingStatus status) {
+        return local.getBookingByStatus(status);
+    }
+
+    @Override
+    public BookingPage getBookingsSorted(String sortBy, String order, String cursor, int limit) {
+        return local.getBookingsSorted(sortBy, order, cursor, limit);
+    }
+
+    @Override
+    public BookingPage getUserBookingsSorted(Long userId, String sortBy, String order, String cursor, int limit) {
+        return local.getUserBookingsSorted(userId, sortBy, order, cursor, limit);
+    }
+
+    @Override
+    public BookingPage getUserHistory(Long userId, String cursor, int limit) {
+        return local.getUserHistory(userId, cursor, limit);
+    }
+
+    @Override
+    public long exportBookings(BookingStatus status, LocalDate from, LocalDate to,
+                               ExportFormat format, OutputStream out) throws IOException {
+        return local.exportBookings(status, from, to, format, out);
+    }
+
+    private ClusterNode ownerOfBooking(Long bookingId) {
+        //from the primary: the booking may have been created a moment ago on another node
+        Long roomId = ReadRouting.onPrimary(() -> bookingRepository.findResponseById(bookingId))
+                .map(BookingResponse::getRoomId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+        return partitioner.ownerOf(roomId);
+    }
+}
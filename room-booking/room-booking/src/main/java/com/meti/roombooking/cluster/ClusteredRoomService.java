@@ -0,0 +1,210 @@
+package com.meti.roombooking.cluster;
+
+import com.meti.roombooking.dto.room.DateWindow;
+import com.meti.roombooking.dto.room.InventoryCalendar;
+import com.meti.roombooking.dto.room.RoomAvailabilityCalendar;
+import com.meti.roombooking.dto.room.RoomFreeNights;
+import com.meti.roombooking.dto.room.RoomRequest;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.RoomStatus;
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.service.RoomService;
+import com.meti.roombooking.service.impl.RoomServiceImpl;
+import lombok.RequiredArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * RoomService in cluster mode. Availability state is only authoritative on a room's
+ * owner, so searches are scattered to every live node (each answers for its partition)
+ * and gathered here; per-room window queries go to the owner. The catalogue itself is
+ * shared and served locally.
+ */
+@RequiredArgsConstructor
+public class ClusteredRoomService implements RoomService {
+
+    private final RoomServiceImpl local;
+    private final RoomPartitioner partitioner;
+    private final ClusterPeerClient peers;
+
+    @Override
+    public List<RoomResponse> findAvailableRooms(LocalDate checkIn, LocalDate checkOut, Integer guests, RoomType type) {
+        //validates the arguments before any remote call
+        List<RoomResponse> rooms = new ArrayList<>(findOwnedAvailableRooms(checkIn, checkOut, guests, type));
+        gather(partitioner.peers(), node -> peers.findAvailableRooms(node, checkIn, checkOut, guests, type))
+                .values().forEach(rooms::addAll);
+        rooms.sort(Comparator.comparing(RoomResponse::getId));
+        return rooms;
+    }
+
+    //this node's share of a search, served to the other nodes
+    public List<RoomResponse> findOwnedAvailableRooms(LocalDate checkIn, LocalDate checkOut, Integer guests, RoomType type) {
+        return local.findAvailableRooms(checkIn, checkOut, guests, type).stream()
+                .filter(room -> partitioner.ownsRoom(room.getId()))
+                .toList();
+    }
+
+    @Override
+    public List<DateWindow> findGaps(Long roomId, LocalDate from, LocalDate to) {
+        ClusterNode owner = partitioner.ownerOf(roomId);
+        return owner.equals(partitioner.self()) ? local.findGaps(roomId, from, to) : peers.findGaps(owner, roomId, from, to);
+    }
+
+    @Override
+    public DateWindow findNextFreeWindow(Long roomId, LocalDate from, int nights) {
+        ClusterNode owner = partitioner.ownerOf(roomId);
+        return owner.equals(partitioner.self())
+                ? local.findNextFreeWindow(roomId, from, nights)
+                : peers.findNextFreeWindow(owner, roomId, from, nights);
+    }
+
+    //the inventory table is maintained in the writing transactions, so any node can read it
+    @Override
+    public List<InventoryCalendar> getInventoryCalendar(YearMonth month, RoomType type) {
+        return local.getInventoryCalendar(month, type);
+    }
+
+    /**
+     * Each node versions its own partition, so the cluster version is the list of node
+     * versions ("id:token,id:token"). A delta is asked from every node with its own part of
+     * the since token; if any node cannot answer with a delta (restart, rebalance, new
+     * member) the whole calendar is returned in full.
+     */
+    @Override
+    public String getAvailabilityVersion() {
+        Map<String, String> versions = new TreeMap<>();
+        versions.put(partitioner.self().id(), local.getAvailabilityVersion());
+        gather(partitioner.peers(), peers::availabilityVersion).forEach(versions::put);
+        return join(versions);
+    }
+
+    @Override
+    public RoomAvailabilityCalendar getAvailabilityCalendar(LocalDate from, LocalDate to, String since) {
+        Map<String, String> sinceByNode = since == null ? Map.of() : split(since);
+        List<ClusterNode> others = partitioner.peers();
+        boolean delta = since != null && sinceByNode.containsKey(partitioner.self().id())
+                && others.stream().allMatch(node -> sinceByNode.containsKey(node.id()));
+
+        Map<String, RoomAvailabilityCalendar> parts = new TreeMap<>();
+        parts.put(partitioner.self().id(),
+                getOwnedAvailabilityCalendar(from, to, delta ? sinceByNode.get(partitioner.self().id()) : null));
+        gather(others, node -> peers.availabilityCalendar(node, from, to, delta ? sinceByNode.get(node.id()) : null))
+                .forEach(parts::put);
+        if (delta && parts.values().stream().anyMatch(RoomAvailabilityCalendar::isFull)) {
+            return getAvailabilityCalendar(from, to, null);
+        }
+
+        List<RoomFreeNights> rooms = new ArrayList<>();
+        List<Long> removed = new ArrayList<>();
+        Map<String, String> versions = new TreeMap<>();
+        parts.forEach((nodeId, part) -> {
+            rooms.addAll(part.getRooms());
+            removed.addAll(part.getRemovedRoomIds());
+            versions.put(nodeId, part.getVersion());
+        });
+        rooms.sort(Comparator.comparing(RoomFreeNights::getRoomId));
+        return RoomAvailabilityCalendar.builder()
+                .version(join(versions))
+                .full(!delta)
+                .from(from)
+                .to(to)
+                .rooms(rooms)
+                //room deletions are relayed to every node, so each of them reports it
+                .removedRoomIds(removed.stream().distinct().sorted().toList())
+                .build();
+    }
+
+    //this node's share of the calendar, served to the other nodes
+    public RoomAvailabilityCalendar getOwnedAvailabilityCalendar(LocalDate from, LocalDate to, String since) {
+        return local.getAvailabilityCalendar(from, to, since, partitioner::ownsRoom);
+    }
+
+    @Override
+    public RoomResponse createRoom(RoomRequest request) {
+        return local.createRoom(request);
+    }
+
+    @Override
+    public RoomResponse updateRoom(Long roomId, RoomRequest request) {
+        return local.updateRoom(roomId, request);
+    }
+
+    @Override
+    public void deleteRoom(Long roomId) {
+        local.deleteRoom(roomId);
+    }
+
+    @Override
+    public RoomResponse getRoomById(Long roomId) {
+        return local.getRoomById(roomId);
+    }
+
+    @Override
+    public List<RoomResponse> getAllRooms() {
+        return local.getAllRooms();
+    }
+
+    @Override
+    public List<RoomResponse> findByStatus(RoomStatus status) {
+        return local.findByStatus(status);
+    }
+
+    //calls every node in parallel on virtual threads, results by node id
+    private static <T> Map<String, T> gather(List<ClusterNode> nodes, Function<ClusterNode, T> call) {
+        Map<String, T> results = new TreeMap<>();
+        if (nodes.isEmpty()) {
+            return results;
+        }
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Map<String, Future<T>> futures = new TreeMap<>();
+            for (ClusterNode node : nodes) {
+                futures.put(node.id(), executor.submit(() -> call.apply(node)));
+            }
+            futures.forEach((nodeId, future) -> results.put(nodeId, join(future)));
+        }
+        return results;
+    }
+
+    private static String join(Map<String, String> versions) {
+        return versions.entrySet().stream()
+                .map(entry -> entry.getKey() + ":" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    private static Map<String, String> split(String versions) {
+        Map<String, String> byNode = new TreeMap<>();
+        for (String part : versions.split(",")) {
+            int separator = part.lastIndexOf(':');
+            if (separator > 0) {
+                byNode.put(part.substring(0, separator), part.substring(separator + 1));
+            }
+        }
+        return byNode;
+    }
+
+    private static <T> T join(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while gathering search results", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
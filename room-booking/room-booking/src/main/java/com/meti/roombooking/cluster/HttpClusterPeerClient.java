@@ -0,0 +1,210 @@
+package com.meti.roombooking.cluster;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.auth.CurrentUser;
+import com.meti.roombooking.auth.SessionTokens;
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.AvailabilityChange;
+import com.meti.roombooking.dto.room.DateWindow;
+import com.meti.roombooking.dto.room.RoomAvailabilityCalendar;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.event.RoomChangedEvent;
+import com.meti.roombooking.exception.AccessDeniedException;
+import com.meti.roombooking.exception.BookingConflictException;
+import com.meti.roombooking.exception.NodeUnavailableException;
+import com.meti.roombooking.idempotency.IdempotencyKeys;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+public class HttpClusterPeerClient implements ClusterPeerClient {
+
+    private static final String BASE = "/internal/cluster";
+
+    private final RestClient restClient;
+    private final ObjectMapper objectMapper;
+    private final SessionTokens sessionTokens;
+
+    public HttpClusterPeerClient(RestClient restClient, ObjectMapper objectMapper, SessionTokens sessionTokens) {
+        this.restClient = restClient;
+        this.objectMapper = objectMapper;
+        this.sessionTokens = sessionTokens;
+    }
+
+    @Override
+    public BookingResponse createBooking(ClusterNode owner, BookingRequest request, String idempotencyKey) {
+        return call(owner, () -> restClient.post()
+                .uri(owner.baseUrl() + BASE + "/bookings")
+                .headers(headers -> asCaller(headers, idempotencyKey))
+                .body(request)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(owner, res))
+                .body(BookingResponse.class));
+    }
+
+    @Override
+    public BookingResponse cancelBooking(ClusterNode owner, Long bookingId, String idempotencyKey) {
+        return call(owner, () -> restClient.post()
+                .uri(owner.baseUrl() + BASE + "/bookings/{id}/cancel", bookingId)
+                .headers(headers -> asCaller(headers, idempotencyKey))
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(owner, res))
+                .body(BookingResponse.class));
+    }
+
+    @Override
+    public BookingResponse updateStatus(ClusterNode owner, Long bookingId, BookingStatus status, String idempotencyKey) {
+        return call(owner, () -> restClient.post()
+                .uri(owner.baseUrl() + BASE + "/bookings/{id}/status?status={status}", bookingId, status)
+                .headers(headers -> asCaller(headers, idempotencyKey))
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(owner, res))
+                .body(BookingResponse.class));
+    }
+
+    @Override
+    public List<RoomResponse> findAvailableRooms(ClusterNode node, LocalDate checkIn, LocalDate checkOut,
+                                                 Integer guests, RoomType type) {
+        return call(node, () -> restClient.get()
+                .uri(node.baseUrl() + BASE + "/rooms/available", builder -> builder
+                        .queryParam("checkIn", checkIn)
+                        .queryParam("checkOut", checkOut)
+                        .queryParamIfPresent("guests", Optional.ofNullable(guests))
+                        .queryParamIfPresent("type", Optional.ofNullable(type))
+                        .build())
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(node, res))
+                .body(new ParameterizedTypeReference<List<RoomResponse>>() {}));
+    }
+
+    @Override
+    public List<DateWindow> findGaps(ClusterNode owner, Long roomId, LocalDate from, LocalDate to) {
+        return call(owner, () -> restClient.get()
+                .uri(owner.baseUrl() + BASE + "/rooms/{id}/gaps?from={from}&to={to}", roomId, from, to)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(owner, res))
+                .body(new ParameterizedTypeReference<List<DateWindow>>() {}));
+    }
+
+    @Override
+    public DateWindow findNextFreeWindow(ClusterNode owner, Long roomId, LocalDate from, int nights) {
+        return call(owner, () -> restClient.get()
+                .uri(owner.baseUrl() + BASE + "/rooms/{id}/next-free-window?from={from}&nights={nights}", roomId, from, nights)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(owner, res))
+                .body(DateWindow.class));
+    }
+
+    @Override
+    public String availabilityVersion(ClusterNode node) {
+        return call(node, () -> restClient.get()
+                .uri(node.baseUrl() + BASE + "/availability/version")
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(node, res))
+                .body(String.class));
+    }
+
+    @Override
+    public RoomAvailabilityCalendar availabilityCalendar(ClusterNode node, LocalDate from, LocalDate to, String since) {
+        return call(node, () -> restClient.get()
+                .uri(node.baseUrl() + BASE + "/availability", builder -> builder
+                        .queryParam("from", from)
+                        .queryParam("to", to)
+                        .queryParamIfPresent("since", Optional.ofNullable(since))
+                        .build())
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(node, res))
+                .body(RoomAvailabilityCalendar.class));
+    }
+
+    @Override
+    public void roomChanged(ClusterNode node, RoomChangedEvent event) {
+        call(node, () -> restClient.post()
+                .uri(node.baseUrl() + BASE + "/rooms/changed")
+                .body(event)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(node, res))
+                .toBodilessEntity());
+    }
+
+    @Override
+    public void availabilityChanged(ClusterNode node, AvailabilityChange change) {
+        call(node, () -> restClient.post()
+                .uri(node.baseUrl() + BASE + "/availability/changed")
+                .body(change)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(node, res))
+                .toBodilessEntity());
+    }
+
+    @Override
+    public void bookingsChanged(ClusterNode owner, List<BookingChangedEvent> events) {
+        call(owner, () -> restClient.post()
+                .uri(owner.baseUrl() + BASE + "/bookings/changed")
+                .body(events)
+                .retrieve()
+                .onStatus(HttpStatusCode::isError, (req, res) -> rethrow(owner, res))
+                .toBodilessEntity());
+    }
+
+    //the owner repeats the caller's permission checks, so forwarded writes carry who made them,
+    //and records the caller's Idempotency-Key in the transaction of the write
+    private void asCaller(HttpHeaders headers, String idempotencyKey) {
+        headers.setBearerAuth(sessionTokens.reissue(CurrentUser.require()));
+        if (idempotencyKey != null) {
+            headers.set(IdempotencyKeys.HEADER, idempotencyKey);
+        }
+    }
+
+    private static <T> T call(ClusterNode node, Supplier<T> request) {
+        try {
+            return request.get();
+        } catch (ResourceAccessException e) {
+            throw new NodeUnavailableException("Cluster node " + node.id() + " is unreachable", e);
+        }
+    }
+
+    //turns the peer's ApiExceptionHandler response back into the exception it was raised with
+    private void rethrow(ClusterNode node, ClientHttpResponse response) throws IOException {
+        HttpStatusCode status = response.getStatusCode();
+        String message = errorMessage(response);
+        if (status.value() == HttpStatus.BAD_REQUEST.value()) {
+            throw new IllegalArgumentException(message);
+        }
+        //the owner refused the forwarded caller; a 401 means the nodes disagree on a secret and stays a failure
+        if (status.value() == HttpStatus.FORBIDDEN.value()) {
+            throw new AccessDeniedException(message);
+        }
+        if (status.value() == HttpStatus.CONFLICT.value()) {
+            throw new BookingConflictException(message);
+        }
+        if (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            throw new NodeUnavailableException("Cluster node " + node.id() + " is busy: " + message, null);
+        }
+        throw new IllegalStateException("Cluster node " + node.id() + " failed (" + status.value() + "): " + message);
+    }
+
+    private String errorMessage(ClientHttpResponse response) {
+        try {
+            JsonNode body = objectMapper.readTree(response.getBody());
+            return body != null && body.hasNonNull("error") ? body.get("error").asText() : "";
+        } catch (IOException e) {
+            return "";
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.meti.roombooking.cluster;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Stand-in membership for tests and single-JVM experiments: nodes join and leave
+ * programmatically, every view sharing the same hub is notified.
+ */
+public class InProcessClusterMembership implements ClusterMembership, AutoCloseable {
+
+    private static final Hub SHARED = new Hub();
+
+    private final ClusterNode self;
+    private final Hub hub;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public InProcessClusterMembership(ClusterNode self, ApplicationEventPublisher eventPublisher) {
+        this(self, SHARED, eventPublisher);
+    }
+
+    InProcessClusterMembership(ClusterNode self, Hub hub, ApplicationEventPublisher eventPublisher) {
+        this.self = self;
+        this.hub = hub;
+        this.eventPublisher = eventPublisher;
+        hub.register(this);
+        join(self);
+    }
+
+    @Override
+    public ClusterNode self() {
+        return self;
+    }
+
+    @Override
+    public List<ClusterNode> members() {
+        return hub.members();
+    }
+
+    public void join(ClusterNode node) {
+        hub.change(members -> {
+            if (!members.contains(node)) {
+                members.add(node);
+            }
+        });
+    }
+
+    public void leave(String nodeId) {
+        hub.change(members -> members.removeIf(node -> node.id().equals(nodeId)));
+    }
+
+    //leaves the cluster and stops listening, called when the application context closes
+    @Override
+    public void close() {
+        hub.unregister(this);
+        leave(self.id());
+    }
+
+    private void changed(List<ClusterNode> members) {
+        eventPublisher.publishEvent(new MembershipChangedEvent(members));
+    }
+
+    static final class Hub {
+
+        private final List<InProcessClusterMembership> views = new ArrayList<>();
+        private List<ClusterNode> members = List.of();
+
+        synchronized void register(InProcessClusterMembership view) {
+            views.add(view);
+        }
+
+        synchronized void unregister(InProcessClusterMembership view) {
+            views.remove(view);
+        }
+
+        synchronized List<ClusterNode> members() {
+            return members;
+        }
+
+        private void change(Consumer<List<ClusterNode>> change) {
+            List<InProcessClusterMembership> notify;
+            List<ClusterNode> updated;
+            synchronized (this) {
+                List<ClusterNode> copy = new ArrayList<>(members);
+                change.accept(copy);
+                if (copy.equals(members)) {
+                    return;
+                }
+                members = List.copyOf(copy);
+                updated = members;
+                notify = List.copyOf(views);
+            }
+            notify.forEach(view -> view.changed(updated));
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.meti.roombooking.cluster;
+
+import java.util.List;
+
+//Published when a node joined or left; members is the new live list, including this node
+public record MembershipChangedEvent(List<ClusterNode> members) {
+}
@@ -0,0 +1,44 @@
+package com.meti.roombooking.cluster;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Sends the relays' fire-and-forget calls with one sender thread per peer, so the calls for
+ * a node reach it in the order they were handed over: a later room change never overtakes
+ * an earlier one and leaves the peer holding the older state.
+ */
+public class PeerDelivery implements AutoCloseable {
+
+    private final ConcurrentMap<String, ExecutorService> senders = new ConcurrentHashMap<>();
+
+    public void send(ClusterNode node, Runnable call) {
+        senders.computeIfAbsent(node.id(), id -> Executors.newSingleThreadExecutor(
+                        Thread.ofVirtual().name("peer-delivery-" + id).factory()))
+                .execute(call);
+    }
+
+    //blocks until every call handed over so far has been made (tests)
+    void awaitIdle() throws InterruptedException {
+        List<Future<?>> markers = new ArrayList<>();
+        senders.values().forEach(sender -> markers.add(sender.submit(() -> { })));
+        for (Future<?> marker : markers) {
+            try {
+                marker.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        senders.values().forEach(ExecutorService::shutdownNow);
+    }
+}
@@ -0,0 +1,53 @@
+package com.meti.roombooking.cluster;
+
+import com.meti.roombooking.event.RoomChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+
+/**
+ * Keeps room catalogue state (cache, availability bitmap) in step across nodes: a room
+ * change committed here is sent to every peer, which republishes it locally.
+ * Changes reach each peer in commit order through PeerDelivery. Delivery is still best
+ * effort: a peer that misses one keeps the old room in its catalogue cache until the TTL
+ * and in its availability and interval indexes until their nightly rebuild.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class RoomChangeRelay {
+
+    private static final ThreadLocal<Boolean> APPLYING_REMOTE = new ThreadLocal<>();
+
+    private final RoomPartitioner partitioner;
+    private final ClusterPeerClient peers;
+    private final PeerDelivery delivery;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        if (APPLYING_REMOTE.get() != null) {
+            return;
+        }
+        for (ClusterNode node : partitioner.peers()) {
+            delivery.send(node, () -> {
+                try {
+                    peers.roomChanged(node, event);
+                } catch (RuntimeException e) {
+                    log.warn("Room {} change not delivered to node {}: {}", event.roomId(), node.id(), e.getMessage());
+                }
+            });
+        }
+    }
+
+    //publishes a change received from a peer to this node's listeners, without relaying it back
+    public void applyRemote(RoomChangedEvent event) {
+        APPLYING_REMOTE.set(Boolean.TRUE);
+        try {
+            eventPublisher.publishEvent(event);
+        } finally {
+            APPLYING_REMOTE.remove();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.meti.roombooking.cluster;
+
+import com.meti.roombooking.availability.RoomOwnership;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Assigns every room to one live node by rendezvous (highest random weight) hashing:
+ * each node scores hash(node, room) and the highest score owns the room.
+ *
+ * When a node joins it takes over only the rooms it now wins, when it leaves only its
+ * own rooms move, spread evenly over the remaining nodes.
+ */
+public class RoomPartitioner implements RoomOwnership {
+
+    private final ClusterNode self;
+    private volatile Member[] members;
+
+    public RoomPartitioner(ClusterMembership membership) {
+        this.self = membership.self();
+        this.members = toMembers(membership.members());
+    }
+
+    //runs before the rebalancer so rebuilt indexes already see the new ownership
+    @Order(0)
+    @EventListener
+    public void onMembershipChanged(MembershipChangedEvent event) {
+        members = toMembers(event.members());
+    }
+
+    public ClusterNode ownerOf(Long roomId) {
+        Member[] current = members;
+        if (current.length == 0) {
+            return self;
+        }
+        Member owner = current[0];
+        long best = score(owner.seed, roomId);
+        for (int i = 1; i < current.length; i++) {
+            long score = score(current[i].seed, roomId);
+            if (Long.compareUnsigned(score, best) > 0) {
+                owner = current[i];
+                best = score;
+            }
+        }
+        return owner.node;
+    }
+
+    @Override
+    public boolean ownsRoom(Long roomId) {
+        return ownerOf(roomId).equals(self);
+    }
+
+    public ClusterNode self() {
+        return self;
+    }
+
+    //live nodes other than this one
+    public List<ClusterNode> peers() {
+        return Arrays.stream(members)
+                .map(member -> member.node)
+                .filter(node -> !node.equals(self))
+                .toList();
+    }
+
+    private static Member[] toMembers(List<ClusterNode> nodes) {
+        return nodes.stream()
+                .map(node -> new Member(node, seed(node.id())))
+                .toArray(Member[]::new);
+    }
+
+    //64-bit FNV-1a of the node id, fixed per node
+    private static long seed(String nodeId) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : nodeId.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    //SplitMix64 finalizer over the node seed and room id
+    private static long score(long seed, long roomId) {
+        long z = seed ^ (roomId * 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private record Member(ClusterNode node, long seed) {
+    }
+}
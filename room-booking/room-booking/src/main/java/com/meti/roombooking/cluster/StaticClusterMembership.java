@@ -0,0 +1,78 @@
+package com.meti.roombooking.cluster;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Membership from a fixed list of nodes (booking.cluster.nodes). A node counts as live
+ * while it answers the internal ping; this node is always live for itself.
+ * Nodes that stop answering leave the list and come back once they answer again.
+ */
+@Slf4j
+public class StaticClusterMembership implements ClusterMembership {
+
+    private final ClusterNode self;
+    private final List<ClusterNode> configured;
+    private final RestClient restClient;
+    private final ApplicationEventPublisher eventPublisher;
+
+    private volatile List<ClusterNode> live;
+
+    public StaticClusterMembership(ClusterNode self,
+                                   List<ClusterNode> configured,
+                                   RestClient restClient,
+                                   ApplicationEventPublisher eventPublisher) {
+        this.self = self;
+        this.configured = List.copyOf(configured);
+        this.restClient = restClient;
+        this.eventPublisher = eventPublisher;
+        //optimistic start: everyone is assumed live until the first probe says otherwise
+        this.live = this.configured;
+    }
+
+    @Override
+    public ClusterNode self() {
+        return self;
+    }
+
+    @Override
+    public List<ClusterNode> members() {
+        return live;
+    }
+
+    @Scheduled(fixedDelayString = "${booking.cluster.probe-interval:2s}")
+    public void probe() {
+        List<ClusterNode> answering = new ArrayList<>();
+        for (ClusterNode node : configured) {
+            if (node.equals(self) || answers(node)) {
+                answering.add(node);
+            }
+        }
+        if (!answering.equals(live)) {
+            log.info("Cluster membership changed: {} -> {}", ids(live), ids(answering));
+            live = List.copyOf(answering);
+            eventPublisher.publishEvent(new MembershipChangedEvent(live));
+        }
+    }
+
+    private boolean answers(ClusterNode node) {
+        try {
+            restClient.get()
+                    .uri(node.baseUrl() + "/internal/cluster/ping")
+                    .retrieve()
+                    .toBodilessEntity();
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static List<String> ids(List<ClusterNode> nodes) {
+        return nodes.stream().map(ClusterNode::id).toList();
+    }
+}
@@ -0,0 +1,108 @@
+package com.meti.roombooking.concurrency;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.ProxyMethodInvocation;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry of writes that lost an optimistic-lock race.
+ *
+ * A conflict means the row changed between our read and our write; the transaction is rolled
+ * back and run again from scratch, so the second attempt reads the winner's state and either
+ * applies on top of it or fails on its own terms (e.g. an invalid status transition). Attempts
+ * are spaced by a short randomized pause so colliding writers don't collide again. Inside a
+ * caller's transaction nothing is retried: the conflict goes up to whoever owns that transaction.
+ */
+@Slf4j
+@Component
+public class ConflictRetry {
+
+    private final int maxAttempts;
+    private final long backoffNanos;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    public ConflictRetry(@Value("${booking.retry.max-attempts:3}") int maxAttempts,
+                         @Value("${booking.retry.backoff:10ms}") Duration backoff,
+                         MeterRegistry registry) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("booking.retry.max-attempts must be at least 1");
+        }
+        this.maxAttempts = maxAttempts;
+        this.backoffNanos = backoff.toNanos();
+        this.retries = Counter.builder("booking.conflict.retries")
+                .description("Writes re-run after an optimistic-lock conflict")
+                .register(registry);
+        this.exhausted = Counter.builder("booking.conflict.exhausted")
+                .description("Writes that still conflicted after the last attempt")
+                .register(registry);
+    }
+
+    public <T> T execute(Supplier<T> write) {
+        try {
+            return run(write::get);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            //suppliers cannot throw checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    //advice for @RetryOnConflict methods; each attempt proceeds through the rest of the chain,
+    //transaction interceptor included
+    Object invoke(MethodInvocation invocation) throws Throwable {
+        if (!(invocation instanceof ProxyMethodInvocation proxyInvocation)) {
+            return invocation.proceed();
+        }
+        return run(() -> proxyInvocation.invocableClone().proceed());
+    }
+
+    private <T> T run(Attempt<T> attempt) throws Throwable {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return attempt.run();
+        }
+        for (int n = 1; ; n++) {
+            try {
+                return attempt.run();
+            } catch (OptimisticLockingFailureException e) {
+                if (n >= maxAttempts) {
+                    exhausted.increment();
+                    throw e;
+                }
+                retries.increment();
+                log.debug("Write conflicted (attempt {} of {}): {}", n, maxAttempts, e.getMessage());
+                pause(n, e);
+            }
+        }
+    }
+
+    private void pause(int attempt, OptimisticLockingFailureException conflict) {
+        if (backoffNanos <= 0) {
+            return;
+        }
+        long ceiling = backoffNanos * attempt;
+        long nanos = ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+        try {
+            Thread.sleep(Duration.ofNanos(nanos));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw conflict;
+        }
+    }
+
+    @FunctionalInterface
+    private interface Attempt<T> {
+        T run() throws Throwable;
+    }
+}
@@ -0,0 +1,29 @@
+package com.meti.roombooking.concurrency;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.Advisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class ConflictRetryConfig {
+
+    //infrastructure role so the auto-proxy creator that applies @Transactional picks it up too;
+    //ordered ahead of the transaction advisor, so every attempt gets a transaction of its own.
+    //Static and lazy like the DataSource limiter: the retry (and its meter registry) resolves on first call
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor conflictRetryAdvisor(ObjectProvider<ConflictRetry> retry) {
+        MethodInterceptor interceptor = invocation -> retry.getObject().invoke(invocation);
+        DefaultPointcutAdvisor advisor = new DefaultPointcutAdvisor(
+                new AnnotationMatchingPointcut(null, RetryOnConflict.class, true), interceptor);
+        advisor.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return advisor;
+    }
+}
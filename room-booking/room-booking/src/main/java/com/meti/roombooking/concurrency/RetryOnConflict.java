@@ -0,0 +1,17 @@
+package com.meti.roombooking.concurrency;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Re-runs the annotated method, transaction included, when it fails with an optimistic-lock
+ * conflict. Only for writes that are safe to repeat against fresh state; see {@link ConflictRetry}.
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface RetryOnConflict {
+}
@@ -1,6 +1,15 @@
 package com.meti.roombooking.config;
 
 
+import com.meti.roombooking.exception.AccessDeniedException;
+import com.meti.roombooking.exception.AuthenticationRequiredException;
+import com.meti.roombooking.exception.BookingConflictException;
+import com.meti.roombooking.exception.DatabaseBusyException;
+import com.meti.roombooking.exception.IdempotencyKeyInProgressException;
+import com.meti.roombooking.exception.NodeUnavailableException;
+import com.meti.roombooking.exception.RoomVersionConflictException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -22,6 +31,72 @@ public class ApiExceptionHandler {
         return ResponseEntity.badRequest().body(body);
     }
 
+    @ExceptionHandler(AuthenticationRequiredException.class)
+    public ResponseEntity<Map<String,Object>> handleAuthenticationRequired(AuthenticationRequiredException ex){
+        Map<String,Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error",  ex.getMessage());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                .body(body);
+    }
+
+    @ExceptionHandler(AccessDeniedException.class)
+    public ResponseEntity<Map<String,Object>> handleAccessDenied(AccessDeniedException ex){
+        Map<String,Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error",  ex.getMessage());
+        return ResponseEntity.status(HttpStatus.FORBIDDEN).body(body);
+    }
+
+    @ExceptionHandler(BookingConflictException.class)
+    public ResponseEntity<Map<String,Object>> handleBookingConflict(BookingConflictException ex){
+        Map<String,Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error",  ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    //the room changed since the admin read it: re-read and re-apply rather than retry as is
+    @ExceptionHandler(RoomVersionConflictException.class)
+    public ResponseEntity<Map<String,Object>> handleRoomVersionConflict(RoomVersionConflictException ex){
+        Map<String,Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error",  ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(body);
+    }
+
+    //still conflicting after the automatic retries: the row keeps changing under us
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<Map<String,Object>> handleOptimisticLockingFailure(OptimisticLockingFailureException ex){
+        Map<String,Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error",  "Modified concurrently, please retry");
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    @ExceptionHandler(IdempotencyKeyInProgressException.class)
+    public ResponseEntity<Map<String,Object>> handleIdempotencyKeyInProgress(IdempotencyKeyInProgressException ex){
+        Map<String,Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error",  ex.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
+    @ExceptionHandler(NodeUnavailableException.class)
+    public ResponseEntity<Map<String,Object>> handleNodeUnavailable(NodeUnavailableException ex){
+        Map<String,Object> body = new HashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error",  ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(body);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, Object>> handleValidation(MethodArgumentNotValidException ex){
         Map<String,Object> body = new HashMap<>();
@@ -37,6 +112,14 @@ public class ApiExceptionHandler {
     }
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleAllExceptions(Exception ex) {
+        if (DatabaseBusyException.isCause(ex)) {
+            Map<String, Object> body = new HashMap<>();
+            body.put("timestamp", LocalDateTime.now());
+            body.put("error", "Service busy, please retry");
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(body);
+        }
         Map<String, Object> body = new HashMap<>();
         body.put("timestamp", LocalDateTime.now());
         body.put("error", "Internal server error");
@@ -1,6 +1,7 @@
 package com.meti.roombooking.controller;
 
 import com.meti.roombooking.dto.auth.LoginRequest;
+import com.meti.roombooking.dto.auth.LoginResponse;
 import com.meti.roombooking.dto.auth.UserRegistrationRequest;
 import com.meti.roombooking.dto.auth.UserResponse;
 import com.meti.roombooking.service.UserService;
@@ -24,8 +25,8 @@ public class AuthController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<String> login(@Valid @RequestBody LoginRequest request) {
-        String result = userService.login(request);
+    public ResponseEntity<LoginResponse> login(@Valid @RequestBody LoginRequest request) {
+        LoginResponse result = userService.login(request);
         return ResponseEntity.ok(result);
     }
 }
@@ -1,35 +1,75 @@
 package com.meti.roombooking.controller;
 
+import com.meti.roombooking.auth.AuthenticatedUser;
+import com.meti.roombooking.auth.CurrentUser;
+import com.meti.roombooking.dto.booking.BatchMode;
+import com.meti.roombooking.dto.booking.BookingBatchRequest;
+import com.meti.roombooking.dto.booking.BookingBatchResponse;
+import com.meti.roombooking.dto.booking.BookingPage;
 import com.meti.roombooking.dto.booking.BookingRequest;
 import com.meti.roombooking.dto.booking.BookingResponse;
 import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.exception.AccessDeniedException;
+import com.meti.roombooking.exception.BookingConflictException;
+import com.meti.roombooking.exception.IdempotencyKeyInProgressException;
+import com.meti.roombooking.exception.NodeUnavailableException;
+import com.meti.roombooking.export.ExportFormat;
+import com.meti.roombooking.idempotency.IdempotencyKeys;
+import com.meti.roombooking.idempotency.IdempotentResponse;
 import com.meti.roombooking.service.BookingService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 @Slf4j
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/bookings")
 public class BookingController {
+    private static final String IDEMPOTENCY_KEY = IdempotencyKeys.HEADER;
+    private static final String IDEMPOTENT_REPLAYED = "Idempotent-Replayed";
+
     private final BookingService bookingService;
+    private final IdempotencyKeys idempotencyKeys;
 
     @PostMapping
-    public ResponseEntity<?> createBooking(@Valid @RequestBody BookingRequest request) {
+    public ResponseEntity<?> createBooking(
+            @Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ) {
+        //outside the try: auth failures are 401/403, not booking conflicts
+        bookFor(request);
         try {
-            BookingResponse booking = bookingService.createBooking(request);
-            log.info("Booking created successfully with ID: {}", booking.getId());
-            return ResponseEntity.ok(booking);
+            //follow-up work (the success log line included) runs from the outbox, after commit
+            return idempotent(idempotencyKey, IdempotencyKeys.createRequest(request),
+                    key -> bookingService.forwardCreateBooking(request, key),
+                    () -> bookingService.createBooking(request));
+        } catch (BookingConflictException e) {
+            log.warn("Booking rejected: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body("Booking conflict: " + e.getMessage());
         } catch (IllegalArgumentException e) {
             log.error("Invalid booking request: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("Invalid booking data: " + e.getMessage());
+        } catch (CannotCreateTransactionException | NodeUnavailableException | IdempotencyKeyInProgressException e) {
+            //no database connection (e.g. DB limiter timeout), owning node down or the same key still running,
+            //mapped by ApiExceptionHandler
+            throw e;
         } catch (RuntimeException e) {
             log.error("Room unavailable or conflict: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -40,11 +80,30 @@ public class BookingController {
                     .body("An error occurred while creating the booking");
         }
     }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BookingBatchResponse> createBookings(@Valid @RequestBody BookingBatchRequest request) {
+        request.getBookings().forEach(this::bookFor);
+        BookingBatchResponse response = bookingService.createBookings(request.getBookings(), request.getMode());
+        log.info("Batch booking ({}): {} created, {} rejected", response.getMode(), response.getCreated(), response.getRejected());
+        if (response.getMode() == BatchMode.ALL_OR_NOTHING && response.getRejected() > 0) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
+        }
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<?> getBookingById(@PathVariable Long id) {
+        AuthenticatedUser user = CurrentUser.require();
         try {
             BookingResponse booking = bookingService.getBookingById(id);
+            //someone else's booking is reported like a missing one
+            if (!user.canActFor(booking.getUserId())) {
+                throw new IllegalArgumentException("Booking not found");
+            }
             return ResponseEntity.ok(booking);
+        } catch (CannotCreateTransactionException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("Booking not found with ID: {}", id);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -58,9 +117,12 @@ public class BookingController {
 
     @GetMapping("/user/{userId}")
     public ResponseEntity<?> getBookingForUser(@PathVariable Long userId) {
+        CurrentUser.requireActingFor(userId);
         try {
             List<BookingResponse> bookings = bookingService.getBookingsForUser(userId);
             return ResponseEntity.ok(bookings);
+        } catch (CannotCreateTransactionException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("User not found with ID: {}", userId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -72,40 +134,93 @@ public class BookingController {
         }
     }
 
+    //live and archived bookings of the user, newest stay first; nextCursor fetches older ones
+    @GetMapping("/user/{userId}/history")
+    public ResponseEntity<BookingPage> getUserHistory(
+            @PathVariable Long userId,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        CurrentUser.requireActingFor(userId);
+        return ResponseEntity.ok(bookingService.getUserHistory(userId, cursor, limit));
+    }
+
     @GetMapping("/status/{status}")
     public ResponseEntity<List<BookingResponse>> getBookingByStatus(@PathVariable BookingStatus status){
+        CurrentUser.requireAdmin();
         return ResponseEntity.ok(bookingService.getBookingByStatus(status));
     }
 
     @PostMapping("/{id}/cancel")
-    public ResponseEntity<BookingResponse> cancelBooking(@PathVariable Long id){
-        return ResponseEntity.ok(bookingService.cancelBooking(id));
+    public ResponseEntity<BookingResponse> cancelBooking(
+            @PathVariable Long id,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
+    ){
+        AuthenticatedUser user = CurrentUser.require();
+        if (!user.isAdmin() && !user.userId().equals(bookingService.getBookingById(id).getUserId())) {
+            throw new AccessDeniedException("Not allowed to cancel booking " + id);
+        }
+        return idempotent(idempotencyKey, IdempotencyKeys.cancelRequest(id),
+                key -> bookingService.forwardCancelBooking(id, key),
+                () -> bookingService.cancelBooking(id));
     }
     @PostMapping("{id}/status")
     public ResponseEntity<BookingResponse> updateStatus(
             @PathVariable Long id,
-            @RequestParam BookingStatus status
+            @RequestParam BookingStatus status,
+            @RequestHeader(value = IDEMPOTENCY_KEY, required = false) String idempotencyKey
     ){
-        return ResponseEntity.ok(bookingService.updateStatus(id, status));
+        CurrentUser.requireAdmin();
+        return idempotent(idempotencyKey, IdempotencyKeys.statusRequest(id, status),
+                key -> bookingService.forwardUpdateStatus(id, status, key),
+                () -> bookingService.updateStatus(id, status));
     }
 
     @GetMapping("/admin")
-    public List<BookingResponse> getAllBookings() {
-        return bookingService.getAllBookings();
+    public ResponseEntity<BookingPage> getAllBookings(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        CurrentUser.requireAdmin();
+        return ResponseEntity.ok(bookingService.getAllBookings(cursor, limit));
     }
 
+    //streams the whole (filtered) table without building it in memory
+    @GetMapping("/admin/export")
+    public ResponseEntity<StreamingResponseBody> exportBookings(
+            @RequestParam(defaultValue = "ndjson") String format,
+            @RequestParam(required = false) BookingStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        CurrentUser.requireAdmin();
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        StreamingResponseBody body = out -> {
+            long rows = bookingService.exportBookings(status, from, to, exportFormat, out);
+            log.info("Exported {} bookings as {}", rows, exportFormat);
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=bookings." + exportFormat.extension())
+                .body(body);
+    }
 
     @GetMapping("/sorted")
     public ResponseEntity<?> getBookingsSorted(
             @RequestParam(defaultValue = "checkIn") String sortBy,
-            @RequestParam(defaultValue = "asc") String order) {
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        CurrentUser.requireAdmin();
         try {
-            List<BookingResponse> bookings = bookingService.getBookingsSorted(sortBy, order);
+            BookingPage bookings = bookingService.getBookingsSorted(sortBy, order, cursor, limit);
             return ResponseEntity.ok(bookings);
         } catch (IllegalArgumentException e) {
             log.error("Invalid sort parameter: {}", e.getMessage());
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("Invalid sort parameter: " + e.getMessage());
+        } catch (CannotCreateTransactionException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error retrieving sorted bookings", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -117,10 +232,19 @@ public class BookingController {
     public ResponseEntity<?> getUserBookingsSorted(
             @PathVariable Long userId,
             @RequestParam(defaultValue = "checkIn") String sortBy,
-            @RequestParam(defaultValue = "asc") String order) {
+            @RequestParam(defaultValue = "asc") String order,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "50") int limit) {
+        CurrentUser.requireActingFor(userId);
         try {
-            List<BookingResponse> bookings = bookingService.getUserBookingsSorted(userId, sortBy, order);
+            BookingPage bookings = bookingService.getUserBookingsSorted(userId, sortBy, order, cursor, limit);
             return ResponseEntity.ok(bookings);
+        } catch (IllegalArgumentException e) {
+            log.error("Invalid sort parameter: {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                    .body("Invalid sort parameter: " + e.getMessage());
+        } catch (CannotCreateTransactionException e) {
+            throw e;
         } catch (RuntimeException e) {
             log.error("User not found with ID: {}", userId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
@@ -131,4 +255,29 @@ public class BookingController {
                     .body("An error occurred while retrieving user bookings");
         }
     }
+
+    //signed-in clients book for themselves, the user id defaults to theirs
+    private void bookFor(BookingRequest request) {
+        AuthenticatedUser user = request.getUserId() == null
+                ? CurrentUser.require()
+                : CurrentUser.requireActingFor(request.getUserId());
+        if (request.getUserId() == null) {
+            request.setUserId(user.userId());
+        }
+    }
+
+    //with an Idempotency-Key the write runs once, retries get the recorded response back;
+    //forward sends a write owned by another cluster node there, key included
+    private ResponseEntity<BookingResponse> idempotent(String key, String request,
+                                                       Function<String, Optional<BookingResponse>> forward,
+                                                       Supplier<BookingResponse> write) {
+        if (key == null) {
+            return ResponseEntity.ok(write.get());
+        }
+        //keys are per signed-in user, a replay never hands out another user's response
+        IdempotentResponse result = idempotencyKeys.execute(CurrentUser.require().userId(), key, request, forward, write);
+        return ResponseEntity.ok()
+                .header(IDEMPOTENT_REPLAYED, String.valueOf(result.replayed()))
+                .body(result.response());
+    }
 }
@@ -0,0 +1,155 @@
+package com.meti.roombooking.controller;
+
+import com.meti.roombooking.auth.AuthenticatedUser;
+import com.meti.roombooking.auth.CurrentUser;
+import com.meti.roombooking.cluster.BookingChangeRelay;
+import com.meti.roombooking.cluster.ClusteredRoomService;
+import com.meti.roombooking.cluster.RoomChangeRelay;
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.AvailabilityChange;
+import com.meti.roombooking.dto.room.DateWindow;
+import com.meti.roombooking.dto.room.RoomAvailabilityCalendar;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.event.RoomChangedEvent;
+import com.meti.roombooking.exception.AccessDeniedException;
+import com.meti.roombooking.feed.AvailabilityFeed;
+import com.meti.roombooking.idempotency.IdempotencyKeys;
+import com.meti.roombooking.service.impl.BookingServiceImpl;
+import com.meti.roombooking.service.impl.RoomServiceImpl;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+//node-to-node API: requests routed here are executed locally and never forwarded again.
+//ClusterSecretFilter admits cluster nodes only; forwarded writes repeat the caller's checks
+//against the session token the forwarding node sent along
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/internal/cluster")
+@ConditionalOnProperty(name = "booking.cluster.enabled", havingValue = "true")
+public class ClusterController {
+    private final BookingServiceImpl bookingService;
+    private final RoomServiceImpl roomService;
+    private final ClusteredRoomService clusteredRoomService;
+    private final RoomChangeRelay roomChangeRelay;
+    private final BookingChangeRelay bookingChangeRelay;
+    private final AvailabilityFeed availabilityFeed;
+    private final IdempotencyKeys idempotencyKeys;
+
+    @GetMapping("/ping")
+    public ResponseEntity<Void> ping() {
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/bookings")
+    public ResponseEntity<BookingResponse> createBooking(
+            @Valid @RequestBody BookingRequest request,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey
+    ) {
+        CurrentUser.requireActingFor(request.getUserId());
+        return keyed(idempotencyKey, IdempotencyKeys.createRequest(request), () -> bookingService.createBooking(request));
+    }
+
+    @PostMapping("/bookings/{id}/cancel")
+    public ResponseEntity<BookingResponse> cancelBooking(
+            @PathVariable Long id,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey
+    ) {
+        AuthenticatedUser user = CurrentUser.require();
+        if (!user.isAdmin() && !user.userId().equals(bookingService.getBookingById(id).getUserId())) {
+            throw new AccessDeniedException("Not allowed to cancel booking " + id);
+        }
+        return keyed(idempotencyKey, IdempotencyKeys.cancelRequest(id), () -> bookingService.cancelBooking(id));
+    }
+
+    @PostMapping("/bookings/{id}/status")
+    public ResponseEntity<BookingResponse> updateStatus(
+            @PathVariable Long id,
+            @RequestParam BookingStatus status,
+            @RequestHeader(value = IdempotencyKeys.HEADER, required = false) String idempotencyKey
+    ) {
+        CurrentUser.requireAdmin();
+        return keyed(idempotencyKey, IdempotencyKeys.statusRequest(id, status), () -> bookingService.updateStatus(id, status));
+    }
+
+    //bookings of rooms owned here that a batch committed on another node
+    @PostMapping("/bookings/changed")
+    public ResponseEntity<Void> bookingsChanged(@RequestBody List<BookingChangedEvent> events) {
+        bookingChangeRelay.applyRemote(events);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/rooms/available")
+    public ResponseEntity<List<RoomResponse>> getOwnedAvailableRooms(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkIn,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate checkOut,
+            @RequestParam(required = false) Integer guests,
+            @RequestParam(required = false) RoomType type
+    ) {
+        return ResponseEntity.ok(clusteredRoomService.findOwnedAvailableRooms(checkIn, checkOut, guests, type));
+    }
+
+    @GetMapping("/rooms/{id}/gaps")
+    public ResponseEntity<List<DateWindow>> getRoomGaps(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(roomService.findGaps(id, from, to));
+    }
+
+    @GetMapping("/rooms/{id}/next-free-window")
+    public ResponseEntity<DateWindow> getNextFreeWindow(
+            @PathVariable Long id,
+            @RequestParam int nights,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from
+    ) {
+        return ResponseEntity.ok(roomService.findNextFreeWindow(id, from, nights));
+    }
+
+    @GetMapping("/availability/version")
+    public ResponseEntity<String> getAvailabilityVersion() {
+        return ResponseEntity.ok(roomService.getAvailabilityVersion());
+    }
+
+    @GetMapping("/availability")
+    public ResponseEntity<RoomAvailabilityCalendar> getOwnedAvailabilityCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String since
+    ) {
+        return ResponseEntity.ok(clusteredRoomService.getOwnedAvailabilityCalendar(from, to, since));
+    }
+
+    @PostMapping("/rooms/changed")
+    public ResponseEntity<Void> roomChanged(@RequestBody RoomChangedEvent event) {
+        roomChangeRelay.applyRemote(event);
+        return ResponseEntity.noContent().build();
+    }
+
+    //a booking change on the room's owner, pushed to this node's stream subscribers
+    @PostMapping("/availability/changed")
+    public ResponseEntity<Void> availabilityChanged(@RequestBody AvailabilityChange change) {
+        availabilityFeed.publish(change);
+        return ResponseEntity.noContent().build();
+    }
+
+    //a write forwarded with the caller's key records it in the write's own transaction here
+    private ResponseEntity<BookingResponse> keyed(String idempotencyKey, String request, Supplier<BookingResponse> write) {
+        if (idempotencyKey == null) {
+            return ResponseEntity.ok(write.get());
+        }
+        return ResponseEntity.ok(idempotencyKeys.execute(CurrentUser.require().userId(), idempotencyKey, request, write).response());
+    }
+}
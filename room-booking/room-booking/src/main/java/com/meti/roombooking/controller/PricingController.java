@@ -0,0 +1,58 @@
+package com.meti.roombooking.controller;
+
+import com.meti.roombooking.auth.CurrentUser;
+import com.meti.roombooking.dto.pricing.PriceRuleRequest;
+import com.meti.roombooking.dto.pricing.PriceRuleResponse;
+import com.meti.roombooking.dto.pricing.QuoteRequest;
+import com.meti.roombooking.dto.pricing.QuoteResponse;
+import com.meti.roombooking.service.PricingService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+public class PricingController {
+    private final PricingService pricingService;
+
+    //PUBLIC ENDPOINTS
+
+    //prices up to 500 (room, checkIn, checkOut) stays in one call, without checking availability
+    @PostMapping("/api/quotes")
+    public ResponseEntity<QuoteResponse> quote(@Valid @RequestBody QuoteRequest request) {
+        return ResponseEntity.ok(pricingService.quote(request.getStays()));
+    }
+
+    //ADMIN ENDPOINTS
+
+    @GetMapping("/api/admin/price-rules")
+    public ResponseEntity<List<PriceRuleResponse>> getPriceRules() {
+        CurrentUser.requireAdmin();
+        return ResponseEntity.ok(pricingService.getAllRules());
+    }
+
+    @PostMapping("/api/admin/price-rules")
+    public ResponseEntity<PriceRuleResponse> createPriceRule(@Valid @RequestBody PriceRuleRequest request) {
+        CurrentUser.requireAdmin();
+        return ResponseEntity.ok(pricingService.createRule(request));
+    }
+
+    @PutMapping("/api/admin/price-rules/{id}")
+    public ResponseEntity<PriceRuleResponse> updatePriceRule(
+            @PathVariable Long id,
+            @Valid @RequestBody PriceRuleRequest request
+    ) {
+        CurrentUser.requireAdmin();
+        return ResponseEntity.ok(pricingService.updateRule(id, request));
+    }
+
+    @DeleteMapping("/api/admin/price-rules/{id}")
+    public ResponseEntity<Void> deletePriceRule(@PathVariable Long id) {
+        CurrentUser.requireAdmin();
+        pricingService.deleteRule(id);
+        return ResponseEntity.noContent().build();
+    }
+}
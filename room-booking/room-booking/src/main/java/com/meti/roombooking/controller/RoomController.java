@@ -1,24 +1,40 @@
 package com.meti.roombooking.controller;
 
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.meti.roombooking.auth.CurrentUser;
+import com.meti.roombooking.cache.RoomCatalogueCache;
+import com.meti.roombooking.dto.room.DateWindow;
+import com.meti.roombooking.dto.room.InventoryCalendar;
+import com.meti.roombooking.dto.room.RoomAvailabilityCalendar;
 import com.meti.roombooking.dto.room.RoomRequest;
 import com.meti.roombooking.dto.room.RoomResponse;
 import com.meti.roombooking.entity.Room;
 import com.meti.roombooking.entity.RoomStatus;
 import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.feed.AvailabilityFeed;
 import com.meti.roombooking.service.RoomService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequiredArgsConstructor
 public class RoomController {
     private final RoomService roomService;
+    private final RoomCatalogueCache roomCache;
+    private final AvailabilityFeed availabilityFeed;
 
     //PUBLIC ENDPOINTS
 
@@ -45,10 +61,61 @@ public class RoomController {
         );
     }
 
-    //ADMIN ENDPOINTS//TODO PROTECT VIA JWT /ROLES
+    @GetMapping("/api/rooms/{id}/gaps")
+    public ResponseEntity<List<DateWindow>> getRoomGaps(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        return ResponseEntity.ok(roomService.findGaps(id, from, to));
+    }
+
+    @GetMapping("/api/rooms/{id}/next-free-window")
+    public ResponseEntity<DateWindow> getNextFreeWindow(
+            @PathVariable Long id,
+            @RequestParam int nights,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from
+    ) {
+        return ResponseEntity.ok(roomService.findNextFreeWindow(id, from != null ? from : LocalDate.now(), nights));
+    }
+
+    //polled by clients: 304 while nothing changed, ?since=<version> returns only the changed rooms
+    @GetMapping("/api/rooms/availability")
+    public ResponseEntity<RoomAvailabilityCalendar> getAvailabilityCalendar(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String since,
+            WebRequest webRequest
+    ) {
+        if (webRequest.checkNotModified(roomService.getAvailabilityVersion())) {
+            return null;
+        }
+        RoomAvailabilityCalendar calendar = roomService.getAvailabilityCalendar(from, to, since);
+        return ResponseEntity.ok()
+                .eTag(calendar.getVersion())
+                .cacheControl(CacheControl.noCache())
+                .body(calendar);
+    }
+
+    //pushed instead of polled: "availability" events list changed room nights, "resync" asks for a full re-read
+    @GetMapping(value = "/api/rooms/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAvailability() {
+        return availabilityFeed.subscribe();
+    }
+
+    //free rooms per type for every night of a month, e.g. ?month=2026-11&type=SUITE
+    @GetMapping("/api/rooms/calendar")
+    public ResponseEntity<List<InventoryCalendar>> getInventoryCalendar(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month,
+            @RequestParam(required = false) RoomType type
+    ) {
+        return ResponseEntity.ok(roomService.getInventoryCalendar(month, type));
+    }
+
+    //ADMIN ENDPOINTS
     @PostMapping("/api/admin/rooms")
     public ResponseEntity<RoomResponse> createRoom(@Valid @RequestBody RoomRequest request) {
-        System.out.println("DEBUG RoomRequest: " + request);
+        CurrentUser.requireAdmin();
         return ResponseEntity.ok(roomService.createRoom(request));
     }
 
@@ -57,18 +124,40 @@ public class RoomController {
             @PathVariable Long id,
             @Valid @RequestBody RoomRequest request
     ){
+        CurrentUser.requireAdmin();
         return ResponseEntity.ok(roomService.updateRoom(id, request));
     }
 
     @DeleteMapping("/api/admin/rooms/{id}")
     public ResponseEntity<Void> deleteRoom(@PathVariable Long id){
+        CurrentUser.requireAdmin();
         roomService.deleteRoom(id);
         return ResponseEntity.noContent().build();
     }
 
     @GetMapping("/api/admin/rooms/status/{status}")
     public ResponseEntity<List<RoomResponse>> getRoomsByStatus(@PathVariable RoomStatus status){
+        CurrentUser.requireAdmin();
         return ResponseEntity.ok(roomService.findByStatus(status));
     }
 
+    @GetMapping("/api/admin/rooms/cache")
+    public ResponseEntity<Map<String, Object>> getRoomCacheStats() {
+        CurrentUser.requireAdmin();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("size", roomCache.size());
+        body.put("rooms", cacheStats(roomCache.roomStats()));
+        body.put("lists", cacheStats(roomCache.listStats()));
+        return ResponseEntity.ok(body);
+    }
+
+    private static Map<String, Object> cacheStats(CacheStats stats) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("hits", stats.hitCount());
+        body.put("misses", stats.missCount());
+        body.put("hitRate", stats.hitRate());
+        body.put("evictions", stats.evictionCount());
+        return body;
+    }
+
 }
@@ -0,0 +1,66 @@
+package com.meti.roombooking.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+
+/**
+ * Connection proxy that runs a callback once when the connection is closed (returned to its pool).
+ * Same interception as Spring's own connection proxies; everything but close() is passed through.
+ */
+final class CloseHookConnection implements InvocationHandler {
+
+    private final Connection target;
+    private final Runnable onClose;
+    private boolean closed;
+
+    private CloseHookConnection(Connection target, Runnable onClose) {
+        this.target = target;
+        this.onClose = onClose;
+    }
+
+    static Connection wrap(Connection target, Runnable onClose) {
+        return (Connection) Proxy.newProxyInstance(
+                CloseHookConnection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                new CloseHookConnection(target, onClose));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        switch (method.getName()) {
+            case "close" -> {
+                try {
+                    target.close();
+                } finally {
+                    //a connection is confined to one thread, close() may be called twice
+                    if (!closed) {
+                        closed = true;
+                        onClose.run();
+                    }
+                }
+                return null;
+            }
+            case "equals" -> {
+                return proxy == args[0];
+            }
+            case "hashCode" -> {
+                return System.identityHashCode(proxy);
+            }
+            case "unwrap" -> {
+                if (((Class<?>) args[0]).isInstance(proxy)) {
+                    return proxy;
+                }
+            }
+            default -> {
+            }
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.meti.roombooking.datasource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * DataSource that holds one limiter permit per open connection: taken before borrowing
+ * from the pool, given back when the connection is closed (returned to the pool).
+ */
+public class ConcurrencyLimitedDataSource extends DelegatingDataSource {
+
+    private final DbConcurrencyLimiter limiter;
+
+    public ConcurrencyLimitedDataSource(DataSource target, DbConcurrencyLimiter limiter) {
+        super(target);
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        limiter.acquire();
+        try {
+            return permitHolding(obtainTargetDataSource().getConnection());
+        } catch (SQLException | RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        limiter.acquire();
+        try {
+            return permitHolding(obtainTargetDataSource().getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            limiter.release();
+            throw e;
+        }
+    }
+
+    private Connection permitHolding(Connection target) {
+        return CloseHookConnection.wrap(target, limiter::release);
+    }
+}
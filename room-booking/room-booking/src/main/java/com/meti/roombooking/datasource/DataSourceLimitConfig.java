@@ -0,0 +1,28 @@
+package com.meti.roombooking.datasource;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "booking.db.limiter.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceLimitConfig {
+
+    //static and lazy: the limiter (and its meter registry) is only resolved when the DataSource is created
+    @Bean
+    public static BeanPostProcessor concurrencyLimitedDataSource(ObjectProvider<DbConcurrencyLimiter> limiter) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConcurrencyLimitedDataSource)) {
+                    return new ConcurrencyLimitedDataSource(dataSource, limiter.getObject());
+                }
+                return bean;
+            }
+        };
+    }
+}
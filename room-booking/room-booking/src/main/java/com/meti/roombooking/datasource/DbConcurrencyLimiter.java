@@ -0,0 +1,81 @@
+package com.meti.roombooking.datasource;
+
+import com.meti.roombooking.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds the number of open database connections with a fair semaphore sized to the
+ * connection pool.
+ *
+ * With virtual threads thousands of requests can reach the database at once; they queue
+ * here in FIFO order (parking, never pinning a carrier) instead of piling up inside the
+ * pool, and a caller that waits longer than the timeout gets a 503 instead of hanging.
+ */
+@Component
+public class DbConcurrencyLimiter {
+
+    private final Semaphore permits;
+    private final int maxConcurrency;
+    private final long timeoutNanos;
+    private final Timer waitTimer;
+    private final Counter timeouts;
+
+    public DbConcurrencyLimiter(@Value("${booking.db.max-concurrency:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrency,
+                                @Value("${booking.db.acquire-timeout:2s}") Duration timeout,
+                                MeterRegistry registry) {
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.maxConcurrency = maxConcurrency;
+        this.timeoutNanos = timeout.toNanos();
+        this.waitTimer = Timer.builder("booking.db.permit.wait")
+                .description("Time spent waiting for a database permit")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .register(registry);
+        this.timeouts = Counter.builder("booking.db.permit.timeouts")
+                .description("Requests rejected because no database permit freed up in time")
+                .register(registry);
+        Gauge.builder("booking.db.permit.queue", permits, Semaphore::getQueueLength)
+                .description("Threads waiting for a database permit")
+                .register(registry);
+        Gauge.builder("booking.db.permit.in-use", permits, p -> maxConcurrency - p.availablePermits())
+                .description("Database permits currently held")
+                .register(registry);
+    }
+
+    public void acquire() throws DatabaseBusyException {
+        //uncontended fast path, no timing
+        if (permits.tryAcquire()) {
+            waitTimer.record(0, TimeUnit.NANOSECONDS);
+            return;
+        }
+        long start = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DatabaseBusyException("Interrupted while waiting for a database connection");
+        }
+        waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (!acquired) {
+            timeouts.increment();
+            throw new DatabaseBusyException("Database busy, please retry");
+        }
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int maxConcurrency() {
+        return maxConcurrency;
+    }
+}
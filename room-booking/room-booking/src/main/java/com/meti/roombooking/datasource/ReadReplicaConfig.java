@@ -0,0 +1,106 @@
+package com.meti.roombooking.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+@Configuration
+public class ReadReplicaConfig {
+
+    //static and lazy like the limiter's post-processor. Declared with its concrete type: only a post-processor
+    //known to be Ordered is applied before the (unordered) limiter, which then wraps the routing source
+    @Bean
+    public static RoutingPostProcessor readWriteRoutingDataSource(
+            @Value("${booking.db.replica-urls:}") String replicaUrls,
+            @Value("${booking.db.replica-username:${spring.datasource.username:}}") String username,
+            @Value("${booking.db.replica-password:${spring.datasource.password:}}") String password,
+            @Value("${booking.db.replica-pool-size:10}") int poolSize,
+            @Value("${booking.db.replica-selection:LEAST_LOADED}") ReplicaSelection selection,
+            ObjectProvider<ReplicaLagGuard> guard,
+            ObjectProvider<MeterRegistry> registry) {
+        List<String> urls = Arrays.stream(replicaUrls.split(",")).map(String::trim).filter(url -> !url.isEmpty()).toList();
+        return new RoutingPostProcessor(urls, username, password, poolSize, selection, guard, registry);
+    }
+
+    @Slf4j
+    static final class RoutingPostProcessor implements BeanPostProcessor, Ordered, DisposableBean {
+
+        private final List<String> urls;
+        private final String username;
+        private final String password;
+        private final int poolSize;
+        private final ReplicaSelection selection;
+        private final ObjectProvider<ReplicaLagGuard> guard;
+        private final ObjectProvider<MeterRegistry> registry;
+        private final List<HikariDataSource> pools = new ArrayList<>();
+
+        private RoutingPostProcessor(List<String> urls, String username, String password, int poolSize,
+                                     ReplicaSelection selection, ObjectProvider<ReplicaLagGuard> guard,
+                                     ObjectProvider<MeterRegistry> registry) {
+            this.urls = urls;
+            this.username = username;
+            this.password = password;
+            this.poolSize = poolSize;
+            this.selection = selection;
+            this.guard = guard;
+            this.registry = registry;
+        }
+
+        @Override
+        public Object postProcessAfterInitialization(Object bean, String beanName) {
+            if (urls.isEmpty() || !(bean instanceof DataSource primary)
+                    || bean instanceof ReadWriteRoutingDataSource || bean instanceof ConcurrencyLimitedDataSource) {
+                return bean;
+            }
+            List<DataSource> replicas = new ArrayList<>();
+            for (int i = 0; i < urls.size(); i++) {
+                HikariDataSource replica = DataSourceBuilder.create()
+                        .type(HikariDataSource.class)
+                        .url(urls.get(i))
+                        .username(username)
+                        .password(password)
+                        .build();
+                replica.setPoolName("replica-" + i);
+                replica.setMaximumPoolSize(poolSize);
+                replica.setReadOnly(true);
+                pools.add(replica);
+                replicas.add(replica);
+            }
+            ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replicas, selection, guard.getObject());
+            for (int i = 0; i < replicas.size(); i++) {
+                int replica = i;
+                Gauge.builder("booking.db.replica.connections", routing, r -> r.replicaConnectionsInUse(replica))
+                        .description("Read-only connections open on a replica through this node")
+                        .tag("replica", Integer.toString(replica))
+                        .register(registry.getObject());
+            }
+            log.info("Read-only transactions routed to {} replica(s), {}", replicas.size(), selection);
+            return routing;
+        }
+
+        //before the limiter's post-processor, which is unordered
+        @Override
+        public int getOrder() {
+            return Ordered.LOWEST_PRECEDENCE;
+        }
+
+        @Override
+        public void destroy() {
+            pools.forEach(HikariDataSource::close);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.meti.roombooking.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * Pins the read-only transactions of a block of work to the primary database.
+ *
+ * For readers that must see every committed write, like the in-memory indexes that are
+ * rebuilt from the database and then kept current by after-commit events: a lagging
+ * replica would drop the changes committed just before the rebuild.
+ */
+public final class ReadRouting {
+
+    private static final ThreadLocal<Boolean> PRIMARY = new ThreadLocal<>();
+
+    private ReadRouting() {
+    }
+
+    public static <T> T onPrimary(Supplier<T> work) {
+        if (PRIMARY.get() != null) {
+            return work.get();
+        }
+        PRIMARY.set(Boolean.TRUE);
+        try {
+            return work.get();
+        } finally {
+            PRIMARY.remove();
+        }
+    }
+
+    public static void onPrimary(Runnable work) {
+        onPrimary(() -> {
+            work.run();
+            return null;
+        });
+    }
+
+    static boolean primaryRequired() {
+        return PRIMARY.get() != null;
+    }
+}
@@ -0,0 +1,53 @@
+package com.meti.roombooking.datasource;
+
+import com.meti.roombooking.auth.AuthenticatedUser;
+import com.meti.roombooking.auth.CurrentUser;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Sends read-only transactions to the replicas and everything else to the primary.
+ *
+ * Connections are handed out lazily: the physical connection is only fetched at the first
+ * statement, after the transaction manager has marked it read-only (or not), and the read-only
+ * ones come from the {@link ReplicaPool}. Read-write connections of a signed-in user report
+ * to the {@link ReplicaLagGuard} when they are returned, so that user's next reads stay on the primary.
+ */
+public class ReadWriteRoutingDataSource extends LazyConnectionDataSourceProxy {
+
+    private final ReplicaPool replicaPool;
+
+    public ReadWriteRoutingDataSource(DataSource primary, List<DataSource> replicas,
+                                      ReplicaSelection selection, ReplicaLagGuard guard) {
+        super(new WriteTracking(primary, guard));
+        this.replicaPool = new ReplicaPool(primary, replicas, selection, guard);
+        setReadOnlyDataSource(replicaPool);
+    }
+
+    //connections open per replica through this node
+    public int replicaConnectionsInUse(int replica) {
+        return replicaPool.inUse(replica);
+    }
+
+    private static final class WriteTracking extends DelegatingDataSource {
+
+        private final ReplicaLagGuard guard;
+
+        private WriteTracking(DataSource primary, ReplicaLagGuard guard) {
+            super(primary);
+            this.guard = guard;
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            Connection connection = obtainTargetDataSource().getConnection();
+            Long userId = CurrentUser.get().map(AuthenticatedUser::userId).orElse(null);
+            return userId == null ? connection : CloseHookConnection.wrap(connection, () -> guard.recordWrite(userId));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.meti.roombooking.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Read-your-writes for replica reads: a user whose transaction wrote to the primary keeps
+ * reading from the primary until the window has passed, which should cover the replicas' lag.
+ * Anonymous requests cannot be told apart and always read from the replicas.
+ */
+@Component
+public class ReplicaLagGuard {
+
+    private final Cache<Long, Boolean> recentWriters;
+    private final boolean enabled;
+    private final Counter replicaReads;
+    private final Counter guardedReads;
+    private final Counter pinnedReads;
+    private final Counter failovers;
+
+    public ReplicaLagGuard(@Value("${booking.db.read-your-writes-window:5s}") Duration window,
+                           @Value("${booking.db.read-your-writes-max-users:100000}") long maxUsers,
+                           MeterRegistry registry) {
+        this.enabled = !window.isZero();
+        this.recentWriters = Caffeine.newBuilder()
+                .maximumSize(maxUsers)
+                .expireAfterWrite(enabled ? window : Duration.ofNanos(1))
+                .build();
+        this.replicaReads = routed(registry, "replica");
+        this.guardedReads = routed(registry, "primary-after-write");
+        this.pinnedReads = routed(registry, "primary-pinned");
+        this.failovers = Counter.builder("booking.db.replica.failovers")
+                .description("Read-only connections that fell back to another replica or the primary")
+                .register(registry);
+    }
+
+    //called when a user's read-write connection goes back to the pool, after its commit
+    public void recordWrite(Long userId) {
+        if (enabled && userId != null) {
+            recentWriters.put(userId, Boolean.TRUE);
+        }
+    }
+
+    //decides, per read-only connection, whether it has to come from the primary
+    boolean mustReadPrimary(Long userId) {
+        if (ReadRouting.primaryRequired()) {
+            pinnedReads.increment();
+            return true;
+        }
+        if (enabled && userId != null && recentWriters.getIfPresent(userId) != null) {
+            guardedReads.increment();
+            return true;
+        }
+        replicaReads.increment();
+        return false;
+    }
+
+    void failedOver() {
+        failovers.increment();
+    }
+
+    private static Counter routed(MeterRegistry registry, String target) {
+        return Counter.builder("booking.db.reads")
+                .description("Read-only connections by the database they were routed to")
+                .tag("target", target)
+                .register(registry);
+    }
+}
@@ -0,0 +1,85 @@
+package com.meti.roombooking.datasource;
+
+import com.meti.roombooking.auth.AuthenticatedUser;
+import com.meti.roombooking.auth.CurrentUser;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Source of read-only connections: one of the replicas, or the primary when the lag guard
+ * asks for it. A replica that refuses a connection is skipped for the next one; with every
+ * replica down the primary serves the read.
+ */
+@Slf4j
+final class ReplicaPool extends AbstractDataSource {
+
+    private final DataSource primary;
+    private final DataSource[] replicas;
+    private final ReplicaSelection selection;
+    private final ReplicaLagGuard guard;
+
+    //connections currently open per replica, for LEAST_LOADED
+    private final AtomicIntegerArray inUse;
+    private final AtomicInteger cursor = new AtomicInteger();
+
+    ReplicaPool(DataSource primary, List<DataSource> replicas, ReplicaSelection selection, ReplicaLagGuard guard) {
+        this.primary = primary;
+        this.replicas = replicas.toArray(DataSource[]::new);
+        this.selection = selection;
+        this.guard = guard;
+        this.inUse = new AtomicIntegerArray(this.replicas.length);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        Long userId = CurrentUser.get().map(AuthenticatedUser::userId).orElse(null);
+        if (guard.mustReadPrimary(userId)) {
+            return primary.getConnection();
+        }
+        int first = pick();
+        for (int i = 0; i < replicas.length; i++) {
+            int replica = (first + i) % replicas.length;
+            inUse.incrementAndGet(replica);
+            try {
+                return CloseHookConnection.wrap(replicas[replica].getConnection(), () -> inUse.decrementAndGet(replica));
+            } catch (SQLException e) {
+                inUse.decrementAndGet(replica);
+                guard.failedOver();
+                log.warn("Replica {} refused a connection, trying the next one: {}", replica, e.getMessage());
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Replica connections use the configured credentials");
+    }
+
+    private int pick() {
+        int start = Math.floorMod(cursor.getAndIncrement(), replicas.length);
+        if (selection == ReplicaSelection.ROUND_ROBIN) {
+            return start;
+        }
+        int best = start;
+        for (int i = 1; i < replicas.length; i++) {
+            int candidate = (start + i) % replicas.length;
+            if (inUse.get(candidate) < inUse.get(best)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    int inUse(int replica) {
+        return inUse.get(replica);
+    }
+}
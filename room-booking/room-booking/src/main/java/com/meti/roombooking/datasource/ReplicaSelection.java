@@ -0,0 +1,9 @@
+package com.meti.roombooking.datasource;
+
+//how a read-only connection picks its replica
+public enum ReplicaSelection {
+    //each replica in turn
+    ROUND_ROBIN,
+    //the replica with the fewest connections open through this node, ties in turn
+    LEAST_LOADED
+}
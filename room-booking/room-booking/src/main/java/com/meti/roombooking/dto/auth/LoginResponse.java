@@ -0,0 +1,16 @@
+package com.meti.roombooking.dto.auth;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.time.Instant;
+
+//sent back as "Authorization: Bearer <token>" on later requests
+@Data
+@Builder
+public class LoginResponse {
+    private String token;
+    private String tokenType;
+    private Instant expiresAt;
+    private UserResponse user;
+}
@@ -14,7 +14,6 @@ public class UserRegistrationRequest {
     @NotBlank
     private String email;
 
-    //TODO Hash this
     @NotBlank
     @Size(min = 6, message = "Password must be at least 6 characters")
     private String password;
@@ -0,0 +1,8 @@
+package com.meti.roombooking.dto.booking;
+
+public enum BatchMode {
+    //nothing is booked unless every item can be booked
+    ALL_OR_NOTHING,
+    //valid items are booked, the others are reported as rejected
+    BEST_EFFORT
+}
@@ -0,0 +1,17 @@
+package com.meti.roombooking.dto.booking;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BookingBatchItemResult {
+    //position of the item in the request
+    private int index;
+
+    //set when the item was booked
+    private BookingResponse booking;
+
+    //set when the item was rejected
+    private String error;
+}
@@ -0,0 +1,19 @@
+package com.meti.roombooking.dto.booking;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BookingBatchRequest {
+    @NotEmpty
+    @Size(max = 200, message = "A batch can contain at most 200 bookings")
+    private List<@Valid @NotNull BookingRequest> bookings;
+
+    @NotNull
+    private BatchMode mode = BatchMode.ALL_OR_NOTHING;
+}
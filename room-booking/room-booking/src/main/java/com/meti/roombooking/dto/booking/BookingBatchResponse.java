@@ -0,0 +1,15 @@
+package com.meti.roombooking.dto.booking;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BookingBatchResponse {
+    private BatchMode mode;
+    private int created;
+    private int rejected;
+    private List<BookingBatchItemResult> results;
+}
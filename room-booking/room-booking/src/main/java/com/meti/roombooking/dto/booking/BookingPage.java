@@ -0,0 +1,15 @@
+package com.meti.roombooking.dto.booking;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class BookingPage {
+    private List<BookingResponse> items;
+
+    //opaque token for the next page, null on the last page
+    private String nextCursor;
+}
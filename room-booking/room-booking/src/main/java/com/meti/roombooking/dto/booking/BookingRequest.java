@@ -11,7 +11,7 @@ public class BookingRequest {
     @NotNull
     private Long roomId;
 
-    @NotNull
+    //optional for signed-in clients, taken from their session token; admins may book for anyone
     private Long userId;
 
     @NotNull
@@ -1,8 +1,10 @@
 package com.meti.roombooking.dto.booking;
 
 import com.meti.roombooking.entity.BookingStatus;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -10,6 +12,8 @@ import java.time.LocalDateTime;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor //used by JPQL constructor expressions in BookingRepository
 public class BookingResponse {
     private Long id;
 
@@ -0,0 +1,46 @@
+package com.meti.roombooking.dto.pricing;
+
+import com.meti.roombooking.entity.PriceAdjustment;
+import com.meti.roombooking.entity.RoomType;
+import jakarta.validation.constraints.Digits;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+@Data
+public class PriceRuleRequest {
+    @NotBlank
+    @Size(max = 100)
+    private String name;
+
+    //one room, one room type, or neither for every room
+    private Long roomId;
+    private RoomType roomType;
+
+    //inclusive / exclusive, open when null
+    private LocalDate validFrom;
+    private LocalDate validTo;
+
+    //every day when null
+    private Set<DayOfWeek> daysOfWeek;
+
+    //set for a length-of-stay rule on the stay total, null for a nightly rule
+    @Min(1)
+    private Integer minNights;
+
+    @NotNull
+    private PriceAdjustment adjustment;
+
+    @NotNull
+    @Digits(integer = 10, fraction = 2)
+    private BigDecimal amount;
+
+    private int priority;
+}
@@ -0,0 +1,27 @@
+package com.meti.roombooking.dto.pricing;
+
+import com.meti.roombooking.entity.PriceAdjustment;
+import com.meti.roombooking.entity.RoomType;
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Set;
+
+@Data
+@Builder
+public class PriceRuleResponse {
+    private Long id;
+    private String name;
+    private Long roomId;
+    private RoomType roomType;
+    private LocalDate validFrom;
+    private LocalDate validTo;
+    private Set<DayOfWeek> daysOfWeek;
+    private Integer minNights;
+    private PriceAdjustment adjustment;
+    private BigDecimal amount;
+    private int priority;
+}
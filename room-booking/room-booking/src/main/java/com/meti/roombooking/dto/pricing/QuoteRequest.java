@@ -0,0 +1,16 @@
+package com.meti.roombooking.dto.pricing;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class QuoteRequest {
+    @NotEmpty
+    @Size(max = 500, message = "A quote request can contain at most 500 stays")
+    private List<@Valid @NotNull StayQuery> stays;
+}
@@ -0,0 +1,14 @@
+package com.meti.roombooking.dto.pricing;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class QuoteResponse {
+    private int priced;
+    private int rejected;
+    private List<StayQuote> quotes;
+}
@@ -0,0 +1,22 @@
+package com.meti.roombooking.dto.pricing;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StayQuery {
+    @NotNull
+    private Long roomId;
+
+    @NotNull
+    private LocalDate checkIn;
+
+    @NotNull
+    private LocalDate checkOut;
+}
@@ -0,0 +1,25 @@
+package com.meti.roombooking.dto.pricing;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+@Builder
+public class StayQuote {
+    //position of the stay in the request
+    private int index;
+
+    private Long roomId;
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private int nights;
+
+    //set when the stay was priced
+    private BigDecimal totalPrice;
+
+    //set when the stay could not be priced
+    private String error;
+}
@@ -0,0 +1,34 @@
+package com.meti.roombooking.dto.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Nights [from, to) of a room whose availability may have changed. from/to are null
+ * when the room itself changed (created, updated, removed) and all its nights are affected.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityChange {
+    private Long roomId;
+    private LocalDate from;
+    private LocalDate to;
+    private boolean removed;
+
+    //smallest change covering both, the later one decides removed
+    public AvailabilityChange merge(AvailabilityChange later) {
+        boolean allNights = from == null || later.from == null;
+        return new AvailabilityChange(
+                roomId,
+                allNights ? null : (later.from.isBefore(from) ? later.from : from),
+                allNights ? null : (later.to.isAfter(to) ? later.to : to),
+                later.removed
+        );
+    }
+}
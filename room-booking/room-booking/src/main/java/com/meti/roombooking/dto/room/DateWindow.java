@@ -0,0 +1,19 @@
+package com.meti.roombooking.dto.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+//A run of consecutive free nights [checkIn, checkOut) of one room
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DateWindow {
+    private LocalDate checkIn;
+    private LocalDate checkOut;
+    private int nights;
+}
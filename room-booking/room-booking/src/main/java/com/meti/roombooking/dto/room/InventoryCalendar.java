@@ -0,0 +1,21 @@
+package com.meti.roombooking.dto.room;
+
+import com.meti.roombooking.entity.RoomType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.YearMonth;
+import java.util.List;
+
+//Free rooms of one type for each night of a month (nights beyond the inventory horizon are absent)
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class InventoryCalendar {
+    private RoomType type;
+    private YearMonth month;
+    private List<NightInventory> nights;
+}
@@ -0,0 +1,17 @@
+package com.meti.roombooking.dto.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NightInventory {
+    private LocalDate night;
+    private int freeRooms;
+}
@@ -0,0 +1,27 @@
+package com.meti.roombooking.dto.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Per-room free windows for [from, to). With full=false only rooms changed since the
+ * requested version are listed and the client patches its copy; removedRoomIds were
+ * deleted meanwhile. The version is passed back as "since" (or If-None-Match) next time.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomAvailabilityCalendar {
+    private String version;
+    private boolean full;
+    private LocalDate from;
+    private LocalDate to;
+    private List<RoomFreeNights> rooms;
+    private List<Long> removedRoomIds;
+}
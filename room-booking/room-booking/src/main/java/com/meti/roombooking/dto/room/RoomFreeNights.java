@@ -0,0 +1,18 @@
+package com.meti.roombooking.dto.room;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+//Free windows of one room inside the requested calendar range
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomFreeNights {
+    private Long roomId;
+    private List<DateWindow> free;
+}
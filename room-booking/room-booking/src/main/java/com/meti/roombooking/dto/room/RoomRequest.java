@@ -27,4 +27,7 @@ public class RoomRequest {
     private RoomStatus status;
 
     private String description;
+
+    //the version the change was made against, from RoomResponse; required on update
+    private Long version;
 }
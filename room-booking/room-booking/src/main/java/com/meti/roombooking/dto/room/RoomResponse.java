@@ -3,13 +3,17 @@ package com.meti.roombooking.dto.room;
 
 import com.meti.roombooking.entity.RoomStatus;
 import com.meti.roombooking.entity.RoomType;
+import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
 
 @Data
 @Builder
+@NoArgsConstructor
+@AllArgsConstructor
 public class RoomResponse {
     private Long id;
     private String roomNumber;
@@ -18,4 +22,6 @@ public class RoomResponse {
     private BigDecimal pricePerNight;
     private RoomStatus status;
     private String description;
+    //sent back in RoomRequest.version to update the room
+    private Long version;
 }
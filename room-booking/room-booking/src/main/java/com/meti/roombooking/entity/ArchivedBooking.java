@@ -0,0 +1,56 @@
+package com.meti.roombooking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A booking moved out of the bookings table once its stay was long over.
+ * Read-only: rows are written by BookingArchiver's INSERT ... SELECT and never change.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "bookings_archive",
+        indexes = {
+                @Index(name = "idx_archive_user_checkin_id", columnList = "user_id, checkIn, id")
+        }
+)
+public class ArchivedBooking {
+    @Id
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(nullable = false)
+    private String roomNumber;
+
+    @Column(nullable = false)
+    private LocalDate checkIn;
+
+    @Column(nullable = false)
+    private LocalDate checkOut;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private BookingStatus status;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal totalPrice;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime archivedAt;
+}
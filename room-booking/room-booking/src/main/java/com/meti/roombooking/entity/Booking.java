@@ -15,15 +15,29 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Builder
 @Entity
+//schema and indexes are created by the migrations in db/migration, kept in sync here
 @Table(name = "bookings",
+        //composite (sort key, id) indexes back the keyset-paginated listings
         indexes = {
-                @Index(columnList = "checkIn"),
-                @Index(columnList = "checkOut")
+                @Index(name = "idx_booking_checkin_id", columnList = "checkIn, id"),
+                @Index(name = "idx_booking_checkout_id", columnList = "checkOut, id"),
+                @Index(name = "idx_booking_checkin_created_id", columnList = "checkIn, createdAt, id"),
+                @Index(name = "idx_booking_price_id", columnList = "totalPrice, id"),
+                @Index(name = "idx_booking_created_id", columnList = "createdAt, id"),
+                @Index(name = "idx_booking_status_id", columnList = "status, id"),
+                //overlap checks and gap fallbacks: room and status equality, then the date range
+                @Index(name = "idx_booking_room_status_checkout_checkin", columnList = "room_id, status, checkOut, checkIn"),
+                //index rebuilds: every active stay ending after today
+                @Index(name = "idx_booking_status_checkout_room_checkin", columnList = "status, checkOut, room_id, checkIn"),
+                @Index(name = "idx_booking_user_created_id", columnList = "user_id, createdAt, id"),
+                @Index(name = "idx_booking_user_checkin_created_id", columnList = "user_id, checkIn, createdAt, id")
         }
 )
 public class Booking implements Comparable<Booking> {
+    //pooled sequence instead of IDENTITY so Hibernate can batch inserts
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "booking_seq")
+    @SequenceGenerator(name = "booking_seq", sequenceName = "booking_seq", allocationSize = 50)
     private Long id;
 
     //Create many-to-one relation booking-user
@@ -59,6 +73,11 @@ public class Booking implements Comparable<Booking> {
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    //optimistic lock, also bumped by the conditional status UPDATEs in BookingRepository
+    @Version
+    @Column(nullable = false)
+    private long version;
+
     @PrePersist
     protected void onCreate() {
         this.createdAt = LocalDateTime.now();
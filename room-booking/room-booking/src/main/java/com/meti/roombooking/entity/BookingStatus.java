@@ -1,7 +1,26 @@
 package com.meti.roombooking.entity;
 
+import java.util.List;
+
 public enum BookingStatus {
     PENDING,
     CONFIRMED,
-    CANCELLED
+    CANCELLED;
+
+    //statuses that keep a room occupied for their nights
+    public static final List<BookingStatus> ACTIVE = List.of(PENDING, CONFIRMED);
+
+    public boolean isActive() {
+        return this == PENDING || this == CONFIRMED;
+    }
+
+    //allowed status changes: a pending booking is confirmed or cancelled, a confirmed one can only
+    //be cancelled, and a cancelled one reinstated (subject to its nights still being free)
+    public boolean canBecome(BookingStatus next) {
+        return switch (this) {
+            case PENDING -> next == CONFIRMED || next == CANCELLED;
+            case CONFIRMED -> next == CANCELLED;
+            case CANCELLED -> next == PENDING || next == CONFIRMED;
+        };
+    }
 }
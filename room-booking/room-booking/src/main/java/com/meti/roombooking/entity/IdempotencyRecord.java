@@ -0,0 +1,75 @@
+package com.meti.roombooking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * The response of a booking write made with an Idempotency-Key. Keys belong to the user who
+ * sent them; request describes the operation and its arguments, and a retry with the same key
+ * must match it to get the response.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "idempotency_keys",
+        indexes = {
+                @Index(name = "idx_idempotency_expires_at", columnList = "expiresAt")
+        }
+)
+@IdClass(IdempotencyRecord.Key.class)
+public class IdempotencyRecord implements Persistable<IdempotencyRecord.Key> {
+    @Id
+    private Long userId;
+
+    @Id
+    @Column(length = 100)
+    private String idempotencyKey;
+
+    @Column(nullable = false, length = 200)
+    private String request;
+
+    //BookingResponse as JSON
+    @Column(nullable = false, length = 2000)
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    //a concurrent insert of the same key has to fail on the primary key, not be merged into
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public Key getId() {
+        return new Key(userId, idempotencyKey);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private Long userId;
+        private String idempotencyKey;
+    }
+}
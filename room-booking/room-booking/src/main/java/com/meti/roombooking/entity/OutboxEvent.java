@@ -0,0 +1,60 @@
+package com.meti.roombooking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * An event waiting for the in-process handlers, inserted in the transaction that caused it.
+ * While a dispatcher holds it, claimedBy is its claim token and availableAt the lease end.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "outbox_events",
+        indexes = {
+                @Index(name = "idx_outbox_status_available_id", columnList = "status, availableAt, id"),
+                @Index(name = "idx_outbox_claimed_by", columnList = "claimedBy"),
+                @Index(name = "idx_outbox_aggregate_id", columnList = "aggregateId, id")
+        }
+)
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_seq")
+    @SequenceGenerator(name = "outbox_event_seq", sequenceName = "outbox_event_seq", allocationSize = 50)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false)
+    private OutboxEventType type;
+
+    //the booking id for booking events
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false, length = 1000)
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(nullable = false)
+    private LocalDateTime availableAt;
+
+    @Column(length = 36)
+    private String claimedBy;
+
+    @Column(length = 500)
+    private String lastError;
+}
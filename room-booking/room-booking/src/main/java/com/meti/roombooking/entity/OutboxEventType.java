@@ -0,0 +1,6 @@
+package com.meti.roombooking.entity;
+
+public enum OutboxEventType {
+    BOOKING_CREATED,
+    BOOKING_STATUS_CHANGED
+}
@@ -0,0 +1,7 @@
+package com.meti.roombooking.entity;
+
+//DEAD events ran out of attempts and are kept for inspection, delivered ones are deleted
+public enum OutboxStatus {
+    PENDING,
+    DEAD
+}
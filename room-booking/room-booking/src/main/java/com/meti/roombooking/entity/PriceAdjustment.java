@@ -0,0 +1,11 @@
+package com.meti.roombooking.entity;
+
+//how a price rule's amount changes the price it applies to
+public enum PriceAdjustment {
+    //amount is a percentage, e.g. -15 for 15% off
+    PERCENT,
+    //amount is added, negative for a discount
+    AMOUNT,
+    //amount replaces the price, nightly rules only
+    PRICE
+}
@@ -0,0 +1,67 @@
+package com.meti.roombooking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * A rate-plan rule on top of the room's base price per night.
+ * Targets one room, one room type, or every room when both are null.
+ * Without minNights it adjusts each matching night; with minNights it adjusts
+ * the total of stays at least that long whose check-in it matches.
+ * Rules apply in ascending priority, so a later rule sees the earlier ones' result.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "price_rules")
+public class PriceRule {
+    public static final int ALL_DAYS = 0b111_1111;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(name = "room_id")
+    private Long roomId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "room_type")
+    private RoomType roomType;
+
+    //inclusive, null for open
+    private LocalDate validFrom;
+
+    //exclusive, null for open
+    private LocalDate validTo;
+
+    //bit (dayOfWeek - 1), Monday is bit 0
+    @Builder.Default
+    @Column(nullable = false)
+    private int daysOfWeek = ALL_DAYS;
+
+    private Integer minNights;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PriceAdjustment adjustment;
+
+    @Column(nullable = false, precision = 12, scale = 2)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private int priority;
+
+    public static int dayBit(DayOfWeek day) {
+        return 1 << (day.getValue() - 1);
+    }
+}
@@ -17,7 +17,10 @@ import java.math.BigDecimal;
 @Table(
         name = "rooms",
         uniqueConstraints = {
-                @UniqueConstraint(columnNames = "roomNumber")
+                @UniqueConstraint(name = "uk_rooms_room_number", columnNames = "roomNumber")
+        },
+        indexes = {
+                @Index(name = "idx_room_status_type", columnList = "status, type")
         }
 )
 public class Room {
@@ -49,4 +52,9 @@ public class Room {
 
     @Column(length = 1000)
     private String description;
+
+    //optimistic lock: an update based on a stale read fails instead of overwriting
+    @Version
+    @Column(nullable = false)
+    private long version;
 }
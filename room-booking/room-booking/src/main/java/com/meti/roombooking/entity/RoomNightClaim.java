@@ -0,0 +1,41 @@
+package com.meti.roombooking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * One row per occupied room-night of an active booking.
+ * The unique (room_id, night) constraint is the database-level guarantee
+ * that two active bookings can never share a night, whatever node admitted them.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "room_night_claims",
+        uniqueConstraints = {
+                @UniqueConstraint(name = "uk_room_night", columnNames = {"room_id", "night"})
+        },
+        indexes = {
+                @Index(name = "idx_claim_booking", columnList = "booking_id")
+        }
+)
+public class RoomNightClaim {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_night_claim_seq")
+    @SequenceGenerator(name = "room_night_claim_seq", sequenceName = "room_night_claim_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "room_id", nullable = false)
+    private Long roomId;
+
+    @Column(nullable = false)
+    private LocalDate night;
+
+    @Column(name = "booking_id", nullable = false)
+    private Long bookingId;
+}
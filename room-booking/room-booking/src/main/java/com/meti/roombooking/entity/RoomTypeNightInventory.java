@@ -0,0 +1,59 @@
+package com.meti.roombooking.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Number of sellable rooms (not in MAINTENANCE) of one type that are free on one night.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "room_type_night_inventory")
+@IdClass(RoomTypeNightInventory.Key.class)
+public class RoomTypeNightInventory implements Persistable<RoomTypeNightInventory.Key> {
+    @Id
+    @Enumerated(EnumType.STRING)
+    private RoomType type;
+
+    @Id
+    private LocalDate night;
+
+    @Column(nullable = false)
+    private int freeRooms;
+
+    //assigned ids: without this every save of a new row would be a merge with a SELECT first
+    @Transient
+    private boolean persisted;
+
+    @Override
+    public Key getId() {
+        return new Key(type, night);
+    }
+
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private RoomType type;
+        private LocalDate night;
+    }
+}
@@ -16,7 +16,7 @@ import java.time.LocalDateTime;
 @Table(
         name = "users",
         uniqueConstraints = {
-                @UniqueConstraint(columnNames = "email")
+                @UniqueConstraint(name = "uk_users_email", columnNames = "email")
         }
 )
 public class User {
@@ -0,0 +1,31 @@
+package com.meti.roombooking.event;
+
+import com.meti.roombooking.entity.BookingStatus;
+
+import java.time.LocalDate;
+
+/**
+ * Published by the booking service whenever a booking is created or changes status.
+ * previousStatus is null for a newly created booking.
+ */
+public record BookingChangedEvent(
+        Long bookingId,
+        Long roomId,
+        LocalDate checkIn,
+        LocalDate checkOut,
+        BookingStatus previousStatus,
+        BookingStatus newStatus
+) {
+    public boolean wasActive() {
+        return previousStatus != null && previousStatus.isActive();
+    }
+
+    public boolean isActive() {
+        return newStatus != null && newStatus.isActive();
+    }
+
+    //true when the change occupies or frees nights of the room
+    public boolean changesOccupancy() {
+        return wasActive() != isActive();
+    }
+}
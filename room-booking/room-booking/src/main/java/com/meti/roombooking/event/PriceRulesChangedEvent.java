@@ -0,0 +1,7 @@
+package com.meti.roombooking.event;
+
+/**
+ * Published by the pricing service when a price rule is created, updated or deleted.
+ */
+public record PriceRulesChangedEvent(Long ruleId) {
+}
@@ -0,0 +1,14 @@
+package com.meti.roombooking.event;
+
+import com.meti.roombooking.dto.room.RoomResponse;
+
+/**
+ * Published by the room service on admin writes.
+ * before is null for a created room, after is null for a deleted room.
+ */
+public record RoomChangedEvent(
+        Long roomId,
+        RoomResponse before,
+        RoomResponse after
+) {
+}
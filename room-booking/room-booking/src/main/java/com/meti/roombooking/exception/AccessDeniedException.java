@@ -0,0 +1,9 @@
+package com.meti.roombooking.exception;
+
+//Thrown when the signed-in user's role or identity does not allow the operation, mapped to 403 Forbidden
+public class AccessDeniedException extends RuntimeException {
+
+    public AccessDeniedException(String message) {
+        super(message);
+    }
+}
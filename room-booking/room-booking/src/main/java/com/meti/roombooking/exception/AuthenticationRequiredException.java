@@ -0,0 +1,9 @@
+package com.meti.roombooking.exception;
+
+//Thrown when an endpoint needs a signed-in user and the request carried no valid session token, mapped to 401
+public class AuthenticationRequiredException extends RuntimeException {
+
+    public AuthenticationRequiredException(String message) {
+        super(message);
+    }
+}
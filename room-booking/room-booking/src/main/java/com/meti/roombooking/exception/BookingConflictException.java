@@ -0,0 +1,13 @@
+package com.meti.roombooking.exception;
+
+//Thrown when a room cannot be booked for the requested nights, mapped to 409 Conflict
+public class BookingConflictException extends RuntimeException {
+
+    public BookingConflictException(String message) {
+        super(message);
+    }
+
+    public BookingConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,22 @@
+package com.meti.roombooking.exception;
+
+import java.sql.SQLTransientConnectionException;
+
+//Thrown when no database permit frees up in time, mapped to 503 Service Unavailable.
+//An SQLException so it travels through Hibernate/Spring like any connection failure.
+public class DatabaseBusyException extends SQLTransientConnectionException {
+
+    public DatabaseBusyException(String message) {
+        super(message);
+    }
+
+    //finds the exception in a wrapped cause chain (CannotCreateTransactionException, JDBCConnectionException...)
+    public static boolean isCause(Throwable throwable) {
+        for (Throwable t = throwable; t != null; t = t.getCause()) {
+            if (t instanceof DatabaseBusyException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,9 @@
+package com.meti.roombooking.exception;
+
+//Thrown when a retry waited too long for the first request with its Idempotency-Key, mapped to 409 Conflict
+public class IdempotencyKeyInProgressException extends RuntimeException {
+
+    public IdempotencyKeyInProgressException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,9 @@
+package com.meti.roombooking.exception;
+
+//Thrown when the cluster node owning a room cannot be reached, mapped to 503 Service Unavailable
+public class NodeUnavailableException extends RuntimeException {
+
+    public NodeUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
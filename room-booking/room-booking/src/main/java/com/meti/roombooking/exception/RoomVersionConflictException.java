@@ -0,0 +1,13 @@
+package com.meti.roombooking.exception;
+
+//Thrown when a room update was based on an outdated version of the room, mapped to 409 Conflict
+public class RoomVersionConflictException extends RuntimeException {
+
+    public RoomVersionConflictException(String message) {
+        super(message);
+    }
+
+    public RoomVersionConflictException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,113 @@
+package com.meti.roombooking.export;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Writes bookings to an output stream one row at a time, so memory use does not
+ * depend on how many rows the export contains.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookingExportWriter {
+
+    private static final String CSV_HEADER =
+            "id,userId,userFullName,roomId,roomNumber,checkIn,checkOut,status,totalPrice,createdAt";
+    private static final String FORMULA_STARTS = "=+-@\t\r";
+
+    private final ObjectMapper objectMapper;
+
+    //returns the number of rows written
+    public long write(Stream<BookingResponse> bookings, ExportFormat format, OutputStream out) throws IOException {
+        return switch (format) {
+            case NDJSON -> writeNdjson(bookings, out);
+            case CSV -> writeCsv(bookings, out);
+        };
+    }
+
+    private long writeNdjson(Stream<BookingResponse> bookings, OutputStream out) throws IOException {
+        //the response stream is closed by the container, flushing is left to its buffer
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        generator.setRootValueSeparator(null);
+        ObjectWriter writer = objectMapper.writerFor(BookingResponse.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        long rows = 0;
+        Iterator<BookingResponse> it = bookings.iterator();
+        while (it.hasNext()) {
+            writer.writeValue(generator, it.next());
+            generator.writeRaw('\n');
+            rows++;
+        }
+        generator.close();
+        return rows;
+    }
+
+    private long writeCsv(Stream<BookingResponse> bookings, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write("\r\n");
+        long rows = 0;
+        Iterator<BookingResponse> it = bookings.iterator();
+        while (it.hasNext()) {
+            BookingResponse b = it.next();
+            writer.write(String.valueOf(b.getId()));
+            writer.write(',');
+            writer.write(String.valueOf(b.getUserId()));
+            writer.write(',');
+            writer.write(csv(b.getUserFullName()));
+            writer.write(',');
+            writer.write(String.valueOf(b.getRoomId()));
+            writer.write(',');
+            writer.write(csv(b.getRoomNumber()));
+            writer.write(',');
+            writer.write(String.valueOf(b.getCheckIn()));
+            writer.write(',');
+            writer.write(String.valueOf(b.getCheckOut()));
+            writer.write(',');
+            writer.write(String.valueOf(b.getStatus()));
+            writer.write(',');
+            writer.write(plain(b.getTotalPrice()));
+            writer.write(',');
+            writer.write(String.valueOf(b.getCreatedAt()));
+            writer.write("\r\n");
+            rows++;
+        }
+        writer.flush();
+        return rows;
+    }
+
+    //RFC 4180 quoting; cells a spreadsheet would evaluate as a formula get a leading ' so they stay text
+    private static String csv(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (!value.isEmpty() && FORMULA_STARTS.indexOf(value.charAt(0)) >= 0) {
+            value = "'" + value;
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private static String plain(BigDecimal value) {
+        return value == null ? "" : value.toPlainString();
+    }
+}
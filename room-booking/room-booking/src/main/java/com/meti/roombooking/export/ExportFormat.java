@@ -0,0 +1,31 @@
+package com.meti.roombooking.export;
+
+import java.util.Arrays;
+
+public enum ExportFormat {
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String contentType;
+    private final String extension;
+
+    ExportFormat(String contentType, String extension) {
+        this.contentType = contentType;
+        this.extension = extension;
+    }
+
+    public String contentType() {
+        return contentType;
+    }
+
+    public String extension() {
+        return extension;
+    }
+
+    public static ExportFormat fromParam(String format) {
+        return Arrays.stream(values())
+                .filter(f -> f.extension.equalsIgnoreCase(format))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid export format: " + format));
+    }
+}
@@ -0,0 +1,196 @@
+package com.meti.roombooking.feed;
+
+import com.meti.roombooking.dto.room.AvailabilityChange;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.event.RoomChangedEvent;
+import com.meti.roombooking.exception.NodeUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Pushes committed availability changes to Server-Sent Events subscribers
+ * (GET /api/rooms/availability/stream).
+ *
+ * A committing thread only offers the change to a bounded queue and returns. One dispatcher
+ * thread fans each batch out into the subscribers' buffers, and a virtual thread per busy
+ * subscriber writes to its socket, so a slow client only ever delays itself. Buffers merge
+ * changes per room; one that overflows (or a full queue) is replaced by a single "resync"
+ * event, after which the client re-reads /api/rooms/availability.
+ */
+@Slf4j
+@Component
+public class AvailabilityFeed {
+
+    private static final int MAX_BATCH = 1024;
+
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final long heartbeatNanos;
+    private final BlockingQueue<AvailabilityChange> queue;
+    private final AtomicBoolean queueOverflowed = new AtomicBoolean();
+    private final Set<FeedSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter resyncs;
+    private Thread dispatcher;
+
+    public AvailabilityFeed(@Value("${booking.feed.buffer-size:256}") int bufferSize,
+                            @Value("${booking.feed.queue-size:10000}") int queueSize,
+                            @Value("${booking.feed.max-subscribers:5000}") int maxSubscribers,
+                            @Value("${booking.feed.timeout:30m}") Duration timeout,
+                            @Value("${booking.feed.heartbeat:15s}") Duration heartbeat,
+                            MeterRegistry registry) {
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.heartbeatNanos = heartbeat.toNanos();
+        this.queue = new ArrayBlockingQueue<>(queueSize);
+        Gauge.builder("booking.feed.subscribers", subscribers, Set::size)
+                .description("Open availability stream subscriptions")
+                .register(registry);
+        this.resyncs = Counter.builder("booking.feed.resyncs")
+                .description("Subscribers told to re-read the calendar after falling behind")
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcher = Thread.ofPlatform().daemon().name("availability-feed").start(this::dispatch);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.interrupt();
+        subscribers.forEach(subscriber -> subscriber.emitter().complete());
+        senders.shutdownNow();
+    }
+
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new NodeUnavailableException("Availability feed has no free subscriptions", null);
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        register(emitter);
+        return emitter;
+    }
+
+    FeedSubscriber register(SseEmitter emitter) {
+        FeedSubscriber subscriber = new FeedSubscriber(emitter, bufferSize);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        subscribers.add(subscriber);
+        //an immediate comment commits the response, so the client knows it is subscribed
+        if (subscriber.heartbeat()) {
+            senders.execute(() -> send(subscriber));
+        }
+        return subscriber;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (event.changesOccupancy()) {
+            publish(new AvailabilityChange(event.roomId(), event.checkIn(), event.checkOut(), false));
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onRoomChanged(RoomChangedEvent event) {
+        publish(new AvailabilityChange(event.roomId(), null, null, event.after() == null));
+    }
+
+    //never blocks the caller: a full queue turns into a resync for every subscriber
+    public void publish(AvailabilityChange change) {
+        if (subscribers.isEmpty()) {
+            return;
+        }
+        if (!queue.offer(change)) {
+            queueOverflowed.set(true);
+        }
+    }
+
+    int subscriberCount() {
+        return subscribers.size();
+    }
+
+    private void dispatch() {
+        List<AvailabilityChange> batch = new ArrayList<>();
+        long nextHeartbeat = System.nanoTime() + heartbeatNanos;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                AvailabilityChange first = queue.poll(Math.max(0, nextHeartbeat - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (first != null) {
+                    batch.add(first);
+                    queue.drainTo(batch, MAX_BATCH - 1);
+                    fanOut(batch);
+                    batch.clear();
+                }
+                if (System.nanoTime() - nextHeartbeat >= 0) {
+                    for (FeedSubscriber subscriber : subscribers) {
+                        wake(subscriber, subscriber.heartbeat());
+                    }
+                    nextHeartbeat = System.nanoTime() + heartbeatNanos;
+                }
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.error("Availability feed dispatch failed", e);
+            }
+        }
+    }
+
+    private void fanOut(List<AvailabilityChange> batch) {
+        boolean lost = queueOverflowed.getAndSet(false);
+        for (FeedSubscriber subscriber : subscribers) {
+            if (lost) {
+                resyncs.increment();
+                wake(subscriber, subscriber.resync());
+            } else {
+                boolean wasResyncing = subscriber.isResyncPending();
+                boolean claimed = subscriber.offer(batch);
+                if (!wasResyncing && subscriber.isResyncPending()) {
+                    resyncs.increment();
+                }
+                wake(subscriber, claimed);
+            }
+        }
+    }
+
+    private void wake(FeedSubscriber subscriber, boolean claimed) {
+        if (claimed) {
+            senders.execute(() -> send(subscriber));
+        }
+    }
+
+    //runs on its own virtual thread until the subscriber's buffer is empty
+    private void send(FeedSubscriber subscriber) {
+        try {
+            for (SseEmitter.SseEventBuilder frame = subscriber.next(); frame != null; frame = subscriber.next()) {
+                subscriber.emitter().send(frame);
+            }
+        } catch (IOException | IllegalStateException e) {
+            //client went away or the emitter already completed; the container completes the request
+            subscribers.remove(subscriber);
+        }
+    }
+}
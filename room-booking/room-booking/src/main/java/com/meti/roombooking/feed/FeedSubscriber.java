@@ -0,0 +1,98 @@
+package com.meti.roombooking.feed;
+
+import com.meti.roombooking.dto.room.AvailabilityChange;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One stream subscriber: a bounded buffer of changes not yet written, at most one entry
+ * per room. At most one sender drains it at a time; offer/resync/heartbeat return true
+ * when the caller has to start that sender.
+ */
+final class FeedSubscriber {
+
+    private final SseEmitter emitter;
+    private final int capacity;
+
+    //all guarded by this
+    private final Map<Long, AvailabilityChange> pending = new LinkedHashMap<>();
+    private boolean resync;
+    private boolean heartbeat;
+    private boolean sending;
+
+    FeedSubscriber(SseEmitter emitter, int capacity) {
+        this.emitter = emitter;
+        this.capacity = capacity;
+    }
+
+    SseEmitter emitter() {
+        return emitter;
+    }
+
+    synchronized boolean offer(List<AvailabilityChange> changes) {
+        if (!resync) {
+            for (AvailabilityChange change : changes) {
+                pending.merge(change.getRoomId(), change, AvailabilityChange::merge);
+            }
+            //too far behind: drop the backlog, the client re-reads the calendar instead
+            if (pending.size() > capacity) {
+                pending.clear();
+                resync = true;
+            }
+        }
+        return claim();
+    }
+
+    synchronized boolean resync() {
+        pending.clear();
+        resync = true;
+        return claim();
+    }
+
+    synchronized boolean heartbeat() {
+        heartbeat = true;
+        return claim();
+    }
+
+    synchronized boolean isResyncPending() {
+        return resync;
+    }
+
+    synchronized int pendingRooms() {
+        return pending.size();
+    }
+
+    //next frame for the sender; null releases the sender, nothing is pending then
+    synchronized SseEmitter.SseEventBuilder next() {
+        if (resync) {
+            resync = false;
+            heartbeat = false;
+            return SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON);
+        }
+        if (!pending.isEmpty()) {
+            List<AvailabilityChange> changes = new ArrayList<>(pending.values());
+            pending.clear();
+            heartbeat = false;
+            return SseEmitter.event().name("availability").data(changes, MediaType.APPLICATION_JSON);
+        }
+        if (heartbeat) {
+            heartbeat = false;
+            return SseEmitter.event().comment("heartbeat");
+        }
+        sending = false;
+        return null;
+    }
+
+    private boolean claim() {
+        if (sending) {
+            return false;
+        }
+        sending = true;
+        return true;
+    }
+}
@@ -0,0 +1,239 @@
+package com.meti.roombooking.idempotency;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.meti.roombooking.concurrency.ConflictRetry;
+import com.meti.roombooking.datasource.ReadRouting;
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.entity.IdempotencyRecord;
+import com.meti.roombooking.exception.IdempotencyKeyInProgressException;
+import com.meti.roombooking.repository.IdempotencyRecordRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Idempotency-Key handling for booking writes.
+ *
+ * The first request with a key runs the write and records its response in the same
+ * transaction; later requests with the key get that response back without touching the
+ * booking tables. Keys belong to the signed-in user, so the same key from another user is
+ * a separate write. Recent keys are answered from memory (bounded, with TTL), older ones or
+ * keys used on another node from the idempotency_keys table. A duplicate arriving while the
+ * first is still running waits for its outcome, success or failure, instead of racing it.
+ *
+ * In cluster mode a write of a room owned by another node is sent there with its key, outside
+ * any local transaction, and the owner records the key in the transaction of the write. The
+ * table is shared, so a retry whose first attempt timed out after the owner committed finds it.
+ */
+@Slf4j
+@Component
+public class IdempotencyKeys {
+
+    public static final String HEADER = "Idempotency-Key";
+
+    private static final int MAX_KEY_LENGTH = 100;
+
+    private final IdempotencyRecordRepository repository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final ConflictRetry conflictRetry;
+    private final AsyncCache<IdempotencyRecord.Key, Recorded> recent;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Counter replays;
+
+    public IdempotencyKeys(IdempotencyRecordRepository repository,
+                           ObjectMapper objectMapper,
+                           PlatformTransactionManager transactionManager,
+                           ConflictRetry conflictRetry,
+                           MeterRegistry registry,
+                           @Value("${booking.idempotency.ttl:24h}") Duration ttl,
+                           @Value("${booking.idempotency.max-entries:10000}") long maxEntries,
+                           @Value("${booking.idempotency.wait-timeout:10s}") Duration waitTimeout) {
+        this.repository = repository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.conflictRetry = conflictRetry;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        //failed futures are dropped by the cache, so a retry after a failure runs again
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .buildAsync();
+        this.replays = Counter.builder("booking.idempotency.replays")
+                .description("Booking writes answered from a recorded Idempotency-Key response")
+                .register(registry);
+    }
+
+    //request descriptors, the same on the node taking the request and on the owner it is sent to
+    public static String createRequest(BookingRequest request) {
+        return "create:" + request.getRoomId() + ":" + request.getUserId() + ":" + request.getCheckIn() + ":" + request.getCheckOut();
+    }
+
+    public static String cancelRequest(Long bookingId) {
+        return "cancel:" + bookingId;
+    }
+
+    public static String statusRequest(Long bookingId, BookingStatus status) {
+        return "status:" + bookingId + ":" + status;
+    }
+
+    /**
+     * Runs the write once per user and key. request identifies the operation and its arguments
+     * (e.g. "cancel:42"); reusing a key for a different request is rejected.
+     */
+    public IdempotentResponse execute(Long userId, String idempotencyKey, String request, Supplier<BookingResponse> write) {
+        return execute(userId, idempotencyKey, request, key -> Optional.empty(), write);
+    }
+
+    /**
+     * Like {@link #execute(Long, String, String, Supplier)} for a write that may belong to another
+     * node. forward runs first, with no local transaction or connection held: it either sends the
+     * write and key to the owner and returns the owner's response, or returns empty and the write
+     * runs here.
+     */
+    public IdempotentResponse execute(Long userId, String idempotencyKey, String request,
+                                      Function<String, Optional<BookingResponse>> forward, Supplier<BookingResponse> write) {
+        if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be 1 to " + MAX_KEY_LENGTH + " characters");
+        }
+        IdempotencyRecord.Key key = new IdempotencyRecord.Key(userId, idempotencyKey);
+        CompletableFuture<Recorded> mine = new CompletableFuture<>();
+        CompletableFuture<Recorded> inFlight = recent.asMap().putIfAbsent(key, mine);
+        if (inFlight != null) {
+            return replay(key, request, await(inFlight));
+        }
+
+        Recorded recorded;
+        boolean replayed;
+        try {
+            Optional<Recorded> stored = stored(key);
+            replayed = stored.isPresent();
+            recorded = replayed ? stored.get() : run(key, request, forward, write);
+        } catch (RuntimeException e) {
+            //another node may have run the key meanwhile: its insert won, or its booking made ours conflict;
+            //or the owner committed a forwarded write whose response did not make it back
+            Optional<Recorded> winner = storedAfterFailure(key);
+            if (winner.isEmpty()) {
+                mine.completeExceptionally(e);
+                throw e;
+            }
+            recorded = winner.get();
+            replayed = true;
+        }
+        mine.complete(recorded);
+        return replayed ? replay(key, request, recorded) : new IdempotentResponse(recorded.response(), false);
+    }
+
+    @Scheduled(cron = "${booking.idempotency.purge-cron:0 20 * * * *}")
+    public void purgeExpired() {
+        int purged = repository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired idempotency keys", purged);
+        }
+    }
+
+    private Recorded run(IdempotencyRecord.Key key, String request,
+                         Function<String, Optional<BookingResponse>> forward, Supplier<BookingResponse> write) {
+        Optional<BookingResponse> forwarded = forward.apply(key.getIdempotencyKey());
+        if (forwarded.isPresent()) {
+            //recorded by the owner, together with its booking
+            return new Recorded(request, forwarded.get());
+        }
+        //the write joins this transaction and cannot retry its own conflicts, so they are retried here
+        return conflictRetry.execute(() -> transactionTemplate.execute(status -> {
+            BookingResponse response = write.get();
+            repository.save(record(key, request, response));
+            return new Recorded(request, response);
+        }));
+    }
+
+    private IdempotentResponse replay(IdempotencyRecord.Key key, String request, Recorded recorded) {
+        if (!recorded.request().equals(request)) {
+            throw new IllegalArgumentException("Idempotency-Key " + key.getIdempotencyKey() + " was already used for a different request");
+        }
+        replays.increment();
+        return new IdempotentResponse(recorded.response(), true);
+    }
+
+    private Recorded await(CompletableFuture<Recorded> inFlight) {
+        try {
+            return inFlight.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IdempotencyKeyInProgressException("A request with this Idempotency-Key is still in progress");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IdempotencyKeyInProgressException("Interrupted while waiting for the request with this Idempotency-Key");
+        }
+    }
+
+    private Optional<Recorded> stored(IdempotencyRecord.Key key) {
+        LocalDateTime now = LocalDateTime.now();
+        //from the primary: a retry right after the first attempt must find its stored result
+        return ReadRouting.onPrimary(() -> repository.findById(key))
+                .filter(record -> record.getExpiresAt().isAfter(now))
+                .map(record -> new Recorded(record.getRequest(), fromJson(record.getResponse())));
+    }
+
+    private Optional<Recorded> storedAfterFailure(IdempotencyRecord.Key key) {
+        try {
+            return stored(key);
+        } catch (RuntimeException e) {
+            log.warn("Idempotency key {} of user {} lookup failed: {}", key.getIdempotencyKey(), key.getUserId(), e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private IdempotencyRecord record(IdempotencyRecord.Key key, String request, BookingResponse response) {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            return IdempotencyRecord.builder()
+                    .userId(key.getUserId())
+                    .idempotencyKey(key.getIdempotencyKey())
+                    .request(request)
+                    .response(objectMapper.writeValueAsString(response))
+                    .createdAt(now)
+                    .expiresAt(now.plus(ttl))
+                    .build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Booking response not serializable", e);
+        }
+    }
+
+    private BookingResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, BookingResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable idempotency record", e);
+        }
+    }
+
+    private record Recorded(String request, BookingResponse response) {
+    }
+}
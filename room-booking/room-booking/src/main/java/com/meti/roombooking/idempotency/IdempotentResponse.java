@@ -0,0 +1,7 @@
+package com.meti.roombooking.idempotency;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+
+//replayed is true when the response was recorded by an earlier request with the same key
+public record IdempotentResponse(BookingResponse response, boolean replayed) {
+}
@@ -0,0 +1,47 @@
+package com.meti.roombooking.inventory;
+
+import com.meti.roombooking.entity.RoomType;
+
+import java.time.LocalDate;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Inventory changes collected during one transaction, as per-type step functions over
+ * nights. Overlapping changes are merged, so a batch of bookings becomes one UPDATE per
+ * run of nights with the same net change.
+ */
+final class InventoryDelta {
+
+    @FunctionalInterface
+    interface RangeConsumer {
+        void accept(RoomType type, LocalDate from, LocalDate to, int delta);
+    }
+
+    private final Map<RoomType, TreeMap<LocalDate, Integer>> steps = new EnumMap<>(RoomType.class);
+
+    void add(RoomType type, LocalDate from, LocalDate to, int delta) {
+        if (delta == 0 || !from.isBefore(to)) {
+            return;
+        }
+        TreeMap<LocalDate, Integer> typeSteps = steps.computeIfAbsent(type, t -> new TreeMap<>());
+        typeSteps.merge(from, delta, Integer::sum);
+        typeSteps.merge(to, -delta, Integer::sum);
+    }
+
+    //ranges come in (type, night) order, the same lock order for every transaction
+    void forEachRange(RangeConsumer consumer) {
+        steps.forEach((type, typeSteps) -> {
+            int running = 0;
+            LocalDate start = null;
+            for (Map.Entry<LocalDate, Integer> step : typeSteps.entrySet()) {
+                if (running != 0) {
+                    consumer.accept(type, start, step.getKey(), running);
+                }
+                running += step.getValue();
+                start = step.getKey();
+            }
+        });
+    }
+}
@@ -0,0 +1,233 @@
+package com.meti.roombooking.inventory;
+
+import com.meti.roombooking.availability.RoomIntervals;
+import com.meti.roombooking.availability.RoomStay;
+import com.meti.roombooking.dto.room.DateWindow;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.entity.Room;
+import com.meti.roombooking.entity.RoomStatus;
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.entity.RoomTypeNightInventory;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.event.RoomChangedEvent;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.RoomTypeNightInventoryRepository;
+import com.meti.roombooking.service.RoomService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps room_type_night_inventory in step with bookings and rooms.
+ *
+ * Booking and room changes are collected while their transaction runs and written just
+ * before it commits, as range UPDATEs in (type, night) order: the aggregate commits or
+ * rolls back with the change, and its hot rows are locked only for the end of the
+ * transaction. New nights are filled, and past ones dropped, once a day; the filled nights are
+ * then recounted under row locks, since bookings committing meanwhile had no rows to adjust.
+ */
+@Slf4j
+@Component
+public class RoomTypeInventory {
+
+    private final RoomTypeNightInventoryRepository inventoryRepository;
+    private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final RoomService roomService;
+    private final TransactionTemplate transactionTemplate;
+    private final int horizonDays;
+
+    public RoomTypeInventory(RoomTypeNightInventoryRepository inventoryRepository,
+                             RoomRepository roomRepository,
+                             BookingRepository bookingRepository,
+                             RoomService roomService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${booking.availability.horizon-days:400}") int horizonDays) {
+        this.inventoryRepository = inventoryRepository;
+        this.roomRepository = roomRepository;
+        this.bookingRepository = bookingRepository;
+        this.roomService = roomService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.horizonDays = horizonDays;
+    }
+
+    //runs inside the booking transaction; changes replayed without one were applied where they happened
+    @EventListener
+    public void onBookingChanged(BookingChangedEvent event) {
+        if (!event.changesOccupancy() || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        //nights of rooms in maintenance were never counted as free
+        RoomResponse room = roomService.getRoomById(event.roomId());
+        if (sellable(room)) {
+            pending().add(room.getType(), event.checkIn(), event.checkOut(), event.isActive() ? -1 : 1);
+        }
+    }
+
+    //a room counts on each of its free nights while sellable: remove its old contribution, add the new one
+    @EventListener
+    public void onRoomChanged(RoomChangedEvent event) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        RoomResponse before = event.before();
+        RoomResponse after = event.after();
+        boolean wasSellable = sellable(before);
+        boolean isSellable = sellable(after);
+        if (wasSellable == isSellable && (!isSellable || before.getType() == after.getType())) {
+            return;
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate end = today.plusDays(horizonDays);
+        List<RoomStay> stays = before == null
+                ? List.of()
+                : bookingRepository.findActiveStaysOfRoomEndingAfter(event.roomId(), BookingStatus.ACTIVE, today);
+        List<DateWindow> freeNights = RoomIntervals.of(stays).gaps(today, end);
+
+        InventoryDelta delta = pending();
+        for (DateWindow window : freeNights) {
+            if (wasSellable) {
+                delta.add(before.getType(), window.getCheckIn(), window.getCheckOut(), -1);
+            }
+            if (isSellable) {
+                delta.add(after.getType(), window.getCheckIn(), window.getCheckOut(), 1);
+            }
+        }
+    }
+
+    //fills nights entering the horizon and drops past ones; on first start this builds the whole table
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${booking.inventory.roll-cron:0 10 0 * * *}")
+    public void roll() {
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate end = today.plusDays(horizonDays);
+            LocalDate from = transactionTemplate.execute(status -> fill(today, end));
+            if (from != null) {
+                //bookings that committed while fill ran adjusted rows that did not exist yet
+                transactionTemplate.executeWithoutResult(status -> recount(from, end));
+                log.info("Room type inventory filled for {} nights", ChronoUnit.DAYS.between(from, end));
+            }
+        } catch (RuntimeException e) {
+            //e.g. another node filled the same nights first
+            log.warn("Room type inventory roll failed: {}", e.getMessage());
+        }
+    }
+
+    //the first night inserted, null when the table already reaches the horizon
+    private LocalDate fill(LocalDate today, LocalDate end) {
+        inventoryRepository.deleteNightsBefore(today);
+        LocalDate from = inventoryRepository.findLastNight()
+                .map(last -> last.plusDays(1))
+                .filter(next -> next.isAfter(today))
+                .orElse(today);
+        if (!from.isBefore(end)) {
+            return null;
+        }
+        int days = (int) ChronoUnit.DAYS.between(from, end);
+
+        List<RoomTypeNightInventory> rows = new ArrayList<>(days * RoomType.values().length);
+        count(from, days).forEach((type, nights) -> {
+            for (int i = 0; i < days; i++) {
+                rows.add(RoomTypeNightInventory.builder()
+                        .type(type)
+                        .night(from.plusDays(i))
+                        .freeRooms(nights[i])
+                        .build());
+            }
+        });
+        inventoryRepository.saveAll(rows);
+        return from;
+    }
+
+    //the rows are locked before bookings are read: later adjustments wait for this, earlier ones are counted
+    private void recount(LocalDate from, LocalDate end) {
+        List<RoomTypeNightInventory> rows = inventoryRepository.lockNights(from, end);
+        Map<RoomType, int[]> free = count(from, (int) ChronoUnit.DAYS.between(from, end));
+        int corrected = 0;
+        for (RoomTypeNightInventory row : rows) {
+            int freeRooms = free.get(row.getType())[(int) ChronoUnit.DAYS.between(from, row.getNight())];
+            if (row.getFreeRooms() != freeRooms) {
+                row.setFreeRooms(freeRooms);
+                corrected++;
+            }
+        }
+        if (corrected > 0) {
+            log.info("Room type inventory recount corrected {} nights", corrected);
+        }
+    }
+
+    //free rooms per type for each of the nights from, from + 1, ... from + days - 1
+    private Map<RoomType, int[]> count(LocalDate from, int days) {
+        Map<RoomType, int[]> free = new EnumMap<>(RoomType.class);
+        for (RoomType type : RoomType.values()) {
+            free.put(type, new int[days]);
+        }
+        Map<Long, RoomType> sellableRooms = new HashMap<>();
+        for (Room room : roomRepository.findAll()) {
+            if (room.getStatus() != RoomStatus.MAINTENANCE) {
+                sellableRooms.put(room.getId(), room.getType());
+            }
+        }
+        sellableRooms.values().forEach(type -> {
+            int[] nights = free.get(type);
+            Arrays.setAll(nights, i -> nights[i] + 1);
+        });
+        for (RoomStay stay : bookingRepository.findActiveStaysEndingAfter(BookingStatus.ACTIVE, from)) {
+            RoomType type = sellableRooms.get(stay.roomId());
+            if (type == null) {
+                continue;
+            }
+            int[] nights = free.get(type);
+            int first = (int) Math.max(0, ChronoUnit.DAYS.between(from, stay.checkIn()));
+            int last = (int) Math.min(days, ChronoUnit.DAYS.between(from, stay.checkOut()));
+            for (int i = first; i < last; i++) {
+                nights[i]--;
+            }
+        }
+        return free;
+    }
+
+    private InventoryDelta pending() {
+        InventoryDelta delta = (InventoryDelta) TransactionSynchronizationManager.getResource(this);
+        if (delta != null) {
+            return delta;
+        }
+        InventoryDelta created = new InventoryDelta();
+        TransactionSynchronizationManager.bindResource(this, created);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                created.forEachRange(inventoryRepository::adjust);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(RoomTypeInventory.this);
+            }
+        });
+        return created;
+    }
+
+    private static boolean sellable(RoomResponse room) {
+        return room != null && room.getStatus() != RoomStatus.MAINTENANCE;
+    }
+}
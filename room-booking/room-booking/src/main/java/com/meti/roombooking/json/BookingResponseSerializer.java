@@ -0,0 +1,48 @@
+package com.meti.roombooking.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+//writes the fields in declaration order, byte for byte what the bean serializer produced
+@JsonComponent
+public class BookingResponseSerializer extends StdSerializer<BookingResponse> {
+
+    private static final SerializableString ID = JsonFields.name("id");
+    private static final SerializableString USER_ID = JsonFields.name("userId");
+    private static final SerializableString USER_FULL_NAME = JsonFields.name("userFullName");
+    private static final SerializableString ROOM_ID = JsonFields.name("roomId");
+    private static final SerializableString ROOM_NUMBER = JsonFields.name("roomNumber");
+    private static final SerializableString CHECK_IN = JsonFields.name("checkIn");
+    private static final SerializableString CHECK_OUT = JsonFields.name("checkOut");
+    private static final SerializableString STATUS = JsonFields.name("status");
+    private static final SerializableString TOTAL_PRICE = JsonFields.name("totalPrice");
+    private static final SerializableString CREATED_AT = JsonFields.name("createdAt");
+    private static final SerializableString[] STATUSES = JsonFields.constants(BookingStatus.class);
+
+    public BookingResponseSerializer() {
+        super(BookingResponse.class);
+    }
+
+    @Override
+    public void serialize(BookingResponse booking, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(booking);
+        JsonFields.writeLong(gen, ID, booking.getId());
+        JsonFields.writeLong(gen, USER_ID, booking.getUserId());
+        JsonFields.writeString(gen, USER_FULL_NAME, booking.getUserFullName());
+        JsonFields.writeLong(gen, ROOM_ID, booking.getRoomId());
+        JsonFields.writeString(gen, ROOM_NUMBER, booking.getRoomNumber());
+        JsonFields.writeDate(gen, CHECK_IN, booking.getCheckIn());
+        JsonFields.writeDate(gen, CHECK_OUT, booking.getCheckOut());
+        JsonFields.writeEnum(gen, STATUS, STATUSES, booking.getStatus());
+        JsonFields.writeDecimal(gen, TOTAL_PRICE, booking.getTotalPrice());
+        JsonFields.writeDateTime(gen, CREATED_AT, booking.getCreatedAt());
+        gen.writeEndObject();
+    }
+}
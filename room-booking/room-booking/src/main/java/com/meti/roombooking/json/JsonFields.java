@@ -0,0 +1,150 @@
+package com.meti.roombooking.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Field writers for the hand-written DTO serializers. Output matches what Jackson's bean
+ * serializer and the JavaTimeModule write with Boot's defaults (nulls included, ISO dates),
+ * but names, enum constants and recent dates are written from pre-encoded strings.
+ */
+final class JsonFields {
+
+    //epoch day modulo the size picks the slot, about eleven years of dates without collisions
+    private static final int DATE_SLOTS = 4096;
+    private static final CachedDate[] DATES = new CachedDate[DATE_SLOTS];
+
+    private JsonFields() {
+    }
+
+    static SerializableString name(String name) {
+        return new SerializedString(name);
+    }
+
+    //encoded constant names, indexed by ordinal
+    static SerializableString[] constants(Class<? extends Enum<?>> type) {
+        Enum<?>[] values = type.getEnumConstants();
+        SerializableString[] encoded = new SerializableString[values.length];
+        for (Enum<?> value : values) {
+            encoded[value.ordinal()] = new SerializedString(value.name());
+        }
+        return encoded;
+    }
+
+    static void writeLong(JsonGenerator gen, SerializableString name, Long value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value.longValue());
+        }
+    }
+
+    static void writeInt(JsonGenerator gen, SerializableString name, int value) throws IOException {
+        gen.writeFieldName(name);
+        gen.writeNumber(value);
+    }
+
+    static void writeString(JsonGenerator gen, SerializableString name, String value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(value);
+        }
+    }
+
+    static void writeDecimal(JsonGenerator gen, SerializableString name, BigDecimal value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeNumber(value);
+        }
+    }
+
+    static void writeEnum(JsonGenerator gen, SerializableString name, SerializableString[] constants, Enum<?> value)
+            throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(constants[value.ordinal()]);
+        }
+    }
+
+    static void writeDate(JsonGenerator gen, SerializableString name, LocalDate value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+        } else {
+            gen.writeString(date(value));
+        }
+    }
+
+    //same text as DateTimeFormatter.ISO_LOCAL_DATE_TIME: seconds always, fraction without trailing zeros
+    static void writeDateTime(JsonGenerator gen, SerializableString name, LocalDateTime value) throws IOException {
+        gen.writeFieldName(name);
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        if (value.getYear() < 0 || value.getYear() > 9999) {
+            gen.writeString(DateTimeFormatter.ISO_LOCAL_DATE_TIME.format(value));
+            return;
+        }
+        char[] text = new char[29];
+        String date = date(value.toLocalDate()).getValue();
+        date.getChars(0, 10, text, 0);
+        text[10] = 'T';
+        twoDigits(text, 11, value.getHour());
+        text[13] = ':';
+        twoDigits(text, 14, value.getMinute());
+        text[16] = ':';
+        twoDigits(text, 17, value.getSecond());
+        int length = 19;
+        int nano = value.getNano();
+        if (nano > 0) {
+            text[length++] = '.';
+            int digits = 9;
+            while (nano % 10 == 0) {
+                nano /= 10;
+                digits--;
+            }
+            for (int i = length + digits - 1; i >= length; i--) {
+                text[i] = (char) ('0' + nano % 10);
+                nano /= 10;
+            }
+            length += digits;
+        }
+        gen.writeString(text, 0, length);
+    }
+
+    private static SerializableString date(LocalDate date) {
+        long day = date.toEpochDay();
+        int slot = (int) Math.floorMod(day, (long) DATE_SLOTS);
+        CachedDate cached = DATES[slot];
+        if (cached != null && cached.epochDay() == day) {
+            return cached.text();
+        }
+        //racy on purpose: the record is immutable, losing a write only costs a re-encode
+        CachedDate created = new CachedDate(day, new SerializedString(date.toString()));
+        DATES[slot] = created;
+        return created.text();
+    }
+
+    private static void twoDigits(char[] text, int at, int value) {
+        text[at] = (char) ('0' + value / 10);
+        text[at + 1] = (char) ('0' + value % 10);
+    }
+
+    private record CachedDate(long epochDay, SerializableString text) {
+    }
+}
@@ -0,0 +1,46 @@
+package com.meti.roombooking.json;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.RoomStatus;
+import com.meti.roombooking.entity.RoomType;
+import org.springframework.boot.jackson.JsonComponent;
+
+import java.io.IOException;
+
+//same field order, nulls and number formats as the reflective bean serializer
+@JsonComponent
+public class RoomResponseSerializer extends StdSerializer<RoomResponse> {
+
+    private static final SerializableString ID = JsonFields.name("id");
+    private static final SerializableString ROOM_NUMBER = JsonFields.name("roomNumber");
+    private static final SerializableString TYPE = JsonFields.name("type");
+    private static final SerializableString CAPACITY = JsonFields.name("capacity");
+    private static final SerializableString PRICE_PER_NIGHT = JsonFields.name("pricePerNight");
+    private static final SerializableString STATUS = JsonFields.name("status");
+    private static final SerializableString DESCRIPTION = JsonFields.name("description");
+    private static final SerializableString VERSION = JsonFields.name("version");
+    private static final SerializableString[] TYPES = JsonFields.constants(RoomType.class);
+    private static final SerializableString[] STATUSES = JsonFields.constants(RoomStatus.class);
+
+    public RoomResponseSerializer() {
+        super(RoomResponse.class);
+    }
+
+    @Override
+    public void serialize(RoomResponse room, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        gen.writeStartObject(room);
+        JsonFields.writeLong(gen, ID, room.getId());
+        JsonFields.writeString(gen, ROOM_NUMBER, room.getRoomNumber());
+        JsonFields.writeEnum(gen, TYPE, TYPES, room.getType());
+        JsonFields.writeInt(gen, CAPACITY, room.getCapacity());
+        JsonFields.writeDecimal(gen, PRICE_PER_NIGHT, room.getPricePerNight());
+        JsonFields.writeEnum(gen, STATUS, STATUSES, room.getStatus());
+        JsonFields.writeString(gen, DESCRIPTION, room.getDescription());
+        JsonFields.writeLong(gen, VERSION, room.getVersion());
+        gen.writeEndObject();
+    }
+}
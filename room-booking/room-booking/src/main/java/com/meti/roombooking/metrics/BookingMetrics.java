@@ -0,0 +1,51 @@
+package com.meti.roombooking.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Booking hot-path meters. Everything is registered up front, recording is a field
+ * read plus an atomic update.
+ */
+@Component
+public class BookingMetrics {
+
+    private final Timer overlapCheck;
+    private final Map<BookingRejectReason, Counter> rejections = new EnumMap<>(BookingRejectReason.class);
+
+    public BookingMetrics(MeterRegistry registry) {
+        this.overlapCheck = Timer.builder("booking.overlap.check")
+                .description("Time spent checking a room for overlapping bookings")
+                .publishPercentiles(0.5, 0.99, 0.999)
+                .publishPercentileHistogram()
+                .register(registry);
+        for (BookingRejectReason reason : BookingRejectReason.values()) {
+            rejections.put(reason, Counter.builder("booking.rejections")
+                    .description("Booking requests rejected, by reason")
+                    .tag("reason", reason.name())
+                    .register(registry));
+        }
+    }
+
+    public void recordOverlapCheck(long nanos) {
+        overlapCheck.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rejected(BookingRejectReason reason) {
+        rejections.get(reason).increment();
+    }
+
+    Timer overlapCheckTimer() {
+        return overlapCheck;
+    }
+
+    Map<BookingRejectReason, Counter> rejectionCounters() {
+        return rejections;
+    }
+}
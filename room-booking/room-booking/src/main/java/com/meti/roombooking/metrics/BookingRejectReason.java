@@ -0,0 +1,13 @@
+package com.meti.roombooking.metrics;
+
+public enum BookingRejectReason {
+    ROOM_NOT_FOUND,
+    USER_NOT_FOUND,
+    INVALID_DATES,
+    //the overlap query found an active booking
+    OVERLAP,
+    //the database refused a room-night claim (race with another node)
+    NIGHT_TAKEN,
+    //the room lock stripe could not be acquired in time
+    ROOM_BUSY
+}
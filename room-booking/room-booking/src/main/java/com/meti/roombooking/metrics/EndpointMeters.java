@@ -0,0 +1,52 @@
+package com.meti.roombooking.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Meters of one endpoint (HTTP method + route pattern). Timers per response outcome are
+ * registered when the endpoint is first seen, afterwards recording allocates nothing.
+ */
+final class EndpointMeters {
+
+    static final String[] OUTCOMES = {"SUCCESS", "CLIENT_ERROR", "SERVER_ERROR"};
+
+    final String method;
+    final String uri;
+    final Timer[] latency = new Timer[OUTCOMES.length];
+    final DistributionSummary queries;
+    final Timer dbTime;
+
+    EndpointMeters(MeterRegistry registry, String method, String uri) {
+        this.method = method;
+        this.uri = uri;
+        for (int i = 0; i < OUTCOMES.length; i++) {
+            latency[i] = Timer.builder("booking.http.requests")
+                    .description("Endpoint latency")
+                    .tags("method", method, "uri", uri, "outcome", OUTCOMES[i])
+                    .publishPercentiles(0.5, 0.99, 0.999)
+                    .publishPercentileHistogram()
+                    .register(registry);
+        }
+        this.queries = DistributionSummary.builder("booking.http.db.queries")
+                .description("JDBC statements executed per request")
+                .tags("method", method, "uri", uri)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+        this.dbTime = Timer.builder("booking.http.db.time")
+                .description("JDBC execution time per request")
+                .tags("method", method, "uri", uri)
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    void record(int status, long elapsedNanos, QueryStats stats) {
+        int outcome = status >= 500 ? 2 : status >= 400 ? 1 : 0;
+        latency[outcome].record(elapsedNanos, TimeUnit.NANOSECONDS);
+        queries.record(stats.count());
+        dbTime.record(stats.nanos(), TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,102 @@
+package com.meti.roombooking.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records latency and JDBC usage of every /api request against its route pattern.
+ *
+ * Meters are looked up by the pattern string Spring MVC already put on the request
+ * (one instance per mapping), so the steady state is two map lookups and no tag building.
+ * Requests without a matched pattern (404s, static resources) share one "UNKNOWN" uri.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 10)
+public class EndpointMetricsFilter extends OncePerRequestFilter {
+
+    private static final String UNKNOWN = "UNKNOWN";
+    private static final String[] METHODS = {"GET", "POST", "PUT", "PATCH", "DELETE"};
+    private static final String API_PATH = "/api/";
+    //decoded and without the context path, as the controllers are matched
+    private static final UrlPathHelper PATHS = UrlPathHelper.defaultInstance;
+
+    private final MeterRegistry registry;
+    //uri pattern -> meters indexed like METHODS, with "OTHER" last
+    private final Map<String, EndpointMeters[]> meters = new ConcurrentHashMap<>();
+
+    public EndpointMetricsFilter(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !PATHS.getPathWithinApplication(request).startsWith(API_PATH);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        QueryStats stats = QueryStats.current();
+        stats.reset();
+        long start = System.nanoTime();
+        int status = HttpServletResponse.SC_INTERNAL_SERVER_ERROR;
+        try {
+            chain.doFilter(request, response);
+            status = response.getStatus();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            String uri = pattern instanceof String p ? p : UNKNOWN;
+            metersFor(uri, request.getMethod()).record(status, elapsed, stats);
+        }
+    }
+
+    private EndpointMeters metersFor(String uri, String method) {
+        EndpointMeters[] byMethod = meters.get(uri);
+        if (byMethod == null) {
+            byMethod = meters.computeIfAbsent(uri, key -> new EndpointMeters[METHODS.length + 1]);
+        }
+        int index = methodIndex(method);
+        EndpointMeters endpoint = byMethod[index];
+        if (endpoint == null) {
+            //registration is idempotent, a lost race just re-resolves the same meters
+            endpoint = new EndpointMeters(registry, index < METHODS.length ? METHODS[index] : "OTHER", uri);
+            byMethod[index] = endpoint;
+        }
+        return endpoint;
+    }
+
+    private static int methodIndex(String method) {
+        for (int i = 0; i < METHODS.length; i++) {
+            if (METHODS[i].equals(method)) {
+                return i;
+            }
+        }
+        return METHODS.length;
+    }
+
+    //snapshot for the hotpath actuator endpoint
+    List<EndpointMeters> endpoints() {
+        return meters.values().stream()
+                .flatMap(Arrays::stream)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+}
@@ -0,0 +1,87 @@
+package com.meti.roombooking.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * /actuator/hotpath: one-page summary of the booking hot path (per-endpoint latency
+ * percentiles, queries per request, overlap-check time, rejections by reason).
+ * The same meters are scraped from /actuator/prometheus.
+ */
+@Component
+@Endpoint(id = "hotpath")
+@RequiredArgsConstructor
+public class HotPathEndpoint {
+
+    private final EndpointMetricsFilter endpointMetrics;
+    private final BookingMetrics bookingMetrics;
+
+    @ReadOperation
+    public Map<String, Object> hotPath() {
+        List<Map<String, Object>> endpoints = new ArrayList<>();
+        for (EndpointMeters endpoint : endpointMetrics.endpoints()) {
+            for (int i = 0; i < EndpointMeters.OUTCOMES.length; i++) {
+                Timer latency = endpoint.latency[i];
+                if (latency.count() == 0) {
+                    continue;
+                }
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("method", endpoint.method);
+                row.put("uri", endpoint.uri);
+                row.put("outcome", EndpointMeters.OUTCOMES[i]);
+                row.put("latencyMs", summarize(latency));
+                endpoints.add(row);
+            }
+            if (endpoint.queries.count() > 0) {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("method", endpoint.method);
+                row.put("uri", endpoint.uri);
+                row.put("dbQueriesPerRequest", endpoint.queries.mean());
+                row.put("dbTimeMs", summarize(endpoint.dbTime));
+                endpoints.add(row);
+            }
+        }
+
+        Map<String, Double> rejections = new LinkedHashMap<>();
+        for (Map.Entry<BookingRejectReason, Counter> entry : bookingMetrics.rejectionCounters().entrySet()) {
+            rejections.put(entry.getKey().name(), entry.getValue().count());
+        }
+
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("endpoints", endpoints);
+        body.put("overlapCheckMs", summarize(bookingMetrics.overlapCheckTimer()));
+        body.put("rejections", rejections);
+        return body;
+    }
+
+    private static Map<String, Object> summarize(Timer timer) {
+        HistogramSnapshot snapshot = timer.takeSnapshot();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", snapshot.count());
+        summary.put("mean", snapshot.mean(TimeUnit.MILLISECONDS));
+        summary.put("max", snapshot.max(TimeUnit.MILLISECONDS));
+        for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+            summary.put("p" + format(percentile.percentile()), percentile.value(TimeUnit.MILLISECONDS));
+        }
+        return summary;
+    }
+
+    //0.5 -> 50, 0.99 -> 99, 0.999 -> 999
+    private static String format(double percentile) {
+        return BigDecimal.valueOf(percentile).movePointRight(2).stripTrailingZeros()
+                .toPlainString().replace(".", "");
+    }
+}
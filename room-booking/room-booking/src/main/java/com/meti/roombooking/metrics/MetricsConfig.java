@@ -0,0 +1,17 @@
+package com.meti.roombooking.metrics;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MetricsConfig {
+
+    //Hibernate creates one listener per session; statement callbacks only touch QueryStats
+    @Bean
+    public HibernatePropertiesCustomizer queryTimingListener() {
+        return properties -> properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER,
+                QueryTimingSessionListener.class.getName());
+    }
+}
@@ -0,0 +1,47 @@
+package com.meti.roombooking.metrics;
+
+/**
+ * Per-thread JDBC statement counters for the request currently being served.
+ * One mutable instance per thread is reused across requests, so recording allocates nothing.
+ */
+public final class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = ThreadLocal.withInitial(QueryStats::new);
+
+    private long count;
+    private long nanos;
+    private long startedAt;
+
+    private QueryStats() {
+    }
+
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    public void reset() {
+        count = 0;
+        nanos = 0;
+        startedAt = 0;
+    }
+
+    void statementStarted() {
+        startedAt = System.nanoTime();
+    }
+
+    void statementFinished() {
+        if (startedAt != 0) {
+            nanos += System.nanoTime() - startedAt;
+            startedAt = 0;
+        }
+        count++;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public long nanos() {
+        return nanos;
+    }
+}
@@ -0,0 +1,30 @@
+package com.meti.roombooking.metrics;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Registered with Hibernate as the automatic session event listener; accumulates
+ * JDBC statement count and execution time into the thread's QueryStats.
+ */
+public class QueryTimingSessionListener implements SessionEventListener {
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        QueryStats.current().statementStarted();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStats.current().statementFinished();
+    }
+
+    @Override
+    public void jdbcExecuteBatchStart() {
+        QueryStats.current().statementStarted();
+    }
+
+    @Override
+    public void jdbcExecuteBatchEnd() {
+        QueryStats.current().statementFinished();
+    }
+}
@@ -0,0 +1,19 @@
+package com.meti.roombooking.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+//the booking log lines, formerly written by BookingController on the request thread
+@Slf4j
+@Component
+public class BookingLogHandler implements OutboxHandler {
+
+    @Override
+    public void handle(OutboxMessage message) {
+        switch (message.type()) {
+            case BOOKING_CREATED -> log.info("Booking created successfully with ID: {}", message.booking().bookingId());
+            case BOOKING_STATUS_CHANGED -> log.info("Booking {} status changed from {} to {}",
+                    message.booking().bookingId(), message.booking().previousStatus(), message.booking().newStatus());
+        }
+    }
+}
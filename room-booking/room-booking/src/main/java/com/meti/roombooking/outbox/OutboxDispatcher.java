@@ -0,0 +1,256 @@
+package com.meti.roombooking.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.entity.OutboxEvent;
+import com.meti.roombooking.entity.OutboxStatus;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Delivers outbox events to the OutboxHandler beans.
+ *
+ * One thread claims up to batch-size due events (a lease, so several nodes can dispatch
+ * from the same table), runs them on virtual threads, then deletes the delivered ones and
+ * reschedules failures with exponential backoff until max-attempts marks them DEAD.
+ * Only one batch is in flight, so slow handlers leave the backlog in the table, not in memory.
+ * Events of one booking run in order, whichever node dispatches them: only a booking's oldest
+ * pending event is claimed, so after a failure the rest of that booking waits for its retry.
+ * A commit wakes the thread straight away, the poll interval covers retries and other nodes.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "booking.outbox.dispatcher.enabled", havingValue = "true", matchIfMissing = true)
+public class OutboxDispatcher {
+
+    private final OutboxEventRepository outboxRepository;
+    private final List<OutboxHandler> handlers;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxAttempts;
+    private final Duration lease;
+    private final Duration pollInterval;
+    private final Duration retryBackoff;
+    private final Duration maxRetryBackoff;
+    private final Semaphore wakeups = new Semaphore(0);
+    private final ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter delivered;
+    private final Counter retried;
+    private final Counter dead;
+    private final Timer lag;
+    private Thread dispatcher;
+
+    public OutboxDispatcher(OutboxEventRepository outboxRepository,
+                            List<OutboxHandler> handlers,
+                            ObjectMapper objectMapper,
+                            PlatformTransactionManager transactionManager,
+                            MeterRegistry registry,
+                            @Value("${booking.outbox.batch-size:100}") int batchSize,
+                            @Value("${booking.outbox.max-attempts:10}") int maxAttempts,
+                            @Value("${booking.outbox.lease:1m}") Duration lease,
+                            @Value("${booking.outbox.poll-interval:5s}") Duration pollInterval,
+                            @Value("${booking.outbox.retry-backoff:1s}") Duration retryBackoff,
+                            @Value("${booking.outbox.max-retry-backoff:10m}") Duration maxRetryBackoff) {
+        this.outboxRepository = outboxRepository;
+        this.handlers = handlers;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.lease = lease;
+        this.pollInterval = pollInterval;
+        this.retryBackoff = retryBackoff;
+        this.maxRetryBackoff = maxRetryBackoff;
+        this.delivered = Counter.builder("booking.outbox.delivered")
+                .description("Outbox events delivered to every handler")
+                .register(registry);
+        this.retried = Counter.builder("booking.outbox.retries")
+                .description("Outbox deliveries that failed and were rescheduled")
+                .register(registry);
+        this.dead = Counter.builder("booking.outbox.dead")
+                .description("Outbox events given up after max-attempts")
+                .register(registry);
+        this.lag = Timer.builder("booking.outbox.lag")
+                .description("Time from the booking commit to the end of delivery")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcher = Thread.ofPlatform().daemon().name("outbox-dispatcher").start(this::run);
+    }
+
+    @PreDestroy
+    void stop() {
+        dispatcher.interrupt();
+        workers.shutdownNow();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookingChanged(BookingChangedEvent event) {
+        wake();
+    }
+
+    public void wake() {
+        if (wakeups.availablePermits() == 0) {
+            wakeups.release();
+        }
+    }
+
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                wakeups.tryAcquire(pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+                wakeups.drainPermits();
+                //more may be due: past a full batch, or the next events of the bookings just delivered
+                int claimed;
+                do {
+                    claimed = dispatchBatch();
+                } while (claimed > 0);
+            } catch (InterruptedException e) {
+                return;
+            } catch (RuntimeException e) {
+                log.warn("Outbox dispatch failed, retrying in {}: {}", pollInterval, e.getMessage());
+            }
+        }
+    }
+
+    //returns the number of events claimed
+    int dispatchBatch() throws InterruptedException {
+        String claim = UUID.randomUUID().toString();
+        List<OutboxEvent> events = transactionTemplate.execute(status -> claim(claim));
+        if (events == null || events.isEmpty()) {
+            return 0;
+        }
+
+        //at most one event per booking, so they can all run at once
+        Queue<Long> deliveredIds = new ConcurrentLinkedQueue<>();
+        Queue<Failure> failures = new ConcurrentLinkedQueue<>();
+        List<Future<?>> running = new ArrayList<>(events.size());
+        for (OutboxEvent event : events) {
+            running.add(workers.submit(() -> attempt(event, deliveredIds, failures)));
+        }
+        for (Future<?> future : running) {
+            try {
+                future.get();
+            } catch (ExecutionException e) {
+                log.error("Outbox worker failed", e.getCause());
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!deliveredIds.isEmpty()) {
+                outboxRepository.deleteClaimed(List.copyOf(deliveredIds), claim);
+            }
+            failures.forEach(failure -> release(failure, claim));
+        });
+        delivered.increment(deliveredIds.size());
+        return events.size();
+    }
+
+    private List<OutboxEvent> claim(String claim) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> due = outboxRepository.findDueIds(OutboxStatus.PENDING, now, Limit.of(batchSize));
+        if (due.isEmpty() || outboxRepository.claim(due, OutboxStatus.PENDING, now, claim, now.plus(lease)) == 0) {
+            return List.of();
+        }
+        return outboxRepository.findByClaimedByOrderById(claim);
+    }
+
+    private void attempt(OutboxEvent event, Queue<Long> deliveredIds, Queue<Failure> failures) {
+        try {
+            deliver(event);
+            deliveredIds.add(event.getId());
+            lag.record(Duration.between(event.getCreatedAt(), LocalDateTime.now()));
+        } catch (RuntimeException e) {
+            int attempt = event.getAttempts() + 1;
+            log.warn("Outbox event {} ({}) failed on attempt {}: {}", event.getId(), event.getType(), attempt, e.toString());
+            failures.add(new Failure(event, LocalDateTime.now().plus(backoff(attempt)), e.toString()));
+        }
+    }
+
+    private void deliver(OutboxEvent event) {
+        OutboxMessage message = new OutboxMessage(
+                event.getId(),
+                event.getType(),
+                event.getAttempts() + 1,
+                event.getCreatedAt(),
+                readPayload(event)
+        );
+        for (OutboxHandler handler : handlers) {
+            if (handler.supports(message.type())) {
+                handler.handle(message);
+            }
+        }
+    }
+
+    private void release(Failure failure, String claim) {
+        OutboxEvent event = failure.event();
+        int attempts = event.getAttempts() + 1;
+        boolean givenUp = attempts >= maxAttempts;
+        if (givenUp) {
+            log.error("Outbox event {} ({}) given up after {} attempts: {}", event.getId(), event.getType(), attempts, failure.error());
+            dead.increment();
+        } else {
+            retried.increment();
+        }
+        outboxRepository.release(
+                event.getId(),
+                claim,
+                givenUp ? OutboxStatus.DEAD : OutboxStatus.PENDING,
+                attempts,
+                failure.retryAt(),
+                abbreviate(failure.error())
+        );
+    }
+
+    //retryBackoff, doubled per attempt up to maxRetryBackoff
+    private Duration backoff(int attempt) {
+        Duration delay = retryBackoff.multipliedBy(1L << Math.min(attempt - 1, 30));
+        return delay.compareTo(maxRetryBackoff) > 0 ? maxRetryBackoff : delay;
+    }
+
+    private BookingChangedEvent readPayload(OutboxEvent event) {
+        try {
+            return objectMapper.readValue(event.getPayload(), BookingChangedEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unreadable outbox payload", e);
+        }
+    }
+
+    private static String abbreviate(String error) {
+        return error == null || error.length() <= 500 ? error : error.substring(0, 500);
+    }
+
+    private record Failure(OutboxEvent event, LocalDateTime retryAt, String error) {
+    }
+}
@@ -0,0 +1,19 @@
+package com.meti.roombooking.outbox;
+
+import com.meti.roombooking.entity.OutboxEventType;
+
+/**
+ * Work that follows a committed booking change (confirmation mail, invoicing, analytics...),
+ * run by the outbox dispatcher off the request path. Every OutboxHandler bean is picked up.
+ *
+ * Delivery is at least once: if any handler throws, the message is retried for all of them,
+ * so handlers must tolerate seeing the same message id again.
+ */
+public interface OutboxHandler {
+
+    default boolean supports(OutboxEventType type) {
+        return true;
+    }
+
+    void handle(OutboxMessage message);
+}
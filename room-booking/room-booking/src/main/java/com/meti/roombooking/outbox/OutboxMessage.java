@@ -0,0 +1,19 @@
+package com.meti.roombooking.outbox;
+
+import com.meti.roombooking.entity.OutboxEventType;
+import com.meti.roombooking.event.BookingChangedEvent;
+
+import java.time.LocalDateTime;
+
+/**
+ * What a handler receives. id is stable across attempts (attempt counts from 1),
+ * createdAt is the commit time of the booking change.
+ */
+public record OutboxMessage(
+        Long id,
+        OutboxEventType type,
+        int attempt,
+        LocalDateTime createdAt,
+        BookingChangedEvent booking
+) {
+}
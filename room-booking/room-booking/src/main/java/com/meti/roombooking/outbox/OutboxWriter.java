@@ -0,0 +1,48 @@
+package com.meti.roombooking.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.entity.OutboxEvent;
+import com.meti.roombooking.entity.OutboxEventType;
+import com.meti.roombooking.entity.OutboxStatus;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+//one outbox insert per booking change, committed or rolled back with the booking itself
+@Component
+@RequiredArgsConstructor
+public class OutboxWriter {
+
+    private final OutboxEventRepository outboxRepository;
+    private final ObjectMapper objectMapper;
+
+    @EventListener
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void onBookingChanged(BookingChangedEvent event) {
+        LocalDateTime now = LocalDateTime.now();
+        outboxRepository.save(OutboxEvent.builder()
+                .type(event.previousStatus() == null ? OutboxEventType.BOOKING_CREATED : OutboxEventType.BOOKING_STATUS_CHANGED)
+                .aggregateId(event.bookingId())
+                .payload(toJson(event))
+                .status(OutboxStatus.PENDING)
+                .attempts(0)
+                .createdAt(now)
+                .availableAt(now)
+                .build());
+    }
+
+    private String toJson(BookingChangedEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Booking event not serializable", e);
+        }
+    }
+}
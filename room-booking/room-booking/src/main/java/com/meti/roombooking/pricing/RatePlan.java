@@ -0,0 +1,151 @@
+package com.meti.roombooking.pricing;
+
+import com.meti.roombooking.entity.PriceAdjustment;
+import com.meti.roombooking.entity.PriceRule;
+import com.meti.roombooking.entity.RoomType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Immutable, detached form of the price rules, with all amounts in fixed-point cents
+ * (percentages in basis points) so pricing never allocates BigDecimals.
+ * Equal plans compare equal, which is how a refresh tells whether anything changed.
+ */
+final class RatePlan {
+
+    static final RatePlan EMPTY = new RatePlan(List.of(), List.of());
+
+    private final List<Rule> nightly;
+    private final List<Rule> stay;
+
+    private RatePlan(List<Rule> nightly, List<Rule> stay) {
+        this.nightly = nightly;
+        this.stay = stay;
+    }
+
+    static RatePlan of(List<PriceRule> rules) {
+        List<Rule> compiled = rules.stream()
+                .map(Rule::of)
+                .sorted(Comparator.comparingInt(Rule::priority).thenComparingLong(Rule::id))
+                .toList();
+        return new RatePlan(
+                compiled.stream().filter(rule -> rule.minNights() == 0).toList(),
+                compiled.stream().filter(rule -> rule.minNights() > 0).toList());
+    }
+
+    //nightly rules that can ever apply to the room, in application order
+    List<Rule> nightlyRulesFor(Long roomId, RoomType type) {
+        return nightly.stream().filter(rule -> rule.appliesTo(roomId, type)).toList();
+    }
+
+    //prefix[i] is the price of the first i nights from startDay, prefix[0] = 0
+    static long[] prefixSums(long baseCents, List<Rule> rules, long startDay, int days) {
+        long[] prefix = new long[days + 1];
+        int dayBit = PriceRule.dayBit(LocalDate.ofEpochDay(startDay).getDayOfWeek());
+        for (int i = 0; i < days; i++) {
+            prefix[i + 1] = prefix[i] + nightCents(baseCents, rules, startDay + i, dayBit);
+            dayBit = dayBit == PriceRule.dayBit(DayOfWeek.SUNDAY) ? 1 : dayBit << 1;
+        }
+        return prefix;
+    }
+
+    //sum of the nightly prices of [checkIn, checkOut), one night at a time
+    long nightsCents(long baseCents, Long roomId, RoomType type, LocalDate checkIn, LocalDate checkOut) {
+        List<Rule> rules = nightlyRulesFor(roomId, type);
+        long total = 0;
+        for (long day = checkIn.toEpochDay(); day < checkOut.toEpochDay(); day++) {
+            total += nightCents(baseCents, rules, day, PriceRule.dayBit(LocalDate.ofEpochDay(day).getDayOfWeek()));
+        }
+        return total;
+    }
+
+    //applies the length-of-stay rules matching the stay to its nightly total
+    long stayCents(long nightsCents, Long roomId, RoomType type, LocalDate checkIn, int nights) {
+        long total = nightsCents;
+        if (stay.isEmpty()) {
+            return total;
+        }
+        long day = checkIn.toEpochDay();
+        int dayBit = PriceRule.dayBit(checkIn.getDayOfWeek());
+        for (Rule rule : stay) {
+            if (nights >= rule.minNights() && rule.appliesTo(roomId, type) && rule.appliesOn(day, dayBit)) {
+                total = rule.apply(total);
+            }
+        }
+        return total;
+    }
+
+    private static long nightCents(long baseCents, List<Rule> rules, long day, int dayBit) {
+        long price = baseCents;
+        for (Rule rule : rules) {
+            if (rule.appliesOn(day, dayBit)) {
+                price = rule.apply(price);
+            }
+        }
+        return price;
+    }
+
+    static long toCents(BigDecimal price) {
+        return price.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal toPrice(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof RatePlan plan && nightly.equals(plan.nightly) && stay.equals(plan.stay);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * nightly.hashCode() + stay.hashCode();
+    }
+
+    /**
+     * One compiled rule. Validity is [fromDay, toDay) in epoch days, amount is in cents,
+     * or in basis points for PERCENT. minNights is 0 for nightly rules.
+     */
+    record Rule(long id, Long roomId, RoomType roomType, long fromDay, long toDay, int days,
+                int minNights, PriceAdjustment adjustment, long amount, int priority) {
+
+        static Rule of(PriceRule rule) {
+            return new Rule(
+                    rule.getId(),
+                    rule.getRoomId(),
+                    rule.getRoomType(),
+                    rule.getValidFrom() != null ? rule.getValidFrom().toEpochDay() : Long.MIN_VALUE,
+                    rule.getValidTo() != null ? rule.getValidTo().toEpochDay() : Long.MAX_VALUE,
+                    rule.getDaysOfWeek(),
+                    rule.getMinNights() != null ? rule.getMinNights() : 0,
+                    rule.getAdjustment(),
+                    toCents(rule.getAmount()),
+                    rule.getPriority());
+        }
+
+        boolean appliesTo(Long targetRoomId, RoomType targetType) {
+            return (roomId == null || roomId.equals(targetRoomId))
+                    && (roomType == null || roomType == targetType);
+        }
+
+        boolean appliesOn(long day, int dayBit) {
+            return day >= fromDay && day < toDay && (days & dayBit) != 0;
+        }
+
+        //prices never go below zero; percentages round half up to the cent
+        long apply(long cents) {
+            long result = switch (adjustment) {
+                case PERCENT -> Math.floorDiv(cents * (10_000 + amount) + 5_000, 10_000);
+                case AMOUNT -> cents + amount;
+                case PRICE -> amount;
+            };
+            return Math.max(0, result);
+        }
+    }
+}
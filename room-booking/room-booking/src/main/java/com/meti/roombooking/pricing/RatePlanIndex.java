@@ -0,0 +1,169 @@
+package com.meti.roombooking.pricing;
+
+import com.meti.roombooking.datasource.ReadRouting;
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.event.PriceRulesChangedEvent;
+import com.meti.roombooking.event.RoomChangedEvent;
+import com.meti.roombooking.repository.PriceRuleRepository;
+import com.meti.roombooking.repository.RoomRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Compiled rate plans: per room, the prefix sums of its nightly prices (rules applied, in cents)
+ * over the same rolling horizon as the availability index. The nightly part of a stay's price
+ * is then two array reads, whatever its length; length-of-stay rules are applied on top.
+ *
+ * Stays reaching outside the horizon, rooms whose price or type changed after compilation and
+ * quotes before the first build are priced night by night from the same rules, with the same result.
+ * Writers are serialized on the index monitor and swap immutable snapshots; readers never lock.
+ */
+@Slf4j
+@Component
+public class RatePlanIndex {
+
+    private final RoomRepository roomRepository;
+    private final PriceRuleRepository priceRuleRepository;
+    private final int horizonDays;
+
+    //null until the first build
+    private volatile Snapshot snapshot;
+
+    public RatePlanIndex(RoomRepository roomRepository,
+                         PriceRuleRepository priceRuleRepository,
+                         @Value("${booking.availability.horizon-days:400}") int horizonDays) {
+        this.roomRepository = roomRepository;
+        this.priceRuleRepository = priceRuleRepository;
+        this.horizonDays = horizonDays;
+    }
+
+    /**
+     * Total price in cents of the nights [checkIn, checkOut) of a room with the given
+     * type and base price per night.
+     */
+    public long quoteCents(Long roomId, RoomType type, BigDecimal pricePerNight, LocalDate checkIn, LocalDate checkOut) {
+        long baseCents = RatePlan.toCents(pricePerNight);
+        Snapshot current = snapshot;
+        RatePlan plan = current != null ? current.plan : loadPlan();
+
+        long nightsCents;
+        RoomPrices prices = current != null ? current.byId.get(roomId) : null;
+        if (prices != null && prices.baseCents == baseCents && prices.type == type && current.covers(checkIn, checkOut)) {
+            nightsCents = prices.prefix[current.offset(checkOut)] - prices.prefix[current.offset(checkIn)];
+        } else {
+            nightsCents = plan.nightsCents(baseCents, roomId, type, checkIn, checkOut);
+        }
+        int nights = (int) (checkOut.toEpochDay() - checkIn.toEpochDay());
+        return plan.stayCents(nightsCents, roomId, type, checkIn, nights);
+    }
+
+    public BigDecimal quote(Long roomId, RoomType type, BigDecimal pricePerNight, LocalDate checkIn, LocalDate checkOut) {
+        return RatePlan.toPrice(quoteCents(roomId, type, pricePerNight, checkIn, checkOut));
+    }
+
+    public boolean isBuilt() {
+        return snapshot != null;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        rebuild();
+    }
+
+    //rolls the horizon forward once per day
+    @Scheduled(cron = "${booking.pricing.rebuild-cron:0 6 0 * * *}")
+    public synchronized void rebuild() {
+        try {
+            LocalDate start = LocalDate.now();
+            RatePlan plan = loadPlan();
+            Snapshot fresh = new Snapshot(start.toEpochDay(), horizonDays, plan);
+            Map<Long, RoomPrices> byId = new HashMap<>();
+            ReadRouting.onPrimary(() -> roomRepository.findAll()).forEach(room -> byId.put(room.getId(),
+                    fresh.compile(room.getId(), room.getType(), room.getPricePerNight())));
+            fresh.byId = byId;
+            snapshot = fresh;
+            log.info("Rate plans compiled: {} rooms, {} nights from {}", byId.size(), horizonDays, start);
+        } catch (RuntimeException e) {
+            log.error("Rate plan compilation failed, quotes keep using the previous state", e);
+        }
+    }
+
+    //picks up rules changed on other nodes or directly in the database
+    @Scheduled(fixedDelayString = "${booking.pricing.refresh-interval:60s}",
+            initialDelayString = "${booking.pricing.refresh-interval:60s}")
+    public void refresh() {
+        Snapshot current = snapshot;
+        if (current != null && !current.plan.equals(loadPlan())) {
+            rebuild();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onPriceRulesChanged(PriceRulesChangedEvent event) {
+        rebuild();
+    }
+
+    @Order(0)
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onRoomChanged(RoomChangedEvent event) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            return;
+        }
+        Map<Long, RoomPrices> byId = new HashMap<>(current.byId);
+        if (event.after() == null) {
+            byId.remove(event.roomId());
+        } else {
+            byId.put(event.roomId(), current.compile(event.roomId(), event.after().getType(), event.after().getPricePerNight()));
+        }
+        current.byId = byId;
+    }
+
+    //from the primary, so a rebuild triggered by a rule change sees that change
+    private RatePlan loadPlan() {
+        return RatePlan.of(ReadRouting.onPrimary(() -> priceRuleRepository.findAll()));
+    }
+
+    private record RoomPrices(long baseCents, RoomType type, long[] prefix) {
+    }
+
+    private static final class Snapshot {
+        private final long startDay;
+        private final int days;
+        private final RatePlan plan;
+        private volatile Map<Long, RoomPrices> byId = Map.of();
+
+        private Snapshot(long startDay, int days, RatePlan plan) {
+            this.startDay = startDay;
+            this.days = days;
+            this.plan = plan;
+        }
+
+        private RoomPrices compile(Long roomId, RoomType type, BigDecimal pricePerNight) {
+            long baseCents = RatePlan.toCents(pricePerNight);
+            return new RoomPrices(baseCents, type,
+                    RatePlan.prefixSums(baseCents, plan.nightlyRulesFor(roomId, type), startDay, days));
+        }
+
+        private boolean covers(LocalDate checkIn, LocalDate checkOut) {
+            long from = checkIn.toEpochDay() - startDay;
+            long to = checkOut.toEpochDay() - startDay;
+            return from >= 0 && to <= days && from <= to;
+        }
+
+        private int offset(LocalDate date) {
+            return (int) (date.toEpochDay() - startDay);
+        }
+    }
+}
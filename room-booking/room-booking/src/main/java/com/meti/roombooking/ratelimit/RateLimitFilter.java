@@ -0,0 +1,115 @@
+package com.meti.roombooking.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.auth.CurrentUser;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.cors.CorsUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.UrlPathHelper;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@link RateLimiter} to /api requests before they reach a controller (or the database).
+ *
+ * Signed-in users are limited per user id, whichever address they come from; anonymous
+ * requests per client address. Behind proxies (booking.ratelimit.trusted-proxies) that address
+ * is the X-Forwarded-For entry the outermost trusted proxy appended, counted from the right:
+ * entries left of it come from the client and can be anything. Runs after the session
+ * token filter so the user is known, and inside the metrics filter so 429s are counted.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE + 30)
+@ConditionalOnProperty(name = "booking.ratelimit.enabled", havingValue = "true", matchIfMissing = true)
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private static final String FORWARDED_FOR = "X-Forwarded-For";
+    private static final String API_PATH = "/api/";
+    //decoded and without the context path, as the controllers are matched
+    private static final UrlPathHelper PATHS = UrlPathHelper.defaultInstance;
+
+    private final RateLimiter limiter;
+    private final ObjectMapper objectMapper;
+    private final int trustedProxies;
+
+    public RateLimitFilter(RateLimiter limiter,
+                           ObjectMapper objectMapper,
+                           @Value("${booking.ratelimit.trusted-proxies:0}") int trustedProxies) {
+        if (trustedProxies < 0) {
+            throw new IllegalArgumentException("booking.ratelimit.trusted-proxies must not be negative");
+        }
+        this.limiter = limiter;
+        this.objectMapper = objectMapper;
+        this.trustedProxies = trustedProxies;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !PATHS.getPathWithinApplication(request).startsWith(API_PATH) || CorsUtils.isPreFlightRequest(request);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain chain) throws ServletException, IOException {
+        int route = limiter.route(request.getMethod(), PATHS.getPathWithinApplication(request));
+        long wait = limiter.tryAcquire(route, client(request));
+        if (wait == 0) {
+            chain.doFilter(request, response);
+            return;
+        }
+        //whole seconds, rounded up: retrying at the advertised time always finds a token
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(wait + TimeUnit.SECONDS.toNanos(1) - 1));
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", LocalDateTime.now());
+        body.put("error", "Too many requests for " + limiter.routeName(route) + ", retry in " + retryAfter + "s");
+        response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        objectMapper.writeValue(response.getOutputStream(), body);
+    }
+
+    private String client(HttpServletRequest request) {
+        return CurrentUser.get()
+                .map(user -> "user:" + user.userId())
+                .orElseGet(() -> "addr:" + address(request));
+    }
+
+    private String address(HttpServletRequest request) {
+        if (trustedProxies == 0) {
+            return request.getRemoteAddr();
+        }
+        //each proxy appends the address it received from, repeated headers included
+        List<String> entries = new ArrayList<>();
+        for (String header : Collections.list(request.getHeaders(FORWARDED_FOR))) {
+            for (String entry : header.split(",")) {
+                if (!entry.isBlank()) {
+                    entries.add(entry.trim());
+                }
+            }
+        }
+        if (entries.isEmpty()) {
+            return request.getRemoteAddr();
+        }
+        //fewer entries than proxies: all of them were added by proxies, the leftmost is the client
+        return entries.get(Math.max(0, entries.size() - trustedProxies));
+    }
+}
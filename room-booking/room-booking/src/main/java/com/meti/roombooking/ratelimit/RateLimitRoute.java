@@ -0,0 +1,77 @@
+package com.meti.roombooking.ratelimit;
+
+import org.springframework.http.server.PathContainer;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One configured limit: requests matching method and path pattern get a bucket per client
+ * holding up to burst requests, refilled at permitsPerSecond.
+ *
+ * Routes are configured as comma-separated "METHOD /path/pattern=permitsPerSecond:burst"
+ * entries, METHOD "*" for any; the first matching entry applies, e.g.
+ *
+ *   GET /api/rooms/available=20:40, POST /api/bookings=5:10, * /api/**=50:100
+ */
+final class RateLimitRoute {
+
+    private final String name;
+    private final String method;
+    private final PathPattern pattern;
+    private final long intervalNanos;
+    private final long toleranceNanos;
+
+    RateLimitRoute(String method, String pattern, double permitsPerSecond, int burst) {
+        if (permitsPerSecond <= 0 || burst < 1) {
+            throw new IllegalArgumentException("Rate limit for " + method + " " + pattern
+                    + " needs a positive rate and a burst of at least 1");
+        }
+        this.name = method + " " + pattern;
+        this.method = "*".equals(method) ? null : method;
+        this.pattern = PathPatternParser.defaultInstance.parse(pattern);
+        this.intervalNanos = Math.max(1, (long) (TimeUnit.SECONDS.toNanos(1) / permitsPerSecond));
+        this.toleranceNanos = intervalNanos * (burst - 1);
+    }
+
+    static List<RateLimitRoute> parseAll(String routes) {
+        List<RateLimitRoute> parsed = new ArrayList<>();
+        for (String entry : routes.split(",")) {
+            String trimmed = entry.trim();
+            if (trimmed.isEmpty()) {
+                continue;
+            }
+            int space = trimmed.indexOf(' ');
+            int equals = trimmed.lastIndexOf('=');
+            int colon = trimmed.lastIndexOf(':');
+            if (space < 0 || equals < space || colon < equals) {
+                throw new IllegalArgumentException("Invalid rate limit route (METHOD /path=rate:burst): " + trimmed);
+            }
+            parsed.add(new RateLimitRoute(
+                    trimmed.substring(0, space).toUpperCase(),
+                    trimmed.substring(space + 1, equals).trim(),
+                    Double.parseDouble(trimmed.substring(equals + 1, colon).trim()),
+                    Integer.parseInt(trimmed.substring(colon + 1).trim())));
+        }
+        return parsed;
+    }
+
+    boolean matches(String requestMethod, PathContainer path) {
+        return (method == null || method.equals(requestMethod)) && pattern.matches(path);
+    }
+
+    String name() {
+        return name;
+    }
+
+    long intervalNanos() {
+        return intervalNanos;
+    }
+
+    long toleranceNanos() {
+        return toleranceNanos;
+    }
+}
@@ -0,0 +1,97 @@
+package com.meti.roombooking.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-client, per-route request rate limits.
+ *
+ * Each (route, client) pair gets a lock-free {@link TokenBucket}. Buckets live in a bounded
+ * table that drops the least recently used and the idle ones; a dropped bucket comes back full,
+ * which only ever errs towards letting a client through. Checking a request is a route match,
+ * a hash lookup and one CAS, with no locks and no allocation beyond the lookup key.
+ */
+@Component
+public class RateLimiter {
+
+    public static final int UNLIMITED = -1;
+
+    private final RateLimitRoute[] routes;
+    private final Counter[] rejections;
+    private final Cache<BucketKey, TokenBucket> buckets;
+    private final LongSupplier nanoClock;
+
+    @Autowired
+    public RateLimiter(@Value("${booking.ratelimit.routes:GET /api/rooms/available=20:40,POST /api/bookings=5:10,POST /api/bookings/batch=1:3,POST /api/quotes=5:10,* /api/**=50:100}") String routes,
+                       @Value("${booking.ratelimit.max-keys:100000}") long maxKeys,
+                       @Value("${booking.ratelimit.idle-timeout:10m}") Duration idleTimeout,
+                       MeterRegistry registry) {
+        this(routes, maxKeys, idleTimeout, registry, System::nanoTime);
+    }
+
+    RateLimiter(String routes, long maxKeys, Duration idleTimeout, MeterRegistry registry, LongSupplier nanoClock) {
+        List<RateLimitRoute> parsed = RateLimitRoute.parseAll(routes);
+        this.routes = parsed.toArray(RateLimitRoute[]::new);
+        this.rejections = new Counter[this.routes.length];
+        for (int i = 0; i < this.routes.length; i++) {
+            rejections[i] = Counter.builder("booking.ratelimit.rejected")
+                    .description("Requests refused with 429 by the per-client rate limit")
+                    .tag("route", this.routes[i].name())
+                    .register(registry);
+        }
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(idleTimeout)
+                .build();
+        this.nanoClock = nanoClock;
+        Gauge.builder("booking.ratelimit.buckets", buckets, Cache::estimatedSize)
+                .description("Rate limit buckets currently tracked")
+                .register(registry);
+    }
+
+    //first matching route, or UNLIMITED
+    public int route(String method, String path) {
+        if (routes.length == 0) {
+            return UNLIMITED;
+        }
+        PathContainer container = PathContainer.parsePath(path);
+        for (int i = 0; i < routes.length; i++) {
+            if (routes[i].matches(method, container)) {
+                return i;
+            }
+        }
+        return UNLIMITED;
+    }
+
+    //0 when the request may proceed, otherwise the nanos until the client's next token
+    public long tryAcquire(int route, String client) {
+        if (route == UNLIMITED) {
+            return 0;
+        }
+        RateLimitRoute limit = routes[route];
+        TokenBucket bucket = buckets.get(new BucketKey(route, client), key -> new TokenBucket());
+        long wait = bucket.tryAcquire(nanoClock.getAsLong(), limit.intervalNanos(), limit.toleranceNanos());
+        if (wait > 0) {
+            rejections[route].increment();
+        }
+        return wait;
+    }
+
+    public String routeName(int route) {
+        return routes[route].name();
+    }
+
+    private record BucketKey(int route, String client) {
+    }
+}
@@ -0,0 +1,36 @@
+package com.meti.roombooking.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A token bucket held in one long, updated with compare-and-set.
+ *
+ * Instead of a token count plus a last-refill time (two fields, so a lock or a packed word),
+ * the bucket stores the time at which it would be full again if nothing else arrived, the
+ * generic cell rate form of the same algorithm. Taking a token pushes that time one refill
+ * interval further; a request is refused while the time is more than (capacity - 1) intervals
+ * ahead of now, and the excess is exactly how long the caller has to wait.
+ */
+final class TokenBucket {
+
+    //far in the past: a new bucket starts full
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    /**
+     * Takes a token at time now (nanos). Returns 0 when granted, otherwise the nanos until
+     * one is available.
+     */
+    long tryAcquire(long now, long intervalNanos, long toleranceNanos) {
+        while (true) {
+            long current = fullAt.get();
+            long base = Math.max(current, now);
+            long ahead = base - now;
+            if (ahead > toleranceNanos) {
+                return ahead - toleranceNanos;
+            }
+            if (fullAt.compareAndSet(current, base + intervalNanos)) {
+                return 0;
+            }
+        }
+    }
+}
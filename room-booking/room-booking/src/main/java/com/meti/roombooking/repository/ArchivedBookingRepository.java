@@ -0,0 +1,53 @@
+package com.meti.roombooking.repository;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.entity.ArchivedBooking;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface ArchivedBookingRepository extends JpaRepository<ArchivedBooking, Long> {
+
+    //same projection as BookingRepository's, the user is joined for the name
+    String RESPONSE_SELECT = """
+        SELECT new com.meti.roombooking.dto.booking.BookingResponse(
+            a.id, u.id, u.fullName, a.roomId, a.roomNumber,
+            a.checkIn, a.checkOut, a.status, a.totalPrice, a.createdAt)
+        FROM ArchivedBooking a
+        JOIN User u ON u.id = a.userId
+        """;
+
+    @Query(RESPONSE_SELECT + "WHERE a.id = :id")
+    Optional<BookingResponse> findResponseById(@Param("id") Long id);
+
+    //newest stays first, strictly after (afterCheckIn, afterId) in that order; first page when afterId is null
+    @Query(RESPONSE_SELECT + """
+        WHERE a.userId = :userId
+          AND (:afterId IS NULL OR a.checkIn < :afterCheckIn OR (a.checkIn = :afterCheckIn AND a.id < :afterId))
+        ORDER BY a.checkIn DESC, a.id DESC
+        """)
+    List<BookingResponse> findHistoryPage(@Param("userId") Long userId,
+                                          @Param("afterCheckIn") LocalDate afterCheckIn,
+                                          @Param("afterId") Long afterId,
+                                          Limit limit);
+
+    //copies the bookings with their room number; run under the row locks of lockIdsCheckedOutBefore
+    @Modifying
+    @Query(nativeQuery = true, value = """
+        INSERT INTO bookings_archive
+            (id, user_id, room_id, room_number, check_in, check_out, status, total_price, created_at, archived_at)
+        SELECT b.id, b.user_id, b.room_id, r.room_number, b.check_in, b.check_out, b.status, b.total_price, b.created_at, :archivedAt
+        FROM bookings b
+        JOIN rooms r ON r.id = b.room_id
+        WHERE b.id IN (:ids)
+        """)
+    int copyFromBookings(@Param("ids") Collection<Long> ids, @Param("archivedAt") LocalDateTime archivedAt);
+}
@@ -0,0 +1,83 @@
+package com.meti.roombooking.repository;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.entity.BookingStatus;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Position after the last row of a page: the sort key values of that row.
+ * Clients only ever see it as an opaque url-safe token.
+ */
+public record BookingCursor(BookingSort sort, boolean descending, List<Object> values) {
+
+    private static final String VERSION = "v1";
+
+    public static BookingCursor after(BookingResponse last, BookingSort sort, boolean descending) {
+        List<Object> values = new ArrayList<>();
+        for (String key : sort.keys()) {
+            values.add(switch (key) {
+                case "checkIn" -> last.getCheckIn();
+                case "checkOut" -> last.getCheckOut();
+                case "totalPrice" -> last.getTotalPrice();
+                case "createdAt" -> last.getCreatedAt();
+                case "status" -> last.getStatus();
+                case "id" -> last.getId();
+                default -> throw new IllegalStateException("Unknown sort key " + key);
+            });
+        }
+        return new BookingCursor(sort, descending, values);
+    }
+
+    public String encode() {
+        StringBuilder raw = new StringBuilder(VERSION)
+                .append('|').append(sort.name())
+                .append('|').append(descending ? 'd' : 'a');
+        for (Object value : values) {
+            raw.append('|').append(value instanceof BigDecimal decimal ? decimal.toPlainString() : value);
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static BookingCursor decode(String token, BookingSort sort, boolean descending) {
+        String[] parts;
+        try {
+            parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8).split("\\|");
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        List<String> keys = sort.keys();
+        if (parts.length != 3 + keys.size() || !VERSION.equals(parts[0])) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        if (!sort.name().equals(parts[1]) || parts[2].equals("d") != descending) {
+            throw new IllegalArgumentException("Cursor does not match the requested sort order");
+        }
+        List<Object> values = new ArrayList<>();
+        try {
+            for (int i = 0; i < keys.size(); i++) {
+                values.add(parse(keys.get(i), parts[3 + i]));
+            }
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        return new BookingCursor(sort, descending, values);
+    }
+
+    private static Object parse(String key, String raw) {
+        return switch (key) {
+            case "checkIn", "checkOut" -> LocalDate.parse(raw);
+            case "totalPrice" -> new BigDecimal(raw);
+            case "createdAt" -> LocalDateTime.parse(raw);
+            case "status" -> BookingStatus.valueOf(raw);
+            case "id" -> Long.valueOf(raw);
+            default -> throw new IllegalStateException("Unknown sort key " + key);
+        };
+    }
+}
@@ -1,12 +1,25 @@
 package com.meti.roombooking.repository;
 
+import com.meti.roombooking.availability.RoomStay;
+import com.meti.roombooking.dto.booking.BookingResponse;
 import com.meti.roombooking.entity.*;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+//bookings checked out before the archive retention live in bookings_archive (BookingArchiver),
+//so every query here only scans current and recent stays
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
     List<Booking> findByRoom(Room room);
 
     List<Booking> findByUser(User user);
@@ -22,4 +35,109 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
     );
 
     List<Booking> findByUserId(Long userId);
+
+    //read-side projections: user and room are joined in the same statement,
+    //so listing N bookings costs one query instead of 1 + 2N lazy loads
+    String RESPONSE_SELECT = """
+        SELECT new com.meti.roombooking.dto.booking.BookingResponse(
+            b.id, u.id, u.fullName, r.id, r.roomNumber,
+            b.checkIn, b.checkOut, b.status, b.totalPrice, b.createdAt)
+        FROM Booking b
+        JOIN b.user u
+        JOIN b.room r
+        """;
+
+    @Query(RESPONSE_SELECT + "WHERE b.id = :id")
+    Optional<BookingResponse> findResponseById(@Param("id") Long id);
+
+    //compare-and-set on the status: 0 rows when the booking is gone or has moved on from `from`
+    @Modifying
+    @Query("""
+        UPDATE Booking b
+        SET b.status = :to, b.version = b.version + 1
+        WHERE b.id = :id AND b.status = :from
+        """)
+    int transitionStatus(@Param("id") Long id,
+                         @Param("from") BookingStatus from,
+                         @Param("to") BookingStatus to);
+
+    @Query(RESPONSE_SELECT + "WHERE u.id = :userId ORDER BY b.id")
+    List<BookingResponse> findResponsesByUserId(@Param("userId") Long userId);
+
+    @Query(RESPONSE_SELECT + "WHERE b.status = :status ORDER BY b.id")
+    List<BookingResponse> findResponsesByStatus(@Param("status") BookingStatus status);
+
+    //forward-only cursor for exports: rows are fetched in chunks and never become managed entities
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(RESPONSE_SELECT + """
+        WHERE (:status IS NULL OR b.status = :status)
+          AND (:from IS NULL OR b.checkOut > :from)
+          AND (:to IS NULL OR b.checkIn < :to)
+        ORDER BY b.id
+        """)
+    Stream<BookingResponse> streamResponses(
+            @Param("status") BookingStatus status,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+
+    //used to (re)build the in-memory availability index
+    @Query("""
+        SELECT new com.meti.roombooking.availability.RoomStay(b.room.id, b.checkIn, b.checkOut)
+        FROM Booking b
+        WHERE b.status IN :statuses
+          AND b.checkOut > :after
+        """)
+    List<RoomStay> findActiveStaysEndingAfter(
+            @Param("statuses") List<BookingStatus> statuses,
+            @Param("after") LocalDate after
+    );
+
+    //one overlap query for a whole batch, narrowed per room in memory
+    @Query("""
+        SELECT new com.meti.roombooking.availability.RoomStay(b.room.id, b.checkIn, b.checkOut)
+        FROM Booking b
+        WHERE b.room.id IN :roomIds
+          AND b.status IN :statuses
+          AND b.checkOut > :from
+          AND b.checkIn < :to
+        """)
+    List<RoomStay> findActiveStaysOverlapping(
+            @Param("roomIds") Collection<Long> roomIds,
+            @Param("statuses") List<BookingStatus> statuses,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+
+    //one room's stays, for gap queries the interval index cannot answer
+    @Query("""
+        SELECT new com.meti.roombooking.availability.RoomStay(b.room.id, b.checkIn, b.checkOut)
+        FROM Booking b
+        WHERE b.room.id = :roomId
+          AND b.status IN :statuses
+          AND b.checkOut > :after
+        ORDER BY b.checkIn
+        """)
+    List<RoomStay> findActiveStaysOfRoomEndingAfter(
+            @Param("roomId") Long roomId,
+            @Param("statuses") List<BookingStatus> statuses,
+            @Param("after") LocalDate after
+    );
+
+    //oldest finished stays first, locked until the archiving transaction commits
+    @Query(nativeQuery = true, value = """
+        SELECT id FROM bookings
+        WHERE check_out < :cutoff
+        ORDER BY check_out, id
+        LIMIT :limit
+        FOR UPDATE
+        """)
+    List<Long> lockIdsCheckedOutBefore(@Param("cutoff") LocalDate cutoff, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM Booking b WHERE b.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,15 @@
+package com.meti.roombooking.repository;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+
+import java.util.List;
+
+public interface BookingRepositoryCustom {
+
+    /**
+     * Keyset pagination: returns up to limit booking projections ordered by the given sort,
+     * strictly after the cursor position (first page when cursor is null).
+     * userId narrows the listing to one user when not null.
+     */
+    List<BookingResponse> findPage(Long userId, BookingSort sort, boolean descending, BookingCursor cursor, int limit);
+}
@@ -0,0 +1,104 @@
+package com.meti.roombooking.repository;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.entity.Booking;
+import com.meti.roombooking.entity.BookingStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Keyset pagination pushed down to SQL. The WHERE clause continues strictly after the
+ * cursor row and the ORDER BY matches a composite index, so every page costs the same
+ * regardless of how deep it is.
+ */
+public class BookingRepositoryImpl implements BookingRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<BookingResponse> findPage(Long userId, BookingSort sort, boolean descending, BookingCursor cursor, int limit) {
+        if (sort == BookingSort.STATUS) {
+            return findStatusPage(userId, descending, cursor, limit);
+        }
+        return query(userId, sort.keys(), descending, cursor == null ? null : cursor.values(), null, limit);
+    }
+
+    /**
+     * Statuses are stored as strings, so the status ordering is alphabetical. With only a few
+     * distinct values the page is read status by status with (status, id) keysets, which stays
+     * on the (status, id) index and does not depend on how the database orders enum columns.
+     */
+    private List<BookingResponse> findStatusPage(Long userId, boolean descending, BookingCursor cursor, int limit) {
+        List<BookingStatus> statuses = new ArrayList<>(Arrays.asList(BookingStatus.values()));
+        statuses.sort(Comparator.comparing(Enum::name));
+        if (descending) {
+            statuses = statuses.reversed();
+        }
+
+        List<BookingResponse> page = new ArrayList<>();
+        int startAt = cursor == null ? 0 : statuses.indexOf((BookingStatus) cursor.values().get(0));
+        for (int i = startAt; i < statuses.size() && page.size() < limit; i++) {
+            List<Object> afterId = cursor != null && i == startAt ? List.of(cursor.values().get(1)) : null;
+            page.addAll(query(userId, List.of("id"), descending, afterId, statuses.get(i), limit - page.size()));
+        }
+        return page;
+    }
+
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    private List<BookingResponse> query(Long userId, List<String> keys, boolean descending,
+                                List<Object> after, BookingStatus status, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingResponse> cq = cb.createQuery(BookingResponse.class);
+        Root<Booking> booking = cq.from(Booking.class);
+        Join<Object, Object> user = booking.join("user");
+        Join<Object, Object> room = booking.join("room");
+
+        List<Predicate> where = new ArrayList<>();
+        if (userId != null) {
+            //bookings.user_id rather than the joined users.id, so the plan starts from a bookings index
+            where.add(cb.equal(booking.get("user").get("id"), userId));
+        }
+        if (status != null) {
+            where.add(cb.equal(booking.get("status"), status));
+        }
+        if (after != null) {
+            //(k1, k2, .., kn) > (v1, v2, .., vn) expanded as
+            //k1 > v1 OR (k1 = v1 AND k2 > v2) OR ... (mirrored for descending)
+            List<Predicate> alternatives = new ArrayList<>();
+            for (int i = 0; i < keys.size(); i++) {
+                List<Predicate> terms = new ArrayList<>();
+                for (int j = 0; j < i; j++) {
+                    terms.add(cb.equal(booking.get(keys.get(j)), after.get(j)));
+                }
+                Expression<Comparable> key = booking.get(keys.get(i));
+                Comparable value = (Comparable) after.get(i);
+                terms.add(descending ? cb.lessThan(key, value) : cb.greaterThan(key, value));
+                alternatives.add(cb.and(terms.toArray(new Predicate[0])));
+            }
+            where.add(cb.or(alternatives.toArray(new Predicate[0])));
+        }
+
+        List<Order> order = new ArrayList<>();
+        for (String key : keys) {
+            order.add(descending ? cb.desc(booking.get(key)) : cb.asc(booking.get(key)));
+        }
+
+        //same column list as BookingRepository.RESPONSE_SELECT
+        cq.select(cb.construct(BookingResponse.class,
+                        booking.get("id"), user.get("id"), user.get("fullName"),
+                        room.get("id"), room.get("roomNumber"),
+                        booking.get("checkIn"), booking.get("checkOut"), booking.get("status"),
+                        booking.get("totalPrice"), booking.get("createdAt")))
+                .where(where.toArray(new Predicate[0])).orderBy(order);
+        return entityManager.createQuery(cq)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+}
@@ -0,0 +1,44 @@
+package com.meti.roombooking.repository;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Orderings supported by the paginated booking listing.
+ * Every ordering ends with the booking id so that keys are unique and a keyset cursor
+ * always points at exactly one row.
+ */
+public enum BookingSort {
+    CHECK_IN("checkin", "checkIn"),
+    CHECK_OUT("checkout", "checkOut"),
+    PRICE("price", "totalPrice"),
+    CREATED_AT("createdat", "createdAt"),
+    STATUS("status", "status"),
+    //same ordering as Booking.compareTo: check-in, then creation date, then id
+    DEFAULT("default", "checkIn", "createdAt");
+
+    private final String param;
+    private final List<String> attributes;
+
+    BookingSort(String param, String... attributes) {
+        this.param = param;
+        this.attributes = List.of(attributes);
+    }
+
+    public String param() {
+        return param;
+    }
+
+    //attributes in ORDER BY order, the id tie-breaker included
+    public List<String> keys() {
+        return Stream.concat(attributes.stream(), Stream.of("id")).toList();
+    }
+
+    public static BookingSort fromParam(String sortBy) {
+        return Arrays.stream(values())
+                .filter(sort -> sort.param.equalsIgnoreCase(sortBy))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Invalid sort field: " + sortBy));
+    }
+}
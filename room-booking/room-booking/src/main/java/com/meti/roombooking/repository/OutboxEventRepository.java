@@ -0,0 +1,78 @@
+package com.meti.roombooking.repository;
+
+import com.meti.roombooking.entity.OutboxEvent;
+import com.meti.roombooking.entity.OutboxStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    //only a booking's oldest pending event: a later one waits while an earlier one is backing off
+    //after a failure or leased by another dispatcher
+    @Query("""
+        SELECT e.id
+        FROM OutboxEvent e
+        WHERE e.status = :status
+          AND e.availableAt <= :now
+          AND NOT EXISTS (
+              SELECT 1 FROM OutboxEvent p
+              WHERE p.aggregateId = e.aggregateId
+                AND p.id < e.id
+                AND p.status = :status
+          )
+        ORDER BY e.id
+        """)
+    List<Long> findDueIds(
+            @Param("status") OutboxStatus status,
+            @Param("now") LocalDateTime now,
+            Limit limit
+    );
+
+    //takes the ids still due; a dispatcher that got there first has moved availableAt past now
+    @Modifying
+    @Query("""
+        UPDATE OutboxEvent e
+        SET e.claimedBy = :claim, e.availableAt = :leaseUntil
+        WHERE e.id IN :ids
+          AND e.status = :status
+          AND e.availableAt <= :now
+        """)
+    int claim(
+            @Param("ids") Collection<Long> ids,
+            @Param("status") OutboxStatus status,
+            @Param("now") LocalDateTime now,
+            @Param("claim") String claim,
+            @Param("leaseUntil") LocalDateTime leaseUntil
+    );
+
+    List<OutboxEvent> findByClaimedByOrderById(String claimedBy);
+
+    //the claim check skips events whose lease ran out and were claimed again elsewhere
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.id IN :ids AND e.claimedBy = :claim")
+    int deleteClaimed(@Param("ids") Collection<Long> ids, @Param("claim") String claim);
+
+    @Modifying
+    @Query("""
+        UPDATE OutboxEvent e
+        SET e.status = :status, e.attempts = :attempts, e.availableAt = :availableAt,
+            e.claimedBy = NULL, e.lastError = :error
+        WHERE e.id = :id
+          AND e.claimedBy = :claim
+        """)
+    int release(
+            @Param("id") Long id,
+            @Param("claim") String claim,
+            @Param("status") OutboxStatus status,
+            @Param("attempts") int attempts,
+            @Param("availableAt") LocalDateTime availableAt,
+            @Param("error") String error
+    );
+}
@@ -0,0 +1,10 @@
+package com.meti.roombooking.repository;
+
+import com.meti.roombooking.entity.PriceRule;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface PriceRuleRepository extends JpaRepository<PriceRule, Long> {
+    List<PriceRule> findAllByOrderByPriorityAscIdAsc();
+}
@@ -0,0 +1,32 @@
+package com.meti.roombooking.repository;
+
+import com.meti.roombooking.entity.RoomNightClaim;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+public interface RoomNightClaimRepository extends JpaRepository<RoomNightClaim, Long> {
+
+    @Modifying
+    @Query("DELETE FROM RoomNightClaim c WHERE c.bookingId = :bookingId")
+    int deleteByBookingId(@Param("bookingId") Long bookingId);
+
+    @Modifying
+    @Query("DELETE FROM RoomNightClaim c WHERE c.bookingId IN :bookingIds")
+    int deleteByBookingIdIn(@Param("bookingIds") Collection<Long> bookingIds);
+
+    long countByRoomId(Long roomId);
+
+    //nights already claimed in [from, to), whoever committed them
+    @Query("SELECT c FROM RoomNightClaim c WHERE c.roomId IN :roomIds AND c.night >= :from AND c.night < :to")
+    List<RoomNightClaim> findClaimed(
+            @Param("roomIds") Collection<Long> roomIds,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+}
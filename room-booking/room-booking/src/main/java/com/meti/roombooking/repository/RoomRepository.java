@@ -6,9 +6,13 @@ import com.meti.roombooking.entity.RoomType;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
 import java.util.List;
+//declared queries run in read-only transactions (and so on a replica when configured);
+//the inherited save/delete keep their read-write ones
+@Transactional(readOnly = true)
 public interface RoomRepository extends JpaRepository<Room, Long> {
     List<Room> findByStatus(RoomStatus status);
 
@@ -22,6 +26,8 @@ public interface RoomRepository extends JpaRepository<Room, Long> {
             SELECT 1
             FROM Booking b
             WHERE b.room = r
+              AND b.status IN (com.meti.roombooking.entity.BookingStatus.PENDING,
+                               com.meti.roombooking.entity.BookingStatus.CONFIRMED)
               AND b.checkIn < :checkOut
               AND b.checkOut > :checkIn
           )
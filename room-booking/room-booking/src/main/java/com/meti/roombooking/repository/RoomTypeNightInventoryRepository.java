@@ -0,0 +1,67 @@
+package com.meti.roombooking.repository;
+
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.entity.RoomTypeNightInventory;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface RoomTypeNightInventoryRepository
+        extends JpaRepository<RoomTypeNightInventory, RoomTypeNightInventory.Key> {
+
+    //one primary-key range read for a whole calendar
+    @Query("""
+        SELECT i
+        FROM RoomTypeNightInventory i
+        WHERE i.type IN :types
+          AND i.night >= :from
+          AND i.night < :to
+        ORDER BY i.type, i.night
+        """)
+    List<RoomTypeNightInventory> findNights(
+            @Param("types") Collection<RoomType> types,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to
+    );
+
+    //in the (type, night) order adjust() locks in
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("""
+        SELECT i
+        FROM RoomTypeNightInventory i
+        WHERE i.night >= :from
+          AND i.night < :to
+        ORDER BY i.type, i.night
+        """)
+    List<RoomTypeNightInventory> lockNights(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    @Modifying
+    @Query("""
+        UPDATE RoomTypeNightInventory i
+        SET i.freeRooms = i.freeRooms + :delta
+        WHERE i.type = :type
+          AND i.night >= :from
+          AND i.night < :to
+        """)
+    int adjust(
+            @Param("type") RoomType type,
+            @Param("from") LocalDate from,
+            @Param("to") LocalDate to,
+            @Param("delta") int delta
+    );
+
+    @Modifying
+    @Query("DELETE FROM RoomTypeNightInventory i WHERE i.night < :before")
+    int deleteNightsBefore(@Param("before") LocalDate before);
+
+    @Query("SELECT MAX(i.night) FROM RoomTypeNightInventory i")
+    Optional<LocalDate> findLastNight();
+}
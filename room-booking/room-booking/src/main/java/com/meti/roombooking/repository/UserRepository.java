@@ -1,6 +1,10 @@
 package com.meti.roombooking.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 import com.meti.roombooking.entity.User;
 
 import java.util.Optional;
@@ -10,4 +14,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
+    //only replaces the hash the caller checked against, so a concurrent password change wins
+    @Transactional
+    @Modifying
+    @Query("update User u set u.password = :hash where u.id = :id and u.password = :previous")
+    int replacePassword(@Param("id") Long id, @Param("previous") String previous, @Param("hash") String hash);
+
 }
@@ -1,19 +1,35 @@
 package com.meti.roombooking.service;
 
+import com.meti.roombooking.dto.booking.BatchMode;
+import com.meti.roombooking.dto.booking.BookingBatchResponse;
+import com.meti.roombooking.dto.booking.BookingPage;
 import com.meti.roombooking.dto.booking.BookingRequest;
 import com.meti.roombooking.dto.booking.BookingResponse;
 import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.export.ExportFormat;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 public interface BookingService {
     BookingResponse createBooking(BookingRequest request);
 
+    //books many stays in one transaction, all-or-nothing
+    default BookingBatchResponse createBookings(List<BookingRequest> requests) {
+        return createBookings(requests, BatchMode.ALL_OR_NOTHING);
+    }
+
+    BookingBatchResponse createBookings(List<BookingRequest> requests, BatchMode mode);
+
     BookingResponse getBookingById(Long id);
 
     List<BookingResponse> getBookingsForUser(Long id);
 
-    List<BookingResponse> getAllBookings();
+    //admin listing in the default booking order, one page at a time
+    BookingPage getAllBookings(String cursor, int limit);
 
     List<BookingResponse> getBookingByStatus(BookingStatus status);
 
@@ -22,8 +38,30 @@ public interface BookingService {
     //method for admin confirm/cancel
     BookingResponse updateStatus(Long bookingId, BookingStatus status);
 
+    //keyed writes: in cluster mode one of a room owned by another node is sent there with its
+    //Idempotency-Key and the owner's response comes back; empty when the write runs on this node
+    default Optional<BookingResponse> forwardCreateBooking(BookingRequest request, String idempotencyKey) {
+        return Optional.empty();
+    }
+
+    default Optional<BookingResponse> forwardCancelBooking(Long bookingId, String idempotencyKey) {
+        return Optional.empty();
+    }
+
+    default Optional<BookingResponse> forwardUpdateStatus(Long bookingId, BookingStatus status, String idempotencyKey) {
+        return Optional.empty();
+    }
+
+
+    BookingPage getBookingsSorted(String sortBy, String order, String cursor, int limit);
+
+    BookingPage getUserBookingsSorted(Long userId, String sortBy, String order, String cursor, int limit);
 
-    List<BookingResponse> getBookingsSorted(String sortBy, String order);
+    //every booking of the user, live and archived, newest stay first
+    BookingPage getUserHistory(Long userId, String cursor, int limit);
 
-    List<BookingResponse> getUserBookingsSorted(Long userId, String sortBy, String order);
+    //streams matching bookings to out with constant memory, returns the row count;
+    //status, from and to are optional filters (from/to select stays overlapping the range)
+    long exportBookings(BookingStatus status, LocalDate from, LocalDate to,
+                        ExportFormat format, OutputStream out) throws IOException;
 }
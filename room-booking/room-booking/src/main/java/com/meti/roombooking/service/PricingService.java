@@ -0,0 +1,22 @@
+package com.meti.roombooking.service;
+
+import com.meti.roombooking.dto.pricing.PriceRuleRequest;
+import com.meti.roombooking.dto.pricing.PriceRuleResponse;
+import com.meti.roombooking.dto.pricing.QuoteResponse;
+import com.meti.roombooking.dto.pricing.StayQuery;
+
+import java.util.List;
+
+public interface PricingService {
+
+    //prices every stay independently, unknown rooms and invalid dates are per-stay errors
+    QuoteResponse quote(List<StayQuery> stays);
+
+    List<PriceRuleResponse> getAllRules();
+
+    PriceRuleResponse createRule(PriceRuleRequest request);
+
+    PriceRuleResponse updateRule(Long ruleId, PriceRuleRequest request);
+
+    void deleteRule(Long ruleId);
+}
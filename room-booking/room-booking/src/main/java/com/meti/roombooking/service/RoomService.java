@@ -1,5 +1,8 @@
 package com.meti.roombooking.service;
 
+import com.meti.roombooking.dto.room.DateWindow;
+import com.meti.roombooking.dto.room.InventoryCalendar;
+import com.meti.roombooking.dto.room.RoomAvailabilityCalendar;
 import com.meti.roombooking.dto.room.RoomRequest;
 import com.meti.roombooking.dto.room.RoomResponse;
 import com.meti.roombooking.entity.Room;
@@ -7,6 +10,7 @@ import com.meti.roombooking.entity.RoomStatus;
 import com.meti.roombooking.entity.RoomType;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 public interface RoomService {
@@ -28,5 +32,20 @@ public interface RoomService {
     );
     List<RoomResponse> findByStatus(RoomStatus status);
 
+    //free windows of a room inside [from, to)
+    List<DateWindow> findGaps(Long roomId, LocalDate from, LocalDate to);
+
+    //earliest window of the given number of free nights starting on or after from
+    DateWindow findNextFreeWindow(Long roomId, LocalDate from, int nights);
+
+    //free rooms per night of the month, for one type or (type null) for every type
+    List<InventoryCalendar> getInventoryCalendar(YearMonth month, RoomType type);
+
+    //opaque token that changes whenever any room's availability changes
+    String getAvailabilityVersion();
+
+    //free windows per room in [from, to); with since, only the rooms changed after that version
+    RoomAvailabilityCalendar getAvailabilityCalendar(LocalDate from, LocalDate to, String since);
+
 
 }
@@ -1,184 +1,431 @@
 package com.meti.roombooking.service.impl;
 
+import com.meti.roombooking.admission.RoomLockStripes;
+import com.meti.roombooking.admission.RoomNightClaims;
+import com.meti.roombooking.auth.AuthenticatedUser;
+import com.meti.roombooking.auth.CurrentUser;
+import com.meti.roombooking.availability.RoomIntervalIndex;
+import com.meti.roombooking.availability.RoomStay;
+import com.meti.roombooking.concurrency.RetryOnConflict;
+import com.meti.roombooking.dto.booking.BatchMode;
+import com.meti.roombooking.dto.booking.BookingBatchItemResult;
+import com.meti.roombooking.dto.booking.BookingBatchResponse;
+import com.meti.roombooking.dto.booking.BookingPage;
 import com.meti.roombooking.dto.booking.BookingRequest;
 import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomResponse;
 import com.meti.roombooking.entity.*;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.exception.BookingConflictException;
+import com.meti.roombooking.export.BookingExportWriter;
+import com.meti.roombooking.export.ExportFormat;
+import com.meti.roombooking.metrics.BookingMetrics;
+import com.meti.roombooking.metrics.BookingRejectReason;
+import com.meti.roombooking.pricing.RatePlanIndex;
+import com.meti.roombooking.repository.ArchivedBookingRepository;
+import com.meti.roombooking.repository.BookingCursor;
 import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.BookingSort;
 import com.meti.roombooking.repository.RoomRepository;
 import com.meti.roombooking.repository.UserRepository;
 import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.temporal.ChronoUnit;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.List;
+import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 @RequiredArgsConstructor
 public class BookingServiceImpl implements BookingService {
+    private static final int MAX_PAGE_SIZE = 500;
+
     private final BookingRepository bookingRepository;
     private final RoomRepository roomRepository;
     private final UserRepository userRepository;
+    private final RoomService roomService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final RoomLockStripes roomLocks;
+    private final RoomNightClaims roomNightClaims;
+    private final BookingExportWriter exportWriter;
+    private final BookingMetrics bookingMetrics;
+    private final RoomIntervalIndex intervalIndex;
+    private final RatePlanIndex ratePlans;
+    private final ArchivedBookingRepository archiveRepository;
 
     @Override
     public BookingResponse createBooking(BookingRequest bookingRequest) {
-        //Validate that room exists
-        Room room = roomRepository.findById(bookingRequest.getRoomId())
-                .orElseThrow(() -> new IllegalArgumentException("Room not found"));
+        //Validate that room exists; price and number come from the room catalogue cache
+        RoomResponse roomDetails;
+        try {
+            roomDetails = roomService.getRoomById(bookingRequest.getRoomId());
+        } catch (IllegalArgumentException e) {
+            throw rejected(BookingRejectReason.ROOM_NOT_FOUND, e);
+        }
+        Room room = roomRepository.getReferenceById(roomDetails.getId());
 
-        User user =  userRepository.findById(bookingRequest.getUserId())
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        //a user booking for themselves was verified from their session token: reference the row, don't read it
+        Optional<AuthenticatedUser> booker = CurrentUser.get()
+                .filter(current -> current.userId().equals(bookingRequest.getUserId()));
+        User user = booker.isPresent()
+                ? userRepository.getReferenceById(bookingRequest.getUserId())
+                : userRepository.findById(bookingRequest.getUserId())
+                        .orElseThrow(() -> rejected(BookingRejectReason.USER_NOT_FOUND, new IllegalArgumentException("User not found")));
 
         if(!bookingRequest.getCheckIn().isBefore(bookingRequest.getCheckOut())) {
-            throw new IllegalArgumentException("Check in date must be before check out date");
-        }
-        List<Booking> overlaps =
-                bookingRepository.findByRoomAndStatusInAndCheckOutGreaterThanAndCheckInLessThan(
-                        room,
-                        List.of(BookingStatus.PENDING, BookingStatus.CONFIRMED),
-                        bookingRequest.getCheckIn(),
-                        bookingRequest.getCheckOut()
-                );
-        if(!overlaps.isEmpty()) {
-            throw new IllegalArgumentException("Room already booked for this date range");
+            throw rejected(BookingRejectReason.INVALID_DATES,
+                    new IllegalArgumentException("Check in date must be before check out date"));
         }
 
-        long nights = ChronoUnit.DAYS.between(bookingRequest.getCheckIn(), bookingRequest.getCheckOut());
-        BigDecimal total = room.getPricePerNight().multiply(BigDecimal.valueOf(nights));
+        //held until commit: check and insert for this room cannot interleave on this node
+        roomLocks.lockForTransaction(room.getId());
+        ensureNoOverlap(room, bookingRequest.getCheckIn(), bookingRequest.getCheckOut());
 
-        //Map the DTO to Entity
-        Booking booking = new Booking();
-        booking.setRoom(room);
-        booking.setUser(user);
-        booking.setCheckIn(bookingRequest.getCheckIn());
-        booking.setCheckOut(bookingRequest.getCheckOut());
-        booking.setStatus(BookingStatus.PENDING);
-        booking.setTotalPrice(total);
+        BigDecimal total = ratePlans.quote(room.getId(), roomDetails.getType(), roomDetails.getPricePerNight(),
+                bookingRequest.getCheckIn(), bookingRequest.getCheckOut());
+        Booking saved = bookingRepository.save(newBooking(room, total, user, bookingRequest));
+        roomNightClaims.claim(saved.getId(), room.getId(), saved.getCheckIn(), saved.getCheckOut());
+        publishChange(saved, null);
+
+        //room (and for token-authenticated bookers the user) are uninitialized references,
+        //their details come from the room cache and the token
+        String userFullName = booker.map(AuthenticatedUser::fullName).orElseGet(user::getFullName);
+        return mapToResponse(saved, roomDetails.getRoomNumber(), userFullName);
 
-        Booking saved = bookingRepository.save(booking);
 
-        return mapToResponse(saved);
+    }
+    @Override
+    @RetryOnConflict
+    public BookingBatchResponse createBookings(List<BookingRequest> requests, BatchMode mode) {
+        //every requested room is locked before the first read, so the reads below see all the
+        //bookings committed on this node before the batch took the locks
+        roomLocks.lockForTransaction(requests.stream().map(BookingRequest::getRoomId).collect(Collectors.toSet()));
+        //one findAllById per entity type instead of lookups per item
+        Map<Long, Room> rooms = roomRepository.findAllById(requests.stream().map(BookingRequest::getRoomId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(Room::getId, Function.identity()));
+        Map<Long, User> users = userRepository.findAllById(requests.stream().map(BookingRequest::getUserId).collect(Collectors.toSet()))
+                .stream().collect(Collectors.toMap(User::getId, Function.identity()));
+
+        String[] errors = new String[requests.size()];
+        for (int i = 0; i < requests.size(); i++) {
+            BookingRequest request = requests.get(i);
+            if (!rooms.containsKey(request.getRoomId())) {
+                errors[i] = "Room not found";
+                bookingMetrics.rejected(BookingRejectReason.ROOM_NOT_FOUND);
+            } else if (!users.containsKey(request.getUserId())) {
+                errors[i] = "User not found";
+                bookingMetrics.rejected(BookingRejectReason.USER_NOT_FOUND);
+            } else if (!request.getCheckIn().isBefore(request.getCheckOut())) {
+                errors[i] = "Check in date must be before check out date";
+                bookingMetrics.rejected(BookingRejectReason.INVALID_DATES);
+            }
+        }
+
+        //a single overlap query covering every room of the batch, and the nights already claimed,
+        //which also holds those of bookings admitted on other nodes
+        Map<Long, List<RoomStay>> taken = new HashMap<>();
+        Map<Long, Set<LocalDate>> claimed = Map.of();
+        if (!rooms.isEmpty()) {
+            LocalDate from = requests.stream().map(BookingRequest::getCheckIn).min(Comparator.naturalOrder()).orElseThrow();
+            LocalDate to = requests.stream().map(BookingRequest::getCheckOut).max(Comparator.naturalOrder()).orElseThrow();
+            bookingRepository.findActiveStaysOverlapping(rooms.keySet(), BookingStatus.ACTIVE, from, to)
+                    .forEach(stay -> taken.computeIfAbsent(stay.roomId(), id -> new ArrayList<>()).add(stay));
+            claimed = roomNightClaims.claimedNights(rooms.keySet(), from, to);
+        }
+
+        //items are checked in request order, so later items also conflict with earlier ones of the batch
+        List<Booking> accepted = new ArrayList<>();
+        List<Integer> acceptedIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (errors[i] != null) {
+                continue;
+            }
+            BookingRequest request = requests.get(i);
+            List<RoomStay> roomStays = taken.computeIfAbsent(request.getRoomId(), id -> new ArrayList<>());
+            Set<LocalDate> roomClaims = claimed.getOrDefault(request.getRoomId(), Set.of());
+            boolean overlaps = roomStays.stream().anyMatch(stay ->
+                    stay.checkOut().isAfter(request.getCheckIn()) && stay.checkIn().isBefore(request.getCheckOut()))
+                    || request.getCheckIn().datesUntil(request.getCheckOut()).anyMatch(roomClaims::contains);
+            if (overlaps) {
+                errors[i] = "Room already booked for this date range";
+                bookingMetrics.rejected(BookingRejectReason.OVERLAP);
+                continue;
+            }
+            roomStays.add(new RoomStay(request.getRoomId(), request.getCheckIn(), request.getCheckOut()));
+            Room room = rooms.get(request.getRoomId());
+            BigDecimal total = ratePlans.quote(room.getId(), room.getType(), room.getPricePerNight(),
+                    request.getCheckIn(), request.getCheckOut());
+            accepted.add(newBooking(room, total, users.get(request.getUserId()), request));
+            acceptedIndexes.add(i);
+        }
+
+        long rejected = Arrays.stream(errors).filter(Objects::nonNull).count();
+        if (mode == BatchMode.ALL_OR_NOTHING && rejected > 0) {
+            accepted.clear();
+            acceptedIndexes.clear();
+        }
 
+        //sequence ids let Hibernate send these as JDBC batches
+        List<Booking> saved = bookingRepository.saveAll(accepted);
+        roomNightClaims.claimAll(saved);
+        saved.forEach(booking -> publishChange(booking, null));
 
+        List<BookingBatchItemResult> results = new ArrayList<>();
+        Map<Integer, Booking> savedByIndex = new HashMap<>();
+        for (int i = 0; i < saved.size(); i++) {
+            savedByIndex.put(acceptedIndexes.get(i), saved.get(i));
+        }
+        for (int i = 0; i < requests.size(); i++) {
+            Booking booking = savedByIndex.get(i);
+            results.add(BookingBatchItemResult.builder()
+                    .index(i)
+                    .booking(booking != null ? mapToResponse(booking) : null)
+                    .error(booking != null ? null : errors[i] != null ? errors[i] : "Not booked, another item of the batch was rejected")
+                    .build());
+        }
+        return BookingBatchResponse.builder()
+                .mode(mode)
+                .created(saved.size())
+                .rejected(requests.size() - saved.size())
+                .results(results)
+                .build();
     }
+
     @Override
+    @Transactional(readOnly = true)
     public BookingResponse getBookingById(Long id){
-        Booking booking = bookingRepository.findById(id)
+        return bookingRepository.findResponseById(id)
+                .or(() -> archiveRepository.findResponseById(id))
                 .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
-        return mapToResponse(booking);
     }
     @Override
+    @Transactional(readOnly = true)
     public List<BookingResponse> getBookingsForUser(Long userId){
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-        return bookingRepository.findByUser(user).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+        return bookingRepository.findResponsesByUserId(userId);
     }
 
     @Override
-    public List<BookingResponse> getAllBookings(){
-        return bookingRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public BookingPage getAllBookings(String cursor, int limit){
+        return getBookingsSorted(BookingSort.DEFAULT.param(), "asc", cursor, limit);
     }
 
     @Override
+    @Transactional(readOnly = true)
     public List<BookingResponse> getBookingByStatus(BookingStatus status){
-        return bookingRepository.findByStatus(status).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+        return bookingRepository.findResponsesByStatus(status);
     }
     @Override
+    @RetryOnConflict
     public BookingResponse cancelBooking(Long bookingId) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+        return changeStatus(bookingId, BookingStatus.CANCELLED);
+    }
+
+    @Override
+    @RetryOnConflict
+    public BookingResponse updateStatus(Long bookingId, BookingStatus status) {
+        return changeStatus(bookingId, status);
+    }
 
-        booking.setStatus(BookingStatus.CANCELLED);
-        Booking updated = bookingRepository.save(booking);
+    @Override
+    @Transactional(readOnly = true)
+    public BookingPage getBookingsSorted(String sortBy, String order, String cursor, int limit) {
+        return page(null, sortBy, order, cursor, limit);
+    }
 
-        return mapToResponse(updated);
+    @Override
+    @Transactional(readOnly = true)
+    public BookingPage getUserBookingsSorted(Long userId, String sortBy, String order, String cursor, int limit) {
+        // Verify user exists
+        if (!userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        return page(userId, sortBy, order, cursor, limit);
     }
 
     @Override
-    public BookingResponse updateStatus(Long bookingId, BookingStatus status) {
-        Booking booking = bookingRepository.findById(bookingId)
-                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+    @Transactional(readOnly = true)
+    public BookingPage getUserHistory(Long userId, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        if (!userRepository.existsById(userId)) {
+            throw new IllegalArgumentException("User not found");
+        }
+        BookingCursor after = cursor == null || cursor.isBlank() ? null : BookingCursor.decode(cursor, BookingSort.CHECK_IN, true);
+        LocalDate afterCheckIn = after != null ? (LocalDate) after.values().get(0) : null;
+        Long afterId = after != null ? (Long) after.values().get(1) : null;
 
+        //both tables are read up to one row past the page in the same order and merged;
+        //ids are unique across them, so the (checkIn, id) cursor continues in both
+        List<BookingResponse> live = bookingRepository.findPage(userId, BookingSort.CHECK_IN, true, after, limit + 1);
+        List<BookingResponse> archived = archiveRepository.findHistoryPage(userId, afterCheckIn, afterId, Limit.of(limit + 1));
+        Comparator<BookingResponse> newestFirst = Comparator.comparing(BookingResponse::getCheckIn)
+                .thenComparing(BookingResponse::getId)
+                .reversed();
+        List<BookingResponse> items = Stream.concat(live.stream(), archived.stream())
+                .sorted(newestFirst)
+                .limit(limit + 1)
+                .collect(Collectors.toCollection(ArrayList::new));
+
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            nextCursor = BookingCursor.after(items.get(limit - 1), BookingSort.CHECK_IN, true).encode();
+        }
+        return BookingPage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public long exportBookings(BookingStatus status, LocalDate from, LocalDate to,
+                               ExportFormat format, OutputStream out) throws IOException {
+        if (from != null && to != null && !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        try (Stream<BookingResponse> bookings = bookingRepository.streamResponses(status, from, to)) {
+            return exportWriter.write(bookings, format, out);
+        }
+    }
+
+    //keyset pagination: ORDER BY and the continuation predicate both run in SQL
+    private BookingPage page(Long userId, String sortBy, String order, String cursor, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("limit must be between 1 and " + MAX_PAGE_SIZE);
+        }
+        BookingSort sort = BookingSort.fromParam(sortBy);
+        boolean descending = "desc".equalsIgnoreCase(order);
+        BookingCursor after = cursor == null || cursor.isBlank() ? null : BookingCursor.decode(cursor, sort, descending);
+
+        //one extra row tells whether another page exists
+        List<BookingResponse> items = bookingRepository.findPage(userId, sort, descending, after, limit + 1);
+        String nextCursor = null;
+        if (items.size() > limit) {
+            items = items.subList(0, limit);
+            nextCursor = BookingCursor.after(items.get(limit - 1), sort, descending).encode();
+        }
+        return BookingPage.builder()
+                .items(items)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    //total is the rate-plan price at booking time, kept as the booking's snapshot when rules change later
+    private Booking newBooking(Room room, BigDecimal total, User user, BookingRequest request) {
+        //Map the DTO to Entity
+        Booking booking = new Booking();
+        booking.setRoom(room);
+        booking.setUser(user);
+        booking.setCheckIn(request.getCheckIn());
+        booking.setCheckOut(request.getCheckOut());
+        booking.setStatus(BookingStatus.PENDING);
+        booking.setTotalPrice(total);
+        return booking;
+    }
+
+    //moves a booking between statuses, claiming or releasing its nights when it (de)activates.
+    //Reads the response projection instead of the entity and writes with one conditional UPDATE;
+    //a concurrent change in between makes the UPDATE miss and the retry starts over
+    private BookingResponse changeStatus(Long bookingId, BookingStatus status) {
+        BookingResponse booking = bookingRepository.findResponseById(bookingId)
+                .orElseThrow(() -> new IllegalArgumentException("Booking not found"));
+        BookingStatus previous = booking.getStatus();
+        if (previous == status) {
+            return booking;
+        }
+        if (!previous.canBecome(status)) {
+            throw new BookingConflictException("Booking " + bookingId + " is " + previous
+                    + " and cannot become " + status);
+        }
+        if (previous.isActive() != status.isActive()) {
+            roomLocks.lockForTransaction(booking.getRoomId());
+            //checked while the row still has its old status, or the booking would overlap itself
+            if (status.isActive()) {
+                ensureNoOverlap(roomRepository.getReferenceById(booking.getRoomId()),
+                        booking.getCheckIn(), booking.getCheckOut());
+                roomNightClaims.claim(bookingId, booking.getRoomId(), booking.getCheckIn(), booking.getCheckOut());
+            } else {
+                roomNightClaims.release(bookingId);
+            }
+        }
+        if (bookingRepository.transitionStatus(bookingId, previous, status) == 0) {
+            throw new OptimisticLockingFailureException("Booking " + bookingId + " was changed concurrently");
+        }
         booking.setStatus(status);
-        Booking updated = bookingRepository.save(booking);
+        eventPublisher.publishEvent(new BookingChangedEvent(
+                bookingId, booking.getRoomId(), booking.getCheckIn(), booking.getCheckOut(), previous, status));
+        return booking;
+    }
 
-        return mapToResponse(updated);
+    //answered by the per-room interval index; the database query covers the index being
+    //unavailable (not built yet, stays before its start, rooms with legacy overlaps)
+    private void ensureNoOverlap(Room room, LocalDate checkIn, LocalDate checkOut) {
+        long start = System.nanoTime();
+        boolean overlaps = intervalIndex.intervals(room.getId(), checkIn)
+                .map(intervals -> intervals.overlaps(checkIn, checkOut))
+                .orElseGet(() -> !bookingRepository.findByRoomAndStatusInAndCheckOutGreaterThanAndCheckInLessThan(
+                        room,
+                        BookingStatus.ACTIVE,
+                        checkIn,
+                        checkOut
+                ).isEmpty());
+        bookingMetrics.recordOverlapCheck(System.nanoTime() - start);
+        if(overlaps) {
+            throw rejected(BookingRejectReason.OVERLAP,
+                    new BookingConflictException("Room already booked for this date range"));
+        }
     }
 
-    public List<BookingResponse> getBookingsSorted(String sortBy, String order) {
-        List<Booking> bookings = bookingRepository.findAll();
-        return sortBookings(bookings, sortBy, order);
+    private <E extends RuntimeException> E rejected(BookingRejectReason reason, E exception) {
+        bookingMetrics.rejected(reason);
+        return exception;
     }
 
-    public List<BookingResponse> getUserBookingsSorted(Long userId, String sortBy, String order) {
-        // Verify user exists
-        userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-
-        List<Booking> bookings = bookingRepository.findByUserId(userId);
-        return sortBookings(bookings, sortBy, order);
-    }
-
-    private List<BookingResponse> sortBookings(List<Booking> bookings, String sortBy, String order) {
-        Comparator<Booking> comparator;
-
-        switch (sortBy.toLowerCase()) {
-            case "checkin":
-                comparator = Comparator.comparing(Booking::getCheckIn);
-                break;
-            case "checkout":
-                comparator = Comparator.comparing(Booking::getCheckOut);
-                break;
-            case "price":
-                comparator = Comparator.comparing(Booking::getTotalPrice);
-                break;
-            case "createdat":
-                comparator = Comparator.comparing(Booking::getCreatedAt);
-                break;
-            case "status":
-                comparator = Comparator.comparing(b -> b.getStatus().toString());
-                break;
-            case "default":
-                // Uses the natural ordering from compareTo method
-                comparator = Comparator.naturalOrder();
-                break;
-            default:
-                throw new IllegalArgumentException("Invalid sort field: " + sortBy);
-        }
-
-        // Apply ordering (ascending or descending)
-        if ("desc".equalsIgnoreCase(order)) {
-            comparator = comparator.reversed();
-        }
-
-        // Sort the list
-        bookings.sort(comparator);
-
-        // Convert to response DTOs
-        return bookings.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    //listeners such as the availability index apply the change once the transaction commits
+    private void publishChange(Booking booking, BookingStatus previousStatus) {
+        eventPublisher.publishEvent(new BookingChangedEvent(
+                booking.getId(),
+                booking.getRoom().getId(),
+                booking.getCheckIn(),
+                booking.getCheckOut(),
+                previousStatus,
+                booking.getStatus()
+        ));
     }
+
     private BookingResponse mapToResponse(Booking booking) {
+        return mapToResponse(booking, booking.getRoom().getRoomNumber());
+    }
+
+    private BookingResponse mapToResponse(Booking booking, String roomNumber) {
+        return mapToResponse(booking, roomNumber, booking.getUser().getFullName());
+    }
+
+    private BookingResponse mapToResponse(Booking booking, String roomNumber, String userFullName) {
         return BookingResponse.builder()
                 .id(booking.getId())
                 .userId(booking.getUser().getId())
-                .userFullName(booking.getUser().getFullName())
+                .userFullName(userFullName)
                 .roomId(booking.getRoom().getId())
-                .roomNumber(booking.getRoom().getRoomNumber())
+                .roomNumber(roomNumber)
                 .checkIn(booking.getCheckIn())
                 .checkOut(booking.getCheckOut())
                 .status(booking.getStatus())
@@ -187,13 +434,5 @@ public class BookingServiceImpl implements BookingService {
                 .build();
     }
 
-    public List<BookingResponse> getBookingsSorted() {
-        List<Booking> bookings = bookingRepository.findAll();
-        Collections.sort(bookings);
-        return bookings.stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
-    }
-
 }
 
@@ -0,0 +1,188 @@
+package com.meti.roombooking.service.impl;
+
+import com.meti.roombooking.dto.pricing.PriceRuleRequest;
+import com.meti.roombooking.dto.pricing.PriceRuleResponse;
+import com.meti.roombooking.dto.pricing.QuoteResponse;
+import com.meti.roombooking.dto.pricing.StayQuery;
+import com.meti.roombooking.dto.pricing.StayQuote;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.PriceAdjustment;
+import com.meti.roombooking.entity.PriceRule;
+import com.meti.roombooking.event.PriceRulesChangedEvent;
+import com.meti.roombooking.pricing.RatePlanIndex;
+import com.meti.roombooking.repository.PriceRuleRepository;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.service.PricingService;
+import com.meti.roombooking.service.RoomService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+@Transactional
+public class PricingServiceImpl implements PricingService {
+
+    //stays past the rate plan horizon are priced night by night, this bounds that work
+    private static final int MAX_QUOTE_NIGHTS = 730;
+    private static final BigDecimal MINUS_HUNDRED = BigDecimal.valueOf(-100);
+
+    private final PriceRuleRepository priceRuleRepository;
+    private final RoomRepository roomRepository;
+    private final RoomService roomService;
+    private final RatePlanIndex ratePlans;
+    private final ApplicationEventPublisher eventPublisher;
+
+    //SUPPORTS: rooms come from the catalogue cache and prices from the compiled rate plans
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public QuoteResponse quote(List<StayQuery> stays) {
+        List<StayQuote> quotes = new ArrayList<>(stays.size());
+        int rejected = 0;
+        for (int i = 0; i < stays.size(); i++) {
+            StayQuery stay = stays.get(i);
+            StayQuote.StayQuoteBuilder quote = StayQuote.builder()
+                    .index(i)
+                    .roomId(stay.getRoomId())
+                    .checkIn(stay.getCheckIn())
+                    .checkOut(stay.getCheckOut());
+            long nights = ChronoUnit.DAYS.between(stay.getCheckIn(), stay.getCheckOut());
+            if (nights < 1) {
+                quotes.add(quote.error("Check in date must be before check out date").build());
+                rejected++;
+                continue;
+            }
+            if (nights > MAX_QUOTE_NIGHTS) {
+                quotes.add(quote.error("A stay cannot exceed " + MAX_QUOTE_NIGHTS + " nights").build());
+                rejected++;
+                continue;
+            }
+            RoomResponse room;
+            try {
+                room = roomService.getRoomById(stay.getRoomId());
+            } catch (IllegalArgumentException e) {
+                quotes.add(quote.error(e.getMessage()).build());
+                rejected++;
+                continue;
+            }
+            quotes.add(quote
+                    .nights((int) nights)
+                    .totalPrice(ratePlans.quote(room.getId(), room.getType(), room.getPricePerNight(),
+                            stay.getCheckIn(), stay.getCheckOut()))
+                    .build());
+        }
+        return QuoteResponse.builder()
+                .priced(stays.size() - rejected)
+                .rejected(rejected)
+                .quotes(quotes)
+                .build();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PriceRuleResponse> getAllRules() {
+        return priceRuleRepository.findAllByOrderByPriorityAscIdAsc().stream()
+                .map(this::mapToResponse)
+                .toList();
+    }
+
+    @Override
+    public PriceRuleResponse createRule(PriceRuleRequest request) {
+        PriceRule rule = new PriceRule();
+        apply(rule, request);
+        PriceRule saved = priceRuleRepository.save(rule);
+        eventPublisher.publishEvent(new PriceRulesChangedEvent(saved.getId()));
+        return mapToResponse(saved);
+    }
+
+    @Override
+    public PriceRuleResponse updateRule(Long ruleId, PriceRuleRequest request) {
+        PriceRule rule = priceRuleRepository.findById(ruleId)
+                .orElseThrow(() -> new IllegalArgumentException("Price rule not found"));
+        apply(rule, request);
+        PriceRule saved = priceRuleRepository.save(rule);
+        eventPublisher.publishEvent(new PriceRulesChangedEvent(ruleId));
+        return mapToResponse(saved);
+    }
+
+    @Override
+    public void deleteRule(Long ruleId) {
+        PriceRule rule = priceRuleRepository.findById(ruleId)
+                .orElseThrow(() -> new IllegalArgumentException("Price rule not found"));
+        priceRuleRepository.delete(rule);
+        eventPublisher.publishEvent(new PriceRulesChangedEvent(ruleId));
+    }
+
+    private void apply(PriceRule rule, PriceRuleRequest request) {
+        if (request.getRoomId() != null && !roomRepository.existsById(request.getRoomId())) {
+            throw new IllegalArgumentException("Room not found");
+        }
+        if (request.getValidFrom() != null && request.getValidTo() != null
+                && !request.getValidFrom().isBefore(request.getValidTo())) {
+            throw new IllegalArgumentException("validFrom must be before validTo");
+        }
+        if (request.getDaysOfWeek() != null && request.getDaysOfWeek().isEmpty()) {
+            throw new IllegalArgumentException("daysOfWeek cannot be empty");
+        }
+        if (request.getAdjustment() == PriceAdjustment.PRICE && request.getMinNights() != null) {
+            throw new IllegalArgumentException("PRICE adjustments apply to single nights only");
+        }
+        if (request.getAdjustment() == PriceAdjustment.PRICE && request.getAmount().signum() < 0) {
+            throw new IllegalArgumentException("A price cannot be negative");
+        }
+        if (request.getAdjustment() == PriceAdjustment.PERCENT && request.getAmount().compareTo(MINUS_HUNDRED) < 0) {
+            throw new IllegalArgumentException("A percentage cannot take off more than 100");
+        }
+
+        rule.setName(request.getName());
+        rule.setRoomId(request.getRoomId());
+        rule.setRoomType(request.getRoomType());
+        rule.setValidFrom(request.getValidFrom());
+        rule.setValidTo(request.getValidTo());
+        rule.setDaysOfWeek(request.getDaysOfWeek() == null ? PriceRule.ALL_DAYS : toMask(request.getDaysOfWeek()));
+        rule.setMinNights(request.getMinNights());
+        rule.setAdjustment(request.getAdjustment());
+        rule.setAmount(request.getAmount());
+        rule.setPriority(request.getPriority());
+    }
+
+    private PriceRuleResponse mapToResponse(PriceRule rule) {
+        Set<DayOfWeek> days = EnumSet.noneOf(DayOfWeek.class);
+        for (DayOfWeek day : DayOfWeek.values()) {
+            if ((rule.getDaysOfWeek() & PriceRule.dayBit(day)) != 0) {
+                days.add(day);
+            }
+        }
+        return PriceRuleResponse.builder()
+                .id(rule.getId())
+                .name(rule.getName())
+                .roomId(rule.getRoomId())
+                .roomType(rule.getRoomType())
+                .validFrom(rule.getValidFrom())
+                .validTo(rule.getValidTo())
+                .daysOfWeek(days)
+                .minNights(rule.getMinNights())
+                .adjustment(rule.getAdjustment())
+                .amount(rule.getAmount())
+                .priority(rule.getPriority())
+                .build();
+    }
+
+    private static int toMask(Set<DayOfWeek> days) {
+        int mask = 0;
+        for (DayOfWeek day : days) {
+            mask |= PriceRule.dayBit(day);
+        }
+        return mask;
+    }
+}
@@ -1,18 +1,43 @@
 package com.meti.roombooking.service.impl;
 
+import com.meti.roombooking.admission.RoomLockStripes;
+import com.meti.roombooking.availability.RoomAvailabilityIndex;
+import com.meti.roombooking.availability.RoomIntervalIndex;
+import com.meti.roombooking.availability.RoomIntervals;
+import com.meti.roombooking.cache.RoomCatalogueCache;
+import com.meti.roombooking.concurrency.RetryOnConflict;
+import com.meti.roombooking.dto.room.DateWindow;
+import com.meti.roombooking.dto.room.InventoryCalendar;
+import com.meti.roombooking.dto.room.NightInventory;
+import com.meti.roombooking.dto.room.RoomAvailabilityCalendar;
 import com.meti.roombooking.dto.room.RoomRequest;
 import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.BookingStatus;
 import com.meti.roombooking.entity.Room;
 import com.meti.roombooking.entity.RoomStatus;
 import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.event.RoomChangedEvent;
+import com.meti.roombooking.exception.NodeUnavailableException;
+import com.meti.roombooking.exception.RoomVersionConflictException;
+import com.meti.roombooking.repository.BookingRepository;
 import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.RoomTypeNightInventoryRepository;
 import com.meti.roombooking.service.RoomService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
 @Service
@@ -20,7 +45,16 @@ import java.util.stream.Collectors;
 @Transactional
 public class RoomServiceImpl implements RoomService {
 
+    private static final int MAX_WINDOW_SEARCH_DAYS = 730;
+
     private final RoomRepository roomRepository;
+    private final BookingRepository bookingRepository;
+    private final RoomAvailabilityIndex availabilityIndex;
+    private final RoomIntervalIndex intervalIndex;
+    private final RoomCatalogueCache roomCache;
+    private final RoomTypeNightInventoryRepository inventoryRepository;
+    private final RoomLockStripes roomLocks;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Override
     public RoomResponse createRoom(RoomRequest request) {
@@ -33,13 +67,30 @@ public class RoomServiceImpl implements RoomService {
         room.setDescription(request.getDescription());
 
         Room saved = roomRepository.save(room);
-        return mapToResponse(saved);
+        RoomResponse response = mapToResponse(saved);
+        eventPublisher.publishEvent(new RoomChangedEvent(saved.getId(), null, response));
+        return response;
     }
 
+    /*
+     * A full replace, so it is only applied to the version the admin edited: a stale write is
+     * rejected with 409 rather than retried, which would silently overwrite the newer change.
+     */
     @Override
     public RoomResponse updateRoom(Long roomId, RoomRequest request) {
+        if (request.getVersion() == null) {
+            throw new IllegalArgumentException("version is required to update a room");
+        }
+        //taken before the first read, so the room's bookings committed before this change are all visible
+        //to the inventory adjustment and none can be admitted while it runs
+        roomLocks.lockForTransaction(roomId);
         Room room = roomRepository.findById(roomId)
                 .orElseThrow(() -> new IllegalArgumentException("Room not found"));
+        if (room.getVersion() != request.getVersion()) {
+            throw new RoomVersionConflictException("Room " + roomId + " has changed since version "
+                    + request.getVersion() + " was read");
+        }
+        RoomResponse before = mapToResponse(room);
 
         room.setRoomNumber(request.getRoomNumber());
         room.setType(request.getType());
@@ -48,36 +99,49 @@ public class RoomServiceImpl implements RoomService {
         room.setStatus(request.getStatus());
         room.setDescription(request.getDescription());
 
-        Room updated = roomRepository.save(room);
-        return mapToResponse(updated);
+        //flushed here so a concurrent write committed on another node fails this one as stale too
+        Room updated;
+        try {
+            updated = roomRepository.saveAndFlush(room);
+        } catch (OptimisticLockingFailureException e) {
+            throw new RoomVersionConflictException("Room " + roomId + " was modified concurrently", e);
+        }
+        RoomResponse response = mapToResponse(updated);
+        eventPublisher.publishEvent(new RoomChangedEvent(roomId, before, response));
+        return response;
     }
 
     @Override
+    @RetryOnConflict
     public void deleteRoom(Long roomId) {
-        if (!roomRepository.existsById(roomId)) {
-            throw new IllegalArgumentException("Room not found");
-        }
-        roomRepository.deleteById(roomId);
+        roomLocks.lockForTransaction(roomId);
+        Room room = roomRepository.findById(roomId)
+                .orElseThrow(() -> new IllegalArgumentException("Room not found"));
+        RoomResponse before = mapToResponse(room);
+        roomRepository.delete(room);
+        eventPublisher.publishEvent(new RoomChangedEvent(roomId, before, null));
     }
 
+    //SUPPORTS: a cache hit must not open a transaction (and check out a connection),
+    //misses load through the repository's own read-only transaction
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public RoomResponse getRoomById(Long roomId) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new IllegalArgumentException("Room not found"));
-        return mapToResponse(room);
+        return roomCache.getRoom(roomId, id -> roomRepository.findById(id)
+                .map(this::mapToResponse)
+                .orElseThrow(() -> new IllegalArgumentException("Room not found")));
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<RoomResponse> getAllRooms() {
-        return roomRepository.findAll().stream()
+        return roomCache.getAllRooms(() -> roomRepository.findAll().stream()
                 .map(this::mapToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
     }
 
     @Override
-    @Transactional(readOnly = true)
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public List<RoomResponse> findAvailableRooms(
             LocalDate checkIn,
             LocalDate checkOut,
@@ -92,21 +156,104 @@ public class RoomServiceImpl implements RoomService {
             throw new IllegalArgumentException("checkOut cannot be before checkIn");
         }
 
-        List<Room> rooms = roomRepository.findAvailableRooms(checkIn, checkOut, guests, type);
+        //answered from the in-memory bitmap index when the range is inside its horizon
+        return availabilityIndex.findAvailableRooms(checkIn, checkOut, guests, type)
+                .orElseGet(() -> roomRepository.findAvailableRooms(checkIn, checkOut, guests, type).stream()
+                        .map(this::mapToResponse)
+                        .collect(Collectors.toList()));
+    }
 
-        return rooms.stream()
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<RoomResponse> findByStatus(RoomStatus status) {
+        return roomCache.getRoomsByStatus(status, () -> roomRepository.findByStatus(status).stream()
                 .map(this::mapToResponse)
-                .collect(Collectors.toList());
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public List<DateWindow> findGaps(Long roomId, LocalDate from, LocalDate to) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (from.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("from cannot be in the past");
+        }
+        if (ChronoUnit.DAYS.between(from, to) > MAX_WINDOW_SEARCH_DAYS) {
+            throw new IllegalArgumentException("Range cannot exceed " + MAX_WINDOW_SEARCH_DAYS + " days");
+        }
+        return intervalsOf(roomId, from).gaps(from, to);
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public DateWindow findNextFreeWindow(Long roomId, LocalDate from, int nights) {
+        if (nights < 1 || nights > MAX_WINDOW_SEARCH_DAYS) {
+            throw new IllegalArgumentException("nights must be between 1 and " + MAX_WINDOW_SEARCH_DAYS);
+        }
+        if (from.isBefore(LocalDate.now())) {
+            throw new IllegalArgumentException("from cannot be in the past");
+        }
+        return intervalsOf(roomId, from).nextFreeWindow(from, nights);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<RoomResponse> findByStatus(RoomStatus status) {
-        return roomRepository.findByStatus(status).stream()
-                .map(this::mapToResponse)
+    public List<InventoryCalendar> getInventoryCalendar(YearMonth month, RoomType type) {
+        if (month == null) {
+            throw new IllegalArgumentException("month is required");
+        }
+        List<RoomType> types = type != null ? List.of(type) : List.of(RoomType.values());
+        Map<RoomType, List<NightInventory>> nights = new EnumMap<>(RoomType.class);
+        types.forEach(t -> nights.put(t, new ArrayList<>()));
+        inventoryRepository.findNights(types, month.atDay(1), month.plusMonths(1).atDay(1))
+                .forEach(row -> nights.get(row.getType()).add(NightInventory.builder()
+                        .night(row.getNight())
+                        .freeRooms(row.getFreeRooms())
+                        .build()));
+        return types.stream()
+                .map(t -> InventoryCalendar.builder()
+                        .type(t)
+                        .month(month)
+                        .nights(nights.get(t))
+                        .build())
                 .collect(Collectors.toList());
     }
 
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public String getAvailabilityVersion() {
+        return availabilityIndex.versionToken();
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public RoomAvailabilityCalendar getAvailabilityCalendar(LocalDate from, LocalDate to, String since) {
+        return getAvailabilityCalendar(from, to, since, roomId -> true);
+    }
+
+    //the calendar restricted to some rooms, e.g. the partition a cluster node owns
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
+    public RoomAvailabilityCalendar getAvailabilityCalendar(LocalDate from, LocalDate to, String since, Predicate<Long> rooms) {
+        if (from == null || to == null || !from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+        if (!availabilityIndex.isBuilt()) {
+            throw new NodeUnavailableException("Availability calendar is not ready yet", null);
+        }
+        return availabilityIndex.calendar(from, to, since, rooms)
+                .orElseThrow(() -> new IllegalArgumentException("Calendar range must lie within the availability horizon"));
+    }
+
+    //the room's active stays from the interval index, or loaded for this one query
+    private RoomIntervals intervalsOf(Long roomId, LocalDate from) {
+        getRoomById(roomId);
+        return intervalIndex.intervals(roomId, from)
+                .orElseGet(() -> RoomIntervals.of(
+                        bookingRepository.findActiveStaysOfRoomEndingAfter(roomId, BookingStatus.ACTIVE, from)));
+    }
+
     private RoomResponse mapToResponse(Room room) {
         return RoomResponse.builder()
                 .id(room.getId())
@@ -116,6 +263,7 @@ public class RoomServiceImpl implements RoomService {
                 .pricePerNight(room.getPricePerNight())
                 .status(room.getStatus())
                 .description(room.getDescription())
+                .version(room.getVersion())
                 .build();
     }
 
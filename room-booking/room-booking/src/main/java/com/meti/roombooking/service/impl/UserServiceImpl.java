@@ -1,6 +1,9 @@
 package com.meti.roombooking.service.impl;
 
+import com.meti.roombooking.auth.PasswordHasher;
+import com.meti.roombooking.auth.SessionTokens;
 import com.meti.roombooking.dto.auth.LoginRequest;
+import com.meti.roombooking.dto.auth.LoginResponse;
 import com.meti.roombooking.dto.auth.UserRegistrationRequest;
 import com.meti.roombooking.dto.auth.UserResponse;
 import com.meti.roombooking.entity.Role;
@@ -8,17 +11,26 @@ import com.meti.roombooking.entity.User;
 import com.meti.roombooking.repository.UserRepository;
 import com.meti.roombooking.service.UserService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Instant;
+import java.util.Optional;
+
 @Service
 @RequiredArgsConstructor // generates constructor with all final fields
 @Transactional
 public class UserServiceImpl implements UserService {
 
     private final UserRepository userRepository;
+    private final PasswordHasher passwordHasher;
+    private final SessionTokens sessionTokens;
 
+    //hashed outside a transaction like login; the check and the save each run in a short one of their own
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserResponse register(UserRegistrationRequest request) {
         // 1) Check if email already used
         if (userRepository.existsByEmail(request.getEmail())) {
@@ -29,12 +41,16 @@ public class UserServiceImpl implements UserService {
         User user = new User();
         user.setFullName(request.getFullName());
         user.setEmail(request.getEmail());
-        // TODO: later we will hash the password, for now store plain text
-        user.setPassword(request.getPassword());
+        user.setPassword(passwordHasher.hash(request.getPassword()));
         user.setRole(Role.CLIENT); // default new users = CLIENT
 
-        // 3) Save
-        User saved = userRepository.save(user);
+        // 3) Save; the unique key catches an email registered meanwhile
+        User saved;
+        try {
+            saved = userRepository.save(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new IllegalArgumentException("Email is already in use");
+        }
 
         // 4) Map Entity -> DTO
         return UserResponse.builder()
@@ -45,18 +61,36 @@ public class UserServiceImpl implements UserService {
                 .build();
     }
 
+    //no surrounding transaction: the hash takes tens of milliseconds and must not hold a pooled connection
     @Override
-    public String login(LoginRequest request) {
-        User user = userRepository.findByEmail(request.getEmail())
-                .orElseThrow(() -> new IllegalArgumentException("Invalid credentials"));
-
-        // very basic check for now; later: password hashing + JWT
-        if (!user.getPassword().equals(request.getPassword())) {
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public LoginResponse login(LoginRequest request) {
+        Optional<User> found = userRepository.findByEmail(request.getEmail());
+        if (found.isEmpty()) {
+            passwordHasher.matchesNone(request.getPassword());
             throw new IllegalArgumentException("Invalid credentials");
         }
+        User user = found.get();
+        if (!passwordHasher.matches(request.getPassword(), user.getPassword())) {
+            throw new IllegalArgumentException("Invalid credentials");
+        }
+        // plain-text rows from before hashing (or weaker hashes) are upgraded on sign-in
+        if (passwordHasher.needsRehash(user.getPassword())) {
+            userRepository.replacePassword(user.getId(), user.getPassword(), passwordHasher.hash(request.getPassword()));
+        }
 
-        // For now, just return a dummy string. Later this becomes a JWT token.
-        return "LOGIN_OK_FOR_USER_ID_" + user.getId();
+        String token = sessionTokens.issue(user);
+        return LoginResponse.builder()
+                .token(token)
+                .tokenType("Bearer")
+                .expiresAt(Instant.now().plus(sessionTokens.ttl()))
+                .user(UserResponse.builder()
+                        .id(user.getId())
+                        .fullName(user.getFullName())
+                        .email(user.getEmail())
+                        .role(user.getRole())
+                        .build())
+                .build();
     }
 
     @Override
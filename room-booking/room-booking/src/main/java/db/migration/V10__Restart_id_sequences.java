@@ -0,0 +1,56 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Moves booking_seq and room_night_claim_seq past the ids already in use.
+ *
+ * On databases baselined at version 1 the bookings already have identity ids, and V1_1 created
+ * both sequences starting at 1, below them. Runs in Java because neither MariaDB nor H2 accepts
+ * a query as the RESTART value. Sequences that are already past every id are left alone: nodes still running
+ * may hold blocks handed out from them.
+ */
+public class V10__Restart_id_sequences extends BaseJavaMigration {
+
+    //the entities' allocationSize, which is also the sequences' increment
+    private static final long INCREMENT = 50;
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        //archived bookings keep their ids and are still looked up by them
+        restartAbove(connection, "booking_seq",
+                Math.max(maxId(connection, "bookings"), maxId(connection, "bookings_archive")));
+        restartAbove(connection, "room_night_claim_seq", maxId(connection, "room_night_claims"));
+    }
+
+    private static void restartAbove(Connection connection, String sequence, long maxId) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create sequence if not exists " + sequence
+                    + " start with 1 increment by " + INCREMENT);
+            long next;
+            try (ResultSet rs = statement.executeQuery("select next value for " + sequence)) {
+                rs.next();
+                next = rs.getLong(1);
+            }
+            //Hibernate's pooled optimizer hands out the INCREMENT ids ending at the value it reads
+            if (next - INCREMENT + 1 <= maxId) {
+                statement.execute("alter sequence " + sequence + " restart with " + (maxId + INCREMENT));
+            }
+        }
+    }
+
+    private static long maxId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select coalesce(max(id), 0) from " + table)) {
+            rs.next();
+            return rs.getLong(1);
+        }
+    }
+}
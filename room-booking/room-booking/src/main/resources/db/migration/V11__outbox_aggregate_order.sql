@@ -0,0 +1,2 @@
+-- earlier pending events of the same booking, looked up for every due event the dispatcher claims
+create index idx_outbox_aggregate_id on outbox_events (aggregate_id, id);
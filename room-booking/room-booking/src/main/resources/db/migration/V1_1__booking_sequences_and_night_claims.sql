@@ -0,0 +1,30 @@
+-- Pooled id generators for bookings and night claims; increment matches the entities' allocationSize.
+-- bookings.id keeps its auto_increment: Hibernate now always sends the id. On baselined databases
+-- these start below the existing rows, V10 moves them past.
+create sequence booking_seq start with 1 increment by 50;
+create sequence room_night_claim_seq start with 1 increment by 50;
+
+-- one row per occupied room night: the unique key rejects double bookings even across nodes
+create table room_night_claims (
+    id bigint not null,
+    room_id bigint not null,
+    night date not null,
+    booking_id bigint not null,
+    primary key (id),
+    constraint uk_room_night unique (room_id, night)
+);
+
+create index idx_claim_booking on room_night_claims (booking_id);
+
+-- (sort key, id) indexes backing the keyset-paginated listings
+create index idx_booking_checkin_id on bookings (check_in, id);
+create index idx_booking_checkout_id on bookings (check_out, id);
+create index idx_booking_checkin_created_id on bookings (check_in, created_at, id);
+create index idx_booking_price_id on bookings (total_price, id);
+create index idx_booking_created_id on bookings (created_at, id);
+create index idx_booking_status_id on bookings (status, id);
+create index idx_booking_room_checkin_checkout on bookings (room_id, check_in, check_out);
+
+-- the single-column indexes ddl-auto created, prefixes of the first two above
+drop index IDX1adupnofin7xswa39riipiedq on bookings;
+drop index IDXfr8dljcjqa0wekgjc9hmbrrnt on bookings;
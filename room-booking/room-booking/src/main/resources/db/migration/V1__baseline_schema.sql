@@ -0,0 +1,43 @@
+-- Schema as previously created by ddl-auto=update from the original entities: identity ids,
+-- single-column check-in/check-out indexes and Hibernate's generated constraint names.
+-- Existing databases are baselined at this version (spring.flyway.baseline-on-migrate) and skip it.
+
+create table users (
+    id bigint not null auto_increment,
+    created_at datetime(6) not null,
+    email varchar(255) not null,
+    full_name varchar(255) not null,
+    password varchar(255) not null,
+    role enum ('ADMIN','CLIENT') not null,
+    primary key (id),
+    constraint UK6dotkott2kjsp8vw4d0m25fb7 unique (email)
+);
+
+create table rooms (
+    id bigint not null auto_increment,
+    capacity integer not null check (capacity >= 1),
+    description varchar(1000),
+    price_per_night decimal(10,2) not null,
+    room_number varchar(255) not null,
+    status enum ('AVAILABLE','MAINTENANCE','OCCUPIED') not null,
+    type enum ('DOUBLE','SINGLE','SUITE') not null,
+    primary key (id),
+    constraint UKb22fgh80kjc70dbe0xc6ws8gv unique (room_number)
+);
+
+create table bookings (
+    id bigint not null auto_increment,
+    check_in date not null,
+    check_out date not null,
+    created_at datetime(6) not null,
+    status enum ('CANCELLED','CONFIRMED','PENDING') not null,
+    total_price decimal(12,2) not null,
+    room_id bigint not null,
+    user_id bigint not null,
+    primary key (id),
+    constraint FKrgoycol97o21kpjodw1qox4nc foreign key (room_id) references rooms (id),
+    constraint FKeyog2oic85xg7hsu2je2lx3s6 foreign key (user_id) references users (id)
+);
+
+create index IDX1adupnofin7xswa39riipiedq on bookings (check_in);
+create index IDXfr8dljcjqa0wekgjc9hmbrrnt on bookings (check_out);
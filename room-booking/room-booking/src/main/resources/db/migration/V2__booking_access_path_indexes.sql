@@ -0,0 +1,19 @@
+-- Composite indexes matching the repository access paths. Columns after the
+-- equality/range prefix make the index covering for the RoomStay projections.
+
+-- overlap checks, gap queries and the availability NOT EXISTS probe:
+-- room_id = ? AND status IN (...) AND check_out > ? AND check_in < ?
+create index idx_booking_room_status_checkout_checkin on bookings (room_id, status, check_out, check_in);
+
+-- availability/interval index rebuilds: status IN (...) AND check_out > ?
+create index idx_booking_status_checkout_room_checkin on bookings (status, check_out, room_id, check_in);
+
+-- per-user listings: user_id = ? ordered by creation date or by the default ordering
+create index idx_booking_user_created_id on bookings (user_id, created_at, id);
+create index idx_booking_user_checkin_created_id on bookings (user_id, check_in, created_at, id);
+
+-- findByStatus / findByTypeAndStatus
+create index idx_room_status_type on rooms (status, type);
+
+-- superseded by idx_booking_room_status_checkout_checkin, which also backs the room foreign key
+drop index idx_booking_room_checkin_checkout on bookings;
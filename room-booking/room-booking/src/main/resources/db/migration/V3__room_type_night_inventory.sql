@@ -0,0 +1,8 @@
+-- Free sellable rooms per room type and night, over the availability horizon.
+-- Adjusted inside the booking and room transactions, filled and rolled forward daily.
+create table room_type_night_inventory (
+    type enum ('DOUBLE','SINGLE','SUITE') not null,
+    night date not null,
+    free_rooms integer not null,
+    primary key (type, night)
+);
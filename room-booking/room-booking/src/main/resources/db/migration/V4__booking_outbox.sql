@@ -0,0 +1,21 @@
+-- Booking events written in the booking transaction and delivered afterwards by the
+-- outbox dispatcher. available_at is the next attempt, or the lease end while claimed.
+create table outbox_events (
+    id bigint not null,
+    event_type enum ('BOOKING_CREATED','BOOKING_STATUS_CHANGED') not null,
+    aggregate_id bigint not null,
+    payload varchar(1000) not null,
+    status enum ('DEAD','PENDING') not null,
+    attempts integer not null,
+    created_at datetime(6) not null,
+    available_at datetime(6) not null,
+    claimed_by varchar(36),
+    last_error varchar(500),
+    primary key (id)
+);
+
+create sequence outbox_event_seq start with 1 increment by 50;
+
+-- due events in id order; claims are read back by their token
+create index idx_outbox_status_available_id on outbox_events (status, available_at, id);
+create index idx_outbox_claimed_by on outbox_events (claimed_by);
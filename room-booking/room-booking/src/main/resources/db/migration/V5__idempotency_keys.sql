@@ -0,0 +1,12 @@
+-- Results of booking writes sent with an Idempotency-Key, replayed to retries until expires_at.
+-- Inserted in the transaction of the write itself.
+create table idempotency_keys (
+    idempotency_key varchar(100) not null,
+    request varchar(200) not null,
+    response varchar(2000) not null,
+    created_at datetime(6) not null,
+    expires_at datetime(6) not null,
+    primary key (idempotency_key)
+);
+
+create index idx_idempotency_expires_at on idempotency_keys (expires_at);
@@ -0,0 +1,4 @@
+-- Optimistic-lock versions: bumped by every update of a room or a booking, so writes based on
+-- a stale read fail instead of overwriting a concurrent change.
+alter table bookings add column version bigint default 0 not null;
+alter table rooms add column version bigint default 0 not null;
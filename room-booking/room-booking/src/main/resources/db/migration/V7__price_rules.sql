@@ -0,0 +1,20 @@
+-- Rate-plan rules, compiled into per-room nightly prices by RatePlanIndex.
+-- A rule targets one room, one room type, or (both null) every room. valid_from is inclusive,
+-- valid_to exclusive, either may be open. days_of_week is a bitmask, Monday = 1 ... Sunday = 64.
+-- Nightly rules (min_nights null) adjust single nights; stay rules (min_nights set) adjust the
+-- whole stay total once it is at least that long and starts inside the validity range.
+create table price_rules (
+    id bigint not null auto_increment,
+    name varchar(100) not null,
+    room_id bigint,
+    room_type enum ('DOUBLE','SINGLE','SUITE'),
+    valid_from date,
+    valid_to date,
+    days_of_week integer default 127 not null,
+    min_nights integer,
+    adjustment enum ('AMOUNT','PERCENT','PRICE') not null,
+    amount decimal(12,2) not null,
+    priority integer default 0 not null,
+    primary key (id),
+    constraint fk_price_rules_room foreign key (room_id) references rooms (id) on delete cascade
+);
@@ -0,0 +1,18 @@
+-- Bookings whose check-out is past the retention horizon, moved here by BookingArchiver.
+-- Same ids as in bookings; the room number is copied so rooms can be deleted later.
+create table bookings_archive (
+    id bigint not null,
+    user_id bigint not null,
+    room_id bigint not null,
+    room_number varchar(255) not null,
+    check_in date not null,
+    check_out date not null,
+    status enum ('CANCELLED','CONFIRMED','PENDING') not null,
+    total_price decimal(12,2) not null,
+    created_at datetime(6) not null,
+    archived_at datetime(6) not null,
+    primary key (id)
+);
+
+-- user history, newest stays first
+create index idx_archive_user_checkin_id on bookings_archive (user_id, check_in, id);
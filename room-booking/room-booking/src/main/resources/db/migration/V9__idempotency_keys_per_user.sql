@@ -0,0 +1,6 @@
+-- Idempotency keys are scoped to the user who sent them: the same key from another user is a
+-- different request and never replays this user's response. Rows recorded before get user 0,
+-- which no request matches, and expire as usual.
+alter table idempotency_keys add column user_id bigint default 0 not null;
+alter table idempotency_keys drop primary key;
+alter table idempotency_keys add primary key (user_id, idempotency_key);
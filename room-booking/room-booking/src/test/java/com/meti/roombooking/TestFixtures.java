@@ -0,0 +1,80 @@
+package com.meti.roombooking;
+
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.room.RoomRequest;
+import com.meti.roombooking.entity.Role;
+import com.meti.roombooking.entity.Room;
+import com.meti.roombooking.entity.RoomStatus;
+import com.meti.roombooking.entity.RoomType;
+import com.meti.roombooking.entity.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Rooms, users and booking requests shared by the tests. The defaults are a bookable
+ * single room and a client; tests pass whatever their assertions depend on. The tests
+ * share one in-memory database per context, so numbers and emails take a {@link #suffix()}.
+ */
+public final class TestFixtures {
+
+    private TestFixtures() {
+    }
+
+    public static String suffix() {
+        return UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    public static RoomRequest room(String number) {
+        return room(number, RoomType.SINGLE, 1, "80.00");
+    }
+
+    public static RoomRequest room(String number, RoomType type, int capacity, String pricePerNight) {
+        RoomRequest request = new RoomRequest();
+        request.setRoomNumber(number);
+        request.setType(type);
+        request.setCapacity(capacity);
+        request.setPricePerNight(new BigDecimal(pricePerNight));
+        request.setStatus(RoomStatus.AVAILABLE);
+        return request;
+    }
+
+    //for tests saving through RoomRepository, bypassing the service and its events
+    public static Room roomEntity(String number) {
+        return roomEntity(number, RoomType.SINGLE, 1, "80.00");
+    }
+
+    public static Room roomEntity(String number, RoomType type, int capacity, String pricePerNight) {
+        return Room.builder()
+                .roomNumber(number)
+                .type(type)
+                .capacity(capacity)
+                .pricePerNight(new BigDecimal(pricePerNight))
+                .status(RoomStatus.AVAILABLE)
+                .build();
+    }
+
+    public static User client(String fullName, String email) {
+        return user(fullName, email, Role.CLIENT);
+    }
+
+    public static User user(String fullName, String email, Role role) {
+        return User.builder()
+                .fullName(fullName)
+                .email(email)
+                .password("secret123")
+                .role(role)
+                .build();
+    }
+
+    //userId may be null: the controller books for the signed-in user
+    public static BookingRequest booking(Long roomId, Long userId, LocalDate checkIn, LocalDate checkOut) {
+        BookingRequest request = new BookingRequest();
+        request.setRoomId(roomId);
+        request.setUserId(userId);
+        request.setCheckIn(checkIn);
+        request.setCheckOut(checkOut);
+        return request;
+    }
+}
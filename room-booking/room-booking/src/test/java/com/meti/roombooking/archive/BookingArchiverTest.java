@@ -0,0 +1,100 @@
+package com.meti.roombooking.archive;
+
+import com.meti.roombooking.dto.booking.BookingPage;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.entity.*;
+import com.meti.roombooking.repository.ArchivedBookingRepository;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.RoomNightClaimRepository;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.roomEntity;
+import static org.junit.jupiter.api.Assertions.*;
+
+//own database: archiving moves every old booking it can find
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:archive;DB_CLOSE_DELAY=-1",
+        "booking.archive.batch-size=2",
+        "booking.archive.pause=0ms"
+})
+@ActiveProfiles("test")
+class BookingArchiverTest {
+
+    @Autowired
+    private BookingArchiver archiver;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ArchivedBookingRepository archiveRepository;
+    @Autowired
+    private RoomNightClaimRepository claimRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Test
+    void oldStaysMoveToTheArchiveAndStayInTheUsersHistory() {
+        Room room = roomRepository.save(roomEntity("ARCHIVE-1"));
+        User user = userRepository.save(client("Frequent Guest", "frequent-guest@hotel.com"));
+
+        //Booking rejects past dates, so stays are made in the future and moved back afterwards
+        LocalDate today = LocalDate.now();
+        List<BookingResponse> old = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            LocalDate checkIn = today.plusDays(100 + i * 10L);
+            old.add(bookingService.createBooking(booking(room.getId(), user.getId(), checkIn, checkIn.plusDays(2))));
+            moveBack(old.get(i).getId(), 400);
+        }
+        bookingService.cancelBooking(old.get(1).getId());
+        BookingResponse recent = bookingService.createBooking(booking(room.getId(), user.getId(), today.plusDays(390), today.plusDays(392)));
+        moveBack(recent.getId(), 400);
+        BookingResponse upcoming = bookingService.createBooking(booking(room.getId(), user.getId(), today.plusDays(5), today.plusDays(7)));
+
+        //three batches of at most two
+        assertEquals(5, archiver.archiveCheckedOutBefore(today.minusDays(90)));
+        assertEquals(0, archiver.archiveCheckedOutBefore(today.minusDays(90)));
+
+        assertEquals(List.of(recent.getId(), upcoming.getId()),
+                bookingRepository.findAll().stream().map(Booking::getId).sorted().toList());
+        assertEquals(5, archiveRepository.count());
+        assertEquals(4, claimRepository.countByRoomId(room.getId()));
+        assertEquals(BookingStatus.CANCELLED, archiveRepository.findById(old.get(1).getId()).orElseThrow().getStatus());
+        assertEquals("ARCHIVE-1", bookingService.getBookingById(old.get(0).getId()).getRoomNumber());
+
+        //newest stay first across both tables
+        BookingPage first = bookingService.getUserHistory(user.getId(), null, 4);
+        assertEquals(List.of(upcoming.getId(), recent.getId(), old.get(4).getId(), old.get(3).getId()), ids(first));
+        assertEquals("Frequent Guest", first.getItems().get(2).getUserFullName());
+        BookingPage second = bookingService.getUserHistory(user.getId(), first.getNextCursor(), 4);
+        assertEquals(List.of(old.get(2).getId(), old.get(1).getId(), old.get(0).getId()), ids(second));
+        assertNull(second.getNextCursor());
+    }
+
+    private void moveBack(Long bookingId, int days) {
+        jdbc.update("update bookings set check_in = dateadd(day, ?, check_in), check_out = dateadd(day, ?, check_out) where id = ?",
+                -days, -days, bookingId);
+        jdbc.update("update room_night_claims set night = dateadd(day, ?, night) where booking_id = ?", -days, bookingId);
+    }
+
+    private static List<Long> ids(BookingPage page) {
+        return page.getItems().stream().map(BookingResponse::getId).toList();
+    }
+}
@@ -0,0 +1,259 @@
+package com.meti.roombooking.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.dto.auth.LoginRequest;
+import com.meti.roombooking.dto.auth.UserRegistrationRequest;
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.Role;
+import com.meti.roombooking.entity.User;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import com.meti.roombooking.service.UserService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.Optional;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static com.meti.roombooking.TestFixtures.suffix;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class SessionAuthenticationTest {
+
+    private static final String SECRET = Base64.getEncoder().encodeToString(new byte[32]);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private PasswordHasher passwordHasher;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void loginTokenAuthenticatesBookingsAndKeepsClientsOutOfAdminRoutes() throws Exception {
+        String email = "auth-" + suffix() + "@hotel.com";
+        UserRegistrationRequest registration = new UserRegistrationRequest();
+        registration.setFullName("Token Holder");
+        registration.setEmail(email);
+        registration.setPassword("secret123");
+        userService.register(registration);
+        assertTrue(userRepository.findByEmail(email).orElseThrow().getPassword().startsWith("pbkdf2$"));
+        assertEquals("Email is already in use",
+                assertThrows(IllegalArgumentException.class, () -> userService.register(registration)).getMessage());
+
+        JsonNode login = objectMapper.readTree(mockMvc.perform(post("/api/auth/login")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"email\":\"" + email + "\",\"password\":\"secret123\"}"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString());
+        String bearer = "Bearer " + login.path("token").asText();
+        long userId = login.path("user").path("id").asLong();
+
+        RoomResponse room = roomService.createRoom(room("AUTH-1-" + suffix()));
+        LocalDate checkIn = LocalDate.now().plusDays(4);
+        String booking = "{\"roomId\":" + room.getId() + ",\"checkIn\":\"" + checkIn + "\",\"checkOut\":\"" + checkIn.plusDays(2) + "\"}";
+
+        mockMvc.perform(post("/api/bookings").contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/api/bookings").header(HttpHeaders.AUTHORIZATION, bearer + "x")
+                        .contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isUnauthorized());
+        //the user id comes from the token
+        mockMvc.perform(post("/api/bookings").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(userId))
+                .andExpect(jsonPath("$.userFullName").value("Token Holder"));
+
+        mockMvc.perform(get("/api/bookings/user/" + (userId + 1000)).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/rooms/cache").header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/admin/rooms/cache"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void encodedAndParameterisedAdminPathsNeedAnAdminToken() throws Exception {
+        String room = objectMapper.writeValueAsString(room("AUTH-3-" + suffix()));
+        for (String path : new String[]{"/api/%61dmin/rooms", "/api/admin;x=1/rooms", "/api//admin/rooms"}) {
+            mockMvc.perform(post(URI.create(path)).contentType(MediaType.APPLICATION_JSON).content(room))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(get(URI.create("/api/adm%69n/price-rules")))
+                .andExpect(status().isUnauthorized());
+        assertTrue(roomService.getAllRooms().stream().noneMatch(r -> r.getRoomNumber().startsWith("AUTH-3")));
+    }
+
+    @Test
+    void authenticatedBookingReadsNoUserRow() {
+        User user = userRepository.save(client("Cached Principal", "principal-" + suffix() + "@hotel.com"));
+        RoomResponse room = roomService.createRoom(room("AUTH-2-" + suffix()));
+        BookingRequest request = booking(room.getId(), user.getId(), LocalDate.now().plusDays(6), LocalDate.now().plusDays(8));
+
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        CurrentUser.set(new AuthenticatedUser(user.getId(), Role.CLIENT, user.getFullName(), Long.MAX_VALUE));
+        BookingResponse booking;
+        try {
+            booking = bookingService.createBooking(request);
+        } finally {
+            CurrentUser.clear();
+        }
+
+        assertEquals("Cached Principal", booking.getUserFullName());
+        assertEquals(0, statistics.getEntityStatistics(User.class.getName()).getLoadCount());
+    }
+
+    @Test
+    void tokensAreVerifiedBySignatureAndExpiry() {
+        MutableClock clock = new MutableClock(Instant.parse("2030-01-01T00:00:00Z"));
+        SessionTokens tokens = new SessionTokens(objectMapper, new SimpleMeterRegistry(), SECRET,
+                Duration.ofHours(1), 100, clock);
+        User user = User.builder().id(7L).fullName("Signed").role(Role.ADMIN).build();
+        String token = tokens.issue(user);
+
+        Optional<AuthenticatedUser> verified = tokens.verify(token);
+        assertTrue(verified.isPresent());
+        assertEquals(7L, verified.get().userId());
+        assertTrue(verified.get().isAdmin());
+
+        //same secret, fresh cache: the signature alone verifies it
+        SessionTokens otherNode = new SessionTokens(objectMapper, new SimpleMeterRegistry(), SECRET,
+                Duration.ofHours(1), 100, clock);
+        assertTrue(otherNode.verify(token).isPresent());
+
+        String[] parts = token.split("\\.");
+        String forgedClaims = Base64.getUrlEncoder().withoutPadding().encodeToString(
+                "{\"sub\":\"8\",\"role\":\"ADMIN\",\"name\":\"x\",\"exp\":9999999999}".getBytes());
+        assertTrue(otherNode.verify(parts[0] + "." + forgedClaims + "." + parts[2]).isEmpty());
+        String unsigned = Base64.getUrlEncoder().withoutPadding().encodeToString("{\"alg\":\"none\"}".getBytes());
+        assertTrue(otherNode.verify(unsigned + "." + parts[1] + ".").isEmpty());
+
+        clock.advance(Duration.ofHours(2));
+        assertTrue(tokens.verify(token).isEmpty());
+        assertTrue(otherNode.verify(token).isEmpty());
+    }
+
+    @Test
+    void passwordChecksUpgradePlainTextAndAreCachedAfterSuccess() {
+        String hash = passwordHasher.hash("secret123");
+        assertTrue(passwordHasher.matches("secret123", hash));
+        assertFalse(passwordHasher.matches("secret124", hash));
+        assertFalse(passwordHasher.needsRehash(hash));
+
+        //rows written before hashing
+        assertTrue(passwordHasher.matches("legacy", "legacy"));
+        assertTrue(passwordHasher.needsRehash("legacy"));
+
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        PasswordHasher hasher = new PasswordHasher(1000, 100, Duration.ofMinutes(5), registry);
+        String stored = hasher.hash("pw");
+        hasher.matches("pw", stored);
+        hasher.matches("pw", stored);
+        hasher.matches("wrong", stored);
+        hasher.matches("wrong", stored);
+        //one to hash, one for the first successful check, one per failed attempt
+        assertEquals(4, registry.get("booking.auth.password.derivations").counter().count());
+    }
+
+    @Test
+    void signInUpgradesLegacyRowsAndHashesForUnknownEmailsToo() {
+        String email = "legacy-" + suffix() + "@hotel.com";
+        userRepository.save(User.builder()
+                .fullName("Legacy Row")
+                .email(email)
+                .password("plain-secret")
+                .role(Role.CLIENT)
+                .build());
+
+        assertNotNull(userService.login(login(email, "plain-secret")).getToken());
+        String upgraded = userRepository.findByEmail(email).orElseThrow().getPassword();
+        assertTrue(upgraded.startsWith("pbkdf2$"));
+        assertTrue(passwordHasher.matches("plain-secret", upgraded));
+
+        Counter derivations = meterRegistry.get("booking.auth.password.derivations").counter();
+        double before = derivations.count();
+        assertThrows(IllegalArgumentException.class, () -> userService.login(login("nobody-" + email, "plain-secret")));
+        assertEquals(before + 1, derivations.count());
+    }
+
+    private static LoginRequest login(String email, String password) {
+        LoginRequest request = new LoginRequest();
+        request.setEmail(email);
+        request.setPassword(password);
+        return request;
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
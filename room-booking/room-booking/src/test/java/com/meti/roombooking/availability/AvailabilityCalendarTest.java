@@ -0,0 +1,103 @@
+package com.meti.roombooking.availability;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.dto.room.DateWindow;
+import com.meti.roombooking.dto.room.RoomAvailabilityCalendar;
+import com.meti.roombooking.dto.room.RoomFreeNights;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.*;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import java.time.LocalDate;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AvailabilityCalendarTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void pollingGetsNotModifiedThenOnlyTheChangedRoom() throws Exception {
+        RoomResponse room = roomService.createRoom(room("CAL-1"));
+        roomService.createRoom(room("CAL-2"));
+        LocalDate from = LocalDate.now().plusDays(1);
+        LocalDate to = from.plusDays(30);
+
+        MvcResult first = mockMvc.perform(calendar(from, to, null)).andExpect(status().isOk()).andReturn();
+        RoomAvailabilityCalendar full = read(first);
+        String etag = first.getResponse().getHeader(HttpHeaders.ETAG);
+        assertTrue(full.isFull());
+        assertEquals(30, freeNightsOf(full, room.getId()));
+
+        mockMvc.perform(calendar(from, to, null).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        User user = userRepository.save(client("Calendar Tester", "calendar@hotel.com"));
+        bookingService.createBooking(booking(room.getId(), user.getId(), from.plusDays(5), from.plusDays(8)));
+
+        mockMvc.perform(calendar(from, to, null).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk());
+
+        RoomAvailabilityCalendar delta = read(mockMvc.perform(calendar(from, to, full.getVersion()))
+                .andExpect(status().isOk()).andReturn());
+        assertFalse(delta.isFull());
+        assertEquals(1, delta.getRooms().size());
+        assertEquals(27, freeNightsOf(delta, room.getId()));
+        assertEquals(2, delta.getRooms().get(0).getFree().size());
+
+        //a change outside the requested range does not show up in its delta
+        RoomAvailabilityCalendar later = read(mockMvc.perform(calendar(to.plusDays(10), to.plusDays(20), delta.getVersion()))
+                .andExpect(status().isOk()).andReturn());
+        assertTrue(later.getRooms().isEmpty());
+
+        //tokens from another process lifetime fall back to the full calendar
+        assertTrue(read(mockMvc.perform(calendar(from, to, "stale-1")).andReturn()).isFull());
+    }
+
+    private MockHttpServletRequestBuilder calendar(LocalDate from, LocalDate to, String since) {
+        MockHttpServletRequestBuilder request = get("/api/rooms/availability")
+                .param("from", from.toString())
+                .param("to", to.toString());
+        return since == null ? request : request.param("since", since);
+    }
+
+    private RoomAvailabilityCalendar read(MvcResult result) throws Exception {
+        return objectMapper.readValue(result.getResponse().getContentAsString(), RoomAvailabilityCalendar.class);
+    }
+
+    private static int freeNightsOf(RoomAvailabilityCalendar calendar, Long roomId) {
+        return calendar.getRooms().stream()
+                .filter(nights -> nights.getRoomId().equals(roomId))
+                .map(RoomFreeNights::getFree)
+                .findFirst().orElseThrow()
+                .stream().mapToInt(DateWindow::getNights).sum();
+    }
+}
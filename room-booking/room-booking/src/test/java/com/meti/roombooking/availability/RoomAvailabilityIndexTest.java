@@ -0,0 +1,172 @@
+package com.meti.roombooking.availability;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomAvailabilityCalendar;
+import com.meti.roombooking.dto.room.RoomFreeNights;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.*;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomAvailabilityIndexTest {
+
+    @Autowired
+    private RoomAvailabilityIndex availabilityIndex;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Value("${booking.availability.horizon-days:400}")
+    private int horizonDays;
+
+    @Test
+    void bitHelpersMatchABitSet() {
+        Random random = new Random(42);
+        long[] bits = new long[4];
+        BitSet expected = new BitSet(256);
+        for (int round = 0; round < 2000; round++) {
+            int from = random.nextInt(257);
+            int to = from + random.nextInt(257 - from);
+            boolean value = random.nextBoolean();
+            RoomAvailabilityIndex.setBits(bits, from, to, value);
+            expected.set(from, to, value);
+
+            int qFrom = random.nextInt(257);
+            int qTo = qFrom + random.nextInt(257 - qFrom);
+            assertEquals(expected.get(qFrom, qTo).isEmpty(), RoomAvailabilityIndex.isClear(bits, qFrom, qTo),
+                    "isClear [" + qFrom + ", " + qTo + ")");
+            int set = expected.nextSetBit(qFrom);
+            assertEquals(set < 0 || set >= qTo ? qTo : set, RoomAvailabilityIndex.nextSet(bits, qFrom, qTo));
+            assertEquals(Math.min(qTo, expected.nextClearBit(qFrom)), RoomAvailabilityIndex.nextClear(bits, qFrom, qTo));
+        }
+    }
+
+    @Test
+    void wordBoundariesTouchOnlyTheirOwnNights() {
+        long[] bits = new long[3];
+        RoomAvailabilityIndex.setBits(bits, 63, 65, true);
+        assertEquals(1L << 63, bits[0]);
+        assertEquals(1L, bits[1]);
+        assertTrue(RoomAvailabilityIndex.isClear(bits, 0, 63));
+        assertTrue(RoomAvailabilityIndex.isClear(bits, 65, 192));
+        assertFalse(RoomAvailabilityIndex.isClear(bits, 64, 65));
+        assertEquals(63, RoomAvailabilityIndex.nextSet(bits, 0, 192));
+        assertEquals(65, RoomAvailabilityIndex.nextClear(bits, 63, 192));
+
+        RoomAvailabilityIndex.setBits(bits, 0, 192, true);
+        RoomAvailabilityIndex.setBits(bits, 64, 128, false);
+        assertEquals(-1L, bits[0]);
+        assertEquals(0L, bits[1]);
+        assertEquals(-1L, bits[2]);
+        assertEquals(128, RoomAvailabilityIndex.nextSet(bits, 64, 192));
+    }
+
+    //stays straddle the 64-night word boundaries and reach the last night of the horizon
+    @Test
+    void searchesMatchTheDatabaseThroughCancelAndRebook() {
+        LocalDate today = LocalDate.now();
+        RoomResponse first = roomService.createRoom(room("IDX-1"));
+        RoomResponse second = roomService.createRoom(room("IDX-2"));
+        Set<Long> ours = Set.of(first.getId(), second.getId());
+        User user = userRepository.save(client("Index Tester", "availability-index@hotel.com"));
+
+        BookingResponse straddling = bookingService.createBooking(booking(first.getId(), user.getId(), today.plusDays(62), today.plusDays(66)));
+        bookingService.createBooking(booking(second.getId(), user.getId(), today.plusDays(127), today.plusDays(129)));
+        bookingService.createBooking(booking(second.getId(), user.getId(), today.plusDays(horizonDays - 2), today.plusDays(horizonDays)));
+        assertMatchesDatabase(today, ours);
+
+        //past the last night the index cannot answer and the database does
+        assertTrue(availabilityIndex.findAvailableRooms(today.plusDays(horizonDays - 1), today.plusDays(horizonDays + 1), null, null).isEmpty());
+        assertTrue(availabilityIndex.findAvailableRooms(today.plusDays(horizonDays - 1), today.plusDays(horizonDays), null, null).isPresent());
+
+        bookingService.cancelBooking(straddling.getId());
+        assertMatchesDatabase(today, ours);
+        bookingService.createBooking(booking(first.getId(), user.getId(), today.plusDays(64), today.plusDays(65)));
+        assertMatchesDatabase(today, ours);
+        assertEquals(Set.of(second.getId()), available(today.plusDays(64), today.plusDays(65), ours));
+        assertEquals(ours, available(today.plusDays(63), today.plusDays(64), ours));
+    }
+
+    @Test
+    void deltasFallBackToFullOnceTheChangeLogOverflowsOrTheIndexRebuilds() {
+        LocalDate today = LocalDate.now();
+        RoomResponse room = roomService.createRoom(room("IDX-LOG"));
+        RoomAvailabilityIndex index = new RoomAvailabilityIndex(roomRepository, bookingRepository, horizonDays, 2);
+        index.rebuild();
+        String start = index.versionToken();
+
+        index.onBookingChanged(occupied(room, today.plusDays(10), today.plusDays(12)));
+        RoomAvailabilityCalendar delta = calendarSince(index, today, start);
+        assertFalse(delta.isFull());
+        assertEquals(List.of(room.getId()), delta.getRooms().stream().map(RoomFreeNights::getRoomId).toList());
+
+        index.onBookingChanged(occupied(room, today.plusDays(20), today.plusDays(22)));
+        index.onBookingChanged(occupied(room, today.plusDays(30), today.plusDays(32)));
+        //only the last two changes are kept: the first token is too old for a delta
+        assertTrue(calendarSince(index, today, start).isFull());
+
+        String beforeRebuild = index.versionToken();
+        assertFalse(calendarSince(index, today, beforeRebuild).isFull());
+        index.rebuild();
+        assertTrue(calendarSince(index, today, beforeRebuild).isFull());
+    }
+
+    private void assertMatchesDatabase(LocalDate today, Set<Long> ours) {
+        int[][] ranges = {{0, horizonDays}, {60, 62}, {61, 63}, {62, 64}, {63, 64}, {63, 65}, {64, 65}, {65, 66},
+                {65, 67}, {66, 70}, {126, 127}, {127, 128}, {127, 129}, {128, 129}, {129, 130},
+                {horizonDays - 3, horizonDays - 2}, {horizonDays - 2, horizonDays - 1}, {horizonDays - 1, horizonDays}};
+        for (int[] range : ranges) {
+            LocalDate checkIn = today.plusDays(range[0]);
+            LocalDate checkOut = today.plusDays(range[1]);
+            Set<Long> fromDatabase = roomRepository.findAvailableRooms(checkIn, checkOut, null, null).stream()
+                    .map(Room::getId)
+                    .filter(ours::contains)
+                    .collect(Collectors.toSet());
+            assertEquals(fromDatabase, available(checkIn, checkOut, ours), "nights " + range[0] + " to " + range[1]);
+        }
+    }
+
+    private Set<Long> available(LocalDate checkIn, LocalDate checkOut, Set<Long> ours) {
+        return availabilityIndex.findAvailableRooms(checkIn, checkOut, null, null).orElseThrow().stream()
+                .map(RoomResponse::getId)
+                .filter(ours::contains)
+                .collect(Collectors.toSet());
+    }
+
+    private static RoomAvailabilityCalendar calendarSince(RoomAvailabilityIndex index, LocalDate today, String since) {
+        return index.calendar(today, today.plusDays(60), since, id -> true).orElseThrow();
+    }
+
+    private static BookingChangedEvent occupied(RoomResponse room, LocalDate checkIn, LocalDate checkOut) {
+        return new BookingChangedEvent(null, room.getId(), checkIn, checkOut, null, BookingStatus.PENDING);
+    }
+}
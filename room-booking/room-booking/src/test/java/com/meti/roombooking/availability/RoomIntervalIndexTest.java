@@ -0,0 +1,88 @@
+package com.meti.roombooking.availability;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.entity.User;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static com.meti.roombooking.TestFixtures.suffix;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomIntervalIndexTest {
+
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ObjectProvider<RoomOwnership> ownership;
+
+    //the booking commits and publishes its event while the build waits on the database, so the
+    //build both reads the stay and replays the event for it
+    @Test
+    void bookingCommittedDuringTheBuildIsAppliedOnce() throws Exception {
+        String suffix = suffix();
+        RoomResponse room = roomService.createRoom(room("IVL-" + suffix));
+        User user = userRepository.save(client("Interval Tester", "interval-" + suffix + "@hotel.com"));
+        LocalDate checkIn = LocalDate.now().plusDays(20);
+
+        BookingRepository interleaved = mock(BookingRepository.class, delegatesTo(bookingRepository));
+        RoomIntervalIndex index = new RoomIntervalIndex(interleaved, ownership);
+        ExecutorService otherClient = Executors.newSingleThreadExecutor();
+        doAnswer(call -> {
+            otherClient.submit(() -> {
+                BookingResponse booking = bookingService.createBooking(
+                        booking(room.getId(), user.getId(), checkIn, checkIn.plusDays(3)));
+                index.onBookingChanged(created(booking));
+            }).get();
+            return bookingRepository.findActiveStaysEndingAfter(call.getArgument(0), call.getArgument(1));
+        }).when(interleaved).findActiveStaysEndingAfter(any(), any());
+        try {
+            index.build();
+        } finally {
+            otherClient.shutdown();
+        }
+
+        RoomIntervals intervals = index.intervals(room.getId(), LocalDate.now()).orElseThrow();
+        assertTrue(intervals.overlaps(checkIn.plusDays(1), checkIn.plusDays(2)));
+        assertFalse(intervals.overlaps(checkIn.plusDays(3), checkIn.plusDays(5)));
+
+        //a different stay over the same nights is still a real overlap
+        index.onBookingChanged(new BookingChangedEvent(-1L, room.getId(), checkIn.plusDays(1), checkIn.plusDays(4),
+                null, BookingStatus.PENDING));
+        assertTrue(index.intervals(room.getId(), LocalDate.now()).isEmpty());
+    }
+
+    private static BookingChangedEvent created(BookingResponse booking) {
+        return new BookingChangedEvent(booking.getId(), booking.getRoomId(), booking.getCheckIn(), booking.getCheckOut(),
+                null, booking.getStatus());
+    }
+}
@@ -0,0 +1,86 @@
+package com.meti.roombooking.availability;
+
+import com.meti.roombooking.dto.room.DateWindow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoomIntervalsTest {
+
+    private static final LocalDate D = LocalDate.of(2030, 1, 1);
+
+    private RoomIntervals intervals;
+
+    //stays: [D+2, D+5) and [D+5, D+7) back to back, then [D+10, D+12)
+    @BeforeEach
+    void setUp() {
+        intervals = new RoomIntervals();
+        assertTrue(intervals.add(day(2), day(5)));
+        assertTrue(intervals.add(day(5), day(7)));
+        assertTrue(intervals.add(day(10), day(12)));
+    }
+
+    @Test
+    void overlapIsHalfOpen() {
+        assertFalse(intervals.overlaps(day(0), day(2)));
+        assertTrue(intervals.overlaps(day(1), day(3)));
+        assertTrue(intervals.overlaps(day(6), day(8)));
+        assertFalse(intervals.overlaps(day(7), day(10)));
+        assertTrue(intervals.overlaps(day(0), day(20)));
+        assertFalse(intervals.overlaps(day(12), day(13)));
+    }
+
+    @Test
+    void overlappingStayIsNotStored() {
+        assertFalse(intervals.add(day(4), day(6)));
+        assertFalse(intervals.overlaps(day(7), day(10)));
+    }
+
+    @Test
+    void removedStayFreesItsNights() {
+        intervals.remove(day(5), day(7));
+        assertFalse(intervals.overlaps(day(5), day(10)));
+        //a remove that does not match a stored stay is ignored
+        intervals.remove(day(2), day(4));
+        assertTrue(intervals.overlaps(day(2), day(3)));
+    }
+
+    @Test
+    void gapsCoverTheFreeNightsOfTheRange() {
+        assertEquals(List.of(window(0, 2), window(7, 10), window(12, 15)), intervals.gaps(day(0), day(15)));
+        //range starting inside a stay
+        assertEquals(List.of(window(7, 9)), intervals.gaps(day(3), day(9)));
+        assertEquals(List.of(), intervals.gaps(day(10), day(12)));
+    }
+
+    @Test
+    void nextFreeWindowSkipsTooShortGaps() {
+        assertEquals(window(0, 2), intervals.nextFreeWindow(day(0), 2));
+        assertEquals(window(7, 10), intervals.nextFreeWindow(day(0), 3));
+        assertEquals(window(12, 16), intervals.nextFreeWindow(day(3), 4));
+        assertEquals(window(7, 8), intervals.nextFreeWindow(day(6), 1));
+    }
+
+    @Test
+    void legacyOverlapsAreMergedForQueries() {
+        RoomIntervals merged = RoomIntervals.of(List.of(
+                new RoomStay(1L, day(3), day(6)),
+                new RoomStay(1L, day(1), day(4)),
+                new RoomStay(1L, day(8), day(9))));
+        assertEquals(List.of(window(0, 1), window(6, 8), window(9, 10)), merged.gaps(day(0), day(10)));
+    }
+
+    private static LocalDate day(int offset) {
+        return D.plusDays(offset);
+    }
+
+    private static DateWindow window(int from, int to) {
+        return DateWindow.builder().checkIn(day(from)).checkOut(day(to)).nights(to - from).build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.meti.roombooking.cache;
+
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.RoomStatus;
+import com.meti.roombooking.event.RoomChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RoomCatalogueCacheTest {
+
+    private RoomCatalogueCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new RoomCatalogueCache(100, Duration.ofMinutes(10));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void hitsSkipTheLoaderAndFailedLoadsAreNotCached() {
+        RoomResponse room = room(1L, RoomStatus.AVAILABLE, 0L);
+        assertSame(room, cache.getRoom(1L, id -> counted(room)));
+        assertSame(room, cache.getRoom(1L, id -> counted(room(1L, RoomStatus.AVAILABLE, 1L))));
+        assertEquals(1, loads.get());
+
+        assertThrows(IllegalArgumentException.class, () -> cache.getRoom(2L, id -> {
+            throw new IllegalArgumentException("Room not found");
+        }));
+        assertEquals(0L, cache.getRoom(2L, id -> counted(room(2L, RoomStatus.AVAILABLE, 0L))).getVersion());
+        assertEquals(2, loads.get());
+    }
+
+    //the commit lands after the loader read the old row but before the read is cached
+    @Test
+    void loadRacingACommitIsNotKept() {
+        RoomResponse before = room(1L, RoomStatus.AVAILABLE, 0L);
+        RoomResponse after = room(1L, RoomStatus.MAINTENANCE, 1L);
+
+        RoomResponse raced = cache.getRoom(1L, id -> {
+            cache.onRoomChanged(new RoomChangedEvent(1L, before, after));
+            return counted(before);
+        });
+        //the caller still gets what it read, but the next one reloads
+        assertSame(before, raced);
+        assertSame(after, cache.getRoom(1L, id -> counted(after)));
+        assertSame(after, cache.getRoom(1L, id -> counted(before)));
+        assertEquals(2, loads.get());
+
+        //any commit counts, even one of another room: dropping a good read only costs a reload
+        List<RoomResponse> all = cache.getAllRooms(() -> {
+            cache.onRoomChanged(new RoomChangedEvent(2L, null, room(2L, RoomStatus.AVAILABLE, 0L)));
+            return counted(List.of(after));
+        });
+        assertEquals(List.of(after), all);
+        cache.getAllRooms(() -> counted(List.of(after)));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void statusChangeInvalidatesTheListsOfBothStatuses() {
+        RoomResponse available = room(1L, RoomStatus.AVAILABLE, 0L);
+        RoomResponse maintenance = room(1L, RoomStatus.MAINTENANCE, 1L);
+        RoomResponse occupied = room(2L, RoomStatus.OCCUPIED, 0L);
+        warm(available, occupied);
+        assertEquals(6, loads.get());
+
+        cache.onRoomChanged(new RoomChangedEvent(1L, available, maintenance));
+
+        //reloaded: the room itself, the full list and the lists it left and joined
+        assertSame(maintenance, cache.getRoom(1L, id -> counted(maintenance)));
+        assertEquals(List.of(maintenance, occupied), cache.getAllRooms(() -> counted(List.of(maintenance, occupied))));
+        assertEquals(List.of(), cache.getRoomsByStatus(RoomStatus.AVAILABLE, () -> counted(List.of())));
+        assertEquals(List.of(maintenance),
+                cache.getRoomsByStatus(RoomStatus.MAINTENANCE, () -> counted(List.of(maintenance))));
+        assertEquals(10, loads.get());
+
+        //untouched: the other room and the list of a status not involved
+        assertSame(occupied, cache.getRoom(2L, id -> counted(occupied)));
+        assertEquals(List.of(occupied), cache.getRoomsByStatus(RoomStatus.OCCUPIED, () -> counted(List.of())));
+        assertEquals(10, loads.get());
+    }
+
+    @Test
+    void createdAndDeletedRoomsInvalidateTheirStatusList() {
+        RoomResponse available = room(1L, RoomStatus.AVAILABLE, 0L);
+        RoomResponse occupied = room(2L, RoomStatus.OCCUPIED, 0L);
+        warm(available, occupied);
+
+        cache.onRoomChanged(new RoomChangedEvent(1L, available, null));
+        assertEquals(List.of(), cache.getRoomsByStatus(RoomStatus.AVAILABLE, () -> counted(List.of())));
+        RoomResponse created = room(3L, RoomStatus.OCCUPIED, 0L);
+        cache.onRoomChanged(new RoomChangedEvent(3L, null, created));
+        assertEquals(List.of(occupied, created),
+                cache.getRoomsByStatus(RoomStatus.OCCUPIED, () -> counted(List.of(occupied, created))));
+        assertEquals(8, loads.get());
+    }
+
+    //caches both rooms, the full list and the AVAILABLE, MAINTENANCE and OCCUPIED lists
+    private void warm(RoomResponse available, RoomResponse occupied) {
+        cache.getRoom(available.getId(), id -> counted(available));
+        cache.getRoom(occupied.getId(), id -> counted(occupied));
+        cache.getAllRooms(() -> counted(List.of(available, occupied)));
+        cache.getRoomsByStatus(RoomStatus.AVAILABLE, () -> counted(List.of(available)));
+        cache.getRoomsByStatus(RoomStatus.MAINTENANCE, () -> counted(List.of()));
+        cache.getRoomsByStatus(RoomStatus.OCCUPIED, () -> counted(List.of(occupied)));
+    }
+
+    private <T> T counted(T value) {
+        loads.incrementAndGet();
+        return value;
+    }
+
+    private static RoomResponse room(Long id, RoomStatus status, Long version) {
+        return RoomResponse.builder()
+                .id(id)
+                .roomNumber("R" + id)
+                .status(status)
+                .version(version)
+                .build();
+    }
+}
@@ -0,0 +1,287 @@
+package com.meti.roombooking.cluster;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.auth.SessionTokens;
+import com.meti.roombooking.dto.booking.BatchMode;
+import com.meti.roombooking.dto.booking.BookingBatchResponse;
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomRequest;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.*;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.event.RoomChangedEvent;
+import com.meti.roombooking.exception.BookingConflictException;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = {
+        "booking.cluster.enabled=true",
+        "booking.cluster.membership=in-process",
+        "booking.cluster.self=node-a",
+        "booking.cluster.self-url=http://localhost:8081",
+        "booking.cluster.secret=" + ClusterRoutingTest.SECRET,
+        "spring.datasource.url=jdbc:h2:mem:cluster-test;DB_CLOSE_DELAY=-1"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ClusterRoutingTest {
+
+    static final String SECRET = "cluster-test-secret-0123456789abcdef";
+    private static final ClusterNode NODE_B = new ClusterNode("node-b", "http://localhost:8082");
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private ClusterMembership membership;
+    @Autowired
+    private RoomPartitioner partitioner;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private BookingChangeRelay bookingChangeRelay;
+    @Autowired
+    private PeerDelivery peerDelivery;
+
+    @Autowired
+    private SessionTokens sessionTokens;
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockitoBean
+    private ClusterPeerClient peers;
+
+    @AfterEach
+    void leaveNodeB() throws InterruptedException {
+        peerDelivery.awaitIdle();
+        ((InProcessClusterMembership) membership).leave(NODE_B.id());
+    }
+
+    @Test
+    void admissionRunsOnTheRoomOwner() throws InterruptedException {
+        ((InProcessClusterMembership) membership).join(NODE_B);
+        Room ownedByA = roomOwnedBy(partitioner.self(), "A");
+        Room ownedByB = roomOwnedBy(NODE_B, "B");
+        User user = userRepository.save(client("Cluster Tester", "cluster-owner@hotel.com"));
+        LocalDate checkIn = LocalDate.now().plusDays(2);
+
+        //stubbed once the room changes have reached the mock and before the local booking is
+        //relayed to node-b's feed: a call on the mock from a sender thread while it is being
+        //stubbed would take the stubbing
+        peerDelivery.awaitIdle();
+        BookingRequest forwarded = booking(ownedByB.getId(), user.getId(), checkIn, checkIn.plusDays(2));
+        BookingResponse remote = BookingResponse.builder().id(-1L).roomId(ownedByB.getId()).build();
+        when(peers.createBooking(NODE_B, forwarded, null)).thenReturn(remote);
+
+        BookingResponse local = bookingService.createBooking(booking(ownedByA.getId(), user.getId(), checkIn, checkIn.plusDays(2)));
+        assertNotNull(local.getId());
+        assertSame(remote, bookingService.createBooking(forwarded));
+        assertTrue(bookingRepository.findByRoom(ownedByB).isEmpty());
+
+        //node-b leaves: its rooms fall back to the remaining node
+        ((InProcessClusterMembership) membership).leave(NODE_B.id());
+        assertTrue(partitioner.ownsRoom(ownedByB.getId()));
+        bookingService.createBooking(booking(ownedByB.getId(), user.getId(), checkIn, checkIn.plusDays(2)));
+        assertEquals(1, bookingRepository.findByRoom(ownedByB).size());
+        verify(peers, times(1)).createBooking(any(), any(), any());
+    }
+
+    @Test
+    void batchBookedOnANonOwnerIsHandedToTheOwnersIndexes() {
+        ((InProcessClusterMembership) membership).join(NODE_B);
+        Room ownedByA = roomOwnedBy(partitioner.self(), "BA");
+        Room ownedByB = roomOwnedBy(NODE_B, "BB");
+        User user = userRepository.save(client("Cluster Tester", "cluster-batch@hotel.com"));
+        LocalDate checkIn = LocalDate.now().plusDays(20);
+
+        BookingBatchResponse batch = bookingService.createBookings(List.of(
+                booking(ownedByA.getId(), user.getId(), checkIn, checkIn.plusDays(2)),
+                booking(ownedByB.getId(), user.getId(), checkIn, checkIn.plusDays(2))), BatchMode.ALL_OR_NOTHING);
+
+        assertEquals(2, batch.getCreated());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<BookingChangedEvent>> relayed = ArgumentCaptor.forClass(List.class);
+        verify(peers).bookingsChanged(eq(NODE_B), relayed.capture());
+        BookingChangedEvent event = relayed.getValue().get(0);
+        assertEquals(1, relayed.getValue().size());
+        assertEquals(ownedByB.getId(), event.roomId());
+        assertEquals(batch.getResults().get(1).getBooking().getId(), event.bookingId());
+        assertTrue(event.isActive());
+    }
+
+    @Test
+    void relayedBookingsBlockTheOwnersSearchAndAdmission() {
+        Room room = roomOwnedBy(partitioner.self(), "RA");
+        User user = userRepository.save(client("Cluster Tester", "cluster-relayed@hotel.com"));
+        LocalDate checkIn = LocalDate.now().plusDays(30);
+        assertTrue(availableIds(checkIn).contains(room.getId()));
+
+        //what node-b sends after its batch booked this room; no row backs it in this test,
+        //so only the relayed change can make this node reject the overlap
+        bookingChangeRelay.applyRemote(List.of(new BookingChangedEvent(-7L, room.getId(),
+                checkIn, checkIn.plusDays(3), null, BookingStatus.PENDING)));
+
+        assertFalse(availableIds(checkIn).contains(room.getId()));
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.createBooking(booking(room.getId(), user.getId(), checkIn.plusDays(1), checkIn.plusDays(2))));
+        assertTrue(bookingRepository.findByRoom(room).isEmpty());
+    }
+
+    @Test
+    void searchGathersEveryPartition() throws InterruptedException {
+        ((InProcessClusterMembership) membership).join(NODE_B);
+        Room ownedByA = roomOwnedBy(partitioner.self(), "SA");
+        Room ownedByB = roomOwnedBy(NODE_B, "SB");
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        RoomResponse remote = RoomResponse.builder().id(ownedByB.getId()).roomNumber(ownedByB.getRoomNumber()).build();
+        peerDelivery.awaitIdle();
+        when(peers.findAvailableRooms(eq(NODE_B), eq(checkIn), eq(checkIn.plusDays(1)), any(), any()))
+                .thenReturn(List.of(remote));
+
+        List<Long> ids = roomService.findAvailableRooms(checkIn, checkIn.plusDays(1), null, null).stream()
+                .map(RoomResponse::getId)
+                .toList();
+
+        assertTrue(ids.contains(ownedByA.getId()));
+        assertEquals(1, ids.stream().filter(ownedByB.getId()::equals).count());
+        assertTrue(ids.stream().allMatch(id -> partitioner.ownsRoom(id) || id.equals(ownedByB.getId())));
+    }
+
+    @Test
+    void roomChangesReachAPeerInCommitOrder() throws InterruptedException {
+        ((InProcessClusterMembership) membership).join(NODE_B);
+        Room room = roomOwnedBy(NODE_B, "OR");
+        peerDelivery.awaitIdle();
+        //the first change is slow to deliver; the second must still arrive after it
+        AtomicBoolean first = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (first.getAndSet(false)) {
+                Thread.sleep(200);
+            }
+            return null;
+        }).when(peers).roomChanged(eq(NODE_B), any());
+
+        long version = room.getVersion();
+        for (String price : List.of("110.00", "120.00")) {
+            RoomRequest update = room(room.getRoomNumber(), RoomType.DOUBLE, 2, price);
+            update.setVersion(version);
+            version = roomService.updateRoom(room.getId(), update).getVersion();
+        }
+        peerDelivery.awaitIdle();
+
+        ArgumentCaptor<RoomChangedEvent> delivered = ArgumentCaptor.forClass(RoomChangedEvent.class);
+        verify(peers, atLeast(2)).roomChanged(eq(NODE_B), delivered.capture());
+        List<BigDecimal> prices = delivered.getAllValues().stream()
+                .filter(event -> room.getId().equals(event.roomId()) && event.before() != null)
+                .map(event -> event.after().getPricePerNight())
+                .toList();
+        assertEquals(List.of(new BigDecimal("110.00"), new BigDecimal("120.00")), prices);
+    }
+
+    @Test
+    void internalApiAdmitsClusterNodesActingForTheForwardedCaller() throws Exception {
+        Room room = roomOwnedBy(partitioner.self(), "IA");
+        User owner = userRepository.save(client("Cluster Tester", "cluster-caller@hotel.com"));
+        User other = userRepository.save(client("Cluster Tester", "cluster-other@hotel.com"));
+        LocalDate checkIn = LocalDate.now().plusDays(40);
+        String booking = objectMapper.writeValueAsString(booking(room.getId(), owner.getId(), checkIn, checkIn.plusDays(2)));
+        String ownerToken = "Bearer " + sessionTokens.issue(owner);
+
+        //from outside the cluster: no secret, or a wrong one, whatever token comes along
+        mockMvc.perform(post("/internal/cluster/bookings").header(HttpHeaders.AUTHORIZATION, ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/internal/cluster/bookings").header(ClusterSecretFilter.HEADER, SECRET + "x")
+                        .header(HttpHeaders.AUTHORIZATION, ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post(URI.create("/internal/%63luster/bookings/changed"))
+                        .contentType(MediaType.APPLICATION_JSON).content("[]"))
+                .andExpect(status().isUnauthorized());
+        assertTrue(bookingRepository.findByRoom(room).isEmpty());
+
+        //from a node: the forwarded caller must be allowed to book for the user
+        mockMvc.perform(post("/internal/cluster/bookings").header(ClusterSecretFilter.HEADER, SECRET)
+                        .contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/internal/cluster/bookings").header(ClusterSecretFilter.HEADER, SECRET)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sessionTokens.issue(other))
+                        .contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isForbidden());
+        String created = mockMvc.perform(post("/internal/cluster/bookings").header(ClusterSecretFilter.HEADER, SECRET)
+                        .header(HttpHeaders.AUTHORIZATION, ownerToken)
+                        .contentType(MediaType.APPLICATION_JSON).content(booking))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        long bookingId = objectMapper.readTree(created).path("id").asLong();
+
+        mockMvc.perform(post("/internal/cluster/bookings/" + bookingId + "/cancel").header(ClusterSecretFilter.HEADER, SECRET)
+                        .header(HttpHeaders.AUTHORIZATION, "Bearer " + sessionTokens.issue(other)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/internal/cluster/bookings/" + bookingId + "/status").param("status", "CONFIRMED")
+                        .header(ClusterSecretFilter.HEADER, SECRET)
+                        .header(HttpHeaders.AUTHORIZATION, ownerToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/internal/cluster/bookings/" + bookingId + "/cancel").header(ClusterSecretFilter.HEADER, SECRET)
+                        .header(HttpHeaders.AUTHORIZATION, ownerToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("CANCELLED"));
+    }
+
+    private List<Long> availableIds(LocalDate checkIn) {
+        return roomService.findAvailableRooms(checkIn, checkIn.plusDays(1), null, null).stream()
+                .map(RoomResponse::getId)
+                .toList();
+    }
+
+    //creates rooms until the partitioner hands one to the wanted node,
+    //through the service so the availability index hears about them
+    private Room roomOwnedBy(ClusterNode node, String prefix) {
+        for (int i = 0; i < 64; i++) {
+            Long roomId = roomService.createRoom(room("CL-" + prefix + "-" + i, RoomType.DOUBLE, 2, "100.00")).getId();
+            if (partitioner.ownerOf(roomId).equals(node)) {
+                return roomRepository.findById(roomId).orElseThrow();
+            }
+        }
+        throw new IllegalStateException("No room assigned to " + node.id());
+    }
+}
@@ -0,0 +1,104 @@
+package com.meti.roombooking.datasource;
+
+import com.meti.roombooking.exception.DatabaseBusyException;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//two permits, the fewest Flyway starts with (it opens a second connection while migrating):
+//holding both makes every other caller wait and time out
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:limiter;DB_CLOSE_DELAY=-1",
+        "booking.db.max-concurrency=2",
+        "booking.db.acquire-timeout=100ms"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class DbConcurrencyLimiterTest {
+
+    private static final Duration TIMEOUT = Duration.ofMillis(100);
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private DataSource dataSource;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    void requestsWaitingTooLongForAConnectionGetA503() throws Exception {
+        assertInstanceOf(ConcurrencyLimitedDataSource.class, dataSource);
+
+        try (Connection first = dataSource.getConnection(); Connection second = dataSource.getConnection()) {
+            assertEquals(2.0, inUse());
+            //an uncached id, so the lookup needs the database
+            mockMvc.perform(get("/api/rooms/987654321"))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string(HttpHeaders.RETRY_AFTER, "1"))
+                    .andExpect(jsonPath("$.error").value("Service busy, please retry"));
+        }
+
+        //closing the connections gave the permits back
+        assertEquals(0.0, inUse());
+        mockMvc.perform(get("/api/rooms"))
+                .andExpect(status().isOk());
+        assertEquals(0.0, inUse());
+        assertTrue(meterRegistry.get("booking.db.permit.timeouts").counter().count() >= 1);
+    }
+
+    @Test
+    void closingAConnectionReturnsItsPermit() throws SQLException {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, TIMEOUT, new SimpleMeterRegistry());
+        DataSource limited = new ConcurrencyLimitedDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:limiter-unit", "sa", ""), limiter);
+
+        Connection first = limited.getConnection();
+        DatabaseBusyException busy = assertThrows(DatabaseBusyException.class, limited::getConnection);
+        assertTrue(DatabaseBusyException.isCause(new IllegalStateException(busy)));
+
+        first.close();
+        //closing twice must not hand out a second permit
+        first.close();
+        try (Connection second = limited.getConnection()) {
+            assertFalse(second.isClosed());
+            assertThrows(DatabaseBusyException.class, limited::getConnection);
+        }
+    }
+
+    @Test
+    void failingToBorrowAConnectionReturnsThePermit() throws SQLException {
+        DbConcurrencyLimiter limiter = new DbConcurrencyLimiter(1, TIMEOUT, new SimpleMeterRegistry());
+        DataSource unreachable = new ConcurrencyLimitedDataSource(
+                new DriverManagerDataSource("jdbc:unknown:nowhere"), limiter);
+
+        //were the permit leaked, the second attempt would time out on the limiter instead
+        for (int i = 0; i < 3; i++) {
+            SQLException failure = assertThrows(SQLException.class, unreachable::getConnection);
+            assertFalse(failure instanceof DatabaseBusyException, failure.getMessage());
+        }
+        limiter.acquire();
+        limiter.release();
+    }
+
+    private double inUse() {
+        return meterRegistry.get("booking.db.permit.in-use").gauge().value();
+    }
+}
@@ -0,0 +1,116 @@
+package com.meti.roombooking.datasource;
+
+import com.meti.roombooking.auth.SessionTokens;
+import com.meti.roombooking.entity.Room;
+import com.meti.roombooking.entity.RoomStatus;
+import com.meti.roombooking.entity.User;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.RoomService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.roomEntity;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+//two embedded databases without replication between them: what a read returns shows where it went
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+        "booking.db.replica-urls=" + ReadReplicaRoutingTest.REPLICA_URL,
+        "booking.db.replica-username=sa",
+        "booking.db.read-your-writes-window=1m"
+})
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReadReplicaRoutingTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:routing-replica;DB_CLOSE_DELAY=-1";
+    private static final JdbcTemplate REPLICA;
+
+    static {
+        DriverManagerDataSource replica = new DriverManagerDataSource(REPLICA_URL, "sa", "");
+        Flyway.configure().dataSource(replica).load().migrate();
+        REPLICA = new JdbcTemplate(replica);
+    }
+
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private SessionTokens sessionTokens;
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void readOnlyTransactionsUseTheReplica() {
+        REPLICA.update("insert into rooms (room_number, type, capacity, price_per_night, status, version) "
+                + "values ('REPLICA-ONLY', 'SINGLE', 1, 50.00, 'MAINTENANCE', 0)");
+        Room primaryOnly = roomEntity("PRIMARY-ONLY");
+        primaryOnly.setStatus(RoomStatus.MAINTENANCE);
+        roomRepository.save(primaryOnly);
+
+        assertEquals(List.of("REPLICA-ONLY"), roomNumbers(roomRepository.findByStatus(RoomStatus.MAINTENANCE)));
+        assertEquals(List.of("PRIMARY-ONLY"),
+                roomNumbers(ReadRouting.onPrimary(() -> roomRepository.findByStatus(RoomStatus.MAINTENANCE))));
+    }
+
+    @Test
+    void roomCatalogueCacheLoadsFromThePrimary() {
+        Room room = roomRepository.save(roomEntity("CACHED-1"));
+
+        //not on the replica: a miss loaded there would fail, or cache an older row for the TTL
+        assertEquals("CACHED-1", roomService.getRoomById(room.getId()).getRoomNumber());
+        assertTrue(roomService.getAllRooms().stream().anyMatch(cached -> cached.getId().equals(room.getId())));
+    }
+
+    @Test
+    void usersReadTheirOwnWritesFromThePrimary() throws Exception {
+        User user = userRepository.save(client("Replica Reader", "replica-reader@hotel.com"));
+        REPLICA.update("insert into users (id, full_name, email, password, role, created_at) values (?, ?, ?, ?, ?, ?)",
+                user.getId(), user.getFullName(), user.getEmail(), user.getPassword(), "CLIENT", LocalDateTime.now());
+        Room room = roomRepository.save(roomEntity("ROUTED-1"));
+        String bearer = "Bearer " + sessionTokens.issue(user);
+
+        //nothing written yet: served by the replica
+        mockMvc.perform(get("/api/bookings/user/" + user.getId()).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+
+        LocalDate checkIn = LocalDate.now().plusDays(3);
+        mockMvc.perform(post("/api/bookings").header(HttpHeaders.AUTHORIZATION, bearer)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"roomId\":" + room.getId() + ",\"checkIn\":\"" + checkIn + "\",\"checkOut\":\"" + checkIn.plusDays(2) + "\"}"))
+                .andExpect(status().isOk());
+
+        //the replica never sees the booking, the writer is sent to the primary
+        mockMvc.perform(get("/api/bookings/user/" + user.getId()).header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+        assertEquals(0, REPLICA.queryForObject("select count(*) from bookings", Integer.class));
+    }
+
+    private static List<String> roomNumbers(List<Room> rooms) {
+        return rooms.stream().map(Room::getRoomNumber).sorted().toList();
+    }
+}
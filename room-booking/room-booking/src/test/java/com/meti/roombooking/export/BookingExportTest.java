@@ -0,0 +1,168 @@
+package com.meti.roombooking.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.auth.SessionTokens;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.Role;
+import com.meti.roombooking.entity.User;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static com.meti.roombooking.TestFixtures.suffix;
+import static com.meti.roombooking.TestFixtures.user;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingExportTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SessionTokens sessionTokens;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+
+    private String bearer;
+    private RoomResponse room;
+    private LocalDate checkIn;
+    private BookingResponse formula;
+    private BookingResponse quoted;
+
+    //two stays of the export's own room, ten days apart; the later one is cancelled
+    @BeforeEach
+    void setUp() {
+        String suffix = suffix();
+        User admin = userRepository.save(user("Export Admin", "export-admin-" + suffix + "@hotel.com", Role.ADMIN));
+        bearer = "Bearer " + sessionTokens.issue(admin);
+        room = roomService.createRoom(room("EXPORT-" + suffix));
+        checkIn = LocalDate.now().plusDays(200);
+
+        User formulaName = userRepository.save(client("=HYPERLINK(\"http://evil\",\"click\")", "export-f-" + suffix + "@hotel.com"));
+        User quotedName = userRepository.save(client("Doe, \"JJ\" Jane", "export-q-" + suffix + "@hotel.com"));
+        formula = bookingService.createBooking(booking(room.getId(), formulaName.getId(), checkIn, checkIn.plusDays(2)));
+        quoted = bookingService.createBooking(booking(room.getId(), quotedName.getId(), checkIn.plusDays(10), checkIn.plusDays(12)));
+        bookingService.cancelBooking(quoted.getId());
+    }
+
+    @Test
+    void csvQuotesFieldsAndNeutralisesFormulas() throws Exception {
+        String body = export("format=csv");
+        List<String> lines = Arrays.asList(body.split("\r\n", -1));
+
+        assertEquals("id,userId,userFullName,roomId,roomNumber,checkIn,checkOut,status,totalPrice,createdAt", lines.get(0));
+        assertEquals("", lines.get(lines.size() - 1));
+        List<String> ours = rowsOfRoom(lines);
+        assertEquals(2, ours.size());
+        assertTrue(ours.get(0).startsWith(formula.getId() + "," + formula.getUserId()
+                + ",\"'=HYPERLINK(\"\"http://evil\"\",\"\"click\"\")\"," + room.getId() + "," + room.getRoomNumber()
+                + "," + checkIn + "," + checkIn.plusDays(2) + ",PENDING,"), ours.get(0));
+        assertTrue(ours.get(1).startsWith(quoted.getId() + "," + quoted.getUserId()
+                + ",\"Doe, \"\"JJ\"\" Jane\"," + room.getId()), ours.get(1));
+    }
+
+    @Test
+    void ndjsonWritesOneObjectPerLine() throws Exception {
+        String body = export("");
+        assertTrue(body.endsWith("\n"));
+
+        List<JsonNode> ours = new ArrayList<>();
+        for (String line : body.substring(0, body.length() - 1).split("\n", -1)) {
+            JsonNode booking = objectMapper.readTree(line);
+            if (booking.get("roomId").asLong() == room.getId()) {
+                ours.add(booking);
+            }
+        }
+        assertEquals(List.of(formula.getId(), quoted.getId()), ours.stream().map(b -> b.get("id").asLong()).toList());
+        assertEquals("=HYPERLINK(\"http://evil\",\"click\")", ours.get(0).get("userFullName").asText());
+        assertEquals("CANCELLED", ours.get(1).get("status").asText());
+    }
+
+    @Test
+    void statusAndDateFiltersNarrowTheRows() throws Exception {
+        assertEquals(List.of(quoted.getId()), idsOfRoom(export("status=CANCELLED")));
+        assertEquals(List.of(formula.getId()), idsOfRoom(export("status=PENDING")));
+
+        //a stay is included when it overlaps [from, to): back-to-back with either end is not an overlap
+        assertEquals(List.of(quoted.getId()),
+                idsOfRoom(export("from=" + checkIn.plusDays(2) + "&to=" + checkIn.plusDays(11))));
+        assertEquals(List.of(formula.getId()),
+                idsOfRoom(export("from=" + checkIn.minusDays(5) + "&to=" + checkIn.plusDays(10))));
+        assertEquals(List.of(), idsOfRoom(export("status=PENDING&from=" + checkIn.plusDays(5))));
+    }
+
+    @Test
+    void fromMustBeBeforeTo() throws Exception {
+        mockMvc.perform(get("/api/bookings/admin/export")
+                        .param("from", checkIn.toString())
+                        .param("to", checkIn.toString())
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("from must be before to"));
+    }
+
+    private String export(String query) throws Exception {
+        MvcResult started = mockMvc.perform(get("/api/bookings/admin/export?" + query)
+                        .header(HttpHeaders.AUTHORIZATION, bearer))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION,
+                        query.contains("format=csv") ? "attachment; filename=bookings.csv" : "attachment; filename=bookings.ndjson"))
+                .andReturn().getResponse().getContentAsString();
+    }
+
+    private List<String> rowsOfRoom(List<String> lines) {
+        String column = "," + room.getId() + "," + room.getRoomNumber() + ",";
+        return lines.stream().filter(line -> line.contains(column)).toList();
+    }
+
+    private List<Long> idsOfRoom(String ndjson) throws Exception {
+        List<Long> ids = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            if (line.isEmpty()) {
+                continue;
+            }
+            JsonNode booking = objectMapper.readTree(line);
+            if (booking.get("roomId").asLong() == room.getId()) {
+                ids.add(booking.get("id").asLong());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,168 @@
+package com.meti.roombooking.feed;
+
+import com.meti.roombooking.dto.room.AvailabilityChange;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.event.BookingChangedEvent;
+import com.meti.roombooking.event.RoomChangedEvent;
+import com.meti.roombooking.exception.NodeUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AvailabilityFeedTest {
+
+    private static final LocalDate D = LocalDate.of(2030, 1, 1);
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private AvailabilityFeed feed;
+
+    @AfterEach
+    void stopFeed() {
+        feed.stop();
+    }
+
+    @Test
+    void changesQueuedBehindASlowSendAreMergedPerRoom() throws Exception {
+        feed = startFeed(16, 10);
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1));
+        FeedSubscriber subscriber = feed.register(slow);
+        slow.blocked.await(5, TimeUnit.SECONDS);
+
+        feed.onBookingChanged(booked(1L, 1, 3));
+        feed.onBookingChanged(booked(1L, 5, 7));
+        feed.onBookingChanged(new BookingChangedEvent(9L, 2L, day(0), day(1), BookingStatus.PENDING, BookingStatus.CONFIRMED));
+        feed.onRoomChanged(new RoomChangedEvent(3L, null, null));
+        await(() -> subscriber.pendingRooms() == 2);
+        slow.release.countDown();
+
+        assertEquals("comment", slow.next().name());
+        Frame frame = slow.next();
+        assertEquals("availability", frame.name());
+        assertEquals(List.of(
+                new AvailabilityChange(1L, day(1), day(7), false),
+                new AvailabilityChange(3L, null, null, true)
+        ), frame.data());
+        assertNull(slow.frames.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void subscriberThatFallsBehindGetsOneResync() throws Exception {
+        feed = startFeed(4, 10);
+        RecordingEmitter slow = new RecordingEmitter(new CountDownLatch(1));
+        RecordingEmitter fast = new RecordingEmitter(new CountDownLatch(0));
+        FeedSubscriber slowSubscriber = feed.register(slow);
+        slow.blocked.await(5, TimeUnit.SECONDS);
+        feed.register(fast);
+        assertEquals("comment", fast.next().name());
+
+        for (long roomId = 1; roomId <= 10; roomId++) {
+            feed.onBookingChanged(booked(roomId, 1, 2));
+            Frame frame = fast.next();
+            assertEquals("availability", frame.name());
+            assertEquals(List.of(new AvailabilityChange(roomId, day(1), day(2), false)), frame.data());
+        }
+
+        await(slowSubscriber::isResyncPending);
+        slow.release.countDown();
+        assertEquals("comment", slow.next().name());
+        assertEquals("resync", slow.next().name());
+        assertNull(slow.frames.poll(200, TimeUnit.MILLISECONDS));
+        assertEquals(1.0, registry.get("booking.feed.resyncs").counter().count());
+    }
+
+    @Test
+    void subscriptionsAreCapped() {
+        feed = startFeed(16, 2);
+        assertNotNull(feed.subscribe());
+        assertNotNull(feed.subscribe());
+        assertThrows(NodeUnavailableException.class, () -> feed.subscribe());
+        assertEquals(2, feed.subscriberCount());
+    }
+
+    private AvailabilityFeed startFeed(int bufferSize, int maxSubscribers) {
+        AvailabilityFeed started = new AvailabilityFeed(bufferSize, 1000, maxSubscribers,
+                Duration.ofMinutes(1), Duration.ofHours(1), registry);
+        started.start();
+        return started;
+    }
+
+    private static BookingChangedEvent booked(Long roomId, int fromDay, int toDay) {
+        return new BookingChangedEvent(roomId * 100 + fromDay, roomId, day(fromDay), day(toDay), null, BookingStatus.PENDING);
+    }
+
+    private static LocalDate day(int offset) {
+        return D.plusDays(offset);
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(10);
+        }
+    }
+
+    private record Frame(String name, Object data) {
+    }
+
+    //records frames instead of writing them; sends block (counting down blocked) until release is counted down
+    private static class RecordingEmitter extends SseEmitter {
+
+        private static final Pattern EVENT_NAME = Pattern.compile("event:(\\w+)");
+
+        private final CountDownLatch release;
+        private final CountDownLatch blocked = new CountDownLatch(1);
+        private final BlockingQueue<Frame> frames = new LinkedBlockingQueue<>();
+
+        RecordingEmitter(CountDownLatch release) {
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            blocked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                throw new IOException(e);
+            }
+            StringBuilder text = new StringBuilder();
+            Object data = null;
+            for (DataWithMediaType part : builder.build()) {
+                if (MediaType.TEXT_PLAIN.equalsTypeAndSubtype(part.getMediaType())) {
+                    text.append(part.getData());
+                } else {
+                    data = part.getData();
+                }
+            }
+            Matcher name = EVENT_NAME.matcher(text);
+            frames.add(new Frame(name.find() ? name.group(1) : "comment", data));
+        }
+
+        Frame next() throws InterruptedException {
+            Frame frame = frames.poll(5, TimeUnit.SECONDS);
+            assertNotNull(frame, "no frame sent");
+            return frame;
+        }
+    }
+}
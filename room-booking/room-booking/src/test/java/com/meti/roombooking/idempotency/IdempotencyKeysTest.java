@@ -0,0 +1,268 @@
+package com.meti.roombooking.idempotency;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.cluster.ClusterMembership;
+import com.meti.roombooking.cluster.ClusterNode;
+import com.meti.roombooking.cluster.ClusterPeerClient;
+import com.meti.roombooking.cluster.ClusteredBookingService;
+import com.meti.roombooking.cluster.RoomPartitioner;
+import com.meti.roombooking.concurrency.ConflictRetry;
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.entity.IdempotencyRecord;
+import com.meti.roombooking.entity.User;
+import com.meti.roombooking.exception.BookingConflictException;
+import com.meti.roombooking.exception.NodeUnavailableException;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.IdempotencyRecordRepository;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import com.meti.roombooking.service.impl.BookingServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static com.meti.roombooking.TestFixtures.suffix;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class IdempotencyKeysTest {
+
+    private static final Long USER = 1L;
+    private static final ClusterNode NODE_A = new ClusterNode("node-a", "http://localhost:8081");
+    private static final ClusterNode NODE_B = new ClusterNode("node-b", "http://localhost:8082");
+
+    @Autowired
+    private IdempotencyKeys idempotencyKeys;
+    @Autowired
+    private IdempotencyRecordRepository recordRepository;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingServiceImpl localBookingService;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void retryReturnsTheRecordedBookingInsteadOfAConflict() {
+        BookingRequest request = bookingRequest();
+        String key = UUID.randomUUID().toString();
+
+        IdempotentResponse first = idempotencyKeys.execute(USER, key, "create", () -> bookingService.createBooking(request));
+        IdempotentResponse retry = idempotencyKeys.execute(USER, key, "create", () -> bookingService.createBooking(request));
+
+        assertFalse(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.response(), retry.response());
+        assertEquals(1, bookingRepository.findResponsesByStatus(BookingStatus.PENDING).stream()
+                .filter(booking -> booking.getRoomId().equals(request.getRoomId()))
+                .count());
+        //without the key the same request is a plain second booking attempt
+        assertThrows(BookingConflictException.class, () -> bookingService.createBooking(request));
+    }
+
+    @Test
+    void concurrentDuplicatesWaitForTheFirstRequest() throws Exception {
+        String key = UUID.randomUUID().toString();
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<IdempotentResponse>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(clients.submit(() -> {
+                    start.await();
+                    return idempotencyKeys.execute(USER, key, "cancel:1", () -> {
+                        runs.incrementAndGet();
+                        sleep(200);
+                        return response(1L);
+                    });
+                }));
+            }
+            start.countDown();
+            int replayed = 0;
+            for (Future<IdempotentResponse> result : results) {
+                assertEquals(response(1L), result.get().response());
+                replayed += result.get().replayed() ? 1 : 0;
+            }
+            assertEquals(1, runs.get());
+            assertEquals(7, replayed);
+        } finally {
+            clients.shutdown();
+        }
+    }
+
+    @Test
+    void recordedResponseOutlivesTheMemoryCache() {
+        String key = UUID.randomUUID().toString();
+        idempotencyKeys.execute(USER, key, "cancel:2", () -> response(2L));
+
+        //a restarted node (or another one) has nothing in memory
+        IdempotentResponse replay = freshInstance().execute(USER, key, "cancel:2", () -> fail("write ran again"));
+
+        assertTrue(replay.replayed());
+        assertEquals(response(2L), replay.response());
+        assertEquals("cancel:2", recordRepository.findById(new IdempotencyRecord.Key(USER, key)).orElseThrow().getRequest());
+    }
+
+    @Test
+    void keyCannotBeReusedForAnotherRequest() {
+        String key = UUID.randomUUID().toString();
+        idempotencyKeys.execute(USER, key, "cancel:3", () -> response(3L));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> idempotencyKeys.execute(USER, key, "cancel:4", () -> response(4L)));
+    }
+
+    @Test
+    void anotherUsersKeyNeverReplaysTheirResponse() {
+        String key = UUID.randomUUID().toString();
+        idempotencyKeys.execute(USER, key, "cancel:6", () -> response(6L));
+
+        IdempotentResponse other = idempotencyKeys.execute(USER + 1, key, "cancel:6", () -> response(7L));
+        assertFalse(other.replayed());
+        assertEquals(response(7L), other.response());
+        //nor on a node that only has the table
+        assertEquals(response(7L), freshInstance().execute(USER + 1, key, "cancel:6", () -> fail("write ran again")).response());
+        assertEquals(response(6L), freshInstance().execute(USER, key, "cancel:6", () -> fail("write ran again")).response());
+    }
+
+    @Test
+    void failedWriteIsNotRecorded() {
+        String key = UUID.randomUUID().toString();
+
+        assertThrows(BookingConflictException.class, () -> idempotencyKeys.execute(USER, key, "cancel:5", () -> {
+            throw new BookingConflictException("Room already booked for this date range");
+        }));
+        IdempotentResponse retry = idempotencyKeys.execute(USER, key, "cancel:5", () -> response(5L));
+
+        assertFalse(retry.replayed());
+        assertTrue(recordRepository.existsById(new IdempotencyRecord.Key(USER, key)));
+    }
+
+    //cluster mode, the room owned by node-b: node-b (an instance sharing the table) commits the booking
+    //and records the key with it, then its response is lost on the way back
+    @Test
+    void bookingForwardedToTheOwnerIsReplayedAfterItsResponseWasLost() {
+        RoomPartitioner partitioner = twoNodes();
+        BookingRequest request = bookingRequest();
+        while (!partitioner.ownerOf(request.getRoomId()).equals(NODE_B)) {
+            request = bookingRequest();
+        }
+        BookingRequest forwarded = request;
+        ClusterPeerClient peers = mock(ClusterPeerClient.class);
+        when(peers.createBooking(eq(NODE_B), eq(forwarded), anyString())).thenAnswer(call -> {
+            //no local transaction, so no connection or limiter permit, is held during the call
+            assertFalse(TransactionSynchronizationManager.isActualTransactionActive());
+            freshInstance().execute(USER, call.getArgument(2), IdempotencyKeys.createRequest(forwarded),
+                    () -> localBookingService.createBooking(forwarded));
+            throw new NodeUnavailableException("Cluster node node-b is unreachable", null);
+        });
+        BookingService clustered = new ClusteredBookingService(localBookingService, partitioner, peers, bookingRepository, null);
+        String key = UUID.randomUUID().toString();
+
+        IdempotentResponse first = idempotencyKeys.execute(USER, key, IdempotencyKeys.createRequest(forwarded),
+                sentKey -> clustered.forwardCreateBooking(forwarded, sentKey), () -> clustered.createBooking(forwarded));
+        IdempotentResponse retry = freshInstance().execute(USER, key, IdempotencyKeys.createRequest(forwarded),
+                sentKey -> clustered.forwardCreateBooking(forwarded, sentKey), () -> clustered.createBooking(forwarded));
+
+        assertTrue(first.replayed());
+        assertTrue(retry.replayed());
+        assertEquals(first.response(), retry.response());
+        assertEquals(forwarded.getRoomId(), retry.response().getRoomId());
+        verify(peers, times(1)).createBooking(any(), any(), any());
+    }
+
+    @Test
+    void forwardedWriteIsRecordedByTheOwnerOnly() {
+        String key = UUID.randomUUID().toString();
+
+        IdempotentResponse result = idempotencyKeys.execute(USER, key, "cancel:10",
+                sentKey -> Optional.of(response(10L)), () -> fail("forwarded write ran here"));
+
+        assertFalse(result.replayed());
+        assertEquals(response(10L), result.response());
+        //the owner was a stub and recorded nothing: this node must not have either
+        assertFalse(recordRepository.existsById(new IdempotencyRecord.Key(USER, key)));
+    }
+
+    private IdempotencyKeys freshInstance() {
+        return new IdempotencyKeys(recordRepository, objectMapper, transactionManager,
+                new ConflictRetry(3, Duration.ZERO, new SimpleMeterRegistry()), new SimpleMeterRegistry(),
+                Duration.ofHours(1), 100, Duration.ofSeconds(5));
+    }
+
+    private static RoomPartitioner twoNodes() {
+        return new RoomPartitioner(new ClusterMembership() {
+            @Override
+            public ClusterNode self() {
+                return NODE_A;
+            }
+
+            @Override
+            public List<ClusterNode> members() {
+                return List.of(NODE_A, NODE_B);
+            }
+        });
+    }
+
+    private BookingRequest bookingRequest() {
+        String suffix = suffix();
+        RoomResponse room = roomService.createRoom(room("IDEM-" + suffix));
+        User user = userRepository.save(client("Retry Client", "idem" + suffix + "@hotel.com"));
+        return booking(room.getId(), user.getId(), LocalDate.now().plusDays(5), LocalDate.now().plusDays(7));
+    }
+
+    private static BookingResponse response(Long id) {
+        return new BookingResponse(id, 1L, "Guest", 2L, "101", LocalDate.of(2030, 1, 1), LocalDate.of(2030, 1, 3),
+                BookingStatus.CANCELLED, new BigDecimal("140.00"), LocalDateTime.of(2026, 10, 18, 12, 0));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
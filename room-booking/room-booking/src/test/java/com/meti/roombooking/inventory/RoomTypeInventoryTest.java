@@ -0,0 +1,159 @@
+package com.meti.roombooking.inventory;
+
+import com.meti.roombooking.availability.RoomStay;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.InventoryCalendar;
+import com.meti.roombooking.dto.room.RoomRequest;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.*;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.RoomTypeNightInventoryRepository;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalAnswers.delegatesTo;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RoomTypeInventoryTest {
+
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RoomTypeNightInventoryRepository inventoryRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private JdbcTemplate jdbc;
+    @Value("${booking.availability.horizon-days:400}")
+    private int horizonDays;
+
+    //the window is one night wider than the stay on both sides: [from, checkIn) and [checkOut, to) stay free
+    @Test
+    void bookingsAndRoomChangesMoveTheCounters() {
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        LocalDate checkOut = checkIn.plusDays(3);
+        LocalDate from = checkIn.minusDays(1);
+        LocalDate to = checkOut.plusDays(1);
+        int[] start = freeRooms(from, to);
+        User user = userRepository.save(client("Inventory Tester", "inventory@hotel.com"));
+
+        RoomResponse room = roomService.createRoom(suite("INV-1", RoomStatus.AVAILABLE));
+        assertChange(start, freeRooms(from, to), 1, 1, 1, 1, 1);
+
+        BookingResponse booking = bookingService.createBooking(booking(room.getId(), user.getId(), checkIn, checkOut));
+        assertChange(start, freeRooms(from, to), 1, 0, 0, 0, 1);
+
+        bookingService.cancelBooking(booking.getId());
+        assertChange(start, freeRooms(from, to), 1, 1, 1, 1, 1);
+
+        //a room in maintenance is not sellable, and booking it does not count either
+        room = roomService.updateRoom(room.getId(), suite("INV-1", RoomStatus.MAINTENANCE, room.getVersion()));
+        assertChange(start, freeRooms(from, to), 0, 0, 0, 0, 0);
+        bookingService.createBooking(booking(room.getId(), user.getId(), checkIn, checkOut));
+        assertChange(start, freeRooms(from, to), 0, 0, 0, 0, 0);
+
+        //back in service it is free except on the nights booked meanwhile
+        roomService.updateRoom(room.getId(), suite("INV-1", RoomStatus.AVAILABLE, room.getVersion()));
+        assertChange(start, freeRooms(from, to), 1, 0, 0, 0, 1);
+    }
+
+    @Test
+    void bookingCommittedDuringARollIsCountedOnTheNewNights() throws Exception {
+        LocalDate last = inventoryRepository.findLastNight().orElseThrow();
+        //the last four nights enter the horizon on the next roll
+        jdbc.update("delete from room_type_night_inventory where night > ?", last.minusDays(4));
+        RoomResponse room = roomService.createRoom(suite("INV-ROLL", RoomStatus.AVAILABLE));
+        User user = userRepository.save(client("Roll Tester", "inventory-roll@hotel.com"));
+
+        //the booking commits after the roll has read the stays and before it inserts the nights
+        BookingRepository interleaved = mock(BookingRepository.class, delegatesTo(bookingRepository));
+        ExecutorService otherClient = Executors.newSingleThreadExecutor();
+        doAnswer(call -> {
+            List<RoomStay> stays = bookingRepository.findActiveStaysEndingAfter(call.getArgument(0), call.getArgument(1));
+            otherClient.submit(() -> bookingService.createBooking(booking(room.getId(), user.getId(), last.minusDays(2), last))).get();
+            return stays;
+        }).doAnswer(call -> bookingRepository.findActiveStaysEndingAfter(call.getArgument(0), call.getArgument(1)))
+                .when(interleaved).findActiveStaysEndingAfter(any(), any());
+        try {
+            new RoomTypeInventory(inventoryRepository, roomRepository, interleaved, roomService,
+                    transactionManager, horizonDays).roll();
+        } finally {
+            otherClient.shutdown();
+        }
+
+        int[] nights = freeRooms(last.minusDays(3), last.plusDays(1));
+        assertEquals(4, nights.length);
+        assertArrayEquals(new int[]{nights[0], nights[0] - 1, nights[0] - 1, nights[0]}, nights);
+    }
+
+    @Test
+    void calendarHasEveryNightOfTheMonthPerType() {
+        YearMonth month = YearMonth.now().plusMonths(1);
+
+        List<InventoryCalendar> calendars = roomService.getInventoryCalendar(month, null);
+
+        assertEquals(RoomType.values().length, calendars.size());
+        for (InventoryCalendar calendar : calendars) {
+            assertEquals(month.lengthOfMonth(), calendar.getNights().size());
+            assertEquals(month.atDay(1), calendar.getNights().get(0).getNight());
+        }
+        assertEquals(List.of(RoomType.SUITE),
+                roomService.getInventoryCalendar(month, RoomType.SUITE).stream().map(InventoryCalendar::getType).toList());
+    }
+
+    private int[] freeRooms(LocalDate from, LocalDate to) {
+        return inventoryRepository.findNights(List.of(RoomType.SUITE), from, to).stream()
+                .mapToInt(RoomTypeNightInventory::getFreeRooms)
+                .toArray();
+    }
+
+    private static void assertChange(int[] start, int[] now, int... expected) {
+        int[] change = new int[now.length];
+        for (int i = 0; i < now.length; i++) {
+            change[i] = now[i] - start[i];
+        }
+        assertArrayEquals(expected, change);
+    }
+
+    private static RoomRequest suite(String number, RoomStatus status) {
+        return suite(number, status, null);
+    }
+
+    private static RoomRequest suite(String number, RoomStatus status, Long version) {
+        RoomRequest request = room(number, RoomType.SUITE, 3, "250.00");
+        request.setStatus(status);
+        request.setVersion(version);
+        return request;
+    }
+}
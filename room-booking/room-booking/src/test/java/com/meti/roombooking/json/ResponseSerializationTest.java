@@ -0,0 +1,88 @@
+package com.meti.roombooking.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.meti.roombooking.dto.booking.BookingPage;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.entity.RoomStatus;
+import com.meti.roombooking.entity.RoomType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.json.JsonTest;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+
+//the application's ObjectMapper (with the serializers) against a plain one with the same settings
+@JsonTest
+class ResponseSerializationTest {
+
+    private static final ObjectMapper REFLECTIVE = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void serializersAreRegistered() throws Exception {
+        assertInstanceOf(BookingResponseSerializer.class,
+                objectMapper.getSerializerProviderInstance().findValueSerializer(BookingResponse.class));
+        assertInstanceOf(RoomResponseSerializer.class,
+                objectMapper.getSerializerProviderInstance().findValueSerializer(RoomResponse.class));
+    }
+
+    @Test
+    void bookingsAreByteIdentical() throws Exception {
+        List<BookingResponse> bookings = List.of(
+                booking(1L, "Ana \"Q\" Müller", LocalDateTime.of(2026, 10, 18, 9, 30, 0, 0), new BigDecimal("240.00")),
+                booking(2L, "Zoë\n", LocalDateTime.of(2026, 10, 18, 9, 30, 5, 120_000_000), new BigDecimal("1E+3")),
+                booking(3L, null, LocalDateTime.of(1999, 12, 31, 23, 59, 59, 123_456_789), null),
+                booking(4L, "x", LocalDateTime.of(2026, 1, 2, 0, 0, 0, 1_000), BigDecimal.ZERO),
+                new BookingResponse()
+        );
+
+        assertSameJson(bookings);
+        assertSameJson(BookingPage.builder().items(bookings).nextCursor("abc").build());
+        //repeated dates come from the cache
+        assertSameJson(bookings);
+    }
+
+    @Test
+    void roomsAreByteIdentical() throws Exception {
+        assertSameJson(List.of(
+                new RoomResponse(7L, "101", RoomType.SUITE, 3, new BigDecimal("250.50"), RoomStatus.MAINTENANCE, "Sea view, <b>", 4L),
+                new RoomResponse(8L, "102", RoomType.SINGLE, 1, new BigDecimal("80"), RoomStatus.AVAILABLE, null, null),
+                new RoomResponse()
+        ));
+    }
+
+    private void assertSameJson(Object value) throws Exception {
+        assertArrayEquals(REFLECTIVE.writeValueAsBytes(value), objectMapper.writeValueAsBytes(value),
+                () -> "expected " + write(REFLECTIVE, value) + "\nbut was  " + write(objectMapper, value));
+    }
+
+    private static String write(ObjectMapper mapper, Object value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (Exception e) {
+            return e.toString();
+        }
+    }
+
+    private static BookingResponse booking(Long id, String name, LocalDateTime createdAt, BigDecimal price) {
+        LocalDate checkIn = LocalDate.of(2030, 2, 27).plusDays(id);
+        return new BookingResponse(id, 10L + id, name, 20L + id, "R" + id, checkIn, checkIn.plusDays(3),
+                BookingStatus.values()[(int) (id % 3)], price, createdAt);
+    }
+}
@@ -0,0 +1,48 @@
+package com.meti.roombooking.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class EndpointMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final EndpointMetricsFilter filter = new EndpointMetricsFilter(registry);
+
+    @Test
+    void apiRequestsAreRecordedWithinTheServletContext() throws Exception {
+        //deployed under /booking: still /api requests, encoded or not
+        send(inContext("/booking/api/bookings"));
+        send(inContext("/booking/api/%62ookings"));
+        send(inContext("/booking/index.html"));
+
+        assertEquals(1, filter.endpoints().size());
+        assertEquals(2, registry.get("booking.http.requests")
+                .tags("method", "POST", "uri", "/api/bookings", "outcome", "SUCCESS")
+                .timer().count());
+    }
+
+    //the chain stands in for Spring MVC, which leaves the matched pattern on the request
+    private void send(MockHttpServletRequest request) throws Exception {
+        MockFilterChain chain = new MockFilterChain() {
+            @Override
+            public void doFilter(ServletRequest matched, ServletResponse response) {
+                matched.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/bookings");
+            }
+        };
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+    }
+
+    private static MockHttpServletRequest inContext(String uri) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", uri);
+        request.setContextPath("/booking");
+        return request;
+    }
+}
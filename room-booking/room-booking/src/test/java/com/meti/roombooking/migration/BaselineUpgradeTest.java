@@ -0,0 +1,132 @@
+package com.meti.roombooking.migration;
+
+import com.meti.roombooking.dto.booking.BatchMode;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A database created by ddl-auto=update from the original entities, with rows in it, is baselined
+ * at V1 and migrated to head on startup; the context only starts when ddl-auto=validate accepts it.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=" + BaselineUpgradeTest.URL,
+        "spring.flyway.baseline-on-migrate=true",
+        "spring.flyway.baseline-version=1"
+})
+@ContextConfiguration(initializers = BaselineUpgradeTest.LegacyDatabase.class)
+@ActiveProfiles("test")
+class BaselineUpgradeTest {
+
+    static final String URL = "jdbc:h2:mem:legacy-upgrade;DB_CLOSE_DELAY=-1";
+
+    //what Hibernate generated for the original User, Room and Booking entities on H2
+    static final String BASELINE_SCHEMA = """
+            create table bookings (
+                id bigint generated by default as identity,
+                check_in date not null,
+                check_out date not null,
+                created_at timestamp(6) not null,
+                status enum ('CANCELLED','CONFIRMED','PENDING') not null,
+                total_price numeric(12,2) not null,
+                room_id bigint not null,
+                user_id bigint not null,
+                primary key (id)
+            );
+            create table rooms (
+                id bigint generated by default as identity,
+                capacity integer not null check (capacity>=1),
+                description varchar(1000),
+                price_per_night numeric(10,2) not null,
+                room_number varchar(255) not null,
+                status enum ('AVAILABLE','MAINTENANCE','OCCUPIED') not null,
+                type enum ('DOUBLE','SINGLE','SUITE') not null,
+                primary key (id),
+                unique (room_number)
+            );
+            create table users (
+                id bigint generated by default as identity,
+                created_at timestamp(6) not null,
+                email varchar(255) not null,
+                full_name varchar(255) not null,
+                password varchar(255) not null,
+                role enum ('ADMIN','CLIENT') not null,
+                primary key (id),
+                unique (email)
+            );
+            create index IDX1adupnofin7xswa39riipiedq on bookings (check_in);
+            create index IDXfr8dljcjqa0wekgjc9hmbrrnt on bookings (check_out);
+            alter table if exists bookings add constraint FKrgoycol97o21kpjodw1qox4nc foreign key (room_id) references rooms;
+            alter table if exists bookings add constraint FKeyog2oic85xg7hsu2je2lx3s6 foreign key (user_id) references users;
+            """;
+
+    //identity ids: years of bookings before the switch to sequences
+    private static final long LAST_LEGACY_BOOKING = 1200;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void legacyDatabaseMigratesValidatesAndTakesNewBookings() {
+        assertEquals(List.of("1", "1.1", "2", "3", "4", "5", "6", "7", "8", "9", "10", "11"), jdbcTemplate.queryForList(
+                "select \"version\" from \"flyway_schema_history\" where \"success\" and \"version\" is not null order by \"installed_rank\"", String.class));
+
+        Long roomId = jdbcTemplate.queryForObject("select id from rooms where room_number = '101'", Long.class);
+        Long userId = jdbcTemplate.queryForObject("select id from users where email = 'legacy@hotel.com'", Long.class);
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+        BookingResponse booking = bookingService.createBooking(booking(roomId, userId, checkIn, checkIn.plusDays(2)));
+        assertTrue(booking.getId() > LAST_LEGACY_BOOKING);
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "select count(*) from room_night_claims where booking_id = ?", Integer.class, booking.getId()));
+        //rows from before the upgrade stay readable through the new mappings
+        assertEquals(roomId, bookingService.getBookingById(LAST_LEGACY_BOOKING).getRoomId());
+
+        RoomResponse room = roomService.createRoom(room("102"));
+        LocalDate batchCheckIn = checkIn.plusDays(10);
+        assertEquals(2, bookingService.createBookings(List.of(
+                booking(roomId, userId, batchCheckIn, batchCheckIn.plusDays(1)),
+                booking(room.getId(), userId, batchCheckIn, batchCheckIn.plusDays(1))), BatchMode.ALL_OR_NOTHING).getCreated());
+    }
+
+    //runs before Flyway: the database exists with rows before the application first sees it
+    static class LegacyDatabase implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+        @Override
+        public void initialize(ConfigurableApplicationContext context) {
+            JdbcDataSource dataSource = new JdbcDataSource();
+            dataSource.setURL(URL);
+            //the user Spring Boot connects to embedded H2 with
+            dataSource.setUser("sa");
+            JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+            for (String statement : BASELINE_SCHEMA.split(";")) {
+                if (!statement.isBlank()) {
+                    jdbc.execute(statement);
+                }
+            }
+            jdbc.update("insert into users (full_name, email, password, role, created_at) values ('Legacy Guest', 'legacy@hotel.com', 'secret123', 'CLIENT', current_timestamp)");
+            jdbc.update("insert into rooms (room_number, type, capacity, price_per_night, status) values ('101', 'SINGLE', 1, 80.00, 'AVAILABLE')");
+            jdbc.update("insert into bookings (check_in, check_out, created_at, status, total_price, room_id, user_id) values (date '2024-03-01', date '2024-03-03', current_timestamp, 'CONFIRMED', 160.00, 1, 1)");
+            jdbc.update("insert into bookings (id, check_in, check_out, created_at, status, total_price, room_id, user_id) values (?, date '2024-05-01', date '2024-05-02', current_timestamp, 'CANCELLED', 80.00, 1, 1)", LAST_LEGACY_BOOKING);
+        }
+    }
+}
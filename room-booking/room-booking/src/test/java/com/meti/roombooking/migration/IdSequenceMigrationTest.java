@@ -0,0 +1,25 @@
+package com.meti.roombooking.migration;
+
+import org.flywaydb.core.Flyway;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//baselined databases, whose sequences start below their rows, are covered by BaselineUpgradeTest
+class IdSequenceMigrationTest {
+
+    @Test
+    void sequencesAlreadyAheadAreNotMovedBack() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:ahead-ids;DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        Flyway.configure().dataSource(dataSource).target("1.1").load().migrate();
+        jdbc.update("alter sequence booking_seq restart with 5001");
+
+        Flyway.configure().dataSource(dataSource).load().migrate();
+
+        assertTrue(jdbc.queryForObject("select next value for booking_seq", Long.class) > 5001);
+    }
+}
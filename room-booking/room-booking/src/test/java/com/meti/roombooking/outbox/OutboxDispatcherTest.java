@@ -0,0 +1,161 @@
+package com.meti.roombooking.outbox;
+
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.*;
+import com.meti.roombooking.repository.OutboxEventRepository;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static com.meti.roombooking.TestFixtures.suffix;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1",
+        "booking.outbox.dispatcher.enabled=true",
+        "booking.outbox.poll-interval=100ms",
+        "booking.outbox.retry-backoff=500ms"
+})
+@ActiveProfiles("test")
+@Import(OutboxDispatcherTest.RecordingHandlerConfig.class)
+class OutboxDispatcherTest {
+
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OutboxEventRepository outboxRepository;
+    @Autowired
+    private RecordingHandler handler;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private RoomResponse room;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = suffix();
+        room = roomService.createRoom(room("OUT-" + suffix));
+        user = userRepository.save(client("Outbox Tester", "outbox" + suffix + "@hotel.com"));
+    }
+
+    @Test
+    void bookingEventsReachHandlersInOrderAndLeaveTheTable() throws Exception {
+        BookingResponse booking = bookingService.createBooking(request(10));
+        bookingService.cancelBooking(booking.getId());
+
+        await(() -> handler.of(booking.getId()).size() == 2);
+        assertEquals(List.of(OutboxEventType.BOOKING_CREATED, OutboxEventType.BOOKING_STATUS_CHANGED),
+                handler.of(booking.getId()).stream().map(OutboxMessage::type).toList());
+        assertEquals(BookingStatus.CANCELLED, handler.of(booking.getId()).get(1).booking().newStatus());
+        await(() -> outboxRepository.findAll().stream().noneMatch(event -> event.getAggregateId().equals(booking.getId())));
+    }
+
+    @Test
+    void failedDeliveryIsRetried() throws Exception {
+        handler.failFirstAttempt.add(room.getId());
+
+        BookingResponse booking = bookingService.createBooking(request(20));
+
+        await(() -> !handler.of(booking.getId()).isEmpty());
+        assertEquals(2, handler.of(booking.getId()).get(0).attempt());
+    }
+
+    //the status change is written while the creation backs off after its failure, already due
+    @Test
+    void laterEventsOfABookingWaitForAnEarlierRetry() throws Exception {
+        handler.failFirstCreation.add(room.getId());
+
+        BookingResponse booking = bookingService.createBooking(request(40));
+        await(() -> outboxRepository.findAll().stream().anyMatch(event ->
+                event.getAggregateId().equals(booking.getId()) && event.getAttempts() == 1));
+        bookingService.cancelBooking(booking.getId());
+
+        await(() -> handler.of(booking.getId()).size() == 2);
+        assertEquals(List.of(OutboxEventType.BOOKING_CREATED, OutboxEventType.BOOKING_STATUS_CHANGED),
+                handler.of(booking.getId()).stream().map(OutboxMessage::type).toList());
+    }
+
+    @Test
+    void rolledBackBookingWritesNoEvent() {
+        long before = outboxRepository.count();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookingService.createBooking(request(30));
+            assertEquals(before + 1, outboxRepository.count());
+            status.setRollbackOnly();
+        });
+
+        assertTrue(outboxRepository.count() <= before);
+    }
+
+    private BookingRequest request(int inDays) {
+        LocalDate checkIn = LocalDate.now().plusDays(inDays);
+        return booking(room.getId(), user.getId(), checkIn, checkIn.plusDays(2));
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "condition not reached in time");
+            Thread.sleep(20);
+        }
+    }
+
+    //keeps the delivered messages; fails attempt 1 of bookings (or of their creation) of the listed rooms
+    static class RecordingHandler implements OutboxHandler {
+        final List<OutboxMessage> delivered = new CopyOnWriteArrayList<>();
+        final Set<Long> failFirstAttempt = ConcurrentHashMap.newKeySet();
+        final Set<Long> failFirstCreation = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void handle(OutboxMessage message) {
+            boolean failing = failFirstAttempt.contains(message.booking().roomId())
+                    || (message.type() == OutboxEventType.BOOKING_CREATED && failFirstCreation.contains(message.booking().roomId()));
+            if (message.attempt() == 1 && failing) {
+                throw new IllegalStateException("Mail server down");
+            }
+            delivered.add(message);
+        }
+
+        List<OutboxMessage> of(Long bookingId) {
+            return delivered.stream().filter(message -> message.booking().bookingId().equals(bookingId)).toList();
+        }
+    }
+
+    @TestConfiguration
+    static class RecordingHandlerConfig {
+        @Bean
+        RecordingHandler recordingHandler() {
+            return new RecordingHandler();
+        }
+    }
+}
@@ -0,0 +1,143 @@
+package com.meti.roombooking.pricing;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.pricing.PriceRuleRequest;
+import com.meti.roombooking.dto.pricing.PriceRuleResponse;
+import com.meti.roombooking.dto.pricing.QuoteResponse;
+import com.meti.roombooking.dto.pricing.StayQuery;
+import com.meti.roombooking.dto.room.RoomRequest;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.*;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.UserRepository;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.PricingService;
+import com.meti.roombooking.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class RatePlanPricingTest {
+
+    @Autowired
+    private PricingService pricingService;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private RatePlanIndex ratePlans;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Test
+    void compiledPricesMatchNightByNightPricing() {
+        RoomResponse room = roomService.createRoom(room("RATE-COMPILED", RoomType.DOUBLE, 2, "100.00"));
+        PriceRuleResponse weekend = pricingService.createRule(rule(room, "Weekend", PriceAdjustment.PERCENT, "20", null,
+                Set.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY)));
+        PriceRuleResponse weekly = pricingService.createRule(rule(room, "Weekly", PriceAdjustment.PERCENT, "-10", 7, null));
+        try {
+            assertTrue(ratePlans.isBuilt());
+            LocalDate today = LocalDate.now();
+            //inside the horizon (prefix sums) and past it (priced night by night)
+            for (LocalDate checkIn : List.of(today.plusDays(3), today.plusDays(395), today.plusDays(500))) {
+                for (int nights : new int[]{1, 2, 6, 7, 15}) {
+                    LocalDate checkOut = checkIn.plusDays(nights);
+                    long expected = 0;
+                    for (LocalDate night = checkIn; night.isBefore(checkOut); night = night.plusDays(1)) {
+                        boolean isWeekend = night.getDayOfWeek() == DayOfWeek.SATURDAY || night.getDayOfWeek() == DayOfWeek.SUNDAY;
+                        expected += isWeekend ? 12_000 : 10_000;
+                    }
+                    if (nights >= 7) {
+                        expected = expected * 9 / 10;
+                    }
+                    assertEquals(expected, ratePlans.quoteCents(room.getId(), room.getType(), room.getPricePerNight(), checkIn, checkOut),
+                            checkIn + " +" + nights);
+                }
+            }
+        } finally {
+            pricingService.deleteRule(weekend.getId());
+            pricingService.deleteRule(weekly.getId());
+        }
+    }
+
+    @Test
+    void bookingKeepsThePriceItWasQuoted() {
+        RoomResponse room = roomService.createRoom(room("RATE-SNAPSHOT", RoomType.DOUBLE, 2, "80.00"));
+        PriceRuleResponse flat = pricingService.createRule(rule(room, "Flat", PriceAdjustment.PRICE, "50.00", null, null));
+        try {
+            LocalDate checkIn = LocalDate.now().plusDays(20);
+            QuoteResponse quote = pricingService.quote(List.of(new StayQuery(room.getId(), checkIn, checkIn.plusDays(3))));
+            assertEquals(0, new BigDecimal("150.00").compareTo(quote.getQuotes().get(0).getTotalPrice()));
+
+            User guest = userRepository.save(client("Pricing Tester", "rate-snapshot@hotel.com"));
+            BookingResponse booking = bookingService.createBooking(booking(room.getId(), guest.getId(), checkIn, checkIn.plusDays(3)));
+            assertEquals(0, new BigDecimal("150.00").compareTo(booking.getTotalPrice()));
+
+            //later rule changes reprice quotes, not existing bookings
+            pricingService.updateRule(flat.getId(), rule(room, "Flat", PriceAdjustment.PRICE, "60.00", null, null));
+            assertEquals(0, new BigDecimal("180.00").compareTo(pricingService.quote(
+                    List.of(new StayQuery(room.getId(), checkIn, checkIn.plusDays(3)))).getQuotes().get(0).getTotalPrice()));
+            assertEquals(0, new BigDecimal("150.00").compareTo(
+                    bookingRepository.findById(booking.getId()).orElseThrow().getTotalPrice()));
+        } finally {
+            pricingService.deleteRule(flat.getId());
+        }
+    }
+
+    @Test
+    void roomPriceChangesAreRecompiled() {
+        RoomResponse room = roomService.createRoom(room("RATE-REPRICE", RoomType.DOUBLE, 2, "100.00"));
+        RoomRequest update = room("RATE-REPRICE", RoomType.DOUBLE, 2, "140.00");
+        update.setVersion(room.getVersion());
+        roomService.updateRoom(room.getId(), update);
+
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+        assertEquals(0, new BigDecimal("280.00").compareTo(pricingService.quote(
+                List.of(new StayQuery(room.getId(), checkIn, checkIn.plusDays(2)))).getQuotes().get(0).getTotalPrice()));
+    }
+
+    @Test
+    void invalidStaysAreRejectedIndividually() {
+        RoomResponse room = roomService.createRoom(room("RATE-ERRORS", RoomType.DOUBLE, 2, "100.00"));
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+        QuoteResponse response = pricingService.quote(List.of(
+                new StayQuery(room.getId(), checkIn, checkIn.plusDays(1)),
+                new StayQuery(Long.MAX_VALUE, checkIn, checkIn.plusDays(1)),
+                new StayQuery(room.getId(), checkIn, checkIn)));
+
+        assertEquals(1, response.getPriced());
+        assertEquals(2, response.getRejected());
+        assertNotNull(response.getQuotes().get(0).getTotalPrice());
+        assertEquals("Room not found", response.getQuotes().get(1).getError());
+        assertNotNull(response.getQuotes().get(2).getError());
+    }
+
+    private PriceRuleRequest rule(RoomResponse room, String name, PriceAdjustment adjustment, String amount,
+                                  Integer minNights, Set<DayOfWeek> days) {
+        PriceRuleRequest request = new PriceRuleRequest();
+        request.setName(name);
+        request.setRoomId(room.getId());
+        request.setAdjustment(adjustment);
+        request.setAmount(new BigDecimal(amount));
+        request.setMinNights(minNights);
+        request.setDaysOfWeek(days);
+        return request;
+    }
+}
@@ -0,0 +1,146 @@
+package com.meti.roombooking.ratelimit;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateLimiterTest {
+
+    private static final String ROUTES = "GET /api/rooms/available=2:3, POST /api/bookings=1:1, * /api/**=1000:1000";
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private final RateLimiter limiter = new RateLimiter(ROUTES, 1000, Duration.ofMinutes(10),
+            new SimpleMeterRegistry(), now::get);
+
+    @Test
+    void burstThenRefillAtTheConfiguredRate() {
+        int search = limiter.route("GET", "/api/rooms/available");
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, limiter.tryAcquire(search, "addr:10.0.0.1"));
+        }
+        //2 per second: the next token is half a second away
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(500), limiter.tryAcquire(search, "addr:10.0.0.1"));
+        //other clients have buckets of their own
+        assertEquals(0, limiter.tryAcquire(search, "addr:10.0.0.2"));
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertEquals(0, limiter.tryAcquire(search, "addr:10.0.0.1"));
+        assertTrue(limiter.tryAcquire(search, "addr:10.0.0.1") > 0);
+    }
+
+    @Test
+    void firstMatchingRouteApplies() {
+        assertEquals("GET /api/rooms/available", limiter.routeName(limiter.route("GET", "/api/rooms/available")));
+        assertEquals("POST /api/bookings", limiter.routeName(limiter.route("POST", "/api/bookings")));
+        assertEquals("* /api/**", limiter.routeName(limiter.route("POST", "/api/rooms/available")));
+        assertEquals(RateLimiter.UNLIMITED, limiter.route("GET", "/actuator/health"));
+        assertThrows(IllegalArgumentException.class, () -> RateLimitRoute.parseAll("GET /api/rooms"));
+    }
+
+    @Test
+    void concurrentCallersNeverExceedTheBurst() throws Exception {
+        RateLimiter bursty = new RateLimiter("* /api/**=1:500", 1000, Duration.ofMinutes(10),
+                new SimpleMeterRegistry(), now::get);
+        int route = bursty.route("GET", "/api/rooms");
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        for (int t = 0; t < 16; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < 200; i++) {
+                    if (bursty.tryAcquire(route, "user:1") == 0) {
+                        granted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        //the clock stands still, so exactly the burst gets through
+        assertEquals(500, granted.get());
+    }
+
+    @Test
+    void rejectedRequestsGet429WithRetryAfter() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(limiter, new ObjectMapper().registerModule(new JavaTimeModule()), 0);
+
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        MockFilterChain passed = new MockFilterChain();
+        filter.doFilter(booking(), first, passed);
+        assertNotNull(passed.getRequest());
+        assertEquals(200, first.getStatus());
+
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        MockFilterChain blocked = new MockFilterChain();
+        filter.doFilter(booking(), second, blocked);
+        assertNull(blocked.getRequest());
+        assertEquals(429, second.getStatus());
+        assertEquals("1", second.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+
+    @Test
+    void routesAreMatchedWithinTheServletContext() throws Exception {
+        RateLimitFilter filter = new RateLimitFilter(limiter, new ObjectMapper().registerModule(new JavaTimeModule()), 0);
+
+        //deployed under /booking: still the POST /api/bookings route, encoded or not
+        assertEquals(200, send(filter, inContext("/booking/api/bookings")));
+        assertEquals(429, send(filter, inContext("/booking/api/%62ookings")));
+    }
+
+    @Test
+    void forwardedForIsReadFromTheTrustedProxiesSide() throws Exception {
+        //two proxies: the client's address is the entry the outer one appended, second from the right
+        RateLimitFilter filter = new RateLimitFilter(limiter, new ObjectMapper().registerModule(new JavaTimeModule()), 2);
+
+        assertEquals(200, send(filter, "198.51.100.1, 203.0.113.9, 10.0.0.2"));
+        //a client inventing its own leftmost entries still lands in the same bucket
+        assertEquals(429, send(filter, "198.51.100.2, 203.0.113.9, 10.0.0.2"));
+        assertEquals(429, send(filter, "1.2.3.4, 5.6.7.8, 203.0.113.9, 10.0.0.2"));
+        assertEquals(200, send(filter, "203.0.113.10, 10.0.0.2"));
+    }
+
+    private static int send(RateLimitFilter filter, String forwardedFor) throws Exception {
+        MockHttpServletRequest request = booking();
+        request.addHeader("X-Forwarded-For", forwardedFor);
+        return send(filter, request);
+    }
+
+    private static int send(RateLimitFilter filter, MockHttpServletRequest request) throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, new MockFilterChain());
+        return response.getStatus();
+    }
+
+    private static MockHttpServletRequest inContext(String uri) {
+        MockHttpServletRequest request = booking();
+        request.setContextPath("/booking");
+        request.setRequestURI(uri);
+        return request;
+    }
+
+    private static MockHttpServletRequest booking() {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/bookings");
+        request.setRemoteAddr("192.0.2.7");
+        return request;
+    }
+}
@@ -0,0 +1,72 @@
+package com.meti.roombooking.repository;
+
+import com.meti.roombooking.dto.booking.BookingPage;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.User;
+import com.meti.roombooking.service.BookingService;
+import com.meti.roombooking.service.RoomService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static com.meti.roombooking.TestFixtures.suffix;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingCursorPaginationTest {
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    //every booking shares check-in and created_at, so only the id tie-breaker tells rows apart
+    @Test
+    void pagesWalkRowsWithEqualCreationTimesOnceEach() {
+        String suffix = suffix();
+        User user = userRepository.save(client("Cursor Walker", "cursor-" + suffix + "@hotel.com"));
+        LocalDate checkIn = LocalDate.now().plusDays(30);
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            RoomResponse room = roomService.createRoom(room("CURSOR-" + suffix + "-" + i));
+            ids.add(bookingService.createBooking(booking(room.getId(), user.getId(), checkIn, checkIn.plusDays(2))).getId());
+        }
+        jdbcTemplate.update("update bookings set created_at = timestamp '2026-03-01 10:00:00.123456' where user_id = ?", user.getId());
+
+        List<Long> ascending = ids.stream().sorted().toList();
+        List<Long> descending = ids.stream().sorted(Comparator.reverseOrder()).toList();
+        for (String sort : List.of("createdat", "default")) {
+            for (int limit : List.of(1, 3, 7)) {
+                assertEquals(ascending, walk(user.getId(), sort, "asc", limit), sort + " asc by " + limit);
+                assertEquals(descending, walk(user.getId(), sort, "desc", limit), sort + " desc by " + limit);
+            }
+        }
+    }
+
+    private List<Long> walk(Long userId, String sort, String order, int limit) {
+        List<Long> seen = new ArrayList<>();
+        String cursor = null;
+        do {
+            BookingPage page = bookingService.getUserBookingsSorted(userId, sort, order, cursor, limit);
+            page.getItems().stream().map(BookingResponse::getId).forEach(seen::add);
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        return seen;
+    }
+}
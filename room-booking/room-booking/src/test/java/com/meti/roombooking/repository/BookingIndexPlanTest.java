@@ -0,0 +1,180 @@
+package com.meti.roombooking.repository;
+
+import com.meti.roombooking.entity.BookingStatus;
+import com.meti.roombooking.entity.RoomStatus;
+import com.meti.roombooking.entity.RoomType;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Checks with EXPLAIN that the hot repository queries are answered from the composite
+ * indexes created by the migrations. Each test calls the repository method and explains
+ * the SQL Hibernate sent for it, so a changed query is checked as it now runs.
+ *
+ * Runs on its own database seeded with a production-like spread (mostly past stays,
+ * many rooms, few users) and analyzed, so the planner works from real selectivity.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:index-plan-test;DB_CLOSE_DELAY=-1",
+        "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+                + "com.meti.roombooking.repository.BookingIndexPlanTest$CapturedSql"
+})
+@ActiveProfiles("test")
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class BookingIndexPlanTest {
+
+    private static final int ROOMS = 100;
+    private static final int USERS = 20;
+    private static final int BOOKINGS = 5000;
+
+    private static final LocalDate FROM = LocalDate.of(2028, 6, 1);
+    private static final LocalDate TO = LocalDate.of(2028, 6, 5);
+    //bookings is the first table and is read through an index on user_id
+    private static final Pattern USER_LOOKUP = Pattern.compile(
+            "^FROM \"PUBLIC\"\\.\"BOOKINGS\" \"\\w+\"\\s*/\\* PUBLIC\\.\\w+: USER_ID = \\?1 \\*/", Pattern.MULTILINE);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private RoomNightClaimRepository claimRepository;
+
+    @BeforeAll
+    void seed() {
+        for (int u = 1; u <= USERS; u++) {
+            jdbcTemplate.update("INSERT INTO users (id, full_name, email, password, role, created_at) "
+                    + "VALUES (?, 'Plan', ?, 'x', 'CLIENT', CURRENT_TIMESTAMP)", u, "plan" + u + "@hotel.com");
+        }
+        for (int r = 1; r <= ROOMS; r++) {
+            jdbcTemplate.update("INSERT INTO rooms (id, room_number, type, capacity, price_per_night, status) "
+                    + "VALUES (?, ?, ?, 2, 100, ?)", r, "PLAN-" + r, r % 3 == 0 ? "SUITE" : "DOUBLE",
+                    r % 10 == 0 ? "MAINTENANCE" : "AVAILABLE");
+        }
+        List<Object[]> bookings = new ArrayList<>();
+        LocalDate start = LocalDate.of(2028, 1, 1);
+        for (int i = 1; i <= BOOKINGS; i++) {
+            LocalDate checkIn = start.plusDays(i * 3L / ROOMS);
+            String status = i % 7 == 0 ? "CANCELLED" : i % 2 == 0 ? "CONFIRMED" : "PENDING";
+            bookings.add(new Object[]{i, 1 + i % USERS, 1 + i % ROOMS, Date.valueOf(checkIn),
+                    Date.valueOf(checkIn.plusDays(2)), status});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO bookings (id, user_id, room_id, check_in, check_out, status, total_price, created_at) "
+                + "VALUES (?, ?, ?, ?, ?, ?, 200, CURRENT_TIMESTAMP)", bookings);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    void overlapChecksUseRoomStatusIndex() {
+        assertUsesIndex("idx_booking_room_status_checkout_checkin", sql(() ->
+                bookingRepository.findByRoomAndStatusInAndCheckOutGreaterThanAndCheckInLessThan(
+                        roomRepository.getReferenceById(1L), BookingStatus.ACTIVE, FROM, TO)));
+        assertUsesIndex("idx_booking_room_status_checkout_checkin", sql(() ->
+                bookingRepository.findActiveStaysOverlapping(List.of(1L, 2L), BookingStatus.ACTIVE, FROM, TO)));
+        assertUsesIndex("idx_booking_room_status_checkout_checkin", sql(() ->
+                bookingRepository.findActiveStaysOfRoomEndingAfter(1L, BookingStatus.ACTIVE, FROM)));
+    }
+
+    //the NOT EXISTS probe runs once per room
+    @Test
+    void availabilityProbeUsesRoomStatusIndex() {
+        assertUsesIndex("idx_booking_room_status_checkout_checkin", sql(() ->
+                roomRepository.findAvailableRooms(FROM, TO, null, null)));
+    }
+
+    @Test
+    void indexRebuildUsesStatusCheckoutIndex() {
+        assertUsesIndex("idx_booking_status_checkout_room_checkin", sql(() ->
+                bookingRepository.findActiveStaysEndingAfter(BookingStatus.ACTIVE, FROM)));
+    }
+
+    //H2 backs every foreign key with an index of exactly its columns and prefers it here; InnoDB drops
+    //that implicit index once idx_booking_user_created_id exists. Either way the read must start
+    //from the user's bookings, not join in from users.
+    @Test
+    void userListingStartsFromUsersBookings() {
+        String plan = plan(sql(() -> bookingRepository.findPage(1L, BookingSort.CREATED_AT, false, null, 51)));
+        assertTrue(USER_LOOKUP.matcher(plan).find(), () -> "Expected bookings read by user_id first:\n" + plan);
+    }
+
+    @Test
+    void statusListingUsesStatusIdIndex() {
+        assertUsesIndex("idx_booking_status_id", sql(() ->
+                bookingRepository.findResponsesByStatus(BookingStatus.PENDING)));
+    }
+
+    @Test
+    void roomLookupUsesStatusTypeIndex() {
+        assertUsesIndex("idx_room_status_type", sql(() ->
+                roomRepository.findByTypeAndStatus(RoomType.DOUBLE, RoomStatus.AVAILABLE)));
+    }
+
+    @Test
+    void claimReleaseUsesBookingIndex() {
+        assertUsesIndex("idx_claim_booking", sql(() ->
+                transactionTemplate.execute(status -> claimRepository.deleteByBookingId(1L))));
+    }
+
+    //the single statement the repository call sent, as Hibernate generated it
+    private String sql(Runnable repositoryCall) {
+        List<String> statements = CapturedSql.during(repositoryCall);
+        assertEquals(1, statements.size(), () -> "Expected one statement, got " + statements);
+        return statements.get(0);
+    }
+
+    //EXPLAIN plans the statement with its parameters unbound, as it is prepared for the repository
+    private String plan(String sql) {
+        return String.join("\n", jdbcTemplate.query(
+                connection -> connection.prepareStatement("EXPLAIN " + sql), (rs, row) -> rs.getString(1)));
+    }
+
+    private void assertUsesIndex(String index, String sql) {
+        String plan = plan(sql);
+        assertTrue(plan.toLowerCase().contains(index), () -> "Expected " + index + " in plan:\n" + plan);
+    }
+
+    //registered as Hibernate's statement inspector for this context; records only on the test thread
+    public static class CapturedSql implements StatementInspector {
+        private static final ThreadLocal<List<String>> CAPTURED = new ThreadLocal<>();
+
+        @Override
+        public String inspect(String sql) {
+            List<String> captured = CAPTURED.get();
+            if (captured != null) {
+                captured.add(sql);
+            }
+            return sql;
+        }
+
+        static List<String> during(Runnable call) {
+            List<String> captured = new ArrayList<>();
+            CAPTURED.set(captured);
+            try {
+                call.run();
+            } finally {
+                CAPTURED.remove();
+            }
+            return captured;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.meti.roombooking.service;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.entity.*;
+import com.meti.roombooking.exception.BookingConflictException;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.RoomNightClaimRepository;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.roomEntity;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingAdmissionConcurrencyTest {
+
+    private static final int THREADS = 32;
+    private static final int ATTEMPTS_PER_THREAD = 25;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomNightClaimRepository claimRepository;
+
+    @Test
+    void concurrentBookingsNeverOverlap() throws Exception {
+        Room hot = roomRepository.save(roomEntity("STRESS-HOT"));
+        Room other = roomRepository.save(roomEntity("STRESS-OTHER"));
+        User user = userRepository.save(client("Stress Tester", "stress@hotel.com"));
+        LocalDate base = LocalDate.now().plusDays(1);
+
+        AtomicInteger created = new AtomicInteger();
+        AtomicInteger conflicts = new AtomicInteger();
+        List<Throwable> unexpected = new CopyOnWriteArrayList<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        for (int t = 0; t < THREADS; t++) {
+            pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                try {
+                    start.await();
+                    for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                        //every fourth attempt goes to another room, which must not be slowed down by the hot one
+                        Room room = i % 4 == 0 ? other : hot;
+                        LocalDate checkIn = base.plusDays(random.nextInt(30));
+                        LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+                        try {
+                            bookingService.createBooking(booking(room.getId(), user.getId(), checkIn, checkOut));
+                            created.incrementAndGet();
+                        } catch (BookingConflictException e) {
+                            conflicts.incrementAndGet();
+                        }
+                    }
+                } catch (Throwable e) {
+                    unexpected.add(e);
+                }
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(2, TimeUnit.MINUTES));
+
+        assertTrue(unexpected.isEmpty(), () -> "Unexpected failures: " + unexpected);
+        assertEquals(THREADS * ATTEMPTS_PER_THREAD, created.get() + conflicts.get());
+        assertTrue(conflicts.get() > 0, "The test should have produced contention");
+
+        assertNoOverlaps(hot);
+        assertNoOverlaps(other);
+    }
+
+    @Test
+    void cancellingFreesNightsForANewBooking() {
+        Room room = roomRepository.save(roomEntity("STRESS-CANCEL"));
+        User user = userRepository.save(client("Stress Tester", "cancel@hotel.com"));
+        LocalDate checkIn = LocalDate.now().plusDays(5);
+
+        BookingResponse first = bookingService.createBooking(booking(room.getId(), user.getId(), checkIn, checkIn.plusDays(2)));
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.createBooking(booking(room.getId(), user.getId(), checkIn.plusDays(1), checkIn.plusDays(3))));
+
+        bookingService.cancelBooking(first.getId());
+        bookingService.createBooking(booking(room.getId(), user.getId(), checkIn.plusDays(1), checkIn.plusDays(3)));
+
+        //re-activating the cancelled booking would now overlap
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.updateStatus(first.getId(), BookingStatus.CONFIRMED));
+        assertNoOverlaps(room);
+    }
+
+    @Test
+    void databaseRejectsDoubleClaimedNight() {
+        LocalDate night = LocalDate.now().plusDays(3);
+        claimRepository.saveAndFlush(RoomNightClaim.builder().roomId(-1L).night(night).bookingId(-1L).build());
+        assertThrows(DataIntegrityViolationException.class, () -> claimRepository.saveAndFlush(
+                RoomNightClaim.builder().roomId(-1L).night(night).bookingId(-2L).build()));
+    }
+
+    private void assertNoOverlaps(Room room) {
+        List<Booking> active = new ArrayList<>(bookingRepository.findByRoom(room).stream()
+                .filter(b -> b.getStatus().isActive())
+                .toList());
+        active.sort((a, b) -> a.getCheckIn().compareTo(b.getCheckIn()));
+        long nights = 0;
+        for (int i = 0; i < active.size(); i++) {
+            Booking current = active.get(i);
+            nights += ChronoUnit.DAYS.between(current.getCheckIn(), current.getCheckOut());
+            if (i > 0) {
+                Booking previous = active.get(i - 1);
+                assertFalse(current.getCheckIn().isBefore(previous.getCheckOut()),
+                        () -> "Overlap between bookings " + previous.getId() + " and " + current.getId());
+            }
+        }
+        assertEquals(nights, claimRepository.countByRoomId(room.getId()));
+    }
+}
@@ -0,0 +1,162 @@
+package com.meti.roombooking.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.meti.roombooking.auth.SessionTokens;
+import com.meti.roombooking.dto.booking.BatchMode;
+import com.meti.roombooking.dto.booking.BookingBatchRequest;
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.room.RoomResponse;
+import com.meti.roombooking.entity.RoomNightClaim;
+import com.meti.roombooking.entity.User;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.RoomNightClaimRepository;
+import com.meti.roombooking.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static com.meti.roombooking.TestFixtures.suffix;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class BookingBatchTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private ObjectMapper objectMapper;
+    @Autowired
+    private SessionTokens sessionTokens;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomNightClaimRepository claimRepository;
+
+    private String bearer;
+    private RoomResponse first;
+    private RoomResponse second;
+    private LocalDate checkIn;
+
+    @BeforeEach
+    void setUp() {
+        String suffix = suffix();
+        User user = userRepository.save(client("Batch Booker", "batch-" + suffix + "@hotel.com"));
+        bearer = "Bearer " + sessionTokens.issue(user);
+        first = roomService.createRoom(room("BATCH-" + suffix + "-1"));
+        second = roomService.createRoom(room("BATCH-" + suffix + "-2"));
+        checkIn = LocalDate.now().plusDays(20);
+    }
+
+    //the third item overlaps the first one of the same batch
+    @Test
+    void allOrNothingRejectsTheWholeBatchWithAConflictBody() throws Exception {
+        long before = bookingRepository.count();
+        send(BatchMode.ALL_OR_NOTHING,
+                booking(first.getId(), null, checkIn, checkIn.plusDays(3)),
+                booking(second.getId(), null, checkIn, checkIn.plusDays(3)),
+                booking(first.getId(), null, checkIn.plusDays(2), checkIn.plusDays(4)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.mode").value("ALL_OR_NOTHING"))
+                .andExpect(jsonPath("$.created").value(0))
+                .andExpect(jsonPath("$.rejected").value(3))
+                .andExpect(jsonPath("$.results[0].booking").doesNotExist())
+                .andExpect(jsonPath("$.results[0].error").value("Not booked, another item of the batch was rejected"))
+                .andExpect(jsonPath("$.results[1].error").value("Not booked, another item of the batch was rejected"))
+                .andExpect(jsonPath("$.results[2].index").value(2))
+                .andExpect(jsonPath("$.results[2].error").value("Room already booked for this date range"));
+        assertEquals(before, bookingRepository.count());
+
+        //nothing was held back: the same stays can be booked afterwards
+        send(BatchMode.ALL_OR_NOTHING,
+                booking(first.getId(), null, checkIn, checkIn.plusDays(3)),
+                booking(second.getId(), null, checkIn, checkIn.plusDays(3)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2));
+    }
+
+    @Test
+    void bestEffortBooksTheValidItemsAndReportsTheOthers() throws Exception {
+        long before = bookingRepository.count();
+        send(BatchMode.BEST_EFFORT,
+                booking(first.getId(), null, checkIn, checkIn.plusDays(3)),
+                booking(first.getId(), null, checkIn.plusDays(2), checkIn.plusDays(4)),
+                booking(first.getId(), null, checkIn.plusDays(3), checkIn.plusDays(5)),
+                booking(second.getId(), null, checkIn.plusDays(1), checkIn.plusDays(1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.mode").value("BEST_EFFORT"))
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.results[0].booking.roomId").value(first.getId()))
+                .andExpect(jsonPath("$.results[1].error").value("Room already booked for this date range"))
+                //back-to-back with the first item is not an overlap
+                .andExpect(jsonPath("$.results[2].booking.checkIn").value(checkIn.plusDays(3).toString()))
+                .andExpect(jsonPath("$.results[3].error").value("Check in date must be before check out date"));
+        assertEquals(before + 2, bookingRepository.count());
+
+        //items overlapping stored bookings are rejected like intra-batch ones
+        send(BatchMode.BEST_EFFORT,
+                booking(first.getId(), null, checkIn.plusDays(1), checkIn.plusDays(2)),
+                booking(second.getId(), null, checkIn, checkIn.plusDays(1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].error").value("Room already booked for this date range"))
+                .andExpect(jsonPath("$.results[1].booking.roomId").value(second.getId()));
+    }
+
+    //a night claimed by a booking this node's overlap query does not see, e.g. one admitted on another node
+    @Test
+    void claimedNightsRejectOnlyTheItemsThatNeedThem() throws Exception {
+        claimRepository.save(RoomNightClaim.builder()
+                .roomId(first.getId())
+                .night(checkIn.plusDays(1))
+                .bookingId(-1L)
+                .build());
+
+        send(BatchMode.BEST_EFFORT,
+                booking(first.getId(), null, checkIn, checkIn.plusDays(2)),
+                booking(second.getId(), null, checkIn, checkIn.plusDays(2)),
+                booking(first.getId(), null, checkIn.plusDays(2), checkIn.plusDays(3)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.results[0].error").value("Room already booked for this date range"))
+                .andExpect(jsonPath("$.results[1].booking.roomId").value(second.getId()))
+                .andExpect(jsonPath("$.results[2].booking.roomId").value(first.getId()));
+
+        send(BatchMode.ALL_OR_NOTHING,
+                booking(first.getId(), null, checkIn.plusDays(1), checkIn.plusDays(2)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.results[0].error").value("Room already booked for this date range"));
+    }
+
+    private ResultActions send(BatchMode mode, BookingRequest... items) throws Exception {
+        BookingBatchRequest batch = new BookingBatchRequest();
+        batch.setMode(mode);
+        batch.setBookings(List.of(items));
+        return mockMvc.perform(post("/api/bookings/batch")
+                .header(HttpHeaders.AUTHORIZATION, bearer)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(batch)));
+    }
+}
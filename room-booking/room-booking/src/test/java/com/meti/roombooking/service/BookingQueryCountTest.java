@@ -0,0 +1,96 @@
+package com.meti.roombooking.service;
+
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.entity.*;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.roomEntity;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards the read paths of BookingService against N+1 lazy loading:
+ * each call must issue a fixed number of statements whatever the number of bookings.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class BookingQueryCountTest {
+
+    private static final int BOOKINGS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private User user;
+    private Long bookingId;
+
+    @BeforeEach
+    void seed() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        long suffix = System.nanoTime();
+        user = userRepository.save(client("Query Counter", "count" + suffix + "@hotel.com"));
+        LocalDate start = LocalDate.now().plusDays(1);
+        for (int i = 0; i < BOOKINGS; i++) {
+            //one room per booking, so lazy loading would need a distinct query for each room
+            Room room = roomRepository.save(roomEntity("QC-" + suffix + "-" + i));
+            bookingId = bookingService.createBooking(booking(room.getId(), user.getId(), start.plusDays(i), start.plusDays(i + 2))).getId();
+        }
+    }
+
+    @Test
+    void getBookingByIdIsOneStatement() {
+        assertStatements(1, () -> List.of(bookingService.getBookingById(bookingId)));
+    }
+
+    @Test
+    void getBookingsForUserIsTwoStatements() {
+        //existence check of the user + the projection
+        List<BookingResponse> bookings = assertStatements(2, () -> bookingService.getBookingsForUser(user.getId()));
+        assertEquals(BOOKINGS, bookings.size());
+        assertTrue(bookings.stream().allMatch(b -> "Query Counter".equals(b.getUserFullName()) && b.getRoomNumber() != null));
+    }
+
+    @Test
+    void getBookingByStatusIsOneStatement() {
+        assertStatements(1, () -> bookingService.getBookingByStatus(BookingStatus.PENDING));
+    }
+
+    @Test
+    void sortedPagesAreConstantStatements() {
+        assertStatements(1, () -> bookingService.getAllBookings(null, BOOKINGS).getItems());
+        assertStatements(1, () -> bookingService.getBookingsSorted("price", "desc", null, BOOKINGS).getItems());
+        //status pages read at most one (status, id) range per status value
+        assertStatements(1 + BookingStatus.values().length,
+                () -> bookingService.getUserBookingsSorted(user.getId(), "status", "asc", null, BOOKINGS).getItems());
+    }
+
+    private <T> List<T> assertStatements(long expected, Supplier<List<T>> call) {
+        statistics.clear();
+        List<T> result = call.get();
+        assertTrue(result.size() > 0);
+        assertEquals(expected, statistics.getPrepareStatementCount(), "prepared statements");
+        return result;
+    }
+}
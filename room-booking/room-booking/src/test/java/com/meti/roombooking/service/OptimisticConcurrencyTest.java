@@ -0,0 +1,155 @@
+package com.meti.roombooking.service;
+
+import com.meti.roombooking.concurrency.ConflictRetry;
+import com.meti.roombooking.dto.booking.BookingRequest;
+import com.meti.roombooking.dto.booking.BookingResponse;
+import com.meti.roombooking.dto.room.RoomRequest;
+import com.meti.roombooking.entity.*;
+import com.meti.roombooking.exception.BookingConflictException;
+import com.meti.roombooking.exception.RoomVersionConflictException;
+import com.meti.roombooking.repository.BookingRepository;
+import com.meti.roombooking.repository.RoomNightClaimRepository;
+import com.meti.roombooking.repository.RoomRepository;
+import com.meti.roombooking.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.meti.roombooking.TestFixtures.booking;
+import static com.meti.roombooking.TestFixtures.client;
+import static com.meti.roombooking.TestFixtures.room;
+import static com.meti.roombooking.TestFixtures.roomEntity;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class OptimisticConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private RoomService roomService;
+    @Autowired
+    private ConflictRetry conflictRetry;
+    @Autowired
+    private RoomRepository roomRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private RoomNightClaimRepository claimRepository;
+
+    @Test
+    void concurrentCancelsApplyOnce() throws Exception {
+        Room room = roomRepository.save(roomEntity("OCC-CANCEL"));
+        BookingResponse booking = bookingService.createBooking(stay(room, "occ-cancel@hotel.com"));
+
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<BookingResponse>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return bookingService.cancelBooking(booking.getId());
+            }));
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(1, TimeUnit.MINUTES));
+
+        //losers of the status compare-and-set are retried and find the booking already cancelled
+        for (Future<BookingResponse> result : results) {
+            assertEquals(BookingStatus.CANCELLED, result.get().getStatus());
+        }
+        Booking stored = bookingRepository.findById(booking.getId()).orElseThrow();
+        assertEquals(BookingStatus.CANCELLED, stored.getStatus());
+        assertEquals(1, stored.getVersion());
+        assertEquals(0, claimRepository.countByRoomId(room.getId()));
+    }
+
+    @Test
+    void invalidTransitionIsRejected() {
+        Room room = roomRepository.save(roomEntity("OCC-TRANSITION"));
+        BookingResponse booking = bookingService.createBooking(stay(room, "occ-transition@hotel.com"));
+        bookingService.updateStatus(booking.getId(), BookingStatus.CONFIRMED);
+
+        assertThrows(BookingConflictException.class,
+                () -> bookingService.updateStatus(booking.getId(), BookingStatus.PENDING));
+        //repeating the current status is a no-op
+        assertEquals(BookingStatus.CONFIRMED,
+                bookingService.updateStatus(booking.getId(), BookingStatus.CONFIRMED).getStatus());
+        assertEquals(1, bookingRepository.findById(booking.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void staleRoomWriteIsRejected() {
+        Room stale = roomRepository.save(roomEntity("OCC-ROOM"));
+        RoomRequest update = room("OCC-ROOM", RoomType.SUITE, 4, "250.00");
+        update.setVersion(stale.getVersion());
+        assertEquals(1L, roomService.updateRoom(stale.getId(), update).getVersion());
+
+        stale.setDescription("written from an outdated copy");
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> roomRepository.save(stale));
+        assertEquals(RoomType.SUITE, roomRepository.findById(stale.getId()).orElseThrow().getType());
+    }
+
+    @Test
+    void roomUpdatesFromTheSameReadDoNotOverwriteEachOther() {
+        Room room = roomRepository.save(roomEntity("OCC-ADMINS", RoomType.DOUBLE, 2, "100.00"));
+        long read = roomService.getRoomById(room.getId()).getVersion();
+        RoomRequest price = room("OCC-ADMINS", RoomType.DOUBLE, 2, "130.00");
+        price.setVersion(read);
+        RoomRequest maintenance = room("OCC-ADMINS", RoomType.DOUBLE, 2, "100.00");
+        maintenance.setStatus(RoomStatus.MAINTENANCE);
+        maintenance.setVersion(read);
+
+        roomService.updateRoom(room.getId(), price);
+        //the second admin edited the same version: rejected, not retried over the first change
+        assertThrows(RoomVersionConflictException.class, () -> roomService.updateRoom(room.getId(), maintenance));
+        Room stored = roomRepository.findById(room.getId()).orElseThrow();
+        assertEquals(0, new BigDecimal("130.00").compareTo(stored.getPricePerNight()));
+        assertEquals(RoomStatus.AVAILABLE, stored.getStatus());
+
+        maintenance.setVersion(null);
+        assertThrows(IllegalArgumentException.class, () -> roomService.updateRoom(room.getId(), maintenance));
+    }
+
+    @Test
+    void conflictsAreRetriedUpToTheLimit() {
+        AtomicInteger calls = new AtomicInteger();
+        assertEquals("done", conflictRetry.execute(() -> {
+            if (calls.incrementAndGet() < 2) {
+                throw new OptimisticLockingFailureException("changed");
+            }
+            return "done";
+        }));
+        assertEquals(2, calls.get());
+
+        calls.set(0);
+        assertThrows(OptimisticLockingFailureException.class, () -> conflictRetry.execute(() -> {
+            calls.incrementAndGet();
+            throw new OptimisticLockingFailureException("always changed");
+        }));
+        assertEquals(3, calls.get());
+    }
+
+    //two nights in ten days, booked by a new client
+    private BookingRequest stay(Room room, String email) {
+        User user = userRepository.save(client("Concurrency Tester", email));
+        LocalDate checkIn = LocalDate.now().plusDays(10);
+        return booking(room.getId(), user.getId(), checkIn, checkIn.plusDays(2));
+    }
+}